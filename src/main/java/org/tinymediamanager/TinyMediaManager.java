@@ -252,23 +252,25 @@ public final class TinyMediaManager {
           // }
 
           // load modules //////////////////////////////////////////////////
-          updateProgress("loading movie module", 30);
+          updateProgress("loading movie and TV show modules", 30);
           TmmModuleManager.getInstance().startUp();
 
           // register the shutdown handler
           Runtime.getRuntime().addShutdownHook(new Thread(() -> TmmModuleManager.getInstance().shutDown()));
 
+          // the movie and TV show modules are independent from each other - load them concurrently in the background
           TmmModuleManager.getInstance().registerModule(MovieModuleManager.getInstance());
-          TmmModuleManager.getInstance().enableModule(MovieModuleManager.getInstance());
-
-          updateProgress("loading TV show module", 40);
           TmmModuleManager.getInstance().registerModule(TvShowModuleManager.getInstance());
-          TmmModuleManager.getInstance().enableModule(TvShowModuleManager.getInstance());
+          TmmModuleManager.getInstance().enableModules(MovieModuleManager.getInstance(), TvShowModuleManager.getInstance());
 
           updateProgress("loading plugins", 50);
-          // just instantiate static - will block (takes a few secs)
+          // just instantiate static - will block (takes a few secs); the modules are loaded meanwhile
           MediaProviders.loadMediaProviders();
 
+          // the services and the UI need the loaded modules
+          TmmModuleManager.getInstance().awaitStarted(MovieModuleManager.getInstance());
+          TmmModuleManager.getInstance().awaitStarted(TvShowModuleManager.getInstance());
+
           if (Settings.getInstance().isNewConfig()) {
             // add/set default scrapers
             MovieSettingsDefaults.setDefaultScrapers();
@@ -370,6 +372,10 @@ public final class TinyMediaManager {
               TmmThreadPool task = new TvShowUpdateDatasourceTask();
               TmmTaskManager.getInstance().addMainTask(task);
             }
+
+            // watch the data sources for changes (if activated)
+            MovieModuleManager.getInstance().startDatasourceWatcher();
+            TvShowModuleManager.getInstance().startDatasourceWatcher();
           }
           else {
             // should we change the log level for the console? CLI version
@@ -18,7 +18,13 @@ package org.tinymediamanager.core;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
+import javax.swing.SwingUtilities;
 import javax.swing.event.SwingPropertyChangeSupport;
 
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
@@ -33,7 +39,12 @@ public abstract class AbstractModelObject {
   /** The property change support. */
   // private final PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
 
-  private final PropertyChangeSupport propertyChangeSupport = new SwingPropertyChangeSupport(this, true);
+  private final PropertyChangeSupport        propertyChangeSupport = new SwingPropertyChangeSupport(this, true);
+
+  // edit session: all events are collected (one per source and property) and fired at once when committing
+  private final Object                       editLock              = new Object();
+  private volatile int                       editDepth             = 0;
+  private Map<EventKey, PropertyChangeEvent> pendingEvents         = null;
 
   /**
    * Adds the property change listener.
@@ -102,6 +113,10 @@ public abstract class AbstractModelObject {
    *          the new value
    */
   public void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+    if (editDepth > 0 && collectEvent(new PropertyChangeEvent(this, propertyName, oldValue, newValue))) {
+      return;
+    }
+
     try {
       if (propertyChangeSupport.getPropertyChangeListeners().length > 0) {
         propertyChangeSupport.firePropertyChange(propertyName, oldValue, newValue);
@@ -118,6 +133,10 @@ public abstract class AbstractModelObject {
    *          the evt
    */
   public void firePropertyChange(PropertyChangeEvent evt) {
+    if (editDepth > 0 && collectEvent(evt)) {
+      return;
+    }
+
     try {
       if (propertyChangeSupport.getPropertyChangeListeners().length > 0) {
         propertyChangeSupport.firePropertyChange(evt);
@@ -127,6 +146,86 @@ public abstract class AbstractModelObject {
     }
   }
 
+  /**
+   * start an edit session: all property change events are held back until {@link #commitEdit()} is called. Multiple events for the same property
+   * are coalesced into one event (with the first old value and the last new value). Edit sessions can be nested - the events are fired when the
+   * outermost session is committed.<br />
+   * <b>Always</b> call {@link #commitEdit()} in a finally block
+   */
+  public void beginEdit() {
+    synchronized (editLock) {
+      editDepth++;
+    }
+  }
+
+  /**
+   * commit the edit session which has been started with {@link #beginEdit()}. If this is the outermost session, all collected events are fired with
+   * a single dispatch to the EDT
+   */
+  public void commitEdit() {
+    List<PropertyChangeEvent> events;
+
+    synchronized (editLock) {
+      if (editDepth == 0) {
+        return;
+      }
+
+      editDepth--;
+      if (editDepth > 0 || pendingEvents == null) {
+        return;
+      }
+
+      events = new ArrayList<>(pendingEvents.values());
+      pendingEvents = null;
+    }
+
+    if (propertyChangeSupport.getPropertyChangeListeners().length == 0) {
+      return;
+    }
+
+    if (SwingUtilities.isEventDispatchThread()) {
+      fireEvents(events);
+    }
+    else {
+      SwingUtilities.invokeLater(() -> fireEvents(events));
+    }
+  }
+
+  private void fireEvents(List<PropertyChangeEvent> events) {
+    for (PropertyChangeEvent event : events) {
+      try {
+        propertyChangeSupport.firePropertyChange(event);
+      }
+      catch (AssertionError ignored) {
+      }
+    }
+  }
+
+  private boolean collectEvent(PropertyChangeEvent evt) {
+    synchronized (editLock) {
+      if (editDepth == 0) {
+        return false;
+      }
+
+      if (pendingEvents == null) {
+        pendingEvents = new LinkedHashMap<>();
+      }
+
+      EventKey key = new EventKey(evt.getSource(), evt.getPropertyName());
+      PropertyChangeEvent previous = pendingEvents.get(key);
+      if (previous == null) {
+        pendingEvents.put(key, evt);
+      }
+      else {
+        // keep the first old value and the last new value (and the position of the first event)
+        PropertyChangeEvent coalesced = new PropertyChangeEvent(evt.getSource(), evt.getPropertyName(), previous.getOldValue(), evt.getNewValue());
+        pendingEvents.put(key, coalesced);
+      }
+
+      return true;
+    }
+  }
+
   /**
    * <p>
    * Uses <code>ReflectionToStringBuilder</code> to generate a <code>toString</code> for the specified object.
@@ -137,6 +236,36 @@ public abstract class AbstractModelObject {
    */
   @Override
   public String toString() {
-    return ReflectionToStringBuilder.toStringExclude(this, "propertyChangeSupport");
+    return ReflectionToStringBuilder.toStringExclude(this, "propertyChangeSupport", "editLock", "editDepth", "pendingEvents");
+  }
+
+  /**
+   * the key of an event in an edit session - the source is compared by identity (forwarded events from child objects must not be mixed up)
+   */
+  private static class EventKey {
+    private final Object source;
+    private final String propertyName;
+
+    private EventKey(Object source, String propertyName) {
+      this.source = source;
+      this.propertyName = propertyName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof EventKey)) {
+        return false;
+      }
+      EventKey other = (EventKey) o;
+      return source == other.source && Objects.equals(propertyName, other.propertyName);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(source) + Objects.hashCode(propertyName);
+    }
   }
 }
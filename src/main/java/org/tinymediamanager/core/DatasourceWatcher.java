@@ -0,0 +1,514 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.entities.MediaFile;
+
+/**
+ * The class DatasourceWatcher. Watches the data sources for changes and reports the changed paths (per data source) in batches.<br />
+ * Local data sources are watched with a {@link WatchService}; network mounts (where file system events are not reliable) and data sources which
+ * cannot be registered (e.g. inotify limit reached) are polled by comparing the modification times of all folders - if polling has been activated
+ * via the jvm arg tmm.watcher.pollinterval (in seconds). The changes are collected until the data source is quiet for {@link #DEBOUNCE_DELAY} ms
+ * (e.g. a running download), but at most {@link #MAX_DELAY} ms
+ *
+ * @author Manuel Laggner
+ */
+public class DatasourceWatcher {
+  private static final Logger                    LOGGER              = LoggerFactory.getLogger(DatasourceWatcher.class);
+
+  private static final long                      DEBOUNCE_DELAY      = 10000;
+  private static final long                      MAX_DELAY           = 60000;
+  // polling re-reads the modification times of all folders - this is expensive on network mounts, so it is disabled per default
+  private static final long                      POLL_INTERVAL       = Math.max(0, Integer.getInteger("tmm.watcher.pollinterval", 0)) * 1000L;
+
+  private final String                           name;
+  private final Predicate<Path>                  skipFolder;
+  private final Consumer<Map<String, Set<Path>>> callback;
+
+  private final Map<WatchKey, WatchedFolder>     watchKeys;
+  private final Map<String, Map<Path, Long>>     polledFolders;
+  private final Map<String, Set<Path>>           pendingChanges;
+
+  private WatchService                           watchService;
+  private Thread                                 watchThread;
+  private volatile Timer                         timer;
+  private TimerTask                              flushTask;
+  private long                                   firstPendingChange  = 0;
+
+  /**
+   * create a new watcher
+   *
+   * @param name
+   *          the name of the watcher (for logging and the thread names)
+   * @param skipFolder
+   *          a filter for folders which should not be watched (skip folders, .tmmignore, ...)
+   * @param callback
+   *          the callback to process the changes - gets all changed paths per data source
+   */
+  public DatasourceWatcher(String name, Predicate<Path> skipFolder, Consumer<Map<String, Set<Path>>> callback) {
+    this.name = name;
+    this.skipFolder = skipFolder;
+    this.callback = callback;
+    this.watchKeys = new ConcurrentHashMap<>();
+    this.polledFolders = new ConcurrentHashMap<>();
+    this.pendingChanges = new HashMap<>();
+  }
+
+  /**
+   * start watching the given data sources (stops watching the previous ones)
+   *
+   * @param datasources
+   *          the data sources to watch
+   */
+  public synchronized void start(Collection<String> datasources) {
+    stop();
+
+    Timer newTimer = new Timer(name + "-watcher", true);
+    timer = newTimer;
+
+    // registering all folders may take a while - do that in the background
+    List<String> datasourcesToWatch = new ArrayList<>(datasources);
+    newTimer.schedule(new TimerTask() {
+      @Override
+      public void run() {
+        initialize(newTimer, datasourcesToWatch);
+      }
+    }, 0);
+  }
+
+  private synchronized void initialize(Timer owner, List<String> datasources) {
+    // stopped in the meantime
+    if (timer != owner) {
+      return;
+    }
+
+    try {
+      watchService = FileSystems.getDefault().newWatchService();
+    }
+    catch (IOException e) {
+      LOGGER.warn("could not create a watch service - {}", e.getMessage());
+    }
+
+    for (String datasource : datasources) {
+      Path path = Paths.get(datasource).toAbsolutePath();
+      if (!Files.isDirectory(path)) {
+        LOGGER.warn("data source '{}' is not available - not watching it", datasource);
+        continue;
+      }
+
+      if (watchService != null && !Utils.isNetworkPath(path)) {
+        try {
+          register(watchService, datasource, path);
+          LOGGER.info("watching data source '{}' for changes", datasource);
+          continue;
+        }
+        catch (IOException e) {
+          LOGGER.warn("could not watch data source '{}' - {}; polling it instead", datasource, e.getMessage());
+          watchKeys.entrySet().removeIf(entry -> {
+            if (entry.getValue().datasource.equals(datasource)) {
+              entry.getKey().cancel();
+              return true;
+            }
+            return false;
+          });
+        }
+      }
+
+      startPolling(datasource, path);
+    }
+
+    if (watchService != null && !watchKeys.isEmpty()) {
+      WatchService service = watchService;
+      watchThread = new Thread(() -> processEvents(service), name + "-watcher");
+      watchThread.setDaemon(true);
+      watchThread.start();
+    }
+  }
+
+  /**
+   * stop watching all data sources. Pending changes are dropped
+   */
+  public synchronized void stop() {
+    if (timer != null) {
+      timer.cancel();
+      timer = null;
+    }
+
+    if (watchThread != null) {
+      watchThread.interrupt();
+      watchThread = null;
+    }
+
+    if (watchService != null) {
+      try {
+        watchService.close();
+      }
+      catch (IOException e) {
+        LOGGER.debug("could not close the watch service - {}", e.getMessage());
+      }
+      watchService = null;
+    }
+
+    watchKeys.clear();
+    polledFolders.clear();
+
+    synchronized (pendingChanges) {
+      pendingChanges.clear();
+      flushTask = null;
+      firstPendingChange = 0;
+    }
+  }
+
+  /**
+   * check whether the given changed path is already known in its current state - e.g. the change has been made by tinyMediaManager itself (NFO
+   * files/artwork written, folders renamed). A known file must have the same size and modification date as the {@link MediaFile}; a known folder
+   * must contain only known files
+   *
+   * @param path
+   *          the changed path
+   * @param mediaFiles
+   *          all {@link MediaFile}s of the entities in this path (or in one of its parents)
+   * @return true if the change does not need to be processed
+   */
+  public static boolean isKnownState(Path path, Collection<MediaFile> mediaFiles) {
+    BasicFileAttributes attrs;
+    try {
+      attrs = Files.readAttributes(path, BasicFileAttributes.class);
+    }
+    catch (IOException e) {
+      // deleted - only relevant if it is still referenced
+      return mediaFiles.stream().noneMatch(mediaFile -> mediaFile.getFileAsPath().startsWith(path));
+    }
+
+    if (!attrs.isDirectory()) {
+      return isKnownFile(path, attrs, mediaFiles);
+    }
+
+    // changed folders (polling) - all files must be known and none must be missing
+    Set<Path> knownFiles = new HashSet<>();
+    for (MediaFile mediaFile : mediaFiles) {
+      if (path.equals(mediaFile.getFileAsPath().getParent())) {
+        knownFiles.add(mediaFile.getFileAsPath());
+      }
+    }
+    if (knownFiles.isEmpty()) {
+      return false;
+    }
+
+    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(path)) {
+      for (Path child : directoryStream) {
+        BasicFileAttributes childAttrs = Files.readAttributes(child, BasicFileAttributes.class);
+        // changes in sub folders are reported separately
+        if (!childAttrs.isDirectory() && !isKnownFile(child, childAttrs, mediaFiles)) {
+          return false;
+        }
+        knownFiles.remove(child);
+      }
+    }
+    catch (IOException e) {
+      return false;
+    }
+
+    return knownFiles.isEmpty();
+  }
+
+  private static boolean isKnownFile(Path file, BasicFileAttributes attrs, Collection<MediaFile> mediaFiles) {
+    for (MediaFile mediaFile : mediaFiles) {
+      if (file.equals(mediaFile.getFileAsPath())) {
+        return mediaFile.getFilesize() == attrs.size() && mediaFile.getFiledate() == attrs.lastModifiedTime().toMillis();
+      }
+    }
+    return false;
+  }
+
+  /**
+   * register the given folder and all its sub folders at the watch service
+   */
+  private void register(WatchService service, String datasource, Path folder) throws IOException {
+    Path root = Paths.get(datasource).toAbsolutePath();
+
+    Files.walkFileTree(folder, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new AbstractFileVisitor() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+        if (!dir.equals(root) && skipFolder.test(dir)) {
+          return FileVisitResult.SKIP_SUBTREE;
+        }
+
+        WatchKey key = dir.register(service, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+        watchKeys.put(key, new WatchedFolder(datasource, dir));
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  private void processEvents(WatchService service) {
+    while (!Thread.currentThread().isInterrupted()) {
+      WatchKey key;
+      try {
+        key = service.take();
+      }
+      catch (InterruptedException | ClosedWatchServiceException e) {
+        break;
+      }
+
+      WatchedFolder folder = watchKeys.get(key);
+      if (folder == null) {
+        key.cancel();
+        continue;
+      }
+
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == OVERFLOW) {
+          // we lost some events - the whole data source needs to be checked
+          LOGGER.debug("too many changes in '{}'", folder.datasource);
+          addChange(folder.datasource, Paths.get(folder.datasource).toAbsolutePath());
+          continue;
+        }
+
+        Path path = folder.path.resolve((Path) event.context());
+        if (event.kind() == ENTRY_CREATE && Files.isDirectory(path) && !skipFolder.test(path)) {
+          try {
+            register(service, folder.datasource, path);
+          }
+          catch (IOException | ClosedWatchServiceException e) {
+            LOGGER.debug("could not watch '{}' - {}", path, e.getMessage());
+          }
+        }
+
+        addChange(folder.datasource, path);
+      }
+
+      // the folder has been deleted
+      if (!key.reset()) {
+        watchKeys.remove(key);
+      }
+    }
+  }
+
+  private void startPolling(String datasource, Path path) {
+    if (POLL_INTERVAL == 0) {
+      LOGGER.info("not watching data source '{}' - polling is disabled", datasource);
+      return;
+    }
+
+    Map<Path, Long> folders = new HashMap<>();
+    scanFolders(path, path, folders);
+    polledFolders.put(datasource, folders);
+
+    LOGGER.info("polling data source '{}' for changes ({} folders)", datasource, folders.size());
+
+    timer.schedule(new TimerTask() {
+      @Override
+      public void run() {
+        poll(datasource);
+      }
+    }, POLL_INTERVAL, POLL_INTERVAL);
+  }
+
+  private void poll(String datasource) {
+    Map<Path, Long> folders = polledFolders.get(datasource);
+    if (folders == null) {
+      return;
+    }
+
+    Path root = Paths.get(datasource).toAbsolutePath();
+    Map<Path, Long> newFolders = new HashMap<>();
+    Set<Path> deletedFolders = new HashSet<>();
+
+    for (Map.Entry<Path, Long> entry : folders.entrySet()) {
+      Path folder = entry.getKey();
+      long modified;
+      try {
+        modified = Files.getLastModifiedTime(folder).toMillis();
+      }
+      catch (IOException e) {
+        deletedFolders.add(folder);
+        addChange(datasource, folder);
+        continue;
+      }
+
+      if (modified == entry.getValue()) {
+        continue;
+      }
+
+      entry.setValue(modified);
+      addChange(datasource, folder);
+
+      // look for new sub folders
+      try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(folder, Files::isDirectory)) {
+        for (Path child : directoryStream) {
+          if (!folders.containsKey(child) && !skipFolder.test(child)) {
+            scanFolders(root, child, newFolders);
+            addChange(datasource, child);
+          }
+        }
+      }
+      catch (IOException e) {
+        LOGGER.debug("could not list '{}' - {}", folder, e.getMessage());
+      }
+    }
+
+    if (!deletedFolders.isEmpty()) {
+      Iterator<Path> iterator = folders.keySet().iterator();
+      while (iterator.hasNext()) {
+        Path folder = iterator.next();
+        for (Path deleted : deletedFolders) {
+          if (folder.startsWith(deleted)) {
+            iterator.remove();
+            break;
+          }
+        }
+      }
+    }
+
+    folders.putAll(newFolders);
+  }
+
+  /**
+   * collect the modification times of the given folder and all its sub folders
+   */
+  private void scanFolders(Path root, Path folder, Map<Path, Long> folders) {
+    try {
+      Files.walkFileTree(folder, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new AbstractFileVisitor() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+          if (!dir.equals(root) && skipFolder.test(dir)) {
+            return FileVisitResult.SKIP_SUBTREE;
+          }
+
+          folders.put(dir, attrs.lastModifiedTime().toMillis());
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    }
+    catch (IOException e) {
+      LOGGER.debug("could not scan '{}' - {}", folder, e.getMessage());
+    }
+  }
+
+  private void addChange(String datasource, Path path) {
+    synchronized (pendingChanges) {
+      if (timer == null) {
+        return;
+      }
+
+      pendingChanges.computeIfAbsent(datasource, k -> new HashSet<>()).add(path);
+
+      long now = System.currentTimeMillis();
+      if (firstPendingChange == 0) {
+        firstPendingChange = now;
+      }
+
+      // wait until the data source is quiet - but not forever
+      if (flushTask != null) {
+        flushTask.cancel();
+      }
+      flushTask = new TimerTask() {
+        @Override
+        public void run() {
+          flush();
+        }
+      };
+
+      try {
+        timer.schedule(flushTask, Math.max(0, Math.min(DEBOUNCE_DELAY, firstPendingChange + MAX_DELAY - now)));
+      }
+      catch (IllegalStateException e) {
+        // timer has been cancelled in the meantime
+        flushTask = null;
+      }
+    }
+  }
+
+  private void flush() {
+    Map<String, Set<Path>> changes;
+    synchronized (pendingChanges) {
+      if (pendingChanges.isEmpty()) {
+        return;
+      }
+      changes = new HashMap<>(pendingChanges);
+      pendingChanges.clear();
+      flushTask = null;
+      firstPendingChange = 0;
+    }
+
+    for (Map.Entry<String, Set<Path>> entry : changes.entrySet()) {
+      LOGGER.debug("{} changes in data source '{}'", entry.getValue().size(), entry.getKey());
+    }
+
+    try {
+      callback.accept(changes);
+    }
+    catch (Exception e) {
+      LOGGER.error("could not process the changes of the data sources - {}", e.getMessage());
+    }
+  }
+
+  private static class WatchedFolder {
+    private final String datasource;
+    private final Path   path;
+
+    private WatchedFolder(String datasource, Path path) {
+      this.datasource = datasource;
+      this.path = path;
+    }
+  }
+}
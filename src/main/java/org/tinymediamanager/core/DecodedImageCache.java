@@ -0,0 +1,244 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The class DecodedImageCache. A process wide LRU cache of decoded (and scaled) images for the UI, keyed by the source of the image (file or url)
+ * and the target size. Switching back and forth between entities does not need to read and decode the same images again.<br />
+ * The cache is weighted by the (estimated) memory of the images; the images are held by soft references, so the garbage collector may drop them
+ * under memory pressure before they are evicted. The capacity defaults to 1/16 of the max heap and can be set (in MiB) with the jvm arg
+ * <i>tmm.image.decodedcache</i>
+ *
+ * @author Manuel Laggner
+ */
+public class DecodedImageCache {
+  private static final DecodedImageCache      INSTANCE  = new DecodedImageCache(getDefaultCapacity());
+
+  private final long                          capacity;
+  private final Map<String, Entry>            entries   = new LinkedHashMap<>(16, 0.75f, true);
+  private final ReferenceQueue<BufferedImage> collected = new ReferenceQueue<>();
+
+  private long                                used      = 0;
+  private long                                hits      = 0;
+  private long                                misses    = 0;
+  private long                                evictions = 0;
+  private long                                cleared   = 0;
+
+  DecodedImageCache(long capacity) {
+    this.capacity = Math.max(0, capacity);
+  }
+
+  public static DecodedImageCache getInstance() {
+    return INSTANCE;
+  }
+
+  private static long getDefaultCapacity() {
+    long capacity = Long.getLong("tmm.image.decodedcache", -1);
+    if (capacity >= 0) {
+      return capacity * 1024 * 1024;
+    }
+    return Runtime.getRuntime().maxMemory() / 16;
+  }
+
+  /**
+   * get the source of the given file for the cache - the path along with the modification time, so changed files are decoded again
+   *
+   * @param file
+   *          the image file
+   * @return the source for {@link #get(String, int, int)} and {@link #put(String, int, int, BufferedImage, Dimension)}
+   */
+  public static String getSource(Path file) {
+    long lastModified = 0;
+    try {
+      lastModified = Files.getLastModifiedTime(file).toMillis();
+    }
+    catch (Exception ignored) {
+      // just take the path
+    }
+    return file.toAbsolutePath() + "@" + lastModified;
+  }
+
+  private static String getKey(String source, int width, int height) {
+    return source + "|" + width + "x" + height;
+  }
+
+  /**
+   * get the decoded image of the given source and target size
+   *
+   * @param source
+   *          the source of the image (the url or {@link #getSource(Path)})
+   * @param width
+   *          the target width (0 for the unscaled image)
+   * @param height
+   *          the target height (0 for the unscaled image)
+   * @return the decoded image or null if it is not cached
+   */
+  public synchronized DecodedImage get(String source, int width, int height) {
+    purgeCollected();
+
+    Entry entry = entries.get(getKey(source, width, height));
+    BufferedImage image = entry == null ? null : entry.get();
+    if (image == null) {
+      misses++;
+      return null;
+    }
+
+    hits++;
+    return new DecodedImage(image, entry.originalSize);
+  }
+
+  /**
+   * store the decoded image of the given source and target size. Least recently used images are evicted if the cache exceeds its capacity; images
+   * bigger than a quarter of the capacity are not cached at all
+   *
+   * @param source
+   *          the source of the image (the url or {@link #getSource(Path)})
+   * @param width
+   *          the target width (0 for the unscaled image)
+   * @param height
+   *          the target height (0 for the unscaled image)
+   * @param image
+   *          the decoded image - must not be modified afterwards since it is shared
+   * @param originalSize
+   *          the size of the original image (or null if the image is unscaled)
+   */
+  public synchronized void put(String source, int width, int height, BufferedImage image, Dimension originalSize) {
+    if (source == null || image == null) {
+      return;
+    }
+
+    purgeCollected();
+
+    long weight = ImageMemoryBudget.estimate(image.getWidth(), image.getHeight());
+    if (weight > capacity / 4) {
+      return;
+    }
+
+    String key = getKey(source, width, height);
+    Entry entry = new Entry(key, image, originalSize == null ? new Dimension(image.getWidth(), image.getHeight()) : originalSize, weight,
+        collected);
+    Entry oldEntry = entries.put(key, entry);
+    if (oldEntry != null) {
+      used -= oldEntry.weight;
+    }
+    used += weight;
+
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (used > capacity && iterator.hasNext()) {
+      Entry eldest = iterator.next();
+      iterator.remove();
+      used -= eldest.weight;
+      evictions++;
+    }
+  }
+
+  /**
+   * remove the entries of images which have been dropped by the garbage collector
+   */
+  private void purgeCollected() {
+    Reference<? extends BufferedImage> reference;
+    while ((reference = collected.poll()) != null) {
+      Entry entry = (Entry) reference;
+      if (entries.get(entry.key) == entry) {
+        entries.remove(entry.key);
+        used -= entry.weight;
+        cleared++;
+      }
+    }
+  }
+
+  /**
+   * remove all images from the cache
+   */
+  public synchronized void clear() {
+    entries.clear();
+    used = 0;
+  }
+
+  /**
+   * get the hit rate of the cache
+   *
+   * @return the hit rate (0..1)
+   */
+  public synchronized double getHitRate() {
+    long requests = hits + misses;
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+
+  /**
+   * get the currently used memory of the cache
+   *
+   * @return the used memory in bytes
+   */
+  public synchronized long getUsed() {
+    return used;
+  }
+
+  /**
+   * get the statistics of the cache
+   *
+   * @return the statistics as a human readable string
+   */
+  public synchronized String getStatistics() {
+    return String.format("%d images, %d of %d MiB, %d hits, %d misses (%.0f%% hit rate), %d evictions, %d collected", entries.size(),
+        used / (1024 * 1024), capacity / (1024 * 1024), hits, misses, getHitRate() * 100, evictions, cleared);
+  }
+
+  /**
+   * a decoded image along with the size of its original image
+   */
+  public static class DecodedImage {
+    private final BufferedImage image;
+    private final Dimension     originalSize;
+
+    private DecodedImage(BufferedImage image, Dimension originalSize) {
+      this.image = image;
+      this.originalSize = originalSize;
+    }
+
+    public BufferedImage getImage() {
+      return image;
+    }
+
+    public Dimension getOriginalSize() {
+      return new Dimension(originalSize);
+    }
+  }
+
+  private static class Entry extends SoftReference<BufferedImage> {
+    private final String    key;
+    private final Dimension originalSize;
+    private final long      weight;
+
+    private Entry(String key, BufferedImage image, Dimension originalSize, long weight, ReferenceQueue<BufferedImage> queue) {
+      super(image, queue);
+      this.key = key;
+      this.originalSize = originalSize;
+      this.weight = weight;
+    }
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import org.tinymediamanager.core.entities.MediaEntity;
+
+/**
+ * The class FacetAggregate. A reference counted multiset of all values of a facet (e.g. years, genres, video codecs) in a collection of media
+ * entities.<br />
+ * Every entity contributes its values once; the distinct values are kept in a {@link CopyOnWriteArrayList} for the UI. Updating or removing an
+ * entity only touches the values of this entity, so the aggregate never needs to rescan the whole library
+ *
+ * @param <E>
+ *          the type of the values
+ * @author Manuel Laggner
+ */
+public class FacetAggregate<E> {
+  private final Function<E, Object>           keyFunction;
+  private final Map<Object, Facet<E>>         facets;
+  private final Map<UUID, Collection<Object>> keysById;
+  private final CopyOnWriteArrayList<E>       values;
+
+  /**
+   * create an aggregate which distinguishes the values by equals()
+   */
+  public FacetAggregate() {
+    this(value -> value);
+  }
+
+  /**
+   * create an aggregate which distinguishes the values by the given key (e.g. case insensitive)
+   *
+   * @param keyFunction
+   *          the function to create the key of a value
+   */
+  public FacetAggregate(Function<E, Object> keyFunction) {
+    this.keyFunction = keyFunction;
+    this.facets = new HashMap<>();
+    this.keysById = new HashMap<>();
+    this.values = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * set the values of the given entity (replacing the previous values of this entity)
+   *
+   * @param entity
+   *          the entity
+   * @param entityValues
+   *          all values of this entity (duplicates and null values are ignored)
+   * @return true if the distinct values have been changed
+   */
+  public synchronized boolean update(MediaEntity entity, Collection<E> entityValues) {
+    Map<Object, E> newValues = new LinkedHashMap<>();
+    for (E value : entityValues) {
+      if (value != null) {
+        newValues.putIfAbsent(keyFunction.apply(value), value);
+      }
+    }
+
+    Collection<Object> oldKeys = keysById.getOrDefault(entity.getDbId(), Collections.emptyList());
+    if (oldKeys.size() == newValues.size() && newValues.keySet().containsAll(oldKeys)) {
+      return false;
+    }
+
+    boolean changed = false;
+
+    for (Object key : oldKeys) {
+      if (!newValues.containsKey(key)) {
+        changed |= decrement(key);
+      }
+    }
+
+    List<Object> newKeys = new ArrayList<>(newValues.size());
+    for (Map.Entry<Object, E> entry : newValues.entrySet()) {
+      Facet<E> facet = facets.get(entry.getKey());
+      if (!oldKeys.contains(entry.getKey())) {
+        if (facet == null) {
+          facet = new Facet<>(entry.getKey(), entry.getValue());
+          facets.put(facet.key, facet);
+          values.add(facet.value);
+          changed = true;
+        }
+        facet.count++;
+      }
+      // share the key instance of the facet
+      newKeys.add(facet.key);
+    }
+
+    if (newKeys.isEmpty()) {
+      keysById.remove(entity.getDbId());
+    }
+    else if (newKeys.size() == 1) {
+      keysById.put(entity.getDbId(), Collections.singletonList(newKeys.get(0)));
+    }
+    else {
+      keysById.put(entity.getDbId(), newKeys);
+    }
+
+    return changed;
+  }
+
+  /**
+   * remove all values of the given entity
+   *
+   * @param entity
+   *          the entity
+   * @return true if the distinct values have been changed
+   */
+  public synchronized boolean remove(MediaEntity entity) {
+    Collection<Object> keys = keysById.remove(entity.getDbId());
+    if (keys == null) {
+      return false;
+    }
+
+    boolean changed = false;
+    for (Object key : keys) {
+      changed |= decrement(key);
+    }
+    return changed;
+  }
+
+  private boolean decrement(Object key) {
+    Facet<E> facet = facets.get(key);
+    if (facet == null) {
+      return false;
+    }
+
+    facet.count--;
+    if (facet.count > 0) {
+      return false;
+    }
+
+    facets.remove(key);
+    values.remove(facet.value);
+    return true;
+  }
+
+  /**
+   * get how many entities contain the given value
+   *
+   * @param value
+   *          the value
+   * @return the amount of entities with this value
+   */
+  public synchronized int getCount(E value) {
+    Facet<E> facet = facets.get(keyFunction.apply(value));
+    return facet == null ? 0 : facet.count;
+  }
+
+  /**
+   * get all distinct values (read only, but reflects all later changes)
+   *
+   * @return a {@link List} of all distinct values
+   */
+  public List<E> getValues() {
+    return Collections.unmodifiableList(values);
+  }
+
+  private static class Facet<E> {
+    private final Object key;
+    private final E      value;
+    private int          count = 0;
+
+    private Facet(Object key, E value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The class FileAttributeCache. Caches the file attributes for the duration of a scan (e.g. an update of the data sources), so that the same path
+ * does not need to be probed over and over again (which is a network round trip for every probe on a NAS).<br />
+ * The cache is filled with the attributes which have been read anyway (mainly by the {@link ParallelFileWalker}). Folders which have been listed
+ * completely are remembered too - every lookup of a non existing entry in such a folder is answered without touching the file system.<br />
+ * The cache is no global state: it belongs to one scan and is passed explicitly to the code of this scan. Since nothing invalidates the cache, code
+ * which writes files (or reads files which have just been written) must not use it
+ *
+ * @author Manuel Laggner
+ */
+public class FileAttributeCache {
+  private final Map<Path, BasicFileAttributes> attributes = new ConcurrentHashMap<>();
+  private final Map<Path, Set<Path>>           listings   = new ConcurrentHashMap<>();
+  private final AtomicLong                     hits       = new AtomicLong();
+
+  /**
+   * get the amount of file system calls which have been answered by the cache
+   *
+   * @return the amount of saved stat calls
+   */
+  public long getSavedStatCalls() {
+    return hits.get();
+  }
+
+  /**
+   * drop all cached attributes (at the end of the scan)
+   */
+  public void clear() {
+    attributes.clear();
+    listings.clear();
+  }
+
+  /**
+   * remember the attributes of the given path
+   *
+   * @param path
+   *          the path
+   * @param attrs
+   *          the attributes which have been read from the file system
+   */
+  public void put(Path path, BasicFileAttributes attrs) {
+    if (attrs != null) {
+      attributes.put(path.toAbsolutePath(), attrs);
+    }
+  }
+
+  /**
+   * remember the complete content of the given folder
+   *
+   * @param folder
+   *          the folder
+   * @param entries
+   *          all entries of this folder
+   */
+  public void putListing(Path folder, Collection<Path> entries) {
+    Set<Path> names = ConcurrentHashMap.newKeySet();
+    for (Path entry : entries) {
+      if (entry.getFileName() != null) {
+        names.add(entry.getFileName());
+      }
+    }
+    listings.put(folder.toAbsolutePath(), names);
+  }
+
+  /**
+   * read the attributes of the given path (following links) - see {@link Files#readAttributes(Path, Class, LinkOption...)}
+   *
+   * @param path
+   *          the path
+   * @return the attributes
+   * @throws IOException
+   *           if the attributes could not be read
+   */
+  public BasicFileAttributes readAttributes(Path path) throws IOException {
+    Path key = path.toAbsolutePath();
+    BasicFileAttributes attrs = attributes.get(key);
+    // a cached link is a broken link - let the file system throw the right exception
+    if (attrs != null && !attrs.isSymbolicLink()) {
+      hits.incrementAndGet();
+      return attrs;
+    }
+    if (attrs == null && isMissing(key)) {
+      hits.incrementAndGet();
+      throw new NoSuchFileException(path.toString());
+    }
+
+    attrs = Files.readAttributes(path, BasicFileAttributes.class);
+    attributes.put(key, attrs);
+    return attrs;
+  }
+
+  /**
+   * check whether the given path exists - see {@link Files#exists(Path, LinkOption...)}
+   *
+   * @param path
+   *          the path
+   * @param options
+   *          the options how symbolic links are handled
+   * @return true if the path exists
+   */
+  public boolean exists(Path path, LinkOption... options) {
+    Path key = path.toAbsolutePath();
+    BasicFileAttributes attrs = attributes.get(key);
+    if (attrs != null && (!attrs.isSymbolicLink() || options.length > 0)) {
+      hits.incrementAndGet();
+      return true;
+    }
+    if (attrs == null && isMissing(key)) {
+      hits.incrementAndGet();
+      return false;
+    }
+
+    return Files.exists(path, options);
+  }
+
+  /**
+   * check whether the given path is a directory (following links) - see {@link Files#isDirectory(Path, LinkOption...)}
+   *
+   * @param path
+   *          the path
+   * @return true if the path is a directory
+   */
+  public boolean isDirectory(Path path) {
+    try {
+      return readAttributes(path).isDirectory();
+    }
+    catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * check whether the given path is a regular file - see {@link Utils#isRegularFile(Path)}
+   *
+   * @param path
+   *          the path
+   * @return true if the path is a regular file
+   */
+  public boolean isRegularFile(Path path) {
+    Path key = path.toAbsolutePath();
+    BasicFileAttributes attrs = attributes.get(key);
+    if (attrs != null) {
+      hits.incrementAndGet();
+      return Utils.isRegularFile(attrs);
+    }
+    if (isMissing(key)) {
+      hits.incrementAndGet();
+      return false;
+    }
+
+    return Utils.isRegularFile(path);
+  }
+
+  private boolean isMissing(Path path) {
+    Path parent = path.getParent();
+    if (parent == null || path.getFileName() == null) {
+      return false;
+    }
+
+    Set<Path> names = listings.get(parent);
+    return names != null && !names.contains(path.getFileName());
+  }
+}
@@ -15,12 +15,15 @@
  */
 package org.tinymediamanager.core;
 
+import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorConvertOp;
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -28,12 +31,17 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
 import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageInputStream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.imgscalr.Scalr;
@@ -55,9 +63,13 @@ import com.madgag.gif.fmsware.GifDecoder;
  * @author Manuel Laggner
  */
 public class ImageCache {
-  private static final Logger LOGGER     = LoggerFactory.getLogger(ImageCache.class);
-  private static final Path   CACHE_DIR  = Paths.get(Globals.CACHE_FOLDER + "/image");
-  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+  private static final Logger LOGGER              = LoggerFactory.getLogger(ImageCache.class);
+  private static final Path   CACHE_DIR           = Paths.get(Globals.CACHE_FOLDER + "/image");
+  private static final char[] HEX_DIGITS          = "0123456789ABCDEF".toCharArray();
+  // the long side of the thumbnails beside the cached image (lists/tables and panels)
+  private static final int[]  THUMBNAIL_SIZES     = { 150, 400 };
+  // a thumbnail is only created if it is significantly smaller than the cached image
+  private static final float  THUMBNAIL_MIN_RATIO = 1.2f;
 
   public enum CacheSize {
     SMALL,
@@ -178,147 +190,382 @@ public class ImageCache {
 
     Path originalFile = mediaFile.getFileAsPath();
     Path cachedFile = ImageCache.getCacheDir().resolve(getMD5WithSubfolder(originalFile.toString()) + "." + Utils.getExtension(originalFile));
-    if (overwrite || !Files.exists(cachedFile)) {
-      // check if the original file exists && size > 0
-      if (!Files.exists(originalFile)) {
-        throw new FileNotFoundException("unable to cache file: " + originalFile + "; file does not exist");
-      }
-      if (Files.size(originalFile) == 0) {
-        throw new EmptyFileException(originalFile);
+    long sourceModified = getLastModified(originalFile);
+    if (!overwrite && Files.exists(cachedFile)) {
+      if (!ImageCacheIndex.isStale(cachedFile, sourceModified)) {
+        // remember the modification time of the source file for the stale detection (if not known yet)
+        ImageCacheIndex.hit(cachedFile, sourceModified);
+        return cachedFile;
       }
 
-      // recreate cache dir if needed
-      // rescale & cache
-      BufferedImage originalImage = null;
+      // the original file has been changed after caching
+      ImageCacheIndex.invalidate(cachedFile);
+    }
 
-      // try to cache the image file
-      // we have up to 5 retries here if we hit the memory cap since we are hitting the machine hard due to multi CPU image caching
-      int retries = 5;
-      do {
-        try {
-          byte[] bytes = Files.readAllBytes(originalFile);
-
-          // check if that file is an animated gif
-          GifDecoder decoder = new GifDecoder();
-          int status = decoder.read(new ByteArrayInputStream(bytes));
-          if (status == GifDecoder.STATUS_OK && decoder.getFrameCount() > 1) {
-            // animated gif - we must not scale this (because scaling loses the animation)
-            return writeAnimatedGif(originalFile, cachedFile);
-          }
+    // check if the original file exists && size > 0
+    if (!Files.exists(originalFile)) {
+      throw new FileNotFoundException("unable to cache file: " + originalFile + "; file does not exist");
+    }
+    if (Files.size(originalFile) == 0) {
+      throw new EmptyFileException(originalFile);
+    }
 
-          originalImage = ImageUtils.createImage(bytes);
-          break;
-        }
-        catch (OutOfMemoryError e) {
-          // memory limit hit; give it another 500ms time to recover
-          LOGGER.debug("hit memory cap: {}", e.getMessage());
-          Thread.sleep(500);
-        }
-        retries--;
-      } while (retries > 0);
+    // the thumbnails of the old cached file are stale too
+    deleteThumbnails(cachedFile);
 
-      if (originalImage == null) {
-        throw new IOException("could not open original image to scale; probably due to memory limits");
-      }
+    // animated gifs must not be scaled (because scaling loses the animation)
+    if (isAnimatedGif(originalFile)) {
+      return writeAnimatedGif(originalFile, cachedFile);
+    }
 
-      // calculate width based on MF type
-      int desiredWidth = calculateCacheImageWidth(originalImage);
+    BufferedImage scaledImage = decodeAndScale(originalFile, 0);
+    if (scaledImage == null) {
+      throw new IOException("could not open original image to scale");
+    }
 
-      Point size = ImageUtils.calculateSize(desiredWidth, originalImage.getHeight(), originalImage.getWidth(), originalImage.getHeight(), true);
-      BufferedImage scaledImage = null;
+    writeImage(scaledImage, cachedFile);
 
-      // we have up to 5 retries here if we hit the memory cap since we are hitting the machine hard due to multi CPU image caching
-      retries = 5;
-      do {
-        try {
-          switch (Settings.getInstance().getImageCacheType()) {
-            case BALANCED:
-              // scale fast
-              scaledImage = Scalr.resize(originalImage, Scalr.Method.BALANCED, Scalr.Mode.FIT_EXACT, size.x, size.y);
-              break;
-
-            case QUALITY:
-              // scale with good quality
-              scaledImage = Scalr.resize(originalImage, Scalr.Method.QUALITY, Scalr.Mode.FIT_EXACT, size.x, size.y);
-              break;
-
-            case ULTRA_QUALITY:
-              // scale with good quality
-              scaledImage = Scalr.resize(originalImage, Scalr.Method.ULTRA_QUALITY, Scalr.Mode.FIT_EXACT, size.x, size.y);
-              break;
-          }
-          break;
-        }
-        catch (OutOfMemoryError e) {
-          // memory limit hit; give it another 500ms time to recover
-          LOGGER.debug("hit memory cap: {}", e.getMessage());
-          Thread.sleep(500);
-        }
-        retries--;
-      } while (retries > 0);
+    if (!Files.exists(cachedFile)) {
+      throw new IOException("unable to cache file: " + originalFile);
+    }
 
-      originalImage.flush();
+    ImageCacheIndex.put(cachedFile, sourceModified);
 
-      if (scaledImage == null) {
-        throw new IOException("could not scale image; probably due to memory limits");
-      }
+    // the thumbnails are created out of the scaled image - no need to decode the original again
+    createThumbnails(scaledImage, cachedFile);
+    scaledImage.flush();
+
+    return cachedFile;
+  }
+
+  private static void writeImage(BufferedImage scaledImage, Path file) throws IOException {
+    BufferedImage imageToWrite = scaledImage;
+    ImageWriter imgWrtr = null;
+    ImageWriteParam imgWrtrPrm = null;
+
+    // here we have two different ways to create our thumb
+    // a) a scaled down jpg/png (without transparency) which we have to modify since OpenJDK cannot call native jpg encoders
+    // b) a scaled down png (with transparency) which we can store without any more modifying as png
+    if (ImageUtils.hasTransparentPixels(scaledImage)) {
+      // transparent image -> png
+      imgWrtr = ImageIO.getImageWritersByFormatName("png").next();
+      imgWrtrPrm = imgWrtr.getDefaultWriteParam();
+
+    }
+    else {
+      // non transparent image -> jpg
+      // convert to rgb
+      BufferedImage rgb = new BufferedImage(scaledImage.getWidth(), scaledImage.getHeight(), BufferedImage.TYPE_INT_RGB);
+      ColorConvertOp xformOp = new ColorConvertOp(null);
+      xformOp.filter(scaledImage, rgb);
+      imgWrtr = ImageIO.getImageWritersByFormatName("jpg").next();
+      imgWrtrPrm = imgWrtr.getDefaultWriteParam();
+      imgWrtrPrm.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      imgWrtrPrm.setCompressionQuality(0.80f);
+
+      imageToWrite = rgb;
+    }
 
-      ImageWriter imgWrtr = null;
-      ImageWriteParam imgWrtrPrm = null;
+    FileImageOutputStream output = new FileImageOutputStream(file.toFile());
+    imgWrtr.setOutput(output);
+    IIOImage image = new IIOImage(imageToWrite, null, null);
+    imgWrtr.write(null, image, imgWrtrPrm);
+    imgWrtr.dispose();
+    output.flush();
+    output.close();
 
-      // here we have two different ways to create our thumb
-      // a) a scaled down jpg/png (without transparency) which we have to modify since OpenJDK cannot call native jpg encoders
-      // b) a scaled down png (with transparency) which we can store without any more modifying as png
-      if (ImageUtils.hasTransparentPixels(scaledImage)) {
-        // transparent image -> png
-        imgWrtr = ImageIO.getImageWritersByFormatName("png").next();
-        imgWrtrPrm = imgWrtr.getDefaultWriteParam();
+    if (imageToWrite != scaledImage) {
+      imageToWrite.flush();
+    }
+  }
 
+  private static void createThumbnails(BufferedImage scaledImage, Path cachedFile) {
+    int longSide = Math.max(scaledImage.getWidth(), scaledImage.getHeight());
+    long cachedFileModified = getLastModified(cachedFile);
+
+    for (int thumbnailSize : THUMBNAIL_SIZES) {
+      if (thumbnailSize * THUMBNAIL_MIN_RATIO > longSide) {
+        continue;
+      }
+
+      Path thumbnail = getThumbnailFile(cachedFile, thumbnailSize);
+      try {
+        Point size = ImageUtils.calculateSize(thumbnailSize, thumbnailSize, scaledImage.getWidth(), scaledImage.getHeight(), true);
+        BufferedImage thumbnailImage = scale(scaledImage, size);
+        writeImage(thumbnailImage, thumbnail);
+        thumbnailImage.flush();
+
+        // the thumbnail is derived from the cached file - it gets stale if the cached file is re-created
+        ImageCacheIndex.put(thumbnail, cachedFileModified);
+      }
+      catch (Exception e) {
+        LOGGER.debug("could not create thumbnail '{}' - {}", thumbnail, e.getMessage());
       }
-      else {
-        // non transparent image -> jpg
-        // convert to rgb
-        BufferedImage rgb = new BufferedImage(scaledImage.getWidth(), scaledImage.getHeight(), BufferedImage.TYPE_INT_RGB);
-        ColorConvertOp xformOp = new ColorConvertOp(null);
-        xformOp.filter(scaledImage, rgb);
-        imgWrtr = ImageIO.getImageWritersByFormatName("jpg").next();
-        imgWrtrPrm = imgWrtr.getDefaultWriteParam();
-        imgWrtrPrm.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-        imgWrtrPrm.setCompressionQuality(0.80f);
-
-        scaledImage = rgb;
+    }
+  }
+
+  /**
+   * get the file of the thumbnail with the given size beside the cached file
+   */
+  static Path getThumbnailFile(Path cachedFile, int thumbnailSize) {
+    String filename = cachedFile.getFileName().toString();
+    int dot = filename.lastIndexOf('.');
+    if (dot < 0) {
+      return cachedFile.resolveSibling(filename + "_" + thumbnailSize);
+    }
+    return cachedFile.resolveSibling(filename.substring(0, dot) + "_" + thumbnailSize + filename.substring(dot));
+  }
+
+  /**
+   * Gets the smallest thumbnail of the cached file which still covers the given size (the long side in pixels). Thumbnails are created beside
+   * the cached file when caching (or here if missing), so lists, tables and panels do not need to decode the full cached image. If there is no
+   * fitting thumbnail (the requested size is bigger than all thumbnail sizes, animated gifs, ...), the cached file itself is returned
+   *
+   * @param cachedFile
+   *          the cached file (from {@link #getCachedFile(MediaFile)} or {@link #getCachedFile(String)})
+   * @param size
+   *          the needed size (long side in pixels); 0 for the cached file itself
+   * @return the thumbnail or the cached file
+   */
+  public static Path getCachedThumbnail(Path cachedFile, int size) {
+    if (cachedFile == null || size <= 0 || !cachedFile.toAbsolutePath().startsWith(CACHE_DIR.toAbsolutePath())) {
+      return cachedFile;
+    }
+
+    int thumbnailSize = 0;
+    for (int candidate : THUMBNAIL_SIZES) {
+      if (candidate >= size) {
+        thumbnailSize = candidate;
+        break;
       }
+    }
+    if (thumbnailSize == 0) {
+      return cachedFile;
+    }
 
-      FileImageOutputStream output = new FileImageOutputStream(cachedFile.toFile());
-      imgWrtr.setOutput(output);
-      IIOImage image = new IIOImage(scaledImage, null, null);
-      imgWrtr.write(null, image, imgWrtrPrm);
-      imgWrtr.dispose();
-      output.flush();
-      output.close();
+    // the thumbnails are deleted whenever the cached file is re-created, so an existing thumbnail is always up to date
+    Path thumbnail = getThumbnailFile(cachedFile, thumbnailSize);
+    if (Files.exists(thumbnail)) {
+      ImageCacheIndex.hit(thumbnail);
+      return thumbnail;
+    }
 
-      scaledImage.flush();
+    try {
+      // gifs may be animated - scaling would lose the animation
+      if (isGif(cachedFile)) {
+        return cachedFile;
+      }
 
-      // give it a few milliseconds for being written to the filesystem
-      Thread.sleep(150);
+      // no thumbnail if the cached file is not significantly bigger
+      Dimension cachedFileSize = ImageUtils.readImageSize(cachedFile);
+      if (cachedFileSize == null || thumbnailSize * THUMBNAIL_MIN_RATIO > Math.max(cachedFileSize.width, cachedFileSize.height)) {
+        return cachedFile;
+      }
 
-      if (!Files.exists(cachedFile)) {
-        throw new IOException("unable to cache file: " + originalFile);
+      BufferedImage thumbnailImage = decodeAndScale(cachedFile, thumbnailSize);
+      if (thumbnailImage == null) {
+        return cachedFile;
       }
+
+      writeImage(thumbnailImage, thumbnail);
+      thumbnailImage.flush();
+      ImageCacheIndex.put(thumbnail, getLastModified(cachedFile));
+      return thumbnail;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    catch (Exception e) {
+      LOGGER.debug("could not create thumbnail of '{}' - {}", cachedFile, e.getMessage());
     }
 
     return cachedFile;
   }
 
+  private static void deleteThumbnails(Path cachedFile) {
+    for (int thumbnailSize : THUMBNAIL_SIZES) {
+      Path thumbnail = getThumbnailFile(cachedFile, thumbnailSize);
+      if (Files.exists(thumbnail)) {
+        Utils.deleteFileSafely(thumbnail);
+        ImageCacheIndex.remove(thumbnail);
+      }
+    }
+  }
+
   // write the animated gif directly
   private static Path writeAnimatedGif(Path originalFile, Path cachedFile) throws IOException {
     Files.copy(originalFile, cachedFile, StandardCopyOption.REPLACE_EXISTING);
+    ImageCacheIndex.put(cachedFile, getLastModified(originalFile));
     return cachedFile;
   }
 
-  private static int calculateCacheImageWidth(BufferedImage originalImage) {
+  private static long getLastModified(Path file) {
+    try {
+      return Files.getLastModifiedTime(file).toMillis();
+    }
+    catch (Exception e) {
+      return 0;
+    }
+  }
+
+  /**
+   * check if the given file is an animated gif - only gif files (by their signature) are decoded for this check
+   */
+  private static boolean isAnimatedGif(Path file) throws IOException {
+    if (!isGif(file)) {
+      return false;
+    }
+
+    try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
+      GifDecoder decoder = new GifDecoder();
+      int status = decoder.read(is);
+      return status == GifDecoder.STATUS_OK && decoder.getFrameCount() > 1;
+    }
+  }
+
+  private static boolean isGif(Path file) throws IOException {
+    byte[] signature = new byte[6];
+    try (InputStream is = Files.newInputStream(file)) {
+      return is.readNBytes(signature, 0, signature.length) == signature.length
+          && new String(signature, StandardCharsets.US_ASCII).startsWith("GIF8");
+    }
+  }
+
+  /**
+   * decode the image and scale it to the configured cache size. The image is decoded with source subsampling to near the needed size (the full
+   * resolution is never decoded for the smaller cache sizes); the memory of the decode is reserved in the {@link ImageMemoryBudget} first.<br />
+   * If a thumbnail size is given, the image is scaled to this size (long side) rather than the configured cache size
+   *
+   * @return the scaled image or null if the image could not be decoded (e.g. the memory is exhausted despite the budget)
+   */
+  private static BufferedImage decodeAndScale(Path file, int thumbnailSize) throws IOException, InterruptedException {
+    try {
+      return decodeAndScaleWithFallback(file, thumbnailSize);
+    }
+    catch (OutOfMemoryError e) {
+      // the estimation of the budget does not cover everything (e.g. other memory hungry tasks) - skip this image
+      LOGGER.warn("hit memory cap while scaling '{}' - {}", file, e.getMessage());
+      return null;
+    }
+  }
+
+  private static BufferedImage decodeAndScaleWithFallback(Path file, int thumbnailSize) throws IOException, InterruptedException {
+    try (ImageInputStream iis = ImageIO.createImageInputStream(file.toFile())) {
+      Iterator<ImageReader> readers = iis == null ? Collections.emptyIterator() : ImageIO.getImageReaders(iis);
+      if (readers.hasNext()) {
+        ImageReader reader = readers.next();
+        try {
+          reader.setInput(iis, true, true);
+          return decodeAndScale(reader, thumbnailSize);
+        }
+        catch (IOException | IllegalArgumentException e) {
+          // e.g. CMYK jpegs - try the fallback
+          LOGGER.trace("could not decode '{}' with ImageIO - {}", file, e.getMessage());
+        }
+        finally {
+          reader.dispose();
+        }
+      }
+    }
+
+    // fallback: decode the full image with the toolkit - the size is unknown, so the whole budget is reserved
+    long reserved = ImageMemoryBudget.getInstance().acquire(ImageMemoryBudget.getInstance().getCapacity());
+    try {
+      BufferedImage originalImage = ImageUtils.createImage(Files.readAllBytes(file));
+      if (originalImage == null) {
+        return null;
+      }
+
+      Point size = calculateTargetSize(originalImage.getWidth(), originalImage.getHeight(), thumbnailSize);
+      BufferedImage scaledImage = scale(originalImage, size);
+      originalImage.flush();
+      return scaledImage;
+    }
+    finally {
+      ImageMemoryBudget.getInstance().release(reserved);
+    }
+  }
+
+  private static BufferedImage decodeAndScale(ImageReader reader, int thumbnailSize) throws IOException, InterruptedException {
+    // the size is read from the header - nothing is decoded yet
+    int width = reader.getWidth(0);
+    int height = reader.getHeight(0);
+
+    Point size = calculateTargetSize(width, height, thumbnailSize);
+    int subsampling = calculateSubsampling(width, size.x, Settings.getInstance().getImageCacheType());
+
+    int decodedWidth = (width + subsampling - 1) / subsampling;
+    int decodedHeight = (height + subsampling - 1) / subsampling;
+
+    // the decoded image, the intermediate images of the scaling and the scaled image
+    long bytes = 2 * ImageMemoryBudget.estimate(decodedWidth, decodedHeight) + ImageMemoryBudget.estimate(size.x, size.y);
+    long reserved = ImageMemoryBudget.getInstance().acquire(bytes);
+    try {
+      ImageReadParam param = reader.getDefaultReadParam();
+      if (subsampling > 1) {
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+      }
+      BufferedImage decodedImage = reader.read(0, param);
+      BufferedImage scaledImage = scale(decodedImage, size);
+      decodedImage.flush();
+      return scaledImage;
+    }
+    finally {
+      ImageMemoryBudget.getInstance().release(reserved);
+    }
+  }
+
+  private static Point calculateTargetSize(int width, int height, int thumbnailSize) {
+    if (thumbnailSize > 0) {
+      // never scale up
+      int maxSize = Math.min(thumbnailSize, Math.max(width, height));
+      return ImageUtils.calculateSize(maxSize, maxSize, width, height, true);
+    }
+
+    int desiredWidth = calculateCacheImageWidth(width, height);
+    return ImageUtils.calculateSize(desiredWidth, height, width, height, true);
+  }
+
+  /**
+   * calculate the source subsampling for the given widths. The image is subsampled to at least the target width (to twice the target width for the
+   * quality modes, because subsampling just drops pixels)
+   */
+  static int calculateSubsampling(int width, int targetWidth, CacheType cacheType) {
+    if (targetWidth <= 0 || width <= targetWidth) {
+      return 1;
+    }
+
+    int minWidth = cacheType == CacheType.BALANCED ? targetWidth : 2 * targetWidth;
+    return Math.max(1, width / minWidth);
+  }
+
+  private static BufferedImage scale(BufferedImage originalImage, Point size) {
+    BufferedImage scaledImage;
+
+    switch (Settings.getInstance().getImageCacheType()) {
+      case BALANCED:
+        // scale fast
+        scaledImage = Scalr.resize(originalImage, Scalr.Method.BALANCED, Scalr.Mode.FIT_EXACT, size.x, size.y);
+        break;
+
+      case ULTRA_QUALITY:
+        // scale with good quality
+        scaledImage = Scalr.resize(originalImage, Scalr.Method.ULTRA_QUALITY, Scalr.Mode.FIT_EXACT, size.x, size.y);
+        break;
+
+      case QUALITY:
+      default:
+        // scale with good quality
+        scaledImage = Scalr.resize(originalImage, Scalr.Method.QUALITY, Scalr.Mode.FIT_EXACT, size.x, size.y);
+        break;
+    }
+
+    return scaledImage;
+  }
+
+  private static int calculateCacheImageWidth(int width, int height) {
     // initialize with the original width
-    int desiredWidth = originalImage.getWidth();
+    int desiredWidth = width;
 
     switch (Settings.getInstance().getImageCacheSize()) {
       case ORIGINAL:
@@ -327,32 +574,32 @@ public class ImageCache {
 
       case BIG:
         // decide the scale-side depending on the aspect ratio
-        if (((float) originalImage.getWidth()) / ((float) originalImage.getHeight()) > 1) {
+        if (((float) width) / ((float) height) > 1) {
           // landscape
-          if (originalImage.getWidth() > 1000) {
+          if (width > 1000) {
             desiredWidth = 1000;
           }
         }
         else {
           // portrait
-          if (originalImage.getHeight() > 1000) {
-            desiredWidth = 1000 * originalImage.getWidth() / originalImage.getHeight();
+          if (height > 1000) {
+            desiredWidth = 1000 * width / height;
           }
         }
         break;
 
       case SMALL:
         // decide the scale-side depending on the aspect ratio
-        if (((float) originalImage.getWidth()) / ((float) originalImage.getHeight()) > 1) {
+        if (((float) width) / ((float) height) > 1) {
           // landscape
-          if (originalImage.getWidth() > 400) {
+          if (width > 400) {
             desiredWidth = 400;
           }
         }
         else {
           // portrait
-          if (originalImage.getHeight() > 400) {
-            desiredWidth = 400 * originalImage.getWidth() / originalImage.getHeight();
+          if (height > 400) {
+            desiredWidth = 400 * width / height;
           }
         }
         break;
@@ -420,7 +667,9 @@ public class ImageCache {
     Path cachedFile = getCacheDir().resolve(ImageCache.getMD5WithSubfolder(path.toAbsolutePath().toString()) + "." + Utils.getExtension(path));
     if (Files.exists(cachedFile)) {
       Utils.deleteFileSafely(cachedFile);
+      ImageCacheIndex.remove(cachedFile);
     }
+    deleteThumbnails(cachedFile);
   }
 
   /**
@@ -442,6 +691,7 @@ public class ImageCache {
     }
     Path cachedFile = ImageCache.getCacheDir().resolve(getMD5WithSubfolder(url) + "." + ext);
     if (Files.exists(cachedFile)) {
+      ImageCacheIndex.hit(cachedFile);
       return cachedFile;
     }
 
@@ -450,11 +700,14 @@ public class ImageCache {
       return null;
     }
 
+    ImageCacheIndex.miss();
+
     try {
       LOGGER.trace("downloading image to the image cache: {}", url);
       Url u = new Url(url);
       boolean ok = u.download(cachedFile);
       if (ok) {
+        ImageCacheIndex.put(cachedFile, 0);
         return cachedFile;
       }
     }
@@ -495,7 +748,9 @@ public class ImageCache {
     Path path = mediaFile.getFileAsPath().toAbsolutePath();
 
     Path cachedFile = ImageCache.getCacheDir().resolve(getMD5WithSubfolder(path.toString()) + "." + Utils.getExtension(path));
+    // no check of the original file here (this is called for every image shown in the UI) - stale cached files are re-created when caching
     if (Files.exists(cachedFile)) {
+      ImageCacheIndex.hit(cachedFile);
       return cachedFile;
     }
 
@@ -510,6 +765,8 @@ public class ImageCache {
       return null;
     }
 
+    ImageCacheIndex.miss();
+
     try {
       return cacheImage(mediaFile);
     }
@@ -570,6 +827,8 @@ public class ImageCache {
       Path file = ImageCache.getCachedFile(mediaFile);
       if (file != null) {
         Utils.deleteFileSafely(file);
+        ImageCacheIndex.remove(file);
+        deleteThumbnails(file);
       }
     });
   }
@@ -0,0 +1,501 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.Globals;
+import org.tinymediamanager.core.database.DatabaseCompactionService;
+
+/**
+ * The class ImageCacheIndex. A persistent index of all files in the image cache (size, last access and the modification time of the source file).
+ * The index is used to
+ * <ul>
+ * <li>limit the size of the image cache ({@link Settings#getImageCacheLimit()}) by evicting the least recently used files</li>
+ * <li>detect stale cached files whose source file has been changed after caching</li>
+ * <li>collect hit/miss/eviction statistics</li>
+ * </ul>
+ * Files in the image cache which are not in the index yet (e.g. from an older version) are added on the first start.<br />
+ * The index map is thread safe on its own, so hits and new files are recorded without a global lock. Walking the cache directory and the
+ * eviction run in a background thread (holding the lock which keeps the compaction off the index), so a caller (e.g. the EDT) never
+ * deletes or walks files
+ *
+ * @author Manuel Laggner
+ */
+public class ImageCacheIndex {
+  private static final Logger          LOGGER                 = LoggerFactory.getLogger(ImageCacheIndex.class);
+  private static final String          INDEX_DB               = "imagecache.db";
+  private static final long            MAX_COMPACT_TIME       = 1000;
+  // the last access is only written if it is older than this (to avoid a write for every access)
+  private static final long            ACCESS_UPDATE_INTERVAL = 60000;
+  // evict down to 90% of the limit to avoid an eviction on every new file
+  private static final int             EVICTION_TARGET        = 90;
+
+  private static final AtomicLong      HITS                   = new AtomicLong();
+  private static final AtomicLong      MISSES                 = new AtomicLong();
+  private static final AtomicLong      EVICTIONS              = new AtomicLong();
+  private static final AtomicLong      STALE                  = new AtomicLong();
+  private static final AtomicLong      TOTAL_SIZE             = new AtomicLong();
+  private static final AtomicBoolean   EVICTING               = new AtomicBoolean();
+  private static final ReentrantLock   LOCK                   = new ReentrantLock();
+  private static final ExecutorService EXECUTOR               = Executors.newSingleThreadExecutor(runnable -> {
+                                                                Thread thread = new Thread(runnable, "imagecache-index");
+                                                                thread.setDaemon(true);
+                                                                return thread;
+                                                              });
+
+  private static MVStore               mvStore;
+  private static MVMap<String, String> index;
+  private static volatile boolean      initialized            = false;
+
+  private ImageCacheIndex() {
+    throw new IllegalAccessError();
+  }
+
+  private static MVMap<String, String> getIndex() {
+    if (!initialized) {
+      synchronized (ImageCacheIndex.class) {
+        if (!initialized) {
+          initIndex();
+          initialized = true;
+
+          MVMap<String, String> map = index;
+          if (map != null) {
+            EXECUTOR.execute(() -> initSize(map));
+          }
+        }
+      }
+    }
+    return index;
+  }
+
+  private static void initIndex() {
+    Path databaseFile = Paths.get(Globals.CACHE_FOLDER, INDEX_DB);
+    try {
+      mvStore = new MVStore.Builder().fileName(databaseFile.toString()).compress().open();
+      index = mvStore.openMap("index");
+      DatabaseCompactionService.getInstance().register(INDEX_DB, mvStore, LOCK);
+    }
+    catch (Exception e) {
+      LOGGER.warn("could not open the image cache index - '{}'", e.getMessage());
+      Utils.deleteFileSafely(databaseFile);
+      closeStore();
+    }
+  }
+
+  /**
+   * rebuild the index if needed and sum up the size of all indexed files (runs in the background thread)
+   */
+  private static void initSize(MVMap<String, String> map) {
+    LOCK.lock();
+    try {
+      // the index has been closed meanwhile
+      if (map != index) {
+        return;
+      }
+
+      if (map.isEmpty()) {
+        rebuild(map);
+      }
+
+      long totalSize = 0;
+      for (String value : map.values()) {
+        totalSize += Entry.parse(value).size;
+      }
+      TOTAL_SIZE.set(totalSize);
+      LOGGER.debug("image cache index: {} files, {} bytes", map.size(), totalSize);
+    }
+    catch (Exception e) {
+      LOGGER.debug("could not sum up the image cache index - {}", e.getMessage());
+    }
+    finally {
+      LOCK.unlock();
+    }
+
+    evictIfNeeded(map);
+  }
+
+  /**
+   * add all files of the image cache to the index (the source modification time is unknown)
+   */
+  private static void rebuild(MVMap<String, String> map) {
+    Path cacheDir = ImageCache.getCacheDir();
+    if (!Files.isDirectory(cacheDir)) {
+      return;
+    }
+
+    try (Stream<Path> stream = Files.walk(cacheDir, 2)) {
+      Iterator<Path> iterator = stream.iterator();
+      // stop walking as soon as the index gets closed
+      while (initialized && iterator.hasNext()) {
+        Path file = iterator.next();
+        try {
+          BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+          String key = getKey(file);
+          if (attrs.isRegularFile() && key != null) {
+            // do not overwrite files which have been added meanwhile
+            map.putIfAbsent(key, new Entry(attrs.size(), attrs.lastModifiedTime().toMillis(), 0).toString());
+          }
+        }
+        catch (Exception e) {
+          LOGGER.trace("could not index '{}' - {}", file, e.getMessage());
+        }
+      }
+    }
+    catch (Exception e) {
+      LOGGER.debug("could not index the image cache - {}", e.getMessage());
+    }
+  }
+
+  private static String getKey(Path cachedFile) {
+    Path cacheDir = ImageCache.getCacheDir().toAbsolutePath();
+    Path file = cachedFile.toAbsolutePath();
+    if (!file.startsWith(cacheDir) || file.equals(cacheDir)) {
+      return null;
+    }
+    return cacheDir.relativize(file).toString().replace('\\', '/');
+  }
+
+  /**
+   * add a new cached file to the index. Least recently used files are evicted in the background if the image cache exceeds its limit
+   *
+   * @param cachedFile
+   *          the cached file
+   * @param sourceModified
+   *          the modification time of the source file (0 if unknown)
+   */
+  public static void put(Path cachedFile, long sourceModified) {
+    String key = getKey(cachedFile);
+    MVMap<String, String> map = key == null ? null : getIndex();
+    if (map == null) {
+      return;
+    }
+
+    if (add(map, key, cachedFile, sourceModified)) {
+      evictIfNeeded(map);
+    }
+  }
+
+  private static boolean add(MVMap<String, String> map, String key, Path cachedFile, long sourceModified) {
+    try {
+      long size = Files.size(cachedFile);
+      String oldValue = map.put(key, new Entry(size, System.currentTimeMillis(), sourceModified).toString());
+      TOTAL_SIZE.addAndGet(size - (oldValue == null ? 0 : Entry.parse(oldValue).size));
+      return true;
+    }
+    catch (Exception e) {
+      LOGGER.trace("could not add '{}' to the image cache index - {}", cachedFile, e.getMessage());
+      return false;
+    }
+  }
+
+  private static void evictIfNeeded(MVMap<String, String> map) {
+    long limit = Settings.getInstance().getImageCacheLimit() * 1024L * 1024L;
+    // only one eviction is pending at a time
+    if (limit > 0 && TOTAL_SIZE.get() > limit && EVICTING.compareAndSet(false, true)) {
+      EXECUTOR.execute(() -> {
+        LOCK.lock();
+        try {
+          // the index has been closed meanwhile
+          if (map == index) {
+            evict(map, limit * EVICTION_TARGET / 100);
+          }
+        }
+        catch (Exception e) {
+          LOGGER.debug("could not evict files from the image cache - {}", e.getMessage());
+        }
+        finally {
+          LOCK.unlock();
+          EVICTING.set(false);
+        }
+      });
+    }
+  }
+
+  /**
+   * check if the cached file is stale (the source file has been modified after caching)
+   *
+   * @param cachedFile
+   *          the cached file
+   * @param sourceModified
+   *          the current modification time of the source file (0 if unknown)
+   * @return true if the cached file is stale
+   */
+  public static boolean isStale(Path cachedFile, long sourceModified) {
+    String key = getKey(cachedFile);
+    MVMap<String, String> map = key == null ? null : getIndex();
+    if (map == null || sourceModified <= 0) {
+      return false;
+    }
+
+    String value = map.get(key);
+    if (value == null) {
+      return false;
+    }
+
+    long cachedSourceModified = Entry.parse(value).sourceModified;
+    return cachedSourceModified > 0 && cachedSourceModified != sourceModified;
+  }
+
+  /**
+   * record a cache hit - the last access of the cached file is updated
+   *
+   * @param cachedFile
+   *          the cached file
+   */
+  public static void hit(Path cachedFile) {
+    hit(cachedFile, 0);
+  }
+
+  /**
+   * record a cache hit - the last access of the cached file is updated
+   *
+   * @param cachedFile
+   *          the cached file
+   * @param sourceModified
+   *          the modification time of the source file (0 if unknown)
+   */
+  public static void hit(Path cachedFile, long sourceModified) {
+    HITS.incrementAndGet();
+
+    String key = getKey(cachedFile);
+    MVMap<String, String> map = key == null ? null : getIndex();
+    if (map == null) {
+      return;
+    }
+
+    String value = map.get(key);
+    if (value == null) {
+      // not indexed yet (e.g. written directly into the cache) - reading the file size is left to the background thread
+      EXECUTOR.execute(() -> {
+        if (add(map, key, cachedFile, sourceModified)) {
+          evictIfNeeded(map);
+        }
+      });
+      return;
+    }
+
+    Entry entry = Entry.parse(value);
+    long now = System.currentTimeMillis();
+    if (now - entry.lastAccess > ACCESS_UPDATE_INTERVAL || (entry.sourceModified <= 0 && sourceModified > 0)) {
+      entry.lastAccess = now;
+      if (sourceModified > 0) {
+        entry.sourceModified = sourceModified;
+      }
+      // do not overwrite a concurrent update of this entry
+      map.replace(key, value, entry.toString());
+    }
+  }
+
+  /**
+   * record a cache miss
+   */
+  public static void miss() {
+    MISSES.incrementAndGet();
+  }
+
+  /**
+   * remove a stale cached file from the image cache and the index
+   *
+   * @param cachedFile
+   *          the cached file
+   */
+  public static void invalidate(Path cachedFile) {
+    STALE.incrementAndGet();
+    Utils.deleteFileSafely(cachedFile);
+    remove(cachedFile);
+  }
+
+  /**
+   * remove the cached file from the index (the file itself has already been deleted)
+   *
+   * @param cachedFile
+   *          the cached file
+   */
+  public static void remove(Path cachedFile) {
+    String key = getKey(cachedFile);
+    MVMap<String, String> map = key == null ? null : getIndex();
+    if (map == null) {
+      return;
+    }
+
+    String oldValue = map.remove(key);
+    if (oldValue != null) {
+      TOTAL_SIZE.addAndGet(-Entry.parse(oldValue).size);
+    }
+  }
+
+  /**
+   * clear the whole index (after the image cache has been cleared)
+   */
+  public static void clear() {
+    MVMap<String, String> map = getIndex();
+    LOCK.lock();
+    try {
+      if (map != null) {
+        map.clear();
+      }
+      TOTAL_SIZE.set(0);
+    }
+    finally {
+      LOCK.unlock();
+    }
+  }
+
+  /**
+   * wait until the pending background tasks (rebuild, indexing of hits and eviction) have been finished
+   */
+  static void awaitPendingTasks() throws Exception {
+    getIndex();
+    // an eviction may be queued by an earlier task
+    EXECUTOR.submit(() -> {
+    }).get();
+    EXECUTOR.submit(() -> {
+    }).get();
+  }
+
+  private static void evict(MVMap<String, String> map, long targetSize) {
+    // take a snapshot of the index and pick the least recently used files
+    List<Map.Entry<String, String>> entries = new ArrayList<>();
+    for (Map.Entry<String, String> mapEntry : map.entrySet()) {
+      entries.add(Map.entry(mapEntry.getKey(), mapEntry.getValue()));
+    }
+    entries.sort(Comparator.comparingLong(mapEntry -> Entry.parse(mapEntry.getValue()).lastAccess));
+
+    List<String> candidates = new ArrayList<>();
+    for (Map.Entry<String, String> mapEntry : entries) {
+      if (TOTAL_SIZE.get() <= targetSize) {
+        break;
+      }
+      // skip entries which have been changed meanwhile (e.g. a hit or a re-cached file)
+      if (map.remove(mapEntry.getKey(), mapEntry.getValue())) {
+        TOTAL_SIZE.addAndGet(-Entry.parse(mapEntry.getValue()).size);
+        candidates.add(mapEntry.getKey());
+      }
+    }
+
+    Path cacheDir = ImageCache.getCacheDir();
+    for (String key : candidates) {
+      Utils.deleteFileSafely(cacheDir.resolve(key));
+    }
+
+    int evicted = candidates.size();
+    EVICTIONS.addAndGet(evicted);
+    LOGGER.debug("evicted {} files from the image cache - {}", evicted, getStatistics());
+  }
+
+  /**
+   * get the statistics of the image cache
+   *
+   * @return the statistics as a human readable string
+   */
+  public static String getStatistics() {
+    MVMap<String, String> map = initialized ? index : null;
+    return String.format("%d files, %d MiB, %d hits, %d misses, %d evictions, %d stale files", map == null ? 0 : map.size(),
+        TOTAL_SIZE.get() / (1024 * 1024), HITS.get(), MISSES.get(), EVICTIONS.get(), STALE.get());
+  }
+
+  /**
+   * close the index
+   */
+  public static synchronized void shutdown() {
+    if (initialized) {
+      LOGGER.info("image cache: {}", getStatistics());
+    }
+
+    // stops a running rebuild
+    initialized = false;
+    DatabaseCompactionService.getInstance().unregister(INDEX_DB);
+
+    // wait for a running rebuild/eviction
+    LOCK.lock();
+    try {
+      if (mvStore != null && !mvStore.isClosed()) {
+        mvStore.compactFile(MAX_COMPACT_TIME);
+        mvStore.close();
+      }
+    }
+    catch (Exception e) {
+      LOGGER.warn("could not close the image cache index - deleting it");
+      Utils.deleteFileSafely(Paths.get(Globals.CACHE_FOLDER, INDEX_DB));
+    }
+    finally {
+      closeStore();
+      LOCK.unlock();
+    }
+  }
+
+  private static void closeStore() {
+    if (mvStore != null && !mvStore.isClosed()) {
+      try {
+        mvStore.closeImmediately();
+      }
+      catch (Exception ignored) {
+        // nothing to do here
+      }
+    }
+    mvStore = null;
+    index = null;
+  }
+
+  /**
+   * an entry of the index - stored as "size;lastAccess;sourceModified"
+   */
+  private static class Entry {
+    private final long size;
+    private long       lastAccess;
+    private long       sourceModified;
+
+    private Entry(long size, long lastAccess, long sourceModified) {
+      this.size = size;
+      this.lastAccess = lastAccess;
+      this.sourceModified = sourceModified;
+    }
+
+    private static Entry parse(String value) {
+      String[] parts = value.split(";");
+      try {
+        return new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+      }
+      catch (Exception e) {
+        return new Entry(0, 0, 0);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return size + ";" + lastAccess + ";" + sourceModified;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.tinymediamanager.core.entities.MediaFile;
+
+/**
+ * The class ImageCachePriority. The UI reports the images the user is looking at (the selected entity and the visible rows of the tables/trees)
+ * here; the {@link org.tinymediamanager.core.tasks.ImageCacheTask} caches these images before all others.<br />
+ * Additionally the UI reports user interaction (scrolling, selection changes) - the background caching pauses while the UI is busy
+ *
+ * @author Manuel Laggner
+ */
+public class ImageCachePriority {
+  // the UI counts as busy for this time after the last interaction
+  private static final long          BUSY_TIMEOUT = 500;
+
+  private static volatile List<Path> selected     = Collections.emptyList();
+  private static volatile List<Path> visible      = Collections.emptyList();
+  private static volatile long       lastBusy     = 0;
+
+  private ImageCachePriority() {
+    throw new IllegalAccessError();
+  }
+
+  /**
+   * set the media files of the selected entities - these images are cached first
+   *
+   * @param mediaFiles
+   *          the media files of the selected entities (only graphics are taken)
+   */
+  public static void setSelected(Collection<MediaFile> mediaFiles) {
+    selected = getImageFiles(mediaFiles);
+    markBusy();
+  }
+
+  /**
+   * set the media files of the entities in the visible rows - these images are cached right after the images of the selected entities.<br />
+   * This does not mark the UI as busy, since the visible rows also change without any interaction (e.g. new rows while updating the data
+   * sources) - scrolling has to be reported via {@link #markBusy()}
+   *
+   * @param mediaFiles
+   *          the media files of the visible entities (only graphics are taken)
+   */
+  public static void setVisible(Collection<MediaFile> mediaFiles) {
+    visible = getImageFiles(mediaFiles);
+  }
+
+  private static List<Path> getImageFiles(Collection<MediaFile> mediaFiles) {
+    List<Path> files = new ArrayList<>();
+    for (MediaFile mediaFile : mediaFiles) {
+      if (mediaFile.isGraphic()) {
+        files.add(mediaFile.getFileAsPath());
+      }
+    }
+    return Collections.unmodifiableList(files);
+  }
+
+  /**
+   * get all prioritized images: the images of the selected entities first, then the ones of the visible entities
+   *
+   * @return the prioritized images in the order of their priority
+   */
+  public static Collection<Path> getPrioritized() {
+    List<Path> currentSelected = selected;
+    List<Path> currentVisible = visible;
+    if (currentVisible.isEmpty()) {
+      return currentSelected;
+    }
+
+    Set<Path> prioritized = new LinkedHashSet<>(currentSelected);
+    prioritized.addAll(currentVisible);
+    return prioritized;
+  }
+
+  /**
+   * report an interaction of the user with the UI
+   */
+  public static void markBusy() {
+    lastBusy = System.currentTimeMillis();
+  }
+
+  /**
+   * check if the user is interacting with the UI right now
+   *
+   * @return true if there was an interaction within the last few hundred milliseconds
+   */
+  public static boolean isBusy() {
+    return System.currentTimeMillis() - lastBusy < BUSY_TIMEOUT;
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+/**
+ * The class ImageMemoryBudget. A global budget for the memory of decoded images: every decode reserves the (estimated) memory of its pixels before
+ * decoding and waits if the budget is exhausted. This limits the memory of concurrent decodes instead of running into OutOfMemoryErrors.<br />
+ * The budget defaults to a quarter of the max heap and can be set (in MiB) with the jvm arg <i>tmm.image.memorybudget</i>
+ *
+ * @author Manuel Laggner
+ */
+public class ImageMemoryBudget {
+  private static final ImageMemoryBudget INSTANCE = new ImageMemoryBudget(getDefaultCapacity());
+
+  private final long                     capacity;
+  private long                           used     = 0;
+
+  ImageMemoryBudget(long capacity) {
+    this.capacity = Math.max(1, capacity);
+  }
+
+  public static ImageMemoryBudget getInstance() {
+    return INSTANCE;
+  }
+
+  private static long getDefaultCapacity() {
+    long budget = Long.getLong("tmm.image.memorybudget", 0);
+    if (budget > 0) {
+      return budget * 1024 * 1024;
+    }
+    return Runtime.getRuntime().maxMemory() / 4;
+  }
+
+  /**
+   * estimate the memory of an image with the given size (4 bytes per pixel)
+   *
+   * @param width
+   *          the width of the image
+   * @param height
+   *          the height of the image
+   * @return the estimated memory in bytes
+   */
+  public static long estimate(int width, int height) {
+    return 4L * width * height;
+  }
+
+  /**
+   * reserve the given amount of memory - waits until the memory is available. A reservation bigger than the whole budget is admitted if nothing
+   * else is reserved
+   *
+   * @param bytes
+   *          the amount of memory to reserve
+   * @return the reserved amount of memory which has to be passed to {@link #release(long)}
+   * @throws InterruptedException
+   *           if the thread has been interrupted while waiting
+   */
+  public synchronized long acquire(long bytes) throws InterruptedException {
+    long reserved = Math.max(1, Math.min(bytes, capacity));
+    while (used > 0 && used + reserved > capacity) {
+      wait();
+    }
+    used += reserved;
+    return reserved;
+  }
+
+  /**
+   * release the memory reserved by {@link #acquire(long)}
+   *
+   * @param reserved
+   *          the reserved amount of memory
+   */
+  public synchronized void release(long reserved) {
+    used = Math.max(0, used - reserved);
+    notifyAll();
+  }
+
+  /**
+   * get the currently reserved memory
+   *
+   * @return the reserved memory in bytes
+   */
+  public synchronized long getUsed() {
+    return used;
+  }
+
+  /**
+   * get the capacity of this budget
+   *
+   * @return the capacity in bytes
+   */
+  public long getCapacity() {
+    return capacity;
+  }
+}
@@ -16,6 +16,7 @@
 
 package org.tinymediamanager.core;
 
+import java.awt.Dimension;
 import java.awt.Image;
 import java.awt.Point;
 import java.awt.Toolkit;
@@ -30,12 +31,15 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Iterator;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
 import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
+import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
 import javax.swing.ImageIcon;
 
@@ -244,6 +248,35 @@ public class ImageUtils {
     return size;
   }
 
+  /**
+   * read the size of the given image from its header (without decoding the image)
+   *
+   * @param file
+   *          the image file
+   * @return the size of the image or null if the size could not be read
+   */
+  public static Dimension readImageSize(Path file) {
+    try (ImageInputStream iis = ImageIO.createImageInputStream(file.toFile())) {
+      Iterator<ImageReader> readers = iis == null ? null : ImageIO.getImageReaders(iis);
+      if (readers == null || !readers.hasNext()) {
+        return null;
+      }
+
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(iis, true, true);
+        return new Dimension(reader.getWidth(0), reader.getHeight(0));
+      }
+      finally {
+        reader.dispose();
+      }
+    }
+    catch (Exception e) {
+      LOGGER.trace("could not read the size of '{}' - {}", file, e.getMessage());
+      return null;
+    }
+  }
+
   public static BufferedImage createImage(byte[] imageData) throws IOException {
     try {
       // try to read with the fast implementation
@@ -49,6 +49,8 @@ import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.entities.MediaFileAudioStream;
 import org.tinymediamanager.core.entities.MediaFileSubtitle;
 import org.tinymediamanager.core.entities.MediaStreamInfo.Flags;
+import org.tinymediamanager.core.mediainfo.BoundedMediaInfoReader;
+import org.tinymediamanager.core.mediainfo.MediaInfoCache;
 import org.tinymediamanager.core.mediainfo.MediaInfoFile;
 import org.tinymediamanager.core.mediainfo.MediaInfoUtils;
 import org.tinymediamanager.core.mediainfo.MediaInfoXMLParser;
@@ -689,11 +691,32 @@ public class MediaFileHelper {
    * @return true if the filesize changed, false otherwise
    */
   public static boolean gatherFileInformation(MediaFile mediaFile) {
+    return gatherFileInformation(mediaFile, null);
+  }
+
+  /**
+   * gather basic file information like file size, creation date and last modified date - with the attributes which are already known from the scan
+   *
+   * @param mediaFile
+   *          the {@link MediaFile} to gather the information for
+   * @param attributeCache
+   *          the attribute cache of the scan (or null to read the attributes from the file system)
+   * @return true if the filesize changed, false otherwise
+   */
+  public static boolean gatherFileInformation(MediaFile mediaFile, FileAttributeCache attributeCache) {
     boolean dirty = false;
+    boolean directory = false;
 
     // get basic infos; file size, creation date and last modified
     try {
-      BasicFileAttributes view = Files.readAttributes(mediaFile.getFileAsPath(), BasicFileAttributes.class);
+      BasicFileAttributes view;
+      if (attributeCache != null) {
+        view = attributeCache.readAttributes(mediaFile.getFileAsPath());
+      }
+      else {
+        view = Files.readAttributes(mediaFile.getFileAsPath(), BasicFileAttributes.class);
+      }
+      directory = view.isDirectory();
       if (view.creationTime().toMillis() > 100000) {
         Date creDat = new Date(view.creationTime().toMillis());
         mediaFile.setDateCreated(creDat);
@@ -715,7 +738,7 @@ public class MediaFileHelper {
     }
 
     // calculate the filesize for our virtual disc files
-    if (mediaFile.getFile().toFile().isDirectory()) {
+    if (directory) {
       long size = FileUtils.sizeOfDirectory(mediaFile.getFile().toFile());
       if (size > 0 && mediaFile.getFilesize() > 0 && size != mediaFile.getFilesize()) {
         dirty = true;
@@ -812,6 +835,32 @@ public class MediaFileHelper {
       }
     }
 
+    // the very same file might have been parsed before (e.g. before it has been moved or the database has been restored)
+    // the key of the cache (reads the file) is computed only once for the lookup and the store - and not at all for a forced reload
+    String cacheKey = null;
+    if (mediaInfoFiles.isEmpty() && !force && MediaInfoUtils.useMediaInfo()) {
+      cacheKey = MediaInfoCache.getKey(mediaFile.getFileAsPath());
+    }
+
+    if (mediaInfoFiles.isEmpty() && cacheKey != null) {
+      mediaInfoFiles = MediaInfoCache.get(mediaFile, cacheKey);
+
+      if (!mediaInfoFiles.isEmpty()) {
+        LOGGER.trace("mediainfo taken from the cache - '{}'", mediaFile.getFilename());
+        parseMediainfoSnapshot(mediaFile, mediaInfoFiles);
+
+        // there is no valid XML file (yet) - write a new one if configured
+        if (Settings.getInstance().isWriteMediaInfoXml() && mediaFile.getType().equals(MediaFileType.VIDEO)) {
+          try {
+            new MediaInfoXmlCreator(mediaFile, mediaInfoFiles).write();
+          }
+          catch (Exception e) {
+            LOGGER.debug("could not write mediainfo xml - {}", e.getMessage());
+          }
+        }
+      }
+    }
+
     // read mediainfo directly
     if (mediaInfoFiles.isEmpty()) {
       if (mediaFile.isISO()) {
@@ -822,6 +871,7 @@ public class MediaFileHelper {
       }
 
       if (!mediaInfoFiles.isEmpty()) {
+        MediaInfoCache.put(mediaFile, cacheKey, mediaInfoFiles);
         parseMediainfoSnapshot(mediaFile, mediaInfoFiles);
       }
     }
@@ -1023,7 +1073,7 @@ public class MediaFileHelper {
    *          the media file
    * @return a {@link List} of all associated files along with libmediainfo data
    */
-  private static synchronized List<MediaInfoFile> getMediaInfoFromSingleFile(MediaFile mediaFile) {
+  private static List<MediaInfoFile> getMediaInfoFromSingleFile(MediaFile mediaFile) {
     if (!MediaInfoUtils.useMediaInfo()) {
       return Collections.emptyList();
     }
@@ -1047,8 +1097,22 @@ public class MediaFileHelper {
     }
 
     for (MediaInfoFile file : mediaInfoFiles) {
+      Path path = Paths.get(file.getPath(), file.getFilename());
+
+      // files on network mounts may be read with a limited amount of bytes
+      if (BoundedMediaInfoReader.isActive(path)) {
+        try {
+          file.setSnapshot(new BoundedMediaInfoReader().read(path));
+          continue;
+        }
+        // sometimes also an error is thrown
+        catch (Exception | Error e) {
+          LOGGER.debug("bounded read of {} failed - using the default mode - {}", path, e.getMessage());
+        }
+      }
+
       try (MediaInfo mediaInfo = new MediaInfo()) {
-        if (!mediaInfo.open(Paths.get(file.getPath(), file.getFilename()))) {
+        if (!mediaInfo.open(path)) {
           LOGGER.error("Mediainfo could not open file: {}", file);
         }
         else {
@@ -1102,7 +1166,7 @@ public class MediaFileHelper {
    *          the media file
    * @return a {@link List} of all associated files along with libmediainfo data
    */
-  private static synchronized List<MediaInfoFile> getMediaInfoSnapshotFromISO(MediaFile mediaFile) {
+  private static List<MediaInfoFile> getMediaInfoSnapshotFromISO(MediaFile mediaFile) {
     List<MediaInfoFile> miFiles;
 
     if (!MediaInfoUtils.useMediaInfo()) {
@@ -1134,7 +1198,6 @@ public class MediaFileHelper {
   static List<MediaInfoFile> parseIso9660(MediaFile mediaFile) {
     List<MediaInfoFile> miFiles = new ArrayList<>();
 
-    int bufferSize = 64 * 1024;
     try (Iso9660FileSystem image = new Iso9660FileSystem(mediaFile.getFileAsPath().toFile(), true)) {
       LOGGER.trace("ISO: Open");
 
@@ -1150,6 +1213,7 @@ public class MediaFileHelper {
       }
 
       List<MediaInfoFile> relevantFiles = detectRelevantFiles(allFiles);
+      byte[] buffer = new byte[64 * 1024];
 
       for (Iso9660FileEntry entry : fileEntries) {
         MediaInfoFile mif = new MediaInfoFile(Paths.get(entry.getPath()), entry.getSize());
@@ -1161,46 +1225,9 @@ public class MediaFileHelper {
 
         MediaFile mf = new MediaFile(Paths.get(mediaFile.getFileAsPath().toString(), entry.getPath())); // set ISO as MF path
         if (mf.isDiscFile()) { // count all known DVD/BR/HDDVD files!
-
-          try (MediaInfo fileMI = new MediaInfo()) {
-            byte[] fromBuffer = new byte[bufferSize];
-            int fromBufferSize; // The size of the read file buffer
-            long fileSize = entry.getSize();
-
-            // Preparing to fill MediaInfo with a buffer
-            fileMI.openBufferInit(fileSize, 0);
-
-            long pos = 0L;
-            // The parsing loop
-            do {
-              // limit read to maxBuffer, or to end of file size (cannot determine file end in stream!!)
-              long toread = pos + bufferSize > fileSize ? fileSize - pos : bufferSize;
-
-              // Reading data somewhere, do what you want for this.
-              fromBufferSize = image.readBytes(entry, pos, fromBuffer, 0, (int) toread);
-              if (fromBufferSize > 0) {
-                pos += fromBufferSize; // add bytes read to file position
-
-                // Sending the buffer to MediaInfo
-                int result = fileMI.openBufferContinue(fromBuffer, fromBufferSize);
-                if ((result & 8) == 8) { // Status.Finalized
-                  break;
-                }
-
-                // Testing if MediaInfo request to go elsewhere
-                if (fileMI.openBufferContinueGoToGet() != -1) {
-                  pos = fileMI.openBufferContinueGoToGet();
-                  LOGGER.trace("ISO: Seek to {}", pos);
-                  fileMI.openBufferInit(fileSize, pos); // Informing MediaInfo we have seek
-                }
-              }
-            } while (fromBufferSize > 0);
-
-            // Finalizing
-            LOGGER.trace("ISO: finalize entry");
-            fileMI.openBufferFinalize(); // This is the end of the stream, MediaInfo must finish some work
-
-            mif.setSnapshot(fileMI.snapshot());
+          try {
+            mif.setSnapshot(
+                getMediaInfoSnapshotFromImage(entry.getSize(), buffer, (pos, buf, length) -> image.readBytes(entry, pos, buf, 0, length)));
             miFiles.add(mif);
           }
           // sometimes also an error is thrown
@@ -1221,8 +1248,6 @@ public class MediaFileHelper {
     List<MediaInfoFile> miFiles = new ArrayList<>();
 
     try (UDFFileSystem image = new UDFFileSystem(mediaFile.getFileAsPath().toFile(), true)) {
-      int bufferSize = 256 * 1024;
-
       // find all relevant files to parse at the beginning to avoid unnecessary IO
       List<MediaInfoFile> allFiles = new ArrayList<>();
       List<UDFFileEntry> fileEntries = new ArrayList<>();
@@ -1235,6 +1260,7 @@ public class MediaFileHelper {
       }
 
       List<MediaInfoFile> relevantFiles = detectRelevantFiles(allFiles);
+      byte[] buffer = new byte[256 * 1024];
 
       for (UDFFileEntry entry : fileEntries) {
         MediaInfoFile mif = new MediaInfoFile(Paths.get(entry.getPath()), entry.getSize());
@@ -1244,45 +1270,9 @@ public class MediaFileHelper {
 
         LOGGER.trace("ISO: got entry {}, size : {}", entry.getPath(), entry.getSize());
 
-        try (MediaInfo fileMI = new MediaInfo()) {
-          byte[] fromBuffer = new byte[bufferSize];
-          int fromBufferSize; // The size of the read file buffer
-          long fileSize = entry.getSize();
-
-          // Preparing to fill MediaInfo with a buffer
-          fileMI.openBufferInit(fileSize, 0);
-
-          long pos = 0L;
-          // The parsing loop
-          do {
-            // limit read to maxBuffer, or to end of file size (cannot determine file end in stream!!)
-            long toread = pos + bufferSize > fileSize ? fileSize - pos : bufferSize;
-
-            // Reading data somewhere, do what you want for this.
-            fromBufferSize = image.readFileContent(entry, pos, fromBuffer, 0, (int) toread);
-            if (fromBufferSize > 0) {
-              pos += fromBufferSize; // add bytes read to file position
-
-              // Sending the buffer to MediaInfo
-              int result = fileMI.openBufferContinue(fromBuffer, fromBufferSize);
-              if ((result & 8) == 8) { // Status.Finalized
-                break;
-              }
-
-              // Testing if MediaInfo request to go elsewhere
-              if (fileMI.openBufferContinueGoToGet() != -1) {
-                pos = fileMI.openBufferContinueGoToGet();
-                LOGGER.trace("ISO: Seek to {}", pos);
-                fileMI.openBufferInit(fileSize, pos); // Informing MediaInfo we have seek
-              }
-            }
-          } while (fromBufferSize > 0);
-
-          // Finalizing
-          LOGGER.trace("ISO: finalize entry");
-          fileMI.openBufferFinalize(); // This is the end of the stream, MediaInfo must finish some work
-
-          mif.setSnapshot(fileMI.snapshot());
+        try {
+          mif.setSnapshot(
+              getMediaInfoSnapshotFromImage(entry.getSize(), buffer, (pos, buf, length) -> image.readFileContent(entry, pos, buf, 0, length)));
           miFiles.add(mif);
         }
         // sometimes also an error is thrown
@@ -1298,6 +1288,69 @@ public class MediaFileHelper {
     return miFiles;
   }
 
+  /**
+   * stream a file inside a disc image through libmediainfo (following the seek requests of libmediainfo)
+   *
+   * @param fileSize
+   *          the size of the file inside the image
+   * @param buffer
+   *          the read buffer (reused for all files of the image)
+   * @param reader
+   *          reads the content of the file at the given position
+   * @return the libmediainfo snapshot of the file
+   * @throws IOException
+   *           any exception while reading the image
+   */
+  private static Map<MediaInfo.StreamKind, List<Map<String, String>>> getMediaInfoSnapshotFromImage(long fileSize, byte[] buffer, ImageReader reader)
+      throws IOException {
+    try (MediaInfo fileMI = new MediaInfo()) {
+      int fromBufferSize; // The size of the read file buffer
+
+      // Preparing to fill MediaInfo with a buffer
+      fileMI.openBufferInit(fileSize, 0);
+
+      long pos = 0L;
+      // The parsing loop
+      do {
+        // limit read to maxBuffer, or to end of file size (cannot determine file end in stream!!)
+        long toread = pos + buffer.length > fileSize ? fileSize - pos : buffer.length;
+
+        // Reading data somewhere, do what you want for this.
+        fromBufferSize = reader.read(pos, buffer, (int) toread);
+        if (fromBufferSize > 0) {
+          pos += fromBufferSize; // add bytes read to file position
+
+          // Sending the buffer to MediaInfo
+          int result = fileMI.openBufferContinue(buffer, fromBufferSize);
+          if ((result & 8) == 8) { // Status.Finalized
+            break;
+          }
+
+          // Testing if MediaInfo request to go elsewhere
+          if (fileMI.openBufferContinueGoToGet() != -1) {
+            pos = fileMI.openBufferContinueGoToGet();
+            LOGGER.trace("ISO: Seek to {}", pos);
+            fileMI.openBufferInit(fileSize, pos); // Informing MediaInfo we have seek
+          }
+        }
+      } while (fromBufferSize > 0);
+
+      // Finalizing
+      LOGGER.trace("ISO: finalize entry");
+      fileMI.openBufferFinalize(); // This is the end of the stream, MediaInfo must finish some work
+
+      return fileMI.snapshot();
+    }
+  }
+
+  /**
+   * reads the content of a file inside a disc image
+   */
+  @FunctionalInterface
+  private interface ImageReader {
+    int read(long position, byte[] buffer, int length) throws IOException;
+  }
+
   static List<MediaInfoFile> detectRelevantFiles(List<MediaInfoFile> mediaInfoFiles) {
     if (mediaInfoFiles.isEmpty()) {
       return Collections.emptyList();
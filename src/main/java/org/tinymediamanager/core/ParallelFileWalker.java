@@ -0,0 +1,475 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class ParallelFileWalker. A replacement for {@link Files#walkFileTree(Path, java.util.Set, int, FileVisitor)} (always following links) which
+ * lists the directories concurrently in a work stealing {@link ForkJoinPool}.<br />
+ * The callbacks of the {@link FileVisitor} have the same semantics as in the JDK walker, except that they are called from several threads: the
+ * directory is visited before its content and the post visit of a directory happens after its whole subtree has been visited, but siblings are
+ * visited in parallel. The visitor has to be thread safe.<br />
+ * The amount of concurrent directory listings per mount point can be configured with the jvm arg <i>tmm.scan.threads</i> (default 4) to not flood
+ * slow network shares.<br />
+ * All read attributes are passed to the {@link FileAttributeCache} of the scan (if given)
+ *
+ * @author Manuel Laggner
+ */
+public class ParallelFileWalker {
+  private static final Logger                  LOGGER       = LoggerFactory.getLogger(ParallelFileWalker.class);
+  private static final int                     THREADS_PER_MOUNT;
+  private static final ForkJoinPool            POOL;
+  // the limits of the mounts which are walked right now
+  private static final Map<Object, MountLimit> MOUNT_LIMITS = new ConcurrentHashMap<>();
+
+  static {
+    int threads = Integer.getInteger("tmm.scan.threads", 4);
+    THREADS_PER_MOUNT = Math.max(1, Math.min(threads, 32));
+
+    // leave room to walk two mounts at full speed
+    int parallelism = Math.max(Runtime.getRuntime().availableProcessors(), 2 * THREADS_PER_MOUNT);
+    POOL = new ForkJoinPool(parallelism, pool -> {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName("tmmpool-scan-" + thread.getPoolIndex());
+      thread.setDaemon(true);
+      return thread;
+    }, null, false);
+  }
+
+  private ParallelFileWalker() {
+    throw new IllegalAccessError();
+  }
+
+  /**
+   * walk the file tree starting at the given folder
+   *
+   * @param start
+   *          the starting folder
+   * @param maxDepth
+   *          the maximum amount of directory levels to visit
+   * @param visitor
+   *          the (thread safe) visitor to invoke for each file
+   * @throws IOException
+   *           if an I/O error is thrown by the visitor
+   */
+  public static void walkFileTree(Path start, int maxDepth, FileVisitor<? super Path> visitor) throws IOException {
+    walkFileTree(start, maxDepth, visitor, null);
+  }
+
+  /**
+   * walk the file tree starting at the given folder and pass all read attributes to the given cache. Every folder is listed before it is visited
+   * then - the visitor can look up the content of the folder (e.g. skip files) in the cache
+   *
+   * @param start
+   *          the starting folder
+   * @param maxDepth
+   *          the maximum amount of directory levels to visit
+   * @param visitor
+   *          the (thread safe) visitor to invoke for each file
+   * @param attributeCache
+   *          the attribute cache of the scan (may be null)
+   * @throws IOException
+   *           if an I/O error is thrown by the visitor
+   */
+  public static void walkFileTree(Path start, int maxDepth, FileVisitor<? super Path> visitor, FileAttributeCache attributeCache)
+      throws IOException {
+    walkFileTree(start, maxDepth, visitor, attributeCache, null);
+  }
+
+  /**
+   * walk the file tree starting at the given folder and pass all read attributes to the given cache. Every folder is listed before it is visited
+   * then - except the folders which the visitor skips by their path anyway (e.g. skip folders or sub folders of disc folders)
+   *
+   * @param start
+   *          the starting folder
+   * @param maxDepth
+   *          the maximum amount of directory levels to visit
+   * @param visitor
+   *          the (thread safe) visitor to invoke for each file
+   * @param attributeCache
+   *          the attribute cache of the scan (may be null)
+   * @param skipFolder
+   *          the folders which are skipped by the visitor without looking at their content (may be null). These folders are not listed before
+   *          {@link FileVisitor#preVisitDirectory(Object, BasicFileAttributes)}
+   * @throws IOException
+   *           if an I/O error is thrown by the visitor
+   */
+  public static void walkFileTree(Path start, int maxDepth, FileVisitor<? super Path> visitor, FileAttributeCache attributeCache,
+      Predicate<Path> skipFolder) throws IOException {
+    Object mount = getMount(start);
+    MountLimit mountLimit = MOUNT_LIMITS.compute(mount, (key, value) -> {
+      MountLimit limit = value == null ? new MountLimit() : value;
+      limit.walks++;
+      return limit;
+    });
+
+    Walk walk = new Walk(visitor, maxDepth, mountLimit.semaphore, attributeCache, skipFolder);
+    WalkTask task = new WalkTask(walk, start, null, null, 0);
+
+    try {
+      if (ForkJoinTask.getPool() == POOL) {
+        task.invoke();
+      }
+      else {
+        POOL.invoke(task);
+      }
+    }
+    catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    finally {
+      // drop the limit of the mount if no other walk uses it
+      MOUNT_LIMITS.computeIfPresent(mount, (key, value) -> --value.walks == 0 ? null : value);
+    }
+  }
+
+  /**
+   * perform the given action for all items concurrently in the walker pool (e.g. to walk several folders at once) and wait until all items have
+   * been processed
+   *
+   * @param items
+   *          the items to process
+   * @param action
+   *          the action for every item
+   * @param <T>
+   *          the type of the items
+   */
+  public static <T> void invokeAll(Collection<T> items, Consumer<T> action) {
+    List<ForkJoinTask<?>> tasks = new ArrayList<>(items.size());
+    for (T item : items) {
+      tasks.add(ForkJoinTask.adapt(() -> action.accept(item)));
+    }
+
+    if (ForkJoinTask.getPool() == POOL) {
+      ForkJoinTask.invokeAll(tasks);
+    }
+    else {
+      POOL.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+  }
+
+  private static Object getMount(Path start) {
+    Object mount;
+    try {
+      mount = Files.getFileStore(start);
+    }
+    catch (Exception e) {
+      mount = start.toAbsolutePath().getRoot();
+    }
+    if (mount == null) {
+      mount = "";
+    }
+    return mount;
+  }
+
+  /**
+   * the permits of one mount - shared by all walks on this mount (only modified inside the compute functions of {@link #MOUNT_LIMITS})
+   */
+  private static class MountLimit {
+    private final Semaphore semaphore = new Semaphore(THREADS_PER_MOUNT);
+    private int             walks     = 0;
+  }
+
+  /**
+   * waits for a permit of the mount - the pool may start a spare thread meanwhile, so a blocked worker does not stall the other mounts
+   */
+  private static class MountPermit implements ForkJoinPool.ManagedBlocker {
+    private final Semaphore semaphore;
+    private boolean         acquired = false;
+
+    private MountPermit(Semaphore semaphore) {
+      this.semaphore = semaphore;
+    }
+
+    private static void acquire(Semaphore semaphore) {
+      MountPermit permit = new MountPermit(semaphore);
+      try {
+        ForkJoinPool.managedBlock(permit);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      if (!permit.acquired) {
+        semaphore.acquireUninterruptibly();
+      }
+    }
+
+    @Override
+    public boolean block() {
+      if (!acquired) {
+        semaphore.acquireUninterruptibly();
+        acquired = true;
+      }
+      return true;
+    }
+
+    @Override
+    public boolean isReleasable() {
+      if (!acquired) {
+        acquired = semaphore.tryAcquire();
+      }
+      return acquired;
+    }
+  }
+
+  /**
+   * the shared state of one walk
+   */
+  private static class Walk {
+    private final FileVisitor<? super Path> visitor;
+    private final int                       maxDepth;
+    private final Semaphore                 mountLimit;
+    private final FileAttributeCache        attributeCache;
+    private final Predicate<Path>           skipFolder;
+    private final AtomicBoolean             terminated = new AtomicBoolean(false);
+
+    private Walk(FileVisitor<? super Path> visitor, int maxDepth, Semaphore mountLimit, FileAttributeCache attributeCache,
+        Predicate<Path> skipFolder) {
+      this.visitor = visitor;
+      this.maxDepth = maxDepth;
+      this.mountLimit = mountLimit;
+      this.attributeCache = attributeCache;
+      this.skipFolder = skipFolder;
+    }
+
+    private BasicFileAttributes readAttributes(Path path) throws IOException {
+      try {
+        if (attributeCache != null) {
+          return attributeCache.readAttributes(path);
+        }
+        return Files.readAttributes(path, BasicFileAttributes.class);
+      }
+      catch (IOException e) {
+        // a broken link - visit the link itself (same as the JDK walker)
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        if (attributeCache != null) {
+          attributeCache.put(path, attrs);
+        }
+        return attrs;
+      }
+    }
+
+    private boolean check(FileVisitResult result) {
+      if (result == FileVisitResult.TERMINATE) {
+        terminated.set(true);
+      }
+      return !terminated.get();
+    }
+  }
+
+  /**
+   * visits one entry; directories fork a task for every sub directory
+   */
+  private static class WalkTask extends RecursiveAction {
+    private static final long             serialVersionUID = 1L;
+
+    private final transient Walk          walk;
+    private final transient Path          path;
+    private final transient WalkTask      parent;
+    private final int                     depth;
+
+    private transient Object              fileKey;
+    private transient BasicFileAttributes attrs;
+
+    private WalkTask(Walk walk, Path path, BasicFileAttributes attrs, WalkTask parent, int depth) {
+      this.walk = walk;
+      this.path = path;
+      this.attrs = attrs;
+      this.parent = parent;
+      this.depth = depth;
+    }
+
+    @Override
+    protected void compute() {
+      if (walk.terminated.get()) {
+        return;
+      }
+
+      try {
+        visit();
+      }
+      catch (IOException e) {
+        walk.terminated.set(true);
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private void visit() throws IOException {
+      // the attributes of sub directories have already been read while listing the parent
+      if (attrs == null) {
+        try {
+          attrs = walk.readAttributes(path);
+        }
+        catch (IOException e) {
+          walk.check(walk.visitor.visitFileFailed(path, e));
+          return;
+        }
+      }
+
+      if (!attrs.isDirectory() || depth >= walk.maxDepth) {
+        walk.check(walk.visitor.visitFile(path, attrs));
+        return;
+      }
+
+      // links pointing to a parent would end in an endless loop
+      fileKey = attrs.fileKey();
+      if (isLoop()) {
+        walk.check(walk.visitor.visitFileFailed(path, new FileSystemLoopException(path.toString())));
+        return;
+      }
+
+      List<Path> entries = new ArrayList<>();
+      IOException exception = null;
+      boolean listed = false;
+
+      // with an attribute cache the folder is listed before it is visited - the visitor can look up its content (e.g. skip files) then
+      if (walk.attributeCache != null && (walk.skipFolder == null || !walk.skipFolder.test(path))) {
+        exception = listEntries(entries);
+        if (exception == null) {
+          walk.attributeCache.putListing(path, entries);
+        }
+        listed = true;
+      }
+
+      FileVisitResult result = walk.visitor.preVisitDirectory(path, attrs);
+      if (!walk.check(result) || result == FileVisitResult.SKIP_SUBTREE || result == FileVisitResult.SKIP_SIBLINGS) {
+        return;
+      }
+
+      if (!listed) {
+        exception = listEntries(entries);
+      }
+
+      // only read the attributes of the entries with the permits of the mount
+      List<BasicFileAttributes> entryAttrs = new ArrayList<>(entries.size());
+      MountPermit.acquire(walk.mountLimit);
+      try {
+        for (Path entry : entries) {
+          try {
+            entryAttrs.add(walk.readAttributes(entry));
+          }
+          catch (IOException e) {
+            entryAttrs.add(null);
+          }
+        }
+      }
+      finally {
+        walk.mountLimit.release();
+      }
+
+      List<WalkTask> subTasks = new ArrayList<>();
+      for (int i = 0; i < entries.size() && !walk.terminated.get(); i++) {
+        Path entry = entries.get(i);
+        BasicFileAttributes attributes = entryAttrs.get(i);
+
+        if (attributes != null && (!attributes.isDirectory() || depth + 1 >= walk.maxDepth)) {
+          // files are visited right here - no need to create a task for them
+          result = walk.visitor.visitFile(entry, attributes);
+          if (!walk.check(result) || result == FileVisitResult.SKIP_SIBLINGS) {
+            break;
+          }
+        }
+        else {
+          subTasks.add(new WalkTask(walk, entry, attributes, this, depth + 1));
+        }
+      }
+
+      if (!subTasks.isEmpty()) {
+        invokeAll(subTasks);
+      }
+
+      if (!walk.terminated.get()) {
+        walk.check(walk.visitor.postVisitDirectory(path, exception));
+      }
+    }
+
+    /**
+     * list the entries of this folder (with the permits of the mount)
+     *
+     * @param entries
+     *          the list to add the entries to
+     * @return the exception if the folder could not be listed completely
+     */
+    private IOException listEntries(List<Path> entries) {
+      MountPermit.acquire(walk.mountLimit);
+      try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(path)) {
+        for (Path entry : directoryStream) {
+          entries.add(entry);
+        }
+        return null;
+      }
+      catch (IOException e) {
+        return e;
+      }
+      catch (DirectoryIteratorException e) {
+        return e.getCause();
+      }
+      finally {
+        walk.mountLimit.release();
+      }
+    }
+
+    private boolean isLoop() {
+      WalkTask ancestor = parent;
+      while (ancestor != null) {
+        if (fileKey != null && Objects.equals(fileKey, ancestor.fileKey)) {
+          return true;
+        }
+        if (fileKey == null && ancestor.fileKey == null) {
+          try {
+            if (Files.isSameFile(path, ancestor.path)) {
+              return true;
+            }
+          }
+          catch (IOException e) {
+            LOGGER.trace("could not compare '{}' and '{}' - {}", path, ancestor.path, e.getMessage());
+          }
+        }
+        ancestor = ancestor.parent;
+      }
+      return false;
+    }
+  }
+}
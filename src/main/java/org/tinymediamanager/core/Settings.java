@@ -102,6 +102,7 @@ public final class Settings extends AbstractSettings {
   private boolean                                          imageCache                  = true;
   private CacheSize                                        imageCacheSize              = CacheSize.BIG;
   private CacheType                                        imageCacheType              = CacheType.QUALITY;
+  private int                                              imageCacheLimit             = 0;
 
   // language 2 char - saved to config
   private String                                           language;
@@ -775,6 +776,27 @@ public final class Settings extends AbstractSettings {
     firePropertyChange("imageCacheType", oldValue, newValue);
   }
 
+  /**
+   * Gets the maximum size of the image cache in MiB (0 = unlimited).
+   *
+   * @return the maximum size of the image cache
+   */
+  public int getImageCacheLimit() {
+    return Math.max(imageCacheLimit, 0);
+  }
+
+  /**
+   * Sets the maximum size of the image cache in MiB (0 = unlimited).
+   *
+   * @param newValue
+   *          the new maximum size of the image cache
+   */
+  public void setImageCacheLimit(int newValue) {
+    int oldValue = this.imageCacheLimit;
+    this.imageCacheLimit = newValue;
+    firePropertyChange("imageCacheLimit", oldValue, newValue);
+  }
+
   /**
    * is our library shared via UPNP?
    *
@@ -15,13 +15,20 @@
  */
 package org.tinymediamanager.core;
 
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.mediainfo.MediaInfoCache;
 import org.tinymediamanager.scraper.rating.RatingProvider;
 
 /**
@@ -30,16 +37,18 @@ import org.tinymediamanager.scraper.rating.RatingProvider;
  * @author Manuel Laggner
  */
 public final class TmmModuleManager {
-  private static final Logger     LOGGER = LoggerFactory.getLogger(TmmModuleManager.class);
-  private static TmmModuleManager instance;
+  private static final Logger                                 LOGGER = LoggerFactory.getLogger(TmmModuleManager.class);
+  private static TmmModuleManager                              instance;
 
-  private final Set<ITmmModule>   modules;
+  private final Set<ITmmModule>                                modules;
+  private final Map<ITmmModule, CompletableFuture<ITmmModule>> startupFutures;
 
-  private Timer                   statisticsTimer;
-  private boolean                 isActive;
+  private Timer                                                statisticsTimer;
+  private boolean                                              isActive;
 
   private TmmModuleManager() {
     modules = new LinkedHashSet<>();
+    startupFutures = new ConcurrentHashMap<>();
   }
 
   public static TmmModuleManager getInstance() {
@@ -67,7 +76,102 @@ public final class TmmModuleManager {
       throw new Exception("module " + module.getModuleTitle() + " not registered");
     }
 
-    module.startUp();
+    startModule(module);
+  }
+
+  /**
+   * enable all given modules concurrently - every module is started in its own thread, so the modules must not depend on each other while starting
+   * up.<br />
+   * This method does not block, so the caller can do other work meanwhile - use {@link #awaitStarted(ITmmModule)} to wait for a module
+   *
+   * @param modulesToEnable
+   *          the modules to enable
+   * @throws Exception
+   *           if any of the modules is not registered
+   */
+  public void enableModules(ITmmModule... modulesToEnable) throws Exception {
+    for (ITmmModule module : modulesToEnable) {
+      if (!modules.contains(module)) {
+        throw new Exception("module " + module.getModuleTitle() + " not registered");
+      }
+    }
+
+    long start = System.nanoTime();
+
+    List<CompletableFuture<ITmmModule>> futures = new ArrayList<>();
+    for (ITmmModule module : modulesToEnable) {
+      futures.add(prepareStartup(module));
+
+      Thread thread = new Thread(() -> {
+        try {
+          startModule(module);
+        }
+        catch (Exception e) {
+          // already passed to the future
+        }
+      }, "module-startup-" + module.getModuleTitle());
+      thread.start();
+    }
+
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+        .thenRun(() -> LOGGER.info("started {} modules - took {} ms", modulesToEnable.length, (System.nanoTime() - start) / 1000000));
+  }
+
+  /**
+   * wait until the given module has been started up
+   *
+   * @param module
+   *          the module to wait for
+   * @throws Exception
+   *           the {@link Exception} occurred while starting up the module
+   */
+  public void awaitStarted(ITmmModule module) throws Exception {
+    try {
+      whenStarted(module).get();
+    }
+    catch (ExecutionException e) {
+      throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+    }
+  }
+
+  /**
+   * get the future of the next startup of the given module
+   */
+  private CompletableFuture<ITmmModule> prepareStartup(ITmmModule module) {
+    return startupFutures.compute(module, (m, future) -> future == null || future.isDone() ? new CompletableFuture<>() : future);
+  }
+
+  private void startModule(ITmmModule module) throws Exception {
+    CompletableFuture<ITmmModule> future = whenStarted(module);
+    if (future.isDone()) {
+      // restart of the module
+      future = prepareStartup(module);
+    }
+
+    long start = System.nanoTime();
+
+    try {
+      module.startUp();
+    }
+    catch (Exception e) {
+      LOGGER.error("problem starting up '{}' - {}", module.getModuleTitle(), e.getMessage());
+      future.completeExceptionally(e);
+      throw e;
+    }
+
+    LOGGER.info("started module '{}' - took {} ms", module.getModuleTitle(), (System.nanoTime() - start) / 1000000);
+    future.complete(module);
+  }
+
+  /**
+   * get a {@link CompletableFuture} which is completed as soon as the given module has been started up
+   *
+   * @param module
+   *          the module to attach to
+   * @return the {@link CompletableFuture} for the given module
+   */
+  private CompletableFuture<ITmmModule> whenStarted(ITmmModule module) {
+    return startupFutures.computeIfAbsent(module, m -> new CompletableFuture<>());
   }
 
   public void disableModule(ITmmModule module) throws Exception {
@@ -75,6 +179,7 @@ public final class TmmModuleManager {
       throw new Exception("module " + module.getModuleTitle() + " not registered");
     }
 
+    startupFutures.remove(module);
     module.shutDown();
   }
 
@@ -132,6 +237,9 @@ public final class TmmModuleManager {
 
     // do cleanup tasks
     RatingProvider.shutdown();
+    MediaInfoCache.shutdown();
+    ImageCacheIndex.shutdown();
+    LOGGER.info("decoded image cache: {}", DecodedImageCache.getInstance().getStatistics());
     Utils.clearTempFolder();
   }
 
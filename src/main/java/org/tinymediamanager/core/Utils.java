@@ -38,6 +38,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileStore;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitOption;
@@ -57,6 +58,7 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
@@ -142,6 +144,10 @@ public class Utils {
 
   public static final String   DISC_FOLDER_REGEX           = "(?i)(VIDEO_TS|BDMV|HVDVD_TS)$";
 
+  // file system types of network mounts
+  private static final List<String> NETWORK_FILESYSTEMS = Arrays.asList("nfs", "nfs4", "cifs", "smb", "smbfs", "smb2", "smb3", "afpfs",
+      "davfs", "9p", "webdav");
+
   private static List<Locale>  availableLocales            = new ArrayList<>();
 
   private static String        tempFolder;
@@ -237,6 +243,28 @@ public class Utils {
     return (attr.isRegularFile() || attr.isOther() || attr.isSymbolicLink()) && !attr.isDirectory();
   }
 
+  /**
+   * check if the given path is on a network mount (where file system events are not reliable and reading is expensive)
+   *
+   * @param path
+   *          the path to check
+   * @return true if the path is on a network mount (or the file store cannot be determined)
+   */
+  public static boolean isNetworkPath(Path path) {
+    if (SystemUtils.IS_OS_WINDOWS && path.toString().startsWith("\\\\")) {
+      return true;
+    }
+
+    try {
+      FileStore fileStore = Files.getFileStore(path);
+      String type = fileStore.type().toLowerCase(Locale.ROOT);
+      return NETWORK_FILESYSTEMS.contains(type) || type.startsWith("fuse");
+    }
+    catch (IOException e) {
+      return true;
+    }
+  }
+
   /**
    * dumps a complete Object (incl sub-classes 5 levels deep) to System.out
    * 
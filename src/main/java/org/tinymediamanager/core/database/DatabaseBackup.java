@@ -0,0 +1,377 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.h2.mvstore.Chunk;
+import org.h2.mvstore.FileStore;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.Utils;
+
+/**
+ * The class DatabaseBackup. Used to create an incremental online backup of a {@link MVStore}.<br />
+ * The backup consists of two mirrors of the database file which are updated alternately: while the backup is running, the store does not reuse
+ * any free space, so all chunks of the current version stay untouched and can be copied without blocking the database. Only chunks which have been
+ * changed (or moved) since the last update of the mirror (and the space between them) are copied into it. A manifest with all copied chunks is
+ * written (atomically) after the mirror has been verified; a mirror without a manifest is never used for restoring. Since only the older mirror is
+ * modified, there is always a valid backup - even if the backup process gets killed
+ *
+ * @author Manuel Laggner
+ */
+public class DatabaseBackup {
+  private static final Logger LOGGER            = LoggerFactory.getLogger(DatabaseBackup.class);
+
+  // the block size of the MVStore file format
+  private static final int    BLOCK_SIZE        = 4 * 1024;
+  // the MVStore file starts with two store headers (one block each)
+  private static final int    HEADER_LENGTH     = 2 * BLOCK_SIZE;
+  private static final int    COPY_BUFFER_SIZE  = 1024 * 1024;
+
+  private static final String CHUNK_PREFIX      = "chunk.";
+  private static final String FILE_SIZE         = "fileSize";
+  private static final String GENERATION        = "generation";
+
+  private final Path[]        backupFiles;
+  private final Path[]        manifestFiles;
+
+  /**
+   * create a backup for the given database file
+   *
+   * @param backupFile
+   *          the file to store the backup (mirror) in; the second mirror is stored next to it with the suffix .1
+   */
+  public DatabaseBackup(Path backupFile) {
+    this.backupFiles = new Path[] { backupFile, backupFile.resolveSibling(backupFile.getFileName() + ".1") };
+    this.manifestFiles = new Path[backupFiles.length];
+    for (int i = 0; i < backupFiles.length; i++) {
+      manifestFiles[i] = backupFiles[i].resolveSibling(backupFiles[i].getFileName() + ".manifest");
+    }
+  }
+
+  /**
+   * check if there is a complete (verified) backup
+   *
+   * @return true/false
+   */
+  public boolean exists() {
+    for (int i = 0; i < backupFiles.length; i++) {
+      if (exists(i)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean exists(int mirror) {
+    return Files.exists(backupFiles[mirror]) && Files.exists(manifestFiles[mirror]);
+  }
+
+  /**
+   * create/update the backup of the given {@link MVStore}. The lock is only held to take the snapshot of the chunk layout
+   *
+   * @param mvStore
+   *          the {@link MVStore} to backup
+   * @param lock
+   *          the lock which guards write access to the {@link MVStore}
+   * @throws IOException
+   *           any {@link IOException} occurred while creating the backup
+   */
+  public synchronized void backup(MVStore mvStore, ReadWriteLock lock) throws IOException {
+    long start = System.nanoTime();
+
+    // update the older mirror - the newer one stays untouched as a valid backup until the new manifest is in place
+    long[] generations = new long[backupFiles.length];
+    for (int i = 0; i < backupFiles.length; i++) {
+      generations[i] = readGeneration(i);
+    }
+    int mirror = generations[0] <= generations[1] ? 0 : 1;
+    long generation = Math.max(generations[0], generations[1]) + 1;
+    Path backupFile = backupFiles[mirror];
+
+    Map<Integer, Chunk> previousChunks = readManifest(mirror);
+    Map<Integer, Chunk> chunks = new HashMap<>();
+    FileStore fileStore = mvStore.getFileStore();
+    int autoCommitDelay = mvStore.getAutoCommitDelay();
+    int retentionTime = mvStore.getRetentionTime();
+    boolean reuseSpace = mvStore.getReuseSpace();
+    long fileSize;
+    long copiedBytes = 0;
+    int copiedChunks = 0;
+
+    // this mirror will be modified - it is not valid any more until its manifest has been written again
+    Files.deleteIfExists(manifestFiles[mirror]);
+    Files.createDirectories(backupFile.getParent());
+
+    try {
+      // pause the background writer of the MVStore - its maintenance would move chunks while copying
+      mvStore.setAutoCommitDelay(0);
+
+      ByteBuffer header;
+
+      lock.writeLock().lock();
+      try {
+        mvStore.commit();
+        // do not free, overwrite or truncate any chunk while copying
+        mvStore.setRetentionTime(Integer.MAX_VALUE);
+        mvStore.setReuseSpace(false);
+
+        fileSize = fileStore.size();
+        header = fileStore.readFully(0, HEADER_LENGTH);
+
+        for (Map.Entry<String, String> entry : mvStore.getMetaMap().entrySet()) {
+          if (entry.getKey().startsWith(CHUNK_PREFIX)) {
+            Chunk chunk = Chunk.fromString(entry.getValue());
+            chunks.put(chunk.id, chunk);
+          }
+        }
+      }
+      finally {
+        lock.writeLock().unlock();
+      }
+
+      try (FileChannel out = FileChannel.open(backupFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        if (previousChunks.isEmpty()) {
+          // full backup
+          out.truncate(0);
+        }
+
+        // copy everything except the unchanged chunks: the meta entry of the newest chunk is only written with the next commit, so the space
+        // between the known chunks has to be copied too
+        List<Chunk> sortedChunks = new ArrayList<>(chunks.values());
+        sortedChunks.sort(Comparator.comparingLong(chunk -> chunk.block));
+
+        long position = HEADER_LENGTH;
+        for (Chunk chunk : sortedChunks) {
+          long chunkStart = chunk.block * BLOCK_SIZE;
+          long chunkEnd = chunkStart + (long) chunk.len * BLOCK_SIZE;
+          if (chunkEnd > fileSize) {
+            continue;
+          }
+
+          if (chunkStart > position) {
+            copiedBytes += copy(fileStore, out, position, chunkStart - position);
+          }
+
+          if (!isUnchanged(chunk, previousChunks.get(chunk.id))) {
+            copiedBytes += copy(fileStore, out, chunkStart, chunkEnd - chunkStart);
+            copiedChunks++;
+          }
+
+          position = Math.max(position, chunkEnd);
+        }
+
+        if (fileSize > position) {
+          copiedBytes += copy(fileStore, out, position, fileSize - position);
+        }
+
+        // the store headers at last - they point to the newest chunk
+        while (header.hasRemaining()) {
+          out.write(header, header.position());
+        }
+        copiedBytes += HEADER_LENGTH;
+
+        out.truncate(fileSize);
+        out.force(true);
+      }
+    }
+    finally {
+      mvStore.setReuseSpace(reuseSpace);
+      mvStore.setRetentionTime(retentionTime);
+      mvStore.setAutoCommitDelay(autoCommitDelay);
+    }
+
+    verify(backupFile);
+    writeManifest(mirror, chunks, fileSize, generation);
+
+    LOGGER.info("database backup '{}' - copied {} of {} chunks ({} KiB of {} KiB), took {} ms", backupFile.getFileName(), copiedChunks,
+        chunks.size(), copiedBytes / 1024, fileSize / 1024, (System.nanoTime() - start) / 1000000);
+  }
+
+  private static boolean isUnchanged(Chunk chunk, Chunk previous) {
+    return previous != null && previous.block == chunk.block && previous.len == chunk.len && previous.version == chunk.version;
+  }
+
+  private static long copy(FileStore fileStore, FileChannel out, long position, long length) throws IOException {
+    long copied = 0;
+    while (copied < length) {
+      int size = (int) Math.min(COPY_BUFFER_SIZE, length - copied);
+      ByteBuffer buffer = fileStore.readFully(position + copied, size);
+      while (buffer.hasRemaining()) {
+        out.write(buffer, position + copied + buffer.position());
+      }
+      copied += size;
+    }
+    return copied;
+  }
+
+  /**
+   * open the mirror read only to check whether it is a valid database
+   */
+  private static void verify(Path backupFile) throws IOException {
+    MVStore mirror = null;
+    try {
+      mirror = new MVStore.Builder().fileName(backupFile.toString()).readOnly().open();
+      for (String mapName : mirror.getMapNames()) {
+        mirror.openMap(mapName).size();
+      }
+    }
+    catch (Exception e) {
+      throw new IOException("backup verification failed - " + e.getMessage(), e);
+    }
+    finally {
+      if (mirror != null) {
+        mirror.closeImmediately();
+      }
+    }
+  }
+
+  private Properties loadManifest(int mirror) {
+    if (!exists(mirror)) {
+      return null;
+    }
+
+    try (InputStream is = Files.newInputStream(manifestFiles[mirror])) {
+      Properties manifest = new Properties();
+      manifest.load(is);
+
+      // the mirror must have the size from the last backup
+      if (Long.parseLong(manifest.getProperty(FILE_SIZE, "-1")) != Files.size(backupFiles[mirror])) {
+        return null;
+      }
+      return manifest;
+    }
+    catch (Exception e) {
+      LOGGER.debug("could not read backup manifest '{}' - {}", manifestFiles[mirror], e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * get the generation of the given mirror; -1 if the mirror is not valid
+   */
+  private long readGeneration(int mirror) {
+    Properties manifest = loadManifest(mirror);
+    if (manifest == null) {
+      return -1;
+    }
+
+    try {
+      return Long.parseLong(manifest.getProperty(GENERATION, "0"));
+    }
+    catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private Map<Integer, Chunk> readManifest(int mirror) {
+    Map<Integer, Chunk> chunks = new HashMap<>();
+    Properties manifest = loadManifest(mirror);
+    if (manifest == null) {
+      return chunks;
+    }
+
+    try {
+      for (String key : manifest.stringPropertyNames()) {
+        if (key.startsWith(CHUNK_PREFIX)) {
+          Chunk chunk = Chunk.fromString(manifest.getProperty(key));
+          chunks.put(chunk.id, chunk);
+        }
+      }
+    }
+    catch (Exception e) {
+      LOGGER.debug("could not read backup manifest '{}' - {}", manifestFiles[mirror], e.getMessage());
+      chunks.clear();
+    }
+
+    return chunks;
+  }
+
+  private void writeManifest(int mirror, Map<Integer, Chunk> chunks, long fileSize, long generation) throws IOException {
+    Properties manifest = new Properties();
+    manifest.setProperty(FILE_SIZE, Long.toString(fileSize));
+    manifest.setProperty(GENERATION, Long.toString(generation));
+    for (Chunk chunk : chunks.values()) {
+      manifest.setProperty(CHUNK_PREFIX + Integer.toHexString(chunk.id), chunk.asString());
+    }
+
+    Path manifestFile = manifestFiles[mirror];
+    Path tempFile = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+    try (OutputStream os = Files.newOutputStream(tempFile)) {
+      manifest.store(os, null);
+    }
+
+    try {
+      Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (AtomicMoveNotSupportedException e) {
+      Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * restore the database file from the newest valid backup
+   *
+   * @param databaseFile
+   *          the database file to restore
+   * @return true if the database file has been restored
+   */
+  public boolean restore(Path databaseFile) {
+    long[] generations = new long[backupFiles.length];
+    for (int i = 0; i < backupFiles.length; i++) {
+      generations[i] = readGeneration(i);
+    }
+
+    // newest mirror first
+    int newest = generations[0] >= generations[1] ? 0 : 1;
+    for (int mirror : new int[] { newest, 1 - newest }) {
+      if (generations[mirror] < 0) {
+        continue;
+      }
+
+      try {
+        Files.copy(backupFiles[mirror], databaseFile, StandardCopyOption.REPLACE_EXISTING);
+        LOGGER.info("restored database '{}' from the backup '{}'", databaseFile.getFileName(), backupFiles[mirror].getFileName());
+        return true;
+      }
+      catch (Exception e) {
+        LOGGER.error("could not restore database '{}' from the backup '{}' - {}", databaseFile.getFileName(), backupFiles[mirror].getFileName(),
+            e.getMessage());
+        Utils.deleteFileSafely(databaseFile);
+      }
+    }
+
+    return false;
+  }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class DatabaseCompactionService. Used to compact all registered {@link MVStore}s incrementally in the background.<br />
+ * A store is only compacted if it has not been written since the last check (idle) and either the fill rate of its chunks is low or it consists of
+ * too many chunks. Every run rewrites at most {@link #WRITE_BUDGET} bytes of live data, so the I/O of a single run is bounded
+ *
+ * @author Manuel Laggner
+ */
+public class DatabaseCompactionService {
+  private static final Logger                 LOGGER           = LoggerFactory.getLogger(DatabaseCompactionService.class);
+
+  private static final long                   CHECK_INTERVAL   = 60000;
+  // the maximum amount of live data to rewrite per run
+  private static final int                    WRITE_BUDGET     = 4 * 1024 * 1024;
+  // compact chunks below this fill rate
+  private static final int                    TARGET_FILL_RATE = 70;
+  // compact chunks below this fill rate if the store consists of too many chunks
+  private static final int                    HIGH_FILL_RATE   = 90;
+  private static final int                    MAX_CHUNK_COUNT  = 500;
+  // move the chunks together if the file is less than half used
+  private static final int                    FILE_FILL_RATE   = 50;
+  private static final long                   MAX_MOVE_TIME    = 500;
+
+  private static final String                 CHUNK_PREFIX     = "chunk.";
+
+  private static DatabaseCompactionService    instance;
+
+  private final Map<String, CompactionTarget> targets;
+
+  private Timer                               timer;
+
+  private DatabaseCompactionService() {
+    targets = new TreeMap<>();
+  }
+
+  public static synchronized DatabaseCompactionService getInstance() {
+    if (instance == null) {
+      instance = new DatabaseCompactionService();
+    }
+    return instance;
+  }
+
+  /**
+   * register the given {@link MVStore} for background compaction
+   *
+   * @param name
+   *          the name of the store (e.g. the file name)
+   * @param mvStore
+   *          the {@link MVStore} to compact
+   * @param maintenanceLock
+   *          the lock which guards other maintenance work on this store (e.g. backups) - a run is skipped if this lock is held elsewhere
+   */
+  public synchronized void register(String name, MVStore mvStore, Lock maintenanceLock) {
+    targets.put(name, new CompactionTarget(name, mvStore, maintenanceLock));
+
+    if (timer == null) {
+      timer = new Timer("database-compaction", true);
+      timer.schedule(new TimerTask() {
+        @Override
+        public void run() {
+          compact(false);
+        }
+      }, CHECK_INTERVAL, CHECK_INTERVAL);
+    }
+  }
+
+  /**
+   * unregister the {@link MVStore} with the given name. Waits for a running compaction of this store to finish
+   *
+   * @param name
+   *          the name of the store
+   */
+  public void unregister(String name) {
+    CompactionTarget target;
+    synchronized (this) {
+      target = targets.remove(name);
+    }
+
+    if (target == null) {
+      return;
+    }
+
+    // wait for a running compaction
+    target.maintenanceLock.lock();
+    target.maintenanceLock.unlock();
+
+    LOGGER.info("database statistics - {}", target.getStatistics());
+  }
+
+  /**
+   * compact all registered stores
+   *
+   * @param force
+   *          compact even if the store is not idle or does not need to be compacted
+   */
+  public void compact(boolean force) {
+    for (CompactionTarget target : getTargets()) {
+      try {
+        target.compact(force);
+      }
+      catch (Exception e) {
+        LOGGER.warn("could not compact database '{}' - {}", target.name, e.getMessage());
+      }
+    }
+  }
+
+  private synchronized List<CompactionTarget> getTargets() {
+    return new ArrayList<>(targets.values());
+  }
+
+  /**
+   * get the statistics of all registered stores (one line per store)
+   *
+   * @return the statistics
+   */
+  public List<String> getStatistics() {
+    List<String> statistics = new ArrayList<>();
+    for (CompactionTarget target : getTargets()) {
+      statistics.add(target.getStatistics());
+    }
+    return statistics;
+  }
+
+  private static class CompactionTarget {
+    private final String  name;
+    private final MVStore mvStore;
+    private final Lock    maintenanceLock;
+
+    private long          lastVersion = -1;
+    private long          exhaustedAt = -1;
+    private int           noGainRuns  = 0;
+    private int           compactions = 0;
+    private long          compactTime = 0;
+    private long          bytesSaved  = 0;
+
+    private CompactionTarget(String name, MVStore mvStore, Lock maintenanceLock) {
+      this.name = name;
+      this.mvStore = mvStore;
+      this.maintenanceLock = maintenanceLock;
+    }
+
+    private void compact(boolean force) {
+      if (mvStore.isClosed()) {
+        return;
+      }
+
+      // only compact if there were no writes since the last check
+      long version = mvStore.getCurrentVersion();
+      boolean idle = version == lastVersion;
+      lastVersion = version;
+
+      if (!force && !idle) {
+        LOGGER.trace("database '{}' is not idle - skipping compaction", name);
+        return;
+      }
+
+      // the last compaction did not gain anything and there were no writes since then
+      if (!force && version == exhaustedAt) {
+        return;
+      }
+
+      int chunkCount = getChunkCount();
+      int chunksFillRate = mvStore.getChunksFillRate();
+      int fileFillRate = mvStore.getFileStore().getFillRate();
+
+      if (!force && chunksFillRate >= TARGET_FILL_RATE && chunkCount <= MAX_CHUNK_COUNT && fileFillRate >= FILE_FILL_RATE) {
+        LOGGER.debug("database statistics - {}", getStatistics());
+        return;
+      }
+
+      // maybe there is another maintenance task (backup) running
+      if (!maintenanceLock.tryLock()) {
+        return;
+      }
+
+      try {
+        if (mvStore.isClosed()) {
+          return;
+        }
+
+        long fileSize = mvStore.getFileStore().size();
+        long start = System.nanoTime();
+
+        // rewrite the live pages of sparse chunks - bounded by the write budget
+        int targetFillRate = chunkCount > MAX_CHUNK_COUNT ? HIGH_FILL_RATE : TARGET_FILL_RATE;
+        if (mvStore.compact(targetFillRate, WRITE_BUDGET)) {
+          mvStore.commit();
+        }
+
+        // move the chunks together to shrink the file - bounded by time
+        if (force || mvStore.getFileStore().getFillRate() < FILE_FILL_RATE) {
+          mvStore.compactFile(MAX_MOVE_TIME);
+        }
+
+        long newFileSize = mvStore.getFileStore().size();
+        long took = (System.nanoTime() - start) / 1000000;
+
+        compactions++;
+        compactTime += took;
+        bytesSaved += fileSize - newFileSize;
+
+        LOGGER.debug("compacted database '{}' - file size {} KiB -> {} KiB, chunks fill rate {}% -> {}%, took {} ms", name, fileSize / 1024,
+            newFileSize / 1024, chunksFillRate, mvStore.getChunksFillRate(), took);
+
+        // the compaction itself has written a new version
+        lastVersion = mvStore.getCurrentVersion();
+        // freed chunks are released with the next version - so give up after two runs without any gain
+        if (newFileSize < fileSize || mvStore.getChunksFillRate() > chunksFillRate) {
+          noGainRuns = 0;
+        }
+        else if (++noGainRuns >= 2) {
+          exhaustedAt = lastVersion;
+          noGainRuns = 0;
+        }
+      }
+      finally {
+        maintenanceLock.unlock();
+      }
+    }
+
+    private int getChunkCount() {
+      int count = 0;
+      Iterator<String> iterator = mvStore.getMetaMap().keyIterator(CHUNK_PREFIX);
+      while (iterator.hasNext() && iterator.next().startsWith(CHUNK_PREFIX)) {
+        count++;
+      }
+      return count;
+    }
+
+    private String getStatistics() {
+      if (mvStore.isClosed()) {
+        return String.format("%s: closed, compactions: %d (%d ms, %d KiB saved)", name, compactions, compactTime, bytesSaved / 1024);
+      }
+
+      return String.format("%s: file size: %d KiB, file fill rate: %d%%, chunks: %d, chunks fill rate: %d%%, compactions: %d (%d ms, %d KiB saved)",
+          name, mvStore.getFileStore().size() / 1024, mvStore.getFileStore().getFillRate(), getChunkCount(), mvStore.getChunksFillRate(), compactions,
+          compactTime, bytesSaved / 1024);
+    }
+  }
+}
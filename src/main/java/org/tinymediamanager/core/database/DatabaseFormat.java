@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import java.util.Locale;
+
+/**
+ * The enum DatabaseFormat. Describes how media entities are encoded inside the MVStore databases
+ *
+ * @author Manuel Laggner
+ */
+public enum DatabaseFormat {
+  /**
+   * plain JSON text (stored as {@link String})
+   */
+  JSON,
+  /**
+   * binary JSON (Jackson Smile - stored as byte[])
+   */
+  SMILE;
+
+  /**
+   * get the configured database format. The format can be overridden via the jvm arg <i>-Dtmm.db.format=json|smile</i>
+   *
+   * @return the configured {@link DatabaseFormat} - defaults to {@link #SMILE}
+   */
+  public static DatabaseFormat getConfiguredFormat() {
+    String format = System.getProperty("tmm.db.format", "");
+
+    try {
+      return DatabaseFormat.valueOf(format.toUpperCase(Locale.ROOT));
+    }
+    catch (Exception e) {
+      return SMILE;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import org.tinymediamanager.core.entities.MediaEntity;
+
+/**
+ * The interface IMediaEntityHydrator. Used to load the full object graph of a media entity which has only been loaded partially (summary) from the
+ * database
+ *
+ * @author Manuel Laggner
+ */
+public interface IMediaEntityHydrator {
+
+  /**
+   * load the full version of the given (partially loaded) entity from the database
+   *
+   * @param entity
+   *          the partially loaded entity
+   * @return a fully loaded copy of the entity or null if the entity is not in the database (anymore)
+   * @throws Exception
+   *           any {@link Exception} occurred while loading
+   */
+  MediaEntity loadFullEntity(MediaEntity entity) throws Exception;
+}
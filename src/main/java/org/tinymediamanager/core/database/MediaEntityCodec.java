@@ -0,0 +1,385 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.h2.mvstore.MVMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.CustomNullStringSerializerProvider;
+import org.tinymediamanager.core.NullKeySerializer;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * The class MediaEntityCodec. Used to encode/decode media entities into/from the values stored in the MVStore.<br />
+ * Values are written in the configured {@link DatabaseFormat}, but values from every known format can be read. This way existing databases can be
+ * migrated transparently on the next write.
+ *
+ * @param <T>
+ *          the type of the entity
+ * @author Manuel Laggner
+ */
+public class MediaEntityCodec<T> {
+  private static final Logger  LOGGER     = LoggerFactory.getLogger(MediaEntityCodec.class);
+
+  private final DatabaseFormat format;
+  private final ObjectMapper   jsonMapper;
+  private final ObjectReader   jsonReader;
+  private final ObjectWriter   jsonWriter;
+  private final ObjectMapper   smileMapper;
+  private final ObjectReader   smileReader;
+  private final ObjectWriter   smileWriter;
+  private final ObjectReader   jsonSummaryReader;
+  private final ObjectReader   smileSummaryReader;
+
+  private final LongAdder      jsonCount  = new LongAdder();
+  private final LongAdder      jsonBytes  = new LongAdder();
+  private final LongAdder      smileCount = new LongAdder();
+  private final LongAdder      smileBytes = new LongAdder();
+
+  public MediaEntityCodec(Class<T> type, DatabaseFormat format) {
+    this(type, format, Collections.emptyList());
+  }
+
+  /**
+   * create a codec which is also able to decode summaries of the entity. A summary skips all given (heavy) properties while decoding
+   *
+   * @param type
+   *          the type of the entity
+   * @param format
+   *          the {@link DatabaseFormat} to write
+   * @param lazyProperties
+   *          the names of all properties which should be skipped when decoding a summary
+   */
+  public MediaEntityCodec(Class<T> type, DatabaseFormat format, Collection<String> lazyProperties) {
+    this(type, format, lazyProperties, Collections.emptyList());
+  }
+
+  /**
+   * create a codec which is also able to decode summaries of the entity. A summary skips all given (heavy) properties while decoding
+   *
+   * @param type
+   *          the type of the entity
+   * @param format
+   *          the {@link DatabaseFormat} to write
+   * @param lazyProperties
+   *          the names of all properties which should be skipped when decoding a summary
+   * @param summaryProperties
+   *          the names of all properties which are only needed for summaries; they are not written if there are no lazy properties
+   */
+  public MediaEntityCodec(Class<T> type, DatabaseFormat format, Collection<String> lazyProperties, Collection<String> summaryProperties) {
+    this.format = format;
+
+    if (lazyProperties.isEmpty() && !summaryProperties.isEmpty()) {
+      jsonMapper = configureObjectMapper(JsonMapper.builder().addModule(createWriteFilterModule(type, summaryProperties)));
+      smileMapper = configureObjectMapper(SmileMapper.builder().addModule(createWriteFilterModule(type, summaryProperties)));
+    }
+    else {
+      jsonMapper = configureObjectMapper(JsonMapper.builder());
+      smileMapper = configureObjectMapper(SmileMapper.builder());
+    }
+
+    jsonReader = jsonMapper.readerFor(type);
+    jsonWriter = jsonMapper.writerFor(type);
+
+    smileReader = smileMapper.readerFor(type);
+    smileWriter = smileMapper.writerFor(type);
+
+    if (lazyProperties.isEmpty()) {
+      jsonSummaryReader = jsonReader;
+      smileSummaryReader = smileReader;
+    }
+    else {
+      jsonSummaryReader = configureObjectMapper(JsonMapper.builder().addModule(createSummaryModule(type, lazyProperties))).readerFor(type);
+      smileSummaryReader = configureObjectMapper(SmileMapper.builder().addModule(createSummaryModule(type, lazyProperties))).readerFor(type);
+    }
+  }
+
+  private static SimpleModule createSummaryModule(Class<?> type, Collection<String> lazyProperties) {
+    SimpleModule module = new SimpleModule("summary-" + type.getSimpleName());
+    module.setDeserializerModifier(new BeanDeserializerModifier() {
+      @Override
+      public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc, BeanDeserializerBuilder builder) {
+        if (beanDesc.getBeanClass() == type) {
+          for (String property : lazyProperties) {
+            builder.removeProperty(PropertyName.construct(property));
+            builder.addIgnorable(property);
+          }
+        }
+        return builder;
+      }
+    });
+    return module;
+  }
+
+  private static SimpleModule createWriteFilterModule(Class<?> type, Collection<String> properties) {
+    SimpleModule module = new SimpleModule("write-filter-" + type.getSimpleName());
+    module.setSerializerModifier(new BeanSerializerModifier() {
+      @Override
+      public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+          List<BeanPropertyWriter> beanProperties) {
+        if (beanDesc.getBeanClass() == type) {
+          beanProperties.removeIf(property -> properties.contains(property.getName()));
+        }
+        return beanProperties;
+      }
+    });
+    return module;
+  }
+
+  private static <M extends ObjectMapper, B extends MapperBuilder<M, B>> M configureObjectMapper(B builder) {
+    M objectMapper = builder.configure(MapperFeature.AUTO_DETECT_GETTERS, false)
+        .configure(MapperFeature.AUTO_DETECT_IS_GETTERS, false)
+        .configure(MapperFeature.AUTO_DETECT_SETTERS, false)
+        .configure(MapperFeature.AUTO_DETECT_FIELDS, false)
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+        .addModule(new BlackbirdModule())
+        .build();
+    objectMapper.setTimeZone(TimeZone.getDefault());
+    objectMapper.setSerializationInclusion(Include.NON_DEFAULT);
+    objectMapper.setSerializerProvider(new CustomNullStringSerializerProvider());
+    objectMapper.getSerializerProvider().setNullKeySerializer(new NullKeySerializer());
+
+    return objectMapper;
+  }
+
+  /**
+   * get the {@link DatabaseFormat} which is used for writing
+   *
+   * @return the {@link DatabaseFormat}
+   */
+  public DatabaseFormat getFormat() {
+    return format;
+  }
+
+  /**
+   * encode the given entity in the configured format
+   *
+   * @param entity
+   *          the entity to encode
+   * @return the encoded value ({@link String} for JSON, byte[] for SMILE)
+   * @throws IOException
+   *           any {@link IOException} occurred while encoding
+   */
+  public Object encode(T entity) throws IOException {
+    if (format == DatabaseFormat.SMILE) {
+      return smileWriter.writeValueAsBytes(entity);
+    }
+
+    return jsonWriter.writeValueAsString(entity);
+  }
+
+  /**
+   * decode the given value from the database - the format is detected by the type of the value
+   *
+   * @param value
+   *          the value from the database
+   * @return the decoded entity
+   * @throws IOException
+   *           any {@link IOException} occurred while decoding
+   */
+  public T decode(Object value) throws IOException {
+    if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      smileCount.increment();
+      smileBytes.add(bytes.length);
+      return smileReader.readValue(bytes);
+    }
+    else if (value instanceof String) {
+      String json = (String) value;
+      jsonCount.increment();
+      jsonBytes.add(json.length());
+      return jsonReader.readValue(json);
+    }
+
+    throw new IOException("unknown database value: " + (value == null ? "null" : value.getClass().getName()));
+  }
+
+  /**
+   * decode a summary of the given value from the database - all lazy properties are skipped while decoding
+   *
+   * @param value
+   *          the value from the database
+   * @return the decoded (partial) entity
+   * @throws IOException
+   *           any {@link IOException} occurred while decoding
+   */
+  public T decodeSummary(Object value) throws IOException {
+    if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      smileCount.increment();
+      smileBytes.add(bytes.length);
+      return smileSummaryReader.readValue(bytes);
+    }
+    else if (value instanceof String) {
+      String json = (String) value;
+      jsonCount.increment();
+      jsonBytes.add(json.length());
+      return jsonSummaryReader.readValue(json);
+    }
+
+    throw new IOException("unknown database value: " + (value == null ? "null" : value.getClass().getName()));
+  }
+
+  /**
+   * check whether the given value is already stored in the configured format
+   *
+   * @param value
+   *          the value from the database
+   * @return true/false
+   */
+  public boolean isCurrentFormat(Object value) {
+    if (format == DatabaseFormat.SMILE) {
+      return value instanceof byte[];
+    }
+    return value instanceof String;
+  }
+
+  /**
+   * re-encode the given entities in the configured format and write them to the given {@link MVMap}
+   *
+   * @param map
+   *          the {@link MVMap} to write the entities to
+   * @param entities
+   *          all entities to migrate (by their database id)
+   */
+  public void migrate(MVMap<UUID, Object> map, Map<UUID, T> entities) {
+    if (entities.isEmpty()) {
+      return;
+    }
+
+    long oldSize = 0;
+    long newSize = 0;
+
+    long start = System.nanoTime();
+
+    for (Map.Entry<UUID, T> entry : entities.entrySet()) {
+      try {
+        Object newValue = encode(entry.getValue());
+        Object oldValue = map.put(entry.getKey(), newValue);
+
+        oldSize += sizeOf(oldValue);
+        newSize += sizeOf(newValue);
+      }
+      catch (Exception e) {
+        LOGGER.warn("could not migrate '{}' to {} - '{}'", entry.getKey(), format, e.getMessage());
+      }
+    }
+
+    long end = System.nanoTime();
+
+    LOGGER.info("migrated {} database entries to {} - size: {} KiB -> {} KiB, took {} ms", entities.size(), format, oldSize / 1024, newSize / 1024,
+        (end - start) / 1000000);
+  }
+
+  /**
+   * get the size of the given database value in bytes (characters for JSON)
+   *
+   * @param value
+   *          the value from the database
+   * @return the size of the value
+   */
+  public static int sizeOf(Object value) {
+    if (value instanceof byte[]) {
+      return ((byte[]) value).length;
+    }
+    else if (value instanceof String) {
+      return ((String) value).length();
+    }
+    return 0;
+  }
+
+  /**
+   * convert the given database value into a human readable (pretty printed) JSON string
+   *
+   * @param value
+   *          the value from the database
+   * @return the value as JSON
+   * @throws IOException
+   *           any {@link IOException} occurred while converting
+   */
+  public String toPrettyJson(Object value) throws IOException {
+    return jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(toJsonNode(value));
+  }
+
+  /**
+   * convert the given database value into a {@link JsonNode}
+   *
+   * @param value
+   *          the value from the database
+   * @return the value as {@link JsonNode}
+   * @throws IOException
+   *           any {@link IOException} occurred while converting
+   */
+  public JsonNode toJsonNode(Object value) throws IOException {
+    if (value instanceof byte[]) {
+      return smileMapper.readTree((byte[]) value);
+    }
+    else if (value instanceof String) {
+      return jsonMapper.readTree((String) value);
+    }
+
+    throw new IOException("unknown database value: " + (value == null ? "null" : value.getClass().getName()));
+  }
+
+  /**
+   * get a short summary of all decoded values (count and size per format) since the last reset
+   *
+   * @return the statistics as {@link String}
+   */
+  public String getStatistics() {
+    return String.format("JSON: %d values / %d KiB, SMILE: %d values / %d KiB", jsonCount.sum(), jsonBytes.sum() / 1024, smileCount.sum(),
+        smileBytes.sum() / 1024);
+  }
+
+  /**
+   * reset the decoding statistics
+   */
+  public void resetStatistics() {
+    jsonCount.reset();
+    jsonBytes.reset();
+    smileCount.reset();
+    smileBytes.reset();
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+
+/**
+ * The class MediaEntityIndex. A persistent secondary index for media entities which is stored in the MVStore alongside the entities.<br />
+ * Every entity can be indexed by several keys (see {@link MediaEntityLookup#getIndexKeys}); one key can point to several entities. The index is
+ * stored as sorted composite keys (<i>key + separator + uuid</i>), so a lookup is a range scan in O(log n). Additionally the keys of every entity
+ * are stored, so the in-memory {@link MediaEntityLookup} can be filled at startup without computing the keys of all entities again.<br />
+ * The index is only trusted if it has been closed cleanly - after a crash the entities and the index could be out of sync and have to be re-indexed
+ *
+ * @author Manuel Laggner
+ */
+public class MediaEntityIndex {
+  private static final char            SEPARATOR     = '\u0000';
+  private static final String          KEY_DELIMITER = "\n";
+  private static final String          CLEAN         = "clean";
+
+  private final MVMap<String, UUID>    index;
+  private final MVMap<UUID, String>    entries;
+  private final MVMap<String, Boolean> state;
+
+  /**
+   * open (or create) the index with the given name in the given {@link MVStore}
+   *
+   * @param mvStore
+   *          the {@link MVStore} to store the index in
+   * @param name
+   *          the name of the index
+   */
+  public MediaEntityIndex(MVStore mvStore, String name) {
+    index = mvStore.openMap(name);
+    entries = mvStore.openMap(name + "Entries");
+    state = mvStore.openMap(name + "State");
+  }
+
+  /**
+   * check if the index has been closed cleanly (and is therefore in sync with the entities in the database)
+   *
+   * @return true if the index can be trusted
+   */
+  public boolean isClean() {
+    return Boolean.TRUE.equals(state.get(CLEAN));
+  }
+
+  /**
+   * mark the index as clean (right before closing the database) or dirty (while the database is open)
+   *
+   * @param clean
+   *          true if the index is in sync with the entities
+   */
+  public void setClean(boolean clean) {
+    state.put(CLEAN, clean);
+  }
+
+  /**
+   * (re-)index the entity with the given id. Only the differences to the existing index entries are written
+   *
+   * @param uuid
+   *          the id of the entity
+   * @param keys
+   *          all index keys of this entity
+   * @return true if the index has been changed
+   */
+  public synchronized boolean put(UUID uuid, Collection<String> keys) {
+    Set<String> newKeys = new TreeSet<>();
+    for (String key : keys) {
+      // the separators must not be part of the key
+      if (StringUtils.isNotBlank(key) && key.indexOf(SEPARATOR) < 0 && !key.contains(KEY_DELIMITER)) {
+        newKeys.add(key);
+      }
+    }
+
+    Set<String> oldKeys = getKeys(uuid);
+    if (oldKeys.equals(newKeys)) {
+      return false;
+    }
+
+    for (String key : oldKeys) {
+      if (!newKeys.contains(key)) {
+        index.remove(compositeKey(key, uuid));
+      }
+    }
+
+    for (String key : newKeys) {
+      if (!oldKeys.contains(key)) {
+        index.put(compositeKey(key, uuid), uuid);
+      }
+    }
+
+    if (newKeys.isEmpty()) {
+      entries.remove(uuid);
+    }
+    else {
+      entries.put(uuid, String.join(KEY_DELIMITER, newKeys));
+    }
+
+    return true;
+  }
+
+  /**
+   * remove the entity with the given id from the index
+   *
+   * @param uuid
+   *          the id of the entity
+   */
+  public synchronized void remove(UUID uuid) {
+    for (String key : getKeys(uuid)) {
+      index.remove(compositeKey(key, uuid));
+    }
+    entries.remove(uuid);
+  }
+
+  /**
+   * remove all entities from the index which are not in the given collection of ids (e.g. orphans from a crash)
+   *
+   * @param uuids
+   *          the ids of all entities which should be kept
+   * @return the amount of removed entities
+   */
+  public synchronized int retainAll(Collection<UUID> uuids) {
+    Set<UUID> toKeep = new HashSet<>(uuids);
+    List<UUID> toRemove = new ArrayList<>();
+
+    for (UUID uuid : entries.keyList()) {
+      if (!toKeep.contains(uuid)) {
+        toRemove.add(uuid);
+      }
+    }
+
+    for (UUID uuid : toRemove) {
+      remove(uuid);
+    }
+
+    return toRemove.size();
+  }
+
+  /**
+   * get the ids of all entities which are indexed with the given key
+   *
+   * @param key
+   *          the index key
+   * @return a list of all found ids (or an empty list)
+   */
+  public List<UUID> get(String key) {
+    String prefix = key + SEPARATOR;
+    List<UUID> result = new ArrayList<>(1);
+
+    String compositeKey = index.ceilingKey(prefix);
+    while (compositeKey != null && compositeKey.startsWith(prefix)) {
+      UUID uuid = index.get(compositeKey);
+      if (uuid != null) {
+        result.add(uuid);
+      }
+      compositeKey = index.higherKey(compositeKey);
+    }
+
+    return result;
+  }
+
+  /**
+   * get the stored index keys of the entity with the given id
+   *
+   * @param uuid
+   *          the id of the entity
+   * @return all index keys of this entity (or an empty set if it is not indexed)
+   */
+  public Set<String> getKeys(UUID uuid) {
+    String value = entries.get(uuid);
+    if (StringUtils.isBlank(value)) {
+      return Collections.emptySet();
+    }
+    return new TreeSet<>(Arrays.asList(value.split(KEY_DELIMITER)));
+  }
+
+  /**
+   * get the amount of indexed entities
+   *
+   * @return the amount of indexed entities
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  private static String compositeKey(String key, UUID uuid) {
+    return key + SEPARATOR + uuid;
+  }
+}
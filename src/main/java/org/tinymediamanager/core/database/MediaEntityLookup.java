@@ -0,0 +1,234 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.tinymediamanager.core.entities.MediaEntity;
+
+/**
+ * The class MediaEntityLookup. An in-memory hash index for media entities (e.g. by path, data source and provider ids).<br />
+ * Every entity can be indexed by several keys; one key can point to several entities. Lookups are lock free and run in O(1); changes are
+ * synchronized and only touch the keys which have been changed
+ *
+ * @author Manuel Laggner
+ */
+public class MediaEntityLookup<E extends MediaEntity> {
+  private static final String             PATH_PREFIX       = "path:";
+  private static final String             DATASOURCE_PREFIX = "ds:";
+  private static final String             ID_PREFIX         = "id:";
+
+  private final Map<String, Map<UUID, E>> entitiesByKey;
+  private final Map<UUID, Set<String>>    keysById;
+
+  public MediaEntityLookup() {
+    entitiesByKey = new ConcurrentHashMap<>();
+    keysById = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * create the lookup key for the given path
+   *
+   * @param path
+   *          the path
+   * @return the lookup key
+   */
+  public static String pathKey(Path path) {
+    return PATH_PREFIX + normalizePath(path);
+  }
+
+  /**
+   * create the lookup key for the given data source
+   *
+   * @param dataSource
+   *          the data source
+   * @return the lookup key
+   */
+  public static String dataSourceKey(String dataSource) {
+    return DATASOURCE_PREFIX + normalizePath(Paths.get(dataSource));
+  }
+
+  /**
+   * create the lookup key for the given provider id
+   *
+   * @param providerId
+   *          the provider id (e.g. imdb, tmdb, tvdb)
+   * @param id
+   *          the id of the entity at the given provider
+   * @return the lookup key
+   */
+  public static String idKey(String providerId, Object id) {
+    return ID_PREFIX + providerId + ":" + id;
+  }
+
+  /**
+   * get all lookup keys (path, data source and the given provider ids) for the given {@link MediaEntity}
+   *
+   * @param entity
+   *          the {@link MediaEntity} to get the keys for
+   * @param providerIds
+   *          all provider ids which should be indexed
+   * @return a list of all lookup keys
+   */
+  public static List<String> getIndexKeys(MediaEntity entity, String... providerIds) {
+    List<String> keys = new ArrayList<>();
+
+    try {
+      if (StringUtils.isNotBlank(entity.getPath())) {
+        keys.add(pathKey(entity.getPathNIO()));
+      }
+
+      if (StringUtils.isNotBlank(entity.getDataSource())) {
+        keys.add(dataSourceKey(entity.getDataSource()));
+      }
+    }
+    catch (InvalidPathException e) {
+      // not resolvable on this system - cannot be indexed
+    }
+
+    for (String providerId : providerIds) {
+      String id = entity.getIdAsString(providerId);
+      if (StringUtils.isNotBlank(id) && !"0".equals(id)) {
+        keys.add(idKey(providerId, id));
+      }
+    }
+
+    return keys;
+  }
+
+  private static String normalizePath(Path path) {
+    String normalized = path.toAbsolutePath().normalize().toString();
+
+    // paths are case insensitive on windows
+    if (SystemUtils.IS_OS_WINDOWS) {
+      normalized = normalized.toLowerCase(Locale.ROOT);
+    }
+
+    return normalized;
+  }
+
+  /**
+   * (re-)index the given entity with the given keys
+   *
+   * @param entity
+   *          the entity to index
+   * @param keys
+   *          all index keys of this entity
+   */
+  public synchronized void put(E entity, Collection<String> keys) {
+    UUID uuid = entity.getDbId();
+
+    Set<String> newKeys = new HashSet<>();
+    for (String key : keys) {
+      if (StringUtils.isNotBlank(key)) {
+        newKeys.add(key);
+      }
+    }
+
+    Set<String> oldKeys = keysById.getOrDefault(uuid, Collections.emptySet());
+
+    for (String key : oldKeys) {
+      if (!newKeys.contains(key)) {
+        removeEntry(key, uuid);
+      }
+    }
+
+    for (String key : newKeys) {
+      // also for existing keys - the instance could have been exchanged
+      entitiesByKey.computeIfAbsent(key, k -> new ConcurrentHashMap<>(2)).put(uuid, entity);
+    }
+
+    if (newKeys.isEmpty()) {
+      keysById.remove(uuid);
+    }
+    else {
+      keysById.put(uuid, newKeys);
+    }
+  }
+
+  /**
+   * remove the given entity from the lookup
+   *
+   * @param entity
+   *          the entity to remove
+   */
+  public synchronized void remove(E entity) {
+    Set<String> keys = keysById.remove(entity.getDbId());
+    if (keys == null) {
+      return;
+    }
+
+    for (String key : keys) {
+      removeEntry(key, entity.getDbId());
+    }
+  }
+
+  private void removeEntry(String key, UUID uuid) {
+    Map<UUID, E> entities = entitiesByKey.get(key);
+    if (entities != null) {
+      entities.remove(uuid);
+      if (entities.isEmpty()) {
+        entitiesByKey.remove(key);
+      }
+    }
+  }
+
+  /**
+   * remove all entities from the lookup
+   */
+  public synchronized void clear() {
+    entitiesByKey.clear();
+    keysById.clear();
+  }
+
+  /**
+   * get all entities which are indexed with the given key
+   *
+   * @param key
+   *          the index key
+   * @return a list of all found entities (or an empty list)
+   */
+  public List<E> get(String key) {
+    Map<UUID, E> entities = entitiesByKey.get(key);
+    if (entities == null || entities.isEmpty()) {
+      return new ArrayList<>(0);
+    }
+    return new ArrayList<>(entities.values());
+  }
+
+  /**
+   * get the amount of indexed entities
+   *
+   * @return the amount of indexed entities
+   */
+  public int size() {
+    return keysById.size();
+  }
+}
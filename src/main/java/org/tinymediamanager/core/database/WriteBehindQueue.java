@@ -0,0 +1,403 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import javax.swing.SwingUtilities;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.entities.MediaEntity;
+
+/**
+ * The class WriteBehindQueue. Used to persist media entities asynchronously into the MVStore.<br />
+ * <ul>
+ * <li>changes are coalesced: an entity which is changed several times within the commit delay is only written once</li>
+ * <li>a content fingerprint of the last written value is kept for every entity, so unchanged entities neither read nor write the MVMap</li>
+ * <li>the entities are written in batches; every batch is committed separately</li>
+ * <li>if too many entities are pending (e.g. bulk scrapes), the producers are throttled until the queue has been drained</li>
+ * </ul>
+ *
+ * @author Manuel Laggner
+ */
+public class WriteBehindQueue {
+  private static final Logger            LOGGER            = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+  private static final int               BATCH_SIZE        = 500;
+  private static final int               HIGH_WATERMARK    = 5000;
+  private static final long              MAX_THROTTLE_TIME = 5000;
+  private static final long              MAX_STALL_TIME    = 1000;
+
+  private final String                   name;
+  private final MVStore                  mvStore;
+  private final ReadWriteLock            lock;
+  private final long                     commitDelay;
+
+  private final Map<MediaEntity, Long>   pendingChanges    = new ConcurrentHashMap<>();
+  private final Map<UUID, byte[]>        fingerprints      = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Target<?>> targets           = new ConcurrentHashMap<>();
+  private final Object                   throttleMonitor   = new Object();
+
+  private final LongAdder                enqueued          = new LongAdder();
+  private final LongAdder                coalesced         = new LongAdder();
+  private final LongAdder                written           = new LongAdder();
+  private final LongAdder                unchanged         = new LongAdder();
+  private final LongAdder                bytesWritten      = new LongAdder();
+  private final LongAdder                commits           = new LongAdder();
+  private final LongAdder                commitTime        = new LongAdder();
+  private final LongAdder                throttled         = new LongAdder();
+  private final AtomicLong               maxCommitTime     = new AtomicLong();
+  private final AtomicLong               maxQueueDepth     = new AtomicLong();
+
+  private volatile long                  lastProgress      = 0;
+
+  /**
+   * create a new write behind queue for the given {@link MVStore}
+   *
+   * @param name
+   *          the name of the queue (for logging)
+   * @param mvStore
+   *          the {@link MVStore} to write to
+   * @param lock
+   *          the lock which protects the {@link MVStore} against concurrent modifications
+   * @param commitDelay
+   *          the time (in ms) an entity has to be unchanged before it will be written
+   */
+  public WriteBehindQueue(String name, MVStore mvStore, ReadWriteLock lock, long commitDelay) {
+    this.name = name;
+    this.mvStore = mvStore;
+    this.lock = lock;
+    this.commitDelay = commitDelay;
+  }
+
+  /**
+   * register the {@link MVMap} and the {@link MediaEntityCodec} for the given entity type
+   *
+   * @param type
+   *          the entity type
+   * @param map
+   *          the {@link MVMap} to store entities of this type in
+   * @param codec
+   *          the {@link MediaEntityCodec} to encode entities of this type
+   * @param <T>
+   *          the entity type
+   */
+  public <T extends MediaEntity> void register(Class<T> type, MVMap<UUID, Object> map, MediaEntityCodec<T> codec) {
+    targets.put(type, new Target<>(type, map, codec));
+  }
+
+  /**
+   * mark the given entity as changed. The entity will be written after the commit delay
+   *
+   * @param entity
+   *          the entity to persist
+   */
+  public void enqueue(MediaEntity entity) {
+    enqueued.increment();
+    if (pendingChanges.put(entity, System.currentTimeMillis()) != null) {
+      coalesced.increment();
+    }
+
+    int depth = pendingChanges.size();
+    maxQueueDepth.accumulateAndGet(depth, Math::max);
+
+    // back-pressure: throttle the producer until the writer caught up (but never block the UI)
+    if (depth > HIGH_WATERMARK && !SwingUtilities.isEventDispatchThread()) {
+      throttle();
+    }
+  }
+
+  private void throttle() {
+    throttled.increment();
+    long end = System.currentTimeMillis() + MAX_THROTTLE_TIME;
+
+    synchronized (throttleMonitor) {
+      while (pendingChanges.size() > HIGH_WATERMARK && System.currentTimeMillis() < end) {
+        // do not wait if the writer does not make any progress (e.g. not running at all)
+        if (mvStore.isClosed() || System.currentTimeMillis() - lastProgress > MAX_STALL_TIME) {
+          return;
+        }
+
+        try {
+          throttleMonitor.wait(100);
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * remove the given entity from the database (and from the queue)
+   *
+   * @param entity
+   *          the entity to remove
+   */
+  public void remove(MediaEntity entity) {
+    Target<?> target = getTarget(entity);
+
+    lock.writeLock().lock();
+    try {
+      pendingChanges.remove(entity);
+      fingerprints.remove(entity.getDbId());
+      if (target != null) {
+        target.map.remove(entity.getDbId());
+      }
+    }
+    finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * check whether the given entity has unwritten changes
+   *
+   * @param entity
+   *          the entity to check
+   * @return true/false
+   */
+  public boolean isPending(MediaEntity entity) {
+    return pendingChanges.containsKey(entity);
+  }
+
+  /**
+   * get the amount of entities with unwritten changes
+   *
+   * @return the queue depth
+   */
+  public int getQueueDepth() {
+    return pendingChanges.size();
+  }
+
+  /**
+   * write all pending entities which have not been changed within the commit delay
+   *
+   * @param force
+   *          write all pending entities regardless of the commit delay
+   */
+  public synchronized void flush(boolean force) {
+    if (mvStore.isClosed() || pendingChanges.isEmpty()) {
+      return;
+    }
+
+    long threshold = System.currentTimeMillis() - commitDelay;
+
+    // under pressure we do not wait for the commit delay
+    boolean writeAll = force || pendingChanges.size() > HIGH_WATERMARK;
+
+    List<Map.Entry<MediaEntity, Long>> due = new ArrayList<>();
+    for (Map.Entry<MediaEntity, Long> entry : pendingChanges.entrySet()) {
+      if (writeAll || entry.getValue() < threshold) {
+        due.add(Map.entry(entry.getKey(), entry.getValue()));
+      }
+    }
+
+    if (due.isEmpty()) {
+      return;
+    }
+
+    lastProgress = System.currentTimeMillis();
+    long start = System.nanoTime();
+    int writtenInFlush = 0;
+    MessageDigest digest = createDigest();
+
+    for (int i = 0; i < due.size(); i += BATCH_SIZE) {
+      int writtenInBatch = 0;
+
+      for (Map.Entry<MediaEntity, Long> entry : due.subList(i, Math.min(i + BATCH_SIZE, due.size()))) {
+        if (write(entry.getKey(), entry.getValue(), digest)) {
+          writtenInBatch++;
+        }
+      }
+
+      if (writtenInBatch > 0) {
+        commit();
+        writtenInFlush += writtenInBatch;
+      }
+
+      lastProgress = System.currentTimeMillis();
+
+      // wake up the throttled producers
+      synchronized (throttleMonitor) {
+        throttleMonitor.notifyAll();
+      }
+    }
+
+    if (writtenInFlush > 0) {
+      LOGGER.debug("{}: wrote {} of {} pending entities - took {} ms (queue depth {})", name, writtenInFlush, due.size(),
+          (System.nanoTime() - start) / 1000000, pendingChanges.size());
+    }
+  }
+
+  private boolean write(MediaEntity entity, Long timestamp, MessageDigest digest) {
+    Target<?> target = getTarget(entity);
+    if (target == null) {
+      pendingChanges.remove(entity, timestamp);
+      return false;
+    }
+
+    try {
+      // make sure we do not write a partially loaded entity
+      entity.hydrate();
+
+      // encoding is done outside of the lock
+      Object newValue = target.encode(entity);
+      byte[] fingerprint = fingerprint(newValue, digest);
+
+      lock.writeLock().lock();
+      try {
+        // removed or changed again in the meantime? then it will be processed in the next round
+        if (!pendingChanges.remove(entity, timestamp)) {
+          return false;
+        }
+
+        UUID uuid = entity.getDbId();
+        byte[] oldFingerprint = fingerprints.get(uuid);
+
+        boolean changed;
+        if (oldFingerprint != null) {
+          changed = !Arrays.equals(oldFingerprint, fingerprint);
+        }
+        else {
+          // no fingerprint yet (first write after loading) - compare with the stored value once
+          changed = !Objects.deepEquals(target.map.get(uuid), newValue);
+        }
+
+        fingerprints.put(uuid, fingerprint);
+
+        if (!changed) {
+          unchanged.increment();
+          return false;
+        }
+
+        target.map.put(uuid, newValue);
+        written.increment();
+        bytesWritten.add(MediaEntityCodec.sizeOf(newValue));
+        return true;
+      }
+      finally {
+        lock.writeLock().unlock();
+      }
+    }
+    catch (Exception e) {
+      LOGGER.warn("could not store '{}' - '{}'", entity.getClass().getName(), e.getMessage());
+      pendingChanges.remove(entity, timestamp);
+      return false;
+    }
+  }
+
+  private void commit() {
+    long start = System.nanoTime();
+
+    lock.writeLock().lock();
+    try {
+      if (!mvStore.isClosed()) {
+        mvStore.commit();
+      }
+    }
+    finally {
+      lock.writeLock().unlock();
+    }
+
+    long duration = System.nanoTime() - start;
+    commits.increment();
+    commitTime.add(duration);
+    maxCommitTime.accumulateAndGet(duration, Math::max);
+  }
+
+  private Target<?> getTarget(MediaEntity entity) {
+    Target<?> target = targets.get(entity.getClass());
+    if (target != null) {
+      return target;
+    }
+
+    for (Map.Entry<Class<?>, Target<?>> entry : targets.entrySet()) {
+      if (entry.getKey().isInstance(entity)) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
+  private static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance("MD5");
+    }
+    catch (NoSuchAlgorithmException e) {
+      // every JVM must support MD5
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static byte[] fingerprint(Object value, MessageDigest digest) {
+    digest.reset();
+    if (value instanceof byte[]) {
+      return digest.digest((byte[]) value);
+    }
+    return digest.digest(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * get a short summary of the queue statistics
+   *
+   * @return the statistics as {@link String}
+   */
+  public String getStatistics() {
+    long commitCount = commits.sum();
+    long avgCommitTime = commitCount > 0 ? commitTime.sum() / commitCount : 0;
+
+    return String.format(
+        "queue depth: %d (max %d), enqueued: %d (coalesced %d), written: %d (unchanged %d), bytes written: %d KiB, commits: %d (avg %d ms, max %d ms), throttled: %d",
+        pendingChanges.size(), maxQueueDepth.get(), enqueued.sum(), coalesced.sum(), written.sum(), unchanged.sum(), bytesWritten.sum() / 1024,
+        commitCount, avgCommitTime / 1000000, maxCommitTime.get() / 1000000, throttled.sum());
+  }
+
+  /**
+   * the target of an entity type (map and codec)
+   */
+  private static class Target<T extends MediaEntity> {
+    private final Class<T>            type;
+    private final MVMap<UUID, Object> map;
+    private final MediaEntityCodec<T> codec;
+
+    private Target(Class<T> type, MVMap<UUID, Object> map, MediaEntityCodec<T> codec) {
+      this.type = type;
+      this.map = map;
+      this.codec = codec;
+    }
+
+    private Object encode(MediaEntity entity) throws Exception {
+      return codec.encode(type.cast(entity));
+    }
+  }
+}
@@ -69,6 +69,8 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.tinymediamanager.core.AbstractModelObject;
 import org.tinymediamanager.core.Constants;
 import org.tinymediamanager.core.ImageCache;
@@ -76,6 +78,7 @@ import org.tinymediamanager.core.MediaFileType;
 import org.tinymediamanager.core.Settings;
 import org.tinymediamanager.core.TmmDateFormat;
 import org.tinymediamanager.core.Utils;
+import org.tinymediamanager.core.database.IMediaEntityHydrator;
 import org.tinymediamanager.core.tasks.ImageCacheTask;
 import org.tinymediamanager.core.threading.TmmTaskManager;
 import org.tinymediamanager.scraper.MediaMetadata;
@@ -93,57 +96,62 @@ import com.fasterxml.jackson.annotation.JsonSetter;
  * @author Manuel Laggner
  */
 public abstract class MediaEntity extends AbstractModelObject {
+  private static final Logger           LOGGER             = LoggerFactory.getLogger(MediaEntity.class);
+
   /** The id for the database. */
-  protected UUID                       dbId               = UUID.randomUUID();
+  protected UUID                        dbId               = UUID.randomUUID();
 
   @JsonProperty
-  protected boolean                    locked             = false;
+  protected boolean                     locked             = false;
 
   @JsonProperty
-  protected String                     dataSource         = "";
+  protected String                      dataSource         = "";
 
   /** The ids to store the ID from several metadataproviders. */
   @JsonProperty
-  protected Map<String, Object>        ids                = new ConcurrentHashMap<>(0);
+  protected Map<String, Object>         ids                = new ConcurrentHashMap<>(0);
 
   @JsonProperty
-  protected String                     title              = "";
+  protected String                      title              = "";
   @JsonProperty
-  protected String                     originalTitle      = "";
+  protected String                      originalTitle      = "";
   @JsonProperty
-  protected int                        year               = 0;
+  protected int                         year               = 0;
   @JsonProperty
-  protected String                     plot               = "";
+  protected String                      plot               = "";
   @JsonProperty
-  protected String                     path               = "";
+  protected String                      path               = "";
   @JsonProperty
-  protected Date                       dateAdded          = new Date();
+  protected Date                        dateAdded          = new Date();
   @JsonProperty
-  protected String                     productionCompany  = "";
+  protected String                      productionCompany  = "";
   @JsonProperty
-  protected boolean                    scraped            = false;
+  protected boolean                     scraped            = false;
   @JsonProperty
-  protected String                     note               = "";
+  protected String                      note               = "";
 
   @JsonProperty
-  protected Map<String, MediaRating>   ratings            = new ConcurrentHashMap<>(0);
+  protected Map<String, MediaRating>    ratings            = new ConcurrentHashMap<>(0);
   @JsonProperty
-  private final List<MediaFile>        mediaFiles         = new ArrayList<>();
+  private final List<MediaFile>         mediaFiles         = new ArrayList<>();
   @JsonProperty
-  protected final List<String>         tags               = new CopyOnWriteArrayList<>();
+  protected final List<String>          tags               = new CopyOnWriteArrayList<>();
   @JsonProperty
-  protected Map<MediaFileType, String> artworkUrlMap      = new EnumMap<>(MediaFileType.class);
+  protected Map<MediaFileType, String>  artworkUrlMap      = new EnumMap<>(MediaFileType.class);
 
   @JsonProperty
-  protected String                     originalFilename   = "";
+  protected String                      originalFilename   = "";
   @JsonProperty
-  protected String                     lastScraperId      = "";
+  protected String                      lastScraperId      = "";
   @JsonProperty
-  protected String                     lastScrapeLanguage = "";
+  protected String                      lastScrapeLanguage = "";
+
+  protected boolean                     newlyAdded         = false;
+  protected boolean                     duplicate          = false;
+  protected final ReadWriteLock         readWriteLock      = new ReentrantReadWriteLock();
 
-  protected boolean                    newlyAdded         = false;
-  protected boolean                    duplicate          = false;
-  protected final ReadWriteLock        readWriteLock      = new ReentrantReadWriteLock();
+  private volatile IMediaEntityHydrator hydrator           = null;
+  private volatile long                 lastAccess         = 0;
 
   /**
    * get the main file for this entity
@@ -180,6 +188,10 @@ public abstract class MediaEntity extends AbstractModelObject {
       return;
     }
 
+    // make sure the lazy properties of both entities are available
+    hydrate();
+    other.hydrate();
+
     setTitle(StringUtils.isBlank(title) || force ? other.title : title);
     setOriginalTitle(StringUtils.isBlank(originalTitle) || force ? other.originalTitle : originalTitle);
     setYear(year == 0 || force ? other.year : year);
@@ -247,6 +259,103 @@ public abstract class MediaEntity extends AbstractModelObject {
     this.dbId = id;
   }
 
+  /**
+   * checks whether the full object graph of this {@link MediaEntity} has been loaded or only the summary (lazy database loading)
+   *
+   * @return true/false
+   */
+  public boolean isHydrated() {
+    return hydrator == null;
+  }
+
+  /**
+   * load all lazily loaded properties of this {@link MediaEntity} (if not done yet). This must be called before accessing any of the lazy
+   * properties
+   */
+  public void hydrate() {
+    lastAccess = System.currentTimeMillis();
+
+    if (hydrator == null) {
+      return;
+    }
+
+    synchronized (this) {
+      IMediaEntityHydrator entityHydrator = hydrator;
+      if (entityHydrator == null) {
+        return;
+      }
+
+      MediaEntity fullEntity = null;
+      try {
+        fullEntity = entityHydrator.loadFullEntity(this);
+      }
+      catch (Exception e) {
+        LOGGER.warn("could not load the full entity '{}' - '{}'", dbId, e.getMessage());
+      }
+
+      // swap in the loaded properties under the write lock - readers/writers of this entity see either the summary or the full entity
+      readWriteLock.writeLock().lock();
+      try {
+        if (fullEntity != null) {
+          copyLazyProperties(fullEntity);
+        }
+        hydrator = null;
+      }
+      finally {
+        readWriteLock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * drop all lazily loaded properties of this {@link MediaEntity} - they will be re-loaded via the given {@link IMediaEntityHydrator} on the next
+   * access. <b>Only call this for entities which are fully persisted in the database!</b>
+   *
+   * @param hydrator
+   *          the {@link IMediaEntityHydrator} to load the lazy properties with
+   */
+  public void dehydrate(IMediaEntityHydrator hydrator) {
+    synchronized (this) {
+      readWriteLock.writeLock().lock();
+      try {
+        // set the hydrator first: every access from now on waits for the lock and re-loads the properties
+        this.hydrator = hydrator;
+        clearLazyProperties();
+      }
+      finally {
+        readWriteLock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * get the time of the last access to the lazy properties
+   *
+   * @return the time of the last access (in ms)
+   */
+  public long getLastAccess() {
+    return lastAccess;
+  }
+
+  /**
+   * copy all lazily loaded properties from the given (fully loaded) source into this entity by replacing them with new instances. The instances
+   * which have been handed out before are not touched. Called while holding the write lock; no events will be fired here
+   *
+   * @param source
+   *          the fully loaded source
+   */
+  protected void copyLazyProperties(MediaEntity source) {
+    // no lazy properties per default
+  }
+
+  /**
+   * release all lazily loaded properties by replacing them with new, empty instances. The instances which have been handed out before (e.g. to UI
+   * bindings) are not touched and keep their content. Called while holding the write lock; no events will be fired here
+   */
+  protected void clearLazyProperties() {
+    // no lazy properties per default
+  }
+
   /**
    * checks whether this {@link MediaEntity} is locked or not
    * 
@@ -1007,6 +1116,28 @@ public abstract class MediaEntity extends AbstractModelObject {
     return !mediaFiles.isEmpty();
   }
 
+  /**
+   * checks whether this entity contains a {@link MediaFile} for the given file (without copying the list of {@link MediaFile}s)
+   *
+   * @param file
+   *          the file to check
+   * @return true/false
+   */
+  public boolean hasMediaFile(Path file) {
+    try {
+      readWriteLock.readLock().lock();
+      for (MediaFile mediaFile : mediaFiles) {
+        if (file.equals(mediaFile.getFile())) {
+          return true;
+        }
+      }
+    }
+    finally {
+      readWriteLock.readLock().unlock();
+    }
+    return false;
+  }
+
   /**
    * gets all MediaFiles from specific type<br>
    * <b>Can be one or multiple types!</b>
@@ -1252,6 +1383,10 @@ public abstract class MediaEntity extends AbstractModelObject {
 
       mf.replacePathForRenamedFolder(oldPath, newPath);
     }
+
+    if (!mfs.isEmpty()) {
+      firePropertyChange(MEDIA_FILES, null, mediaFiles);
+    }
   }
 
   public void cacheImages() {
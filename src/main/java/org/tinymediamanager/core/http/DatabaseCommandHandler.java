@@ -0,0 +1,48 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.http;
+
+import java.util.List;
+
+import org.tinymediamanager.core.database.DatabaseCompactionService;
+
+/**
+ * the class {@link DatabaseCommandHandler} is used to provide the database statistics and maintenance via HTTP<br />
+ * <ul>
+ * <li>statistics: get the statistics of all databases</li>
+ * <li>compact: compact all databases in the background</li>
+ * </ul>
+ *
+ * @author Manuel Laggner
+ */
+public class DatabaseCommandHandler extends AbstractCommandHandler {
+
+  @Override
+  protected TmmCommandResponse processCommands(List<Command> commands) throws Exception {
+    for (Command command : commands) {
+      if ("compact".equalsIgnoreCase(command.action)) {
+        Thread thread = new Thread(() -> DatabaseCompactionService.getInstance().compact(true), "database-compaction-api");
+        thread.setDaemon(true);
+        thread.start();
+      }
+      else if (!"statistics".equalsIgnoreCase(command.action)) {
+        throw new InvalidCommandException();
+      }
+    }
+
+    return new TmmCommandResponse(200, String.join("\n", DatabaseCompactionService.getInstance().getStatistics()));
+  }
+}
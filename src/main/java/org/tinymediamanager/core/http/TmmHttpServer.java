@@ -66,6 +66,7 @@ public class TmmHttpServer {
 
     // default context
     createContext("command", new CommandHandler());
+    createContext("database", new DatabaseCommandHandler());
 
     updateConfiguration(Settings.getInstance().isEnableHttpServer(), Settings.getInstance().getHttpServerPort(),
         Settings.getInstance().getHttpApiKey());
@@ -93,7 +94,7 @@ public class TmmHttpServer {
     return instance;
   }
 
-  public void createContext(String contextPath, ITmmCommandHandler commandHandler) {
+  public synchronized void createContext(String contextPath, ITmmCommandHandler commandHandler) {
     HttpHandler httpHandler = httpExchange -> {
       int responseCode;
       String responseMessage;
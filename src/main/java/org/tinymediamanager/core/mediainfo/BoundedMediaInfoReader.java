@@ -0,0 +1,246 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.mediainfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.Utils;
+import org.tinymediamanager.thirdparty.MediaInfo;
+import org.tinymediamanager.thirdparty.MediaInfo.StreamKind;
+
+/**
+ * The class BoundedMediaInfoReader. Feeds a file to libmediainfo via the buffer API (instead of letting libmediainfo read the file itself) with a
+ * limited amount of bytes per file. The file is read in large sequential blocks; most of the budget is used for the header, the rest is reserved
+ * for the seeks libmediainfo requests (e.g. to the end of the file to get the duration).<br />
+ * This is meant for files on network mounts, where libmediainfo may read large portions of the file otherwise. The mode is activated by setting a
+ * budget (in MiB) with the jvm arg <i>tmm.mediainfo.readbudget</i>; the jvm arg <i>tmm.mediainfo.readbudget.local</i> activates it for local files
+ * too. If the budget is exhausted before libmediainfo found the duration and the streams, the read fails - the caller has to read the whole file
+ *
+ * @author Manuel Laggner
+ */
+public class BoundedMediaInfoReader {
+  private static final Logger     LOGGER            = LoggerFactory.getLogger(BoundedMediaInfoReader.class);
+  private static final long       READ_BUDGET       = Math.max(0, Long.getLong("tmm.mediainfo.readbudget", 0)) * 1024 * 1024;
+  private static final boolean    LOCAL_FILES       = Boolean.getBoolean("tmm.mediainfo.readbudget.local");
+  private static final int        BLOCK_SIZE        = 1024 * 1024;
+  // the share of the budget which is reserved for the seeks requested by libmediainfo
+  private static final int        SEEK_RESERVE_PART = 4;
+
+  private static final AtomicLong TOTAL_BYTES_READ  = new AtomicLong();
+
+  private final long              budget;
+  private final int               blockSize;
+
+  private long                    bytesRead         = 0;
+  private int                     seeks             = 0;
+  private boolean                 truncated         = false;
+
+  public BoundedMediaInfoReader() {
+    this(READ_BUDGET, BLOCK_SIZE);
+  }
+
+  BoundedMediaInfoReader(long budget, int blockSize) {
+    this.budget = budget;
+    this.blockSize = blockSize;
+  }
+
+  /**
+   * check if the given file should be read with a bounded amount of bytes
+   *
+   * @param file
+   *          the file to check
+   * @return true if the bounded read mode is active for this file
+   */
+  public static boolean isActive(Path file) {
+    return READ_BUDGET > 0 && (LOCAL_FILES || Utils.isNetworkPath(file));
+  }
+
+  /**
+   * get the amount of bytes which have been read by all bounded reads
+   *
+   * @return the amount of bytes read
+   */
+  public static long getTotalBytesRead() {
+    return TOTAL_BYTES_READ.get();
+  }
+
+  /**
+   * read the MediaInfo snapshot of the given file
+   *
+   * @param file
+   *          the file to read
+   * @return the libmediainfo snapshot of the file
+   * @throws IOException
+   *           any exception while reading the file, if libmediainfo is not available or if the budget was not sufficient
+   */
+  public Map<StreamKind, List<Map<String, String>>> read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ); MediaInfo mediaInfo = new MediaInfo()) {
+      long fileSize = channel.size();
+      if (!mediaInfo.openBufferInit(fileSize, 0)) {
+        throw new IOException("libmediainfo not available");
+      }
+
+      feed(channel, fileSize, new BufferConsumer() {
+        @Override
+        public int consume(byte[] buffer, int length) {
+          return mediaInfo.openBufferContinue(buffer, length);
+        }
+
+        @Override
+        public long seekRequest() {
+          return mediaInfo.openBufferContinueGoToGet();
+        }
+
+        @Override
+        public void seek(long position) {
+          mediaInfo.openBufferInit(fileSize, position);
+        }
+      });
+
+      mediaInfo.openBufferFinalize();
+      TOTAL_BYTES_READ.addAndGet(bytesRead);
+      LOGGER.debug("MediaInfo read {} of {} bytes ({} seeks) of '{}'", bytesRead, fileSize, seeks, file);
+
+      Map<StreamKind, List<Map<String, String>>> snapshot = mediaInfo.snapshot();
+      // do not return (and cache) a partial result
+      if (truncated && !isComplete(snapshot)) {
+        throw new IOException("read budget exhausted before the duration/streams have been found");
+      }
+
+      return snapshot;
+    }
+  }
+
+  /**
+   * check whether the snapshot contains the duration and at least one video/audio stream
+   */
+  static boolean isComplete(Map<StreamKind, List<Map<String, String>>> snapshot) {
+    List<Map<String, String>> general = snapshot.get(StreamKind.General);
+    if (general == null || general.isEmpty() || StringUtils.isBlank(general.get(0).get("Duration"))) {
+      return false;
+    }
+
+    return hasStreams(snapshot, StreamKind.Video) || hasStreams(snapshot, StreamKind.Audio);
+  }
+
+  private static boolean hasStreams(Map<StreamKind, List<Map<String, String>>> snapshot, StreamKind kind) {
+    List<Map<String, String>> streams = snapshot.get(kind);
+    return streams != null && !streams.isEmpty();
+  }
+
+  /**
+   * feed the file to the consumer until it is finalized, the end of the file is reached or the budget is exhausted
+   */
+  void feed(FileChannel channel, long fileSize, BufferConsumer consumer) throws IOException {
+    byte[] buffer = new byte[(int) Math.min(blockSize, Math.max(1, Math.min(fileSize, budget)))];
+    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+
+    // until libmediainfo requests a seek, the reserve for the seeks must not be used
+    long limit = budget - budget / SEEK_RESERVE_PART;
+    long pos = 0;
+
+    while (pos < fileSize && bytesRead < limit) {
+      int toRead = (int) Math.min(buffer.length, Math.min(fileSize - pos, limit - bytesRead));
+      int read = readBlock(channel, pos, byteBuffer, toRead);
+      if (read <= 0) {
+        break;
+      }
+
+      pos += read;
+      bytesRead += read;
+
+      int result = consumer.consume(buffer, read);
+      if ((result & 8) == 8) { // Status.Finalized
+        return;
+      }
+
+      long seekPosition = consumer.seekRequest();
+      if (seekPosition != -1) {
+        pos = seekPosition;
+        seeks++;
+        limit = budget;
+        consumer.seek(pos);
+      }
+    }
+
+    // stopped by the budget - not by the end of the file
+    truncated = pos < fileSize && bytesRead >= limit;
+  }
+
+  private static int readBlock(FileChannel channel, long position, ByteBuffer buffer, int length) throws IOException {
+    buffer.clear();
+    buffer.limit(length);
+
+    long pos = position;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, pos);
+      if (read < 0) {
+        break;
+      }
+      pos += read;
+    }
+
+    return buffer.position();
+  }
+
+  /**
+   * get the amount of bytes read by this reader
+   *
+   * @return the amount of bytes read
+   */
+  public long getBytesRead() {
+    return bytesRead;
+  }
+
+  /**
+   * check whether the read has been stopped by the budget before libmediainfo finished
+   *
+   * @return true/false
+   */
+  public boolean isTruncated() {
+    return truncated;
+  }
+
+  /**
+   * get the amount of seeks requested by libmediainfo
+   *
+   * @return the amount of seeks
+   */
+  public int getSeeks() {
+    return seeks;
+  }
+
+  /**
+   * the receiver of the file content (libmediainfo)
+   */
+  interface BufferConsumer {
+    int consume(byte[] buffer, int length);
+
+    long seekRequest();
+
+    void seek(long position);
+  }
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.mediainfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.Globals;
+import org.tinymediamanager.core.Utils;
+import org.tinymediamanager.core.database.DatabaseCompactionService;
+import org.tinymediamanager.core.entities.MediaFile;
+import org.tinymediamanager.thirdparty.MediaInfo;
+import org.tinymediamanager.thirdparty.MediaInfo.StreamKind;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The class MediaInfoCache. A persistent cache of the libmediainfo results, keyed by the identity of the file content (file size, modification time
+ * and a hash of the start and the end of the file) rather than its path. The MediaInfo of a file which has been moved/renamed or re-added to the
+ * database (e.g. after a restore) is taken from here instead of reading the file with libmediainfo again.<br />
+ * The cache is dropped whenever the version of libmediainfo changes; the oldest entries are dropped if the cache gets too big
+ *
+ * @author Manuel Laggner
+ */
+public class MediaInfoCache {
+  private static final Logger          LOGGER           = LoggerFactory.getLogger(MediaInfoCache.class);
+  private static final String          MEDIAINFO_DB     = "mediainfo.db";
+  private static final String          VERSION_KEY      = "version";
+  private static final long            MAX_COMPACT_TIME = 1000;
+  private static final int             MAX_ENTRIES      = 100000;
+  // the share of the entries to drop if the cache gets too big
+  private static final int             EVICT_PART       = 10;
+  // the amount of bytes to hash at the start and the end of the file
+  private static final int             HASH_BLOCK_SIZE  = 64 * 1024;
+
+  private static final ObjectMapper    OBJECT_MAPPER    = new ObjectMapper();
+  private static final JavaType        CACHED_FILES     = OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, CachedFile.class);
+
+  // guards all writes to the store (and closing it)
+  private static final ReentrantLock   LOCK             = new ReentrantLock();
+
+  private static MVStore               mvStore;
+  private static MVMap<String, String> cacheMap;
+  // the time when the entries have been stored
+  private static MVMap<String, Long>   timeMap;
+  private static boolean               initialized      = false;
+
+  private MediaInfoCache() {
+    throw new IllegalAccessError();
+  }
+
+  private static synchronized MVMap<String, String> getCacheMap() {
+    if (!initialized) {
+      initialized = true;
+      initCache();
+    }
+    return cacheMap;
+  }
+
+  private static void initCache() {
+    Path databaseFile = Paths.get(Globals.CACHE_FOLDER, MEDIAINFO_DB);
+    try {
+      mvStore = new MVStore.Builder().fileName(databaseFile.toString()).compress().open();
+      cacheMap = mvStore.openMap("mediainfo");
+      timeMap = mvStore.openMap("mediainfo-time");
+      DatabaseCompactionService.getInstance().register(MEDIAINFO_DB, mvStore, LOCK);
+
+      // a new version of libmediainfo may produce other results
+      String version = getMediaInfoVersion();
+      if (!version.equals(cacheMap.get(VERSION_KEY))) {
+        LOCK.lock();
+        try {
+          cacheMap.clear();
+          timeMap.clear();
+          cacheMap.put(VERSION_KEY, version);
+        }
+        finally {
+          LOCK.unlock();
+        }
+      }
+    }
+    catch (Exception e) {
+      LOGGER.warn("could not open the MediaInfo cache - '{}'", e.getMessage());
+      Utils.deleteFileSafely(databaseFile);
+      closeStore();
+    }
+  }
+
+  private static String getMediaInfoVersion() {
+    try {
+      return MediaInfo.version();
+    }
+    catch (Exception | Error e) {
+      return "";
+    }
+  }
+
+  /**
+   * get the cached MediaInfo of the given {@link MediaFile}
+   *
+   * @param mediaFile
+   *          the {@link MediaFile}
+   * @return a {@link List} of all associated files along with libmediainfo data or an empty list if the file is not cached
+   */
+  public static List<MediaInfoFile> get(MediaFile mediaFile) {
+    return get(mediaFile, getKey(mediaFile.getFileAsPath()));
+  }
+
+  /**
+   * get the cached MediaInfo of the given {@link MediaFile} with an already computed key
+   *
+   * @param mediaFile
+   *          the {@link MediaFile}
+   * @param key
+   *          the key of the file from {@link #getKey(Path)}
+   * @return a {@link List} of all associated files along with libmediainfo data or an empty list if the file is not cached
+   */
+  public static List<MediaInfoFile> get(MediaFile mediaFile, String key) {
+    MVMap<String, String> map = key == null ? null : getCacheMap();
+    if (map == null) {
+      return Collections.emptyList();
+    }
+
+    try {
+      String json = map.get(key);
+      if (json == null) {
+        return Collections.emptyList();
+      }
+
+      List<MediaInfoFile> mediaInfoFiles = new ArrayList<>();
+      for (CachedFile cachedFile : OBJECT_MAPPER.<List<CachedFile>> readValue(json, CACHED_FILES)) {
+        // the media file itself and the files beside it are relocated to its current location
+        String path = cachedFile.path == null ? mediaFile.getPath() : cachedFile.path;
+        String filename = cachedFile.filename == null ? mediaFile.getFilename() : cachedFile.filename;
+        MediaInfoFile mediaInfoFile = new MediaInfoFile(Paths.get(path, filename), cachedFile.filesize);
+        mediaInfoFile.setSnapshot(cachedFile.snapshot);
+        mediaInfoFiles.add(mediaInfoFile);
+      }
+
+      LOGGER.trace("got MediaInfo for '{}' from the cache", mediaFile.getFileAsPath());
+      return mediaInfoFiles;
+    }
+    catch (Exception e) {
+      LOGGER.debug("could not read the MediaInfo cache - '{}'", e.getMessage());
+      return Collections.emptyList();
+    }
+  }
+
+  /**
+   * store the MediaInfo of the given {@link MediaFile}
+   *
+   * @param mediaFile
+   *          the {@link MediaFile}
+   * @param mediaInfoFiles
+   *          a {@link List} of all associated files along with libmediainfo data
+   */
+  public static void put(MediaFile mediaFile, List<MediaInfoFile> mediaInfoFiles) {
+    if (mediaInfoFiles.isEmpty()) {
+      return;
+    }
+
+    put(mediaFile, getKey(mediaFile.getFileAsPath()), mediaInfoFiles);
+  }
+
+  /**
+   * store the MediaInfo of the given {@link MediaFile} with an already computed key
+   *
+   * @param mediaFile
+   *          the {@link MediaFile}
+   * @param key
+   *          the key of the file from {@link #getKey(Path)}
+   * @param mediaInfoFiles
+   *          a {@link List} of all associated files along with libmediainfo data
+   */
+  public static void put(MediaFile mediaFile, String key, List<MediaInfoFile> mediaInfoFiles) {
+    if (mediaInfoFiles.isEmpty()) {
+      return;
+    }
+
+    MVMap<String, String> map = key == null ? null : getCacheMap();
+    if (map == null) {
+      return;
+    }
+
+    try {
+      List<CachedFile> cachedFiles = new ArrayList<>();
+      for (MediaInfoFile mediaInfoFile : mediaInfoFiles) {
+        CachedFile cachedFile = new CachedFile();
+        boolean sameFolder = mediaInfoFile.getPath().equals(mediaFile.getPath());
+        cachedFile.path = sameFolder ? null : mediaInfoFile.getPath();
+        cachedFile.filename = sameFolder && mediaInfoFile.getFilename().equals(mediaFile.getFilename()) ? null : mediaInfoFile.getFilename();
+        cachedFile.filesize = mediaInfoFile.getFilesize();
+        cachedFile.snapshot = mediaInfoFile.getSnapshot();
+        cachedFiles.add(cachedFile);
+      }
+
+      String json = OBJECT_MAPPER.writeValueAsString(cachedFiles);
+
+      LOCK.lock();
+      try {
+        // closed in the meantime
+        if (cacheMap != map) {
+          return;
+        }
+
+        // entries of deleted files are never removed - drop the oldest ones if the cache gets too big
+        if (map.size() > MAX_ENTRIES) {
+          evict(MAX_ENTRIES / EVICT_PART);
+        }
+
+        map.put(key, json);
+        timeMap.put(key, System.currentTimeMillis());
+      }
+      finally {
+        LOCK.unlock();
+      }
+    }
+    catch (Exception e) {
+      LOGGER.debug("could not write the MediaInfo cache - '{}'", e.getMessage());
+    }
+  }
+
+  /**
+   * drop the given amount of the oldest entries (entries without a time first)
+   *
+   * @param count
+   *          the amount of entries to drop
+   */
+  static void evict(int count) {
+    LOCK.lock();
+    try {
+      if (cacheMap == null) {
+        return;
+      }
+
+      List<Map.Entry<String, Long>> entries = new ArrayList<>();
+      for (String key : cacheMap.keySet()) {
+        if (!VERSION_KEY.equals(key)) {
+          Long time = timeMap.get(key);
+          entries.add(new AbstractMap.SimpleImmutableEntry<>(key, time == null ? 0L : time));
+        }
+      }
+      entries.sort(Map.Entry.comparingByValue());
+
+      int evicted = 0;
+      for (Map.Entry<String, Long> entry : entries) {
+        if (evicted >= count) {
+          break;
+        }
+        cacheMap.remove(entry.getKey());
+        timeMap.remove(entry.getKey());
+        evicted++;
+      }
+
+      LOGGER.info("MediaInfo cache - dropped the {} oldest of {} entries", evicted, entries.size());
+    }
+    finally {
+      LOCK.unlock();
+    }
+  }
+
+  /**
+   * get the key of the given file: file size, modification time and a hash of the first and the last block of the file. Computing the key reads
+   * the file, so callers doing a lookup and a store should compute it once and pass it to {@link #get(MediaFile, String)} and
+   * {@link #put(MediaFile, String, List)}
+   *
+   * @param file
+   *          the file
+   * @return the key or null if the file cannot be read
+   */
+  public static String getKey(Path file) {
+    try {
+      BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+      if (!attrs.isRegularFile() || attrs.size() == 0) {
+        return null;
+      }
+
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HASH_BLOCK_SIZE);
+
+        readBlock(channel, 0, buffer);
+        digest.update(buffer);
+
+        if (size > HASH_BLOCK_SIZE) {
+          readBlock(channel, Math.max(HASH_BLOCK_SIZE, size - HASH_BLOCK_SIZE), buffer);
+          digest.update(buffer);
+        }
+      }
+
+      StringBuilder key = new StringBuilder();
+      key.append(attrs.size()).append('-').append(attrs.lastModifiedTime().toMillis()).append('-');
+      for (byte b : digest.digest()) {
+        key.append(String.format("%02x", b));
+      }
+      return key.toString();
+    }
+    catch (Exception e) {
+      LOGGER.trace("could not create the MediaInfo cache key of '{}' - {}", file, e.getMessage());
+      return null;
+    }
+  }
+
+  private static void readBlock(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+    buffer.clear();
+    long pos = position;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, pos);
+      if (read < 0) {
+        break;
+      }
+      pos += read;
+    }
+    buffer.flip();
+  }
+
+  /**
+   * close the cache
+   */
+  public static synchronized void shutdown() {
+    DatabaseCompactionService.getInstance().unregister(MEDIAINFO_DB);
+
+    LOCK.lock();
+    try {
+      if (mvStore != null && !mvStore.isClosed()) {
+        mvStore.compactFile(MAX_COMPACT_TIME);
+        mvStore.close();
+      }
+    }
+    catch (Exception e) {
+      LOGGER.warn("could not close the MediaInfo cache - deleting it");
+      Utils.deleteFileSafely(Paths.get(Globals.CACHE_FOLDER, MEDIAINFO_DB));
+    }
+    finally {
+      closeStore();
+      initialized = false;
+      LOCK.unlock();
+    }
+  }
+
+  private static void closeStore() {
+    if (mvStore != null && !mvStore.isClosed()) {
+      try {
+        mvStore.closeImmediately();
+      }
+      catch (Exception ignored) {
+        // nothing to do here
+      }
+    }
+    mvStore = null;
+    cacheMap = null;
+    timeMap = null;
+  }
+
+  private static class CachedFile {
+    @JsonProperty
+    private String                                     path;
+    @JsonProperty
+    private String                                     filename;
+    @JsonProperty
+    private long                                       filesize;
+    @JsonProperty
+    private Map<StreamKind, List<Map<String, String>>> snapshot;
+  }
+}
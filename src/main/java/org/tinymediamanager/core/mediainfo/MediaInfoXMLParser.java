@@ -16,7 +16,13 @@
 
 package org.tinymediamanager.core.mediainfo;
 
+import java.io.BufferedReader;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -28,6 +34,11 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jsoup.Jsoup;
@@ -42,19 +53,107 @@ import org.tinymediamanager.thirdparty.MediaInfo.StreamKind;
 
 public class MediaInfoXMLParser {
 
-  private static final Logger  LOGGER                  = LoggerFactory.getLogger(MediaInfoXMLParser.class);
-  private static final Pattern DURATION_HOUR_PATTERN   = Pattern.compile("(\\d*?) h");
-  private static final Pattern DURATION_MINUTE_PATTERN = Pattern.compile("(\\d*?) min");
-  private static final Pattern DURATION_SECOND_PATTERN = Pattern.compile("(\\d*?) s");
-  private static final String  DUMMY_FILENAME          = "/tmp/dummy.bdmv";
+  private static final Logger          LOGGER                  = LoggerFactory.getLogger(MediaInfoXMLParser.class);
+  private static final Pattern         DURATION_HOUR_PATTERN   = Pattern.compile("(\\d*?) h");
+  private static final Pattern         DURATION_MINUTE_PATTERN = Pattern.compile("(\\d*?) min");
+  private static final Pattern         DURATION_SECOND_PATTERN = Pattern.compile("(\\d*?) s");
+  private static final String          DUMMY_FILENAME          = "/tmp/dummy.bdmv";
+
+  private static final XMLInputFactory XML_INPUT_FACTORY       = createXmlInputFactory();
 
-  private Path                 file                    = null;
+  private Path                         file                    = null;
 
   public MediaInfoXMLParser(Path file) {
     this.file = file;
   }
 
+  private static XMLInputFactory createXmlInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    // no DTDs/external entities in the sidecar files
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return factory;
+  }
+
+  /**
+   * parse the XML file. The file is parsed with a streaming parser; if this fails (e.g. not well-formed XML) the lenient DOM parser is used
+   *
+   * @return a {@link List} of all files along with libmediainfo data
+   * @throws Exception
+   *           any exception while parsing the XML
+   */
   public List<MediaInfoFile> parseXML() throws Exception {
+    try {
+      return parseXMLStreaming();
+    }
+    catch (XMLStreamException e) {
+      LOGGER.debug("could not stream XML '{}', using the DOM parser - {}", file, e.getMessage());
+      return parseXMLDocument();
+    }
+  }
+
+  /**
+   * parse the XML file with StAX - only the tracks of the current file in the XML are held in memory
+   */
+  List<MediaInfoFile> parseXMLStreaming() throws Exception {
+    List<MediaInfoFile> mediaFiles = new ArrayList<>();
+    List<MediaInfoFile> oldStyleFiles = new ArrayList<>();
+    boolean rootFound = false;
+    boolean newStyle = false;
+
+    try (Reader reader = openReader()) {
+      XMLStreamReader xmlReader = XML_INPUT_FACTORY.createXMLStreamReader(reader);
+      try {
+        // the current file element and its tracks
+        String fileElement = null;
+        String ref = null;
+        List<MiTrack> tracks = new ArrayList<>();
+
+        while (xmlReader.hasNext()) {
+          if (xmlReader.next() != XMLStreamConstants.START_ELEMENT) {
+            if (fileElement != null && xmlReader.isEndElement() && fileElement.equalsIgnoreCase(getName(xmlReader))) {
+              MediaInfoFile miFile = processFile(ref, tracks);
+              if (miFile != null) {
+                ("media".equalsIgnoreCase(fileElement) ? mediaFiles : oldStyleFiles).add(miFile);
+              }
+              fileElement = null;
+            }
+            continue;
+          }
+
+          String name = getName(xmlReader);
+          if (!rootFound) {
+            rootFound = "MediaInfo".equalsIgnoreCase(name);
+          }
+          else if (fileElement == null && ("media".equalsIgnoreCase(name) || "file".equalsIgnoreCase(name))) {
+            // new style (media) or old style (file)
+            fileElement = name;
+            newStyle |= "media".equalsIgnoreCase(name);
+            ref = getAttribute(xmlReader, "ref");
+            tracks = new ArrayList<>();
+          }
+          else if (fileElement != null && "track".equalsIgnoreCase(name)) {
+            tracks.add(readTrack(xmlReader));
+          }
+        }
+      }
+      finally {
+        xmlReader.close();
+      }
+    }
+
+    if (!rootFound) {
+      throw new InvalidXmlException("Invalid/unparseable XML");
+    }
+
+    return newStyle ? mediaFiles : oldStyleFiles;
+  }
+
+  /**
+   * parse the XML file with a Jsoup DOM
+   */
+  List<MediaInfoFile> parseXMLDocument() throws Exception {
     List<MediaInfoFile> files = new ArrayList<>();
 
     Document document;
@@ -78,222 +177,369 @@ public class MediaInfoXMLParser {
 
     // process every file in the ISO
     for (Element fileInXML : fileElements) {
-      MediaInfoFile miFile = new MediaInfoFile(Paths.get(DUMMY_FILENAME));
-      miFile.setSnapshot(new EnumMap<>(StreamKind.class));
-      if (StringUtils.isNotBlank(fileInXML.attr("ref")) && fileInXML.attr("ref").length() > 5) {
-        miFile.setFilename(fileInXML.attr("ref"));
-      }
-
       List<MiTrack> tracks = new ArrayList<>();
       // and add all tracks
       for (Element track : fileInXML.select("track")) {
         MiTrack miTrack = new MiTrack();
         miTrack.type = track.attr("type");
         // all tags in that track
-        miTrack.elements.addAll(track.children());
+        for (Element elem : track.children()) {
+          MiElement miElement = new MiElement(elem.tagName(), elem.ownText());
+          miElement.hasChildNodes = elem.childNodeSize() > 0;
+          for (Element child : elem.children()) {
+            miElement.children.add(new MiElement(child.tagName(), child.ownText()));
+          }
+          miTrack.elements.add(miElement);
+        }
         tracks.add(miTrack);
       }
 
-      // do the magic - create same weird map as MediaInfoLib will do, so we can parse with our impl...
-      StreamKind currentKind = null;
-      List<Map<String, String>> streamInfoList = new ArrayList<>(tracks.size());
-      Map<String, String> generalStreamInfo = null;
-
-      long kindFilesize = 0L;
-      long kindStreamsize = 0L;
-      int kindDuration = 0;
-
-      int duration = 0;
-      long filesize = 0;
-      for (MiTrack track : tracks) {
-        if (StreamKind.valueOf(track.type) != currentKind) {
-          // use highest duration per kind as duration
-          if (kindDuration > duration) {
-            duration = kindDuration;
-          }
-          if (kindFilesize > filesize) {
-            filesize = kindFilesize;
-          }
-          if (kindStreamsize > filesize) {
-            filesize = kindStreamsize; // reuse filesize
-          }
-          // reset map for each type
-          streamInfoList = new ArrayList<>(tracks.size());
-          kindFilesize = 0L;
-          kindStreamsize = 0L;
-          kindDuration = 0;
+      MediaInfoFile miFile = processFile(fileInXML.attr("ref"), tracks);
+      if (miFile != null) {
+        files.add(miFile);
+      }
+    } // for every MI file entry
+
+    return files;
+  }
+
+  private Reader openReader() throws IOException {
+    // the XML is read as UTF-8 like the DOM parser does; skip (multiple) BOMs and whitespace in front of the declaration
+    BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+    try {
+      int c;
+      do {
+        reader.mark(1);
+        c = reader.read();
+      } while (c == '\uFEFF' || (c != -1 && Character.isWhitespace(c)));
+      reader.reset();
+      return reader;
+    }
+    catch (IOException e) {
+      reader.close();
+      throw e;
+    }
+  }
+
+  /**
+   * read the track at the cursor (up to its end element) - the children of the track and their children are collected
+   */
+  private static MiTrack readTrack(XMLStreamReader xmlReader) throws XMLStreamException {
+    MiTrack miTrack = new MiTrack();
+    miTrack.type = getAttribute(xmlReader, "type");
+
+    // the element of the track and its child which are currently read
+    MiElement element = null;
+    MiElement child = null;
+    StringBuilder elementText = new StringBuilder();
+    StringBuilder childText = new StringBuilder();
+    int depth = 0;
+
+    while (xmlReader.hasNext()) {
+      int event = xmlReader.next();
+
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+        if (depth == 1) {
+          element = new MiElement(getName(xmlReader), "");
+          elementText.setLength(0);
+        }
+        else if (depth == 2) {
+          element.hasChildNodes = true;
+          child = new MiElement(getName(xmlReader), "");
+          childText.setLength(0);
+        }
+      }
+      else if (event == XMLStreamConstants.END_ELEMENT) {
+        if (depth == 0) {
+          // end of the track
+          break;
+        }
+        else if (depth == 1) {
+          element.text = normalizeText(elementText);
+          miTrack.elements.add(element);
+        }
+        else if (depth == 2) {
+          child.text = normalizeText(childText);
+          element.children.add(child);
+        }
+        depth--;
+      }
+      else if (depth > 0 && isContent(event)) {
+        element.hasChildNodes = true;
+        if (depth == 1 && event != XMLStreamConstants.COMMENT) {
+          elementText.append(xmlReader.getText());
+        }
+        else if (depth == 2 && event != XMLStreamConstants.COMMENT) {
+          childText.append(xmlReader.getText());
+        }
+      }
+    }
+
+    return miTrack;
+  }
+
+  private static boolean isContent(int event) {
+    return event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.CDATA
+        || event == XMLStreamConstants.COMMENT;
+  }
+
+  /**
+   * get the qualified name of the current element (like the tag name of Jsoup)
+   */
+  private static String getName(XMLStreamReader xmlReader) {
+    String prefix = xmlReader.getPrefix();
+    return StringUtils.isEmpty(prefix) ? xmlReader.getLocalName() : prefix + ":" + xmlReader.getLocalName();
+  }
+
+  private static String getAttribute(XMLStreamReader xmlReader, String name) {
+    for (int i = 0; i < xmlReader.getAttributeCount(); i++) {
+      String prefix = xmlReader.getAttributePrefix(i);
+      String attributeName = StringUtils.isEmpty(prefix) ? xmlReader.getAttributeLocalName(i) : prefix + ":" + xmlReader.getAttributeLocalName(i);
+      if (name.equals(attributeName)) {
+        return xmlReader.getAttributeValue(i);
+      }
+    }
+    return "";
+  }
+
+  /**
+   * collapse all whitespace and trim the text (like the own text of Jsoup)
+   */
+  private static String normalizeText(CharSequence text) {
+    StringBuilder sb = new StringBuilder(text.length());
+    boolean whitespace = false;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == 160) {
+        whitespace = true;
+      }
+      else {
+        if (whitespace && sb.length() > 0) {
+          sb.append(' ');
         }
+        whitespace = false;
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
 
-        Map<String, String> streamInfo = new LinkedHashMap<>();
-        currentKind = StreamKind.valueOf(track.type);
+  /**
+   * create the {@link MediaInfoFile} out of the tracks of a file in the XML
+   *
+   * @param ref
+   *          the ref attribute of the file
+   * @param tracks
+   *          all tracks of the file
+   * @return the {@link MediaInfoFile} or null if the file is not supported
+   */
+  private MediaInfoFile processFile(String ref, List<MiTrack> tracks) {
+    MediaInfoFile miFile = new MediaInfoFile(Paths.get(DUMMY_FILENAME));
+    miFile.setSnapshot(new EnumMap<>(StreamKind.class));
+    if (StringUtils.isNotBlank(ref) && ref.length() > 5) {
+      miFile.setFilename(ref);
+    }
 
-        // remember the general stream info, to enhance it afterwards if needed
-        if (currentKind == StreamKind.General) {
-          generalStreamInfo = streamInfo;
+    // do the magic - create same weird map as MediaInfoLib will do, so we can parse with our impl...
+    StreamKind currentKind = null;
+    List<Map<String, String>> streamInfoList = new ArrayList<>(tracks.size());
+    Map<String, String> generalStreamInfo = null;
+
+    long kindFilesize = 0L;
+    long kindStreamsize = 0L;
+    int kindDuration = 0;
+
+    int duration = 0;
+    long filesize = 0;
+    for (MiTrack track : tracks) {
+      if (StreamKind.valueOf(track.type) != currentKind) {
+        // use highest duration per kind as duration
+        if (kindDuration > duration) {
+          duration = kindDuration;
+        }
+        if (kindFilesize > filesize) {
+          filesize = kindFilesize;
         }
+        if (kindStreamsize > filesize) {
+          filesize = kindStreamsize; // reuse filesize
+        }
+        // reset map for each type
+        streamInfoList = new ArrayList<>(tracks.size());
+        kindFilesize = 0L;
+        kindStreamsize = 0L;
+        kindDuration = 0;
+      }
 
-        for (Element elem : track.elements) {
-          int i = 0;
-          String ename = elem.tagName();
-          String key = getMappedKey(ename);
-          if (!ename.equals(key)) {
-            LOGGER.trace("Key '{}' was repaced with '{}'", ename, key);
-          }
-          while (streamInfo.containsKey(key)) {
-            // change key for duplicates
-            // 1 = keyname
-            // 2 = keyname/String
-            // 3 = keyname/String1
-            // 4 = keyname/String2
-            // [...]
-            key = ename + "/String";
-            if (i > 0) {
-              key += i;
-            }
-            i++;
+      Map<String, String> streamInfo = new LinkedHashMap<>();
+      currentKind = StreamKind.valueOf(track.type);
+
+      // remember the general stream info, to enhance it afterwards if needed
+      if (currentKind == StreamKind.General) {
+        generalStreamInfo = streamInfo;
+      }
+
+      for (MiElement elem : track.elements) {
+        int i = 0;
+        String ename = elem.name;
+        String key = getMappedKey(ename);
+        if (!ename.equals(key)) {
+          LOGGER.trace("Key '{}' was repaced with '{}'", ename, key);
+        }
+        while (streamInfo.containsKey(key)) {
+          // change key for duplicates
+          // 1 = keyname
+          // 2 = keyname/String
+          // 3 = keyname/String1
+          // 4 = keyname/String2
+          // [...]
+          key = ename + "/String";
+          if (i > 0) {
+            key += i;
           }
+          i++;
+        }
 
-          String value = elem.ownText();
-          if (value.isEmpty()) {
-            // maybe this is a nested tag?
-            if (elem.childNodeSize() > 0) {
-              // this has children - something like <extra> - just pass the values without any further cleanup
-              for (Element child : elem.children()) {
-                if (!child.ownText().isEmpty()) {
-                  streamInfo.put(elem.tagName() + "/" + child.tagName(), child.ownText());
-                }
+        String value = elem.text;
+        if (value.isEmpty()) {
+          // maybe this is a nested tag?
+          if (elem.hasChildNodes) {
+            // this has children - something like <extra> - just pass the values without any further cleanup
+            for (MiElement child : elem.children) {
+              if (!child.text.isEmpty()) {
+                streamInfo.put(elem.name + "/" + child.name, child.text);
               }
             }
-            else {
-              continue;
-            }
           }
-
-          // Width and Height sometimes comes with the string "pixels"
-          if (key.equals("Width") || key.equals("Height")) {
-            value = value.replace("pixels", "").replace(" ", "").trim();
+          else {
+            continue;
           }
+        }
 
-          // accumulate filesizes & duration /for multiple tracks)
-          // but only per streamKind (audio & video tracks will have same duration ;)
-          if (key.equals("FileSize")) {
-            try {
-              // accumulate filemsize for same type of tracks
-              kindFilesize += parseSize(value); // should be only once in General
-              // and overwrite current value with accumulated (since we can only have one value/kind)
-              value = String.valueOf(kindFilesize);
-            }
-            catch (NumberFormatException e) {
-              LOGGER.trace("could not parse filesize - {}", e.getMessage());
-            }
+        // Width and Height sometimes comes with the string "pixels"
+        if (key.equals("Width") || key.equals("Height")) {
+          value = value.replace("pixels", "").replace(" ", "").trim();
+        }
+
+        // accumulate filesizes & duration /for multiple tracks)
+        // but only per streamKind (audio & video tracks will have same duration ;)
+        if (key.equals("FileSize")) {
+          try {
+            // accumulate filemsize for same type of tracks
+            kindFilesize += parseSize(value); // should be only once in General
+            // and overwrite current value with accumulated (since we can only have one value/kind)
+            value = String.valueOf(kindFilesize);
           }
-          if (key.equals("Stream_size")) {
-            try {
-              // accumulate streamsize for same type of tracks
-              kindStreamsize += parseSize(value);
-              // and overwrite current value with accumulated (since we can only have one value/kind)
-              value = String.valueOf(kindStreamsize);
-            }
-            catch (NumberFormatException e) {
-              LOGGER.trace("could not parse streamsize - {}", e.getMessage());
-            }
+          catch (NumberFormatException e) {
+            LOGGER.trace("could not parse filesize - {}", e.getMessage());
           }
-          if (key.equals("Complete_name") && StreamKind.General == currentKind && value.length() > 5) {
-            miFile.setFilename(value);
+        }
+        if (key.equals("Stream_size")) {
+          try {
+            // accumulate streamsize for same type of tracks
+            kindStreamsize += parseSize(value);
+            // and overwrite current value with accumulated (since we can only have one value/kind)
+            value = String.valueOf(kindStreamsize);
+          }
+          catch (NumberFormatException e) {
+            LOGGER.trace("could not parse streamsize - {}", e.getMessage());
+          }
+        }
+        if (key.equals("Complete_name") && StreamKind.General == currentKind && value.length() > 5) {
+          miFile.setFilename(value);
+        }
+        if (key.equals("Duration") && StreamKind.General == currentKind) {
+          try {
+            // parse the duration value as a number
+            // comes in different favors
+            // a) <Duration>5184.000</Duration> // 5184 secs
+            // b) <Duration>888000</Duration> // 888 secs
+            double d = Double.parseDouble(value.replace(".", ""));
+            // accumulate duration for same type of tracks
+            kindDuration += (int) d / 1000;
+            // and overwrite current value with accumulated (since we can only have one value/kind)
+            value = String.valueOf(kindDuration);
           }
-          if (key.equals("Duration") && StreamKind.General == currentKind) {
+          catch (NumberFormatException e) {
+            // parse the duration value as text
+            // a) <Duration>1 h 26 min</Duration>
+            // b) <Duration>14 min 48 s 0 ms</Duration>
             try {
-              // parse the duration value as a number
-              // comes in different favors
-              // a) <Duration>5184.000</Duration> // 5184 secs
-              // b) <Duration>888000</Duration> // 888 secs
-              double d = Double.parseDouble(value.replace(".", ""));
+              int hours = 0;
+              int minutes = 0;
+              int seconds = 0;
+
+              Matcher matcher = DURATION_HOUR_PATTERN.matcher(value);
+              if (matcher.find()) {
+                hours = Integer.parseInt(matcher.group(1));
+              }
+              matcher = DURATION_MINUTE_PATTERN.matcher(value);
+              if (matcher.find()) {
+                minutes = Integer.parseInt(matcher.group(1));
+              }
+              matcher = DURATION_SECOND_PATTERN.matcher(value);
+              if (matcher.find()) {
+                seconds = Integer.parseInt(matcher.group(1));
+              }
+
               // accumulate duration for same type of tracks
-              kindDuration += (int) d / 1000;
+              kindDuration += hours * 3600 + minutes * 60 + seconds;
               // and overwrite current value with accumulated (since we can only have one value/kind)
               value = String.valueOf(kindDuration);
             }
-            catch (NumberFormatException e) {
-              // parse the duration value as text
-              // a) <Duration>1 h 26 min</Duration>
-              // b) <Duration>14 min 48 s 0 ms</Duration>
-              try {
-                int hours = 0;
-                int minutes = 0;
-                int seconds = 0;
-
-                Matcher matcher = DURATION_HOUR_PATTERN.matcher(value);
-                if (matcher.find()) {
-                  hours = Integer.parseInt(matcher.group(1));
-                }
-                matcher = DURATION_MINUTE_PATTERN.matcher(value);
-                if (matcher.find()) {
-                  minutes = Integer.parseInt(matcher.group(1));
-                }
-                matcher = DURATION_SECOND_PATTERN.matcher(value);
-                if (matcher.find()) {
-                  seconds = Integer.parseInt(matcher.group(1));
-                }
-
-                // accumulate duration for same type of tracks
-                kindDuration += hours * 3600 + minutes * 60 + seconds;
-                // and overwrite current value with accumulated (since we can only have one value/kind)
-                value = String.valueOf(kindDuration);
-              }
-              catch (NumberFormatException ignored) {
-                LOGGER.trace("could not parse duration - {}", e.getMessage());
-              }
+            catch (NumberFormatException ignored) {
+              LOGGER.trace("could not parse duration - {}", e.getMessage());
             }
           }
-
-          if ("Source".equals(key) && "dummy.bdmv".equals(miFile.getFilename())) {
-            miFile.setFilename(value);
-          }
-
-          // push it twice; originating key AND possible new mapped key; to maintain the StringX ordering!
-          streamInfo.put(key, value);
-          if (!key.equals(getMappedKey(key))) {
-            LOGGER.trace("Duplicate Key '{}'", key);
-            streamInfo.put(getMappedKey(key), value);
-          }
         }
-        streamInfoList.add(streamInfo);
-        miFile.getSnapshot().put(StreamKind.valueOf(track.type), streamInfoList);
-      } // end tracks
 
-      miFile.setDuration(duration);
-      miFile.setFilesize(filesize);
-
-      // we rely on some infos in the general stream info; add that if it was not available in the XML
-      if (generalStreamInfo != null) {
-        if (generalStreamInfo.get("VideoCount") == null && miFile.getSnapshot().get(StreamKind.Video) != null) {
-          generalStreamInfo.put("VideoCount", String.valueOf(miFile.getSnapshot().get(StreamKind.Video).size()));
-        }
-        if (generalStreamInfo.get("AudioCount") == null && miFile.getSnapshot().get(StreamKind.Audio) != null) {
-          generalStreamInfo.put("AudioCount", String.valueOf(miFile.getSnapshot().get(StreamKind.Audio).size()));
+        if ("Source".equals(key) && "dummy.bdmv".equals(miFile.getFilename())) {
+          miFile.setFilename(value);
         }
-        if (generalStreamInfo.get("TextCount") == null && miFile.getSnapshot().get(StreamKind.Text) != null) {
-          generalStreamInfo.put("TextCount", String.valueOf(miFile.getSnapshot().get(StreamKind.Text).size()));
+
+        // push it twice; originating key AND possible new mapped key; to maintain the StringX ordering!
+        streamInfo.put(key, value);
+        if (!key.equals(getMappedKey(key))) {
+          LOGGER.trace("Duplicate Key '{}'", key);
+          streamInfo.put(getMappedKey(key), value);
         }
       }
+      streamInfoList.add(streamInfo);
+      miFile.getSnapshot().put(StreamKind.valueOf(track.type), streamInfoList);
+    } // end tracks
 
-      if (!miFile.getFilename().isEmpty()) {
-        // we have a filename (DVD structure or plain file)
-        Path p = Paths.get(miFile.getFilename());
-        if (p.getNameCount() == 0) {
-          // we just have a root directory like v: - create fake video name...
-          p = p.resolve("/iso/dummy.vob");
-        }
+    miFile.setDuration(duration);
+    miFile.setFilesize(filesize);
+
+    // we rely on some infos in the general stream info; add that if it was not available in the XML
+    if (generalStreamInfo != null) {
+      if (generalStreamInfo.get("VideoCount") == null && miFile.getSnapshot().get(StreamKind.Video) != null) {
+        generalStreamInfo.put("VideoCount", String.valueOf(miFile.getSnapshot().get(StreamKind.Video).size()));
+      }
+      if (generalStreamInfo.get("AudioCount") == null && miFile.getSnapshot().get(StreamKind.Audio) != null) {
+        generalStreamInfo.put("AudioCount", String.valueOf(miFile.getSnapshot().get(StreamKind.Audio).size()));
+      }
+      if (generalStreamInfo.get("TextCount") == null && miFile.getSnapshot().get(StreamKind.Text) != null) {
+        generalStreamInfo.put("TextCount", String.valueOf(miFile.getSnapshot().get(StreamKind.Text).size()));
       }
+    }
 
-      String ext = FilenameUtils.getExtension(miFile.getFilename()).toLowerCase(Locale.ROOT);
-      if (Settings.getInstance().getAllSupportedFileTypes().contains("." + ext) || "mpls".equalsIgnoreCase(ext)) {
-        miFile.setFilename(Paths.get(miFile.getFilename()).getFileName().toString()); // so we have it w/o path
-        files.add(miFile);
+    if (!miFile.getFilename().isEmpty()) {
+      // we have a filename (DVD structure or plain file)
+      Path p = Paths.get(miFile.getFilename());
+      if (p.getNameCount() == 0) {
+        // we just have a root directory like v: - create fake video name...
+        p = p.resolve("/iso/dummy.vob");
       }
-    } // for every MI file entry
+    }
 
-    return files;
+    String ext = FilenameUtils.getExtension(miFile.getFilename()).toLowerCase(Locale.ROOT);
+    if (Settings.getInstance().getAllSupportedFileTypes().contains("." + ext) || "mpls".equalsIgnoreCase(ext)) {
+      miFile.setFilename(Paths.get(miFile.getFilename()).getFileName().toString()); // so we have it w/o path
+      return miFile;
+    }
+
+    return null;
   }
 
   /**
@@ -392,8 +638,23 @@ public class MediaInfoXMLParser {
    * Track record of every file (1:N)
    */
   public static class MiTrack {
-    public String              type;
-    public final List<Element> elements = new ArrayList<>();
+    public String                type;
+    public final List<MiElement> elements = new ArrayList<>();
+  }
+
+  /**
+   * a tag of the track (and the tags inside of it)
+   */
+  public static class MiElement {
+    public final String          name;
+    public String                text;
+    public boolean               hasChildNodes = false;
+    public final List<MiElement> children      = new ArrayList<>();
+
+    public MiElement(String name, String text) {
+      this.name = name;
+      this.text = text;
+    }
   }
 
   public static class InvalidXmlException extends Exception {
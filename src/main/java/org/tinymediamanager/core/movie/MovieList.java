@@ -16,11 +16,15 @@
 package org.tinymediamanager.core.movie;
 
 import static org.tinymediamanager.core.Constants.CERTIFICATION;
+import static org.tinymediamanager.core.Constants.DATA_SOURCE;
 import static org.tinymediamanager.core.Constants.DECADE;
 import static org.tinymediamanager.core.Constants.GENRE;
+import static org.tinymediamanager.core.Constants.IMDB;
 import static org.tinymediamanager.core.Constants.MEDIA_FILES;
 import static org.tinymediamanager.core.Constants.MEDIA_INFORMATION;
+import static org.tinymediamanager.core.Constants.PATH;
 import static org.tinymediamanager.core.Constants.TAGS;
+import static org.tinymediamanager.core.Constants.TMDB;
 import static org.tinymediamanager.core.Constants.YEAR;
 
 import java.beans.PropertyChangeListener;
@@ -41,7 +45,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
@@ -54,6 +58,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.core.AbstractModelObject;
 import org.tinymediamanager.core.Constants;
+import org.tinymediamanager.core.FacetAggregate;
 import org.tinymediamanager.core.ImageCache;
 import org.tinymediamanager.core.MediaFileType;
 import org.tinymediamanager.core.MediaSource;
@@ -62,6 +67,9 @@ import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
 import org.tinymediamanager.core.ObservableCopyOnWriteArrayList;
 import org.tinymediamanager.core.Utils;
+import org.tinymediamanager.core.database.MediaEntityCodec;
+import org.tinymediamanager.core.database.MediaEntityIndex;
+import org.tinymediamanager.core.database.MediaEntityLookup;
 import org.tinymediamanager.core.entities.MediaEntity;
 import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.entities.MediaFileAudioStream;
@@ -78,11 +86,8 @@ import org.tinymediamanager.scraper.entities.MediaCertification;
 import org.tinymediamanager.scraper.entities.MediaLanguages;
 import org.tinymediamanager.scraper.exceptions.ScrapeException;
 import org.tinymediamanager.scraper.interfaces.IMovieMetadataProvider;
-import org.tinymediamanager.scraper.util.ListUtils;
 import org.tinymediamanager.scraper.util.MediaIdUtil;
 
-import com.fasterxml.jackson.databind.ObjectReader;
-
 import ca.odell.glazedlists.BasicEventList;
 import ca.odell.glazedlists.GlazedLists;
 import ca.odell.glazedlists.ObservableElementList;
@@ -93,32 +98,36 @@ import ca.odell.glazedlists.ObservableElementList;
  * @author Manuel Laggner
  */
 public final class MovieList extends AbstractModelObject {
-  private static final Logger                            LOGGER             = LoggerFactory.getLogger(MovieList.class);
-  private static MovieList                               instance;
-
-  private final List<Movie>                              movieList;
-  private final List<MovieSet>                           movieSetList;
-
-  private final CopyOnWriteArrayList<Integer>            yearsInMovies;
-  private final CopyOnWriteArrayList<String>             tagsInMovies;
-  private final CopyOnWriteArrayList<MediaGenres>        genresInMovies;
-  private final CopyOnWriteArrayList<String>             videoCodecsInMovies;
-  private final CopyOnWriteArrayList<String>             videoContainersInMovies;
-  private final CopyOnWriteArrayList<String>             audioCodecsInMovies;
-  private final CopyOnWriteArrayList<MediaCertification> certificationsInMovies;
-  private final CopyOnWriteArrayList<Double>             frameRatesInMovies;
-  private final CopyOnWriteArrayList<Integer>            audioStreamsInMovies;
-  private final CopyOnWriteArrayList<Integer>            subtitlesInMovies;
-  private final CopyOnWriteArrayList<String>             audioLanguagesInMovies;
-  private final CopyOnWriteArrayList<String>             subtitleLanguagesInMovies;
-  private final CopyOnWriteArrayList<String>             decadeInMovies;
-  private final CopyOnWriteArrayList<String>             hdrFormatInMovies;
-  private final CopyOnWriteArrayList<String>             audioTitlesInMovies;
-
-  private final PropertyChangeListener                   movieListener;
-  private final PropertyChangeListener                   movieSetListener;
-  private final Comparator<MovieSet>                     movieSetComparator = new MovieSetComparator();
-  private final ReadWriteLock                            readWriteLock      = new ReentrantReadWriteLock();
+  private static final Logger                      LOGGER                    = LoggerFactory.getLogger(MovieList.class);
+  private static final String[]                    INDEXED_IDS               = { IMDB, TMDB };
+  private static MovieList                         instance;
+
+  private final List<Movie>                        movieList;
+  private final List<MovieSet>                     movieSetList;
+  private final Map<UUID, Movie>                   moviesByUuid;
+  private final Map<UUID, MovieSet>                movieSetsByUuid;
+  private final MediaEntityLookup<Movie>           movieLookup;
+
+  private final FacetAggregate<Integer>            yearsInMovies;
+  private final FacetAggregate<String>             tagsInMovies;
+  private final FacetAggregate<MediaGenres>        genresInMovies;
+  private final FacetAggregate<String>             videoCodecsInMovies;
+  private final FacetAggregate<String>             videoContainersInMovies;
+  private final FacetAggregate<String>             audioCodecsInMovies;
+  private final FacetAggregate<MediaCertification> certificationsInMovies;
+  private final FacetAggregate<Double>             frameRatesInMovies;
+  private final FacetAggregate<Integer>            audioStreamsInMovies;
+  private final FacetAggregate<Integer>            subtitlesInMovies;
+  private final FacetAggregate<String>             audioLanguagesInMovies;
+  private final FacetAggregate<String>             subtitleLanguagesInMovies;
+  private final FacetAggregate<String>             decadeInMovies;
+  private final FacetAggregate<String>             hdrFormatInMovies;
+  private final FacetAggregate<String>             audioTitlesInMovies;
+
+  private final PropertyChangeListener             movieListener;
+  private final PropertyChangeListener             movieSetListener;
+  private final Comparator<MovieSet>               movieSetComparator        = new MovieSetComparator();
+  private final ReadWriteLock                      readWriteLock             = new ReentrantReadWriteLock();
 
   /**
    * Instantiates a new movie list.
@@ -127,22 +136,25 @@ public final class MovieList extends AbstractModelObject {
     // create all lists
     movieList = new ObservableElementList<>(GlazedLists.threadSafeList(new BasicEventList<>()), GlazedLists.beanConnector(Movie.class));
     movieSetList = new ObservableCopyOnWriteArrayList<>();
-
-    yearsInMovies = new CopyOnWriteArrayList<>();
-    tagsInMovies = new CopyOnWriteArrayList<>();
-    genresInMovies = new CopyOnWriteArrayList<>();
-    videoCodecsInMovies = new CopyOnWriteArrayList<>();
-    videoContainersInMovies = new CopyOnWriteArrayList<>();
-    audioCodecsInMovies = new CopyOnWriteArrayList<>();
-    certificationsInMovies = new CopyOnWriteArrayList<>();
-    frameRatesInMovies = new CopyOnWriteArrayList<>();
-    audioStreamsInMovies = new CopyOnWriteArrayList<>();
-    subtitlesInMovies = new CopyOnWriteArrayList<>();
-    audioLanguagesInMovies = new CopyOnWriteArrayList<>();
-    subtitleLanguagesInMovies = new CopyOnWriteArrayList<>();
-    decadeInMovies = new CopyOnWriteArrayList<>();
-    hdrFormatInMovies = new CopyOnWriteArrayList<>();
-    audioTitlesInMovies = new CopyOnWriteArrayList<>();
+    moviesByUuid = new ConcurrentHashMap<>();
+    movieSetsByUuid = new ConcurrentHashMap<>();
+    movieLookup = new MediaEntityLookup<>();
+
+    yearsInMovies = new FacetAggregate<>();
+    tagsInMovies = new FacetAggregate<>(tag -> tag.toUpperCase(Locale.ROOT));
+    genresInMovies = new FacetAggregate<>();
+    videoCodecsInMovies = new FacetAggregate<>();
+    videoContainersInMovies = new FacetAggregate<>(container -> container.toLowerCase(Locale.ROOT));
+    audioCodecsInMovies = new FacetAggregate<>();
+    certificationsInMovies = new FacetAggregate<>();
+    frameRatesInMovies = new FacetAggregate<>();
+    audioStreamsInMovies = new FacetAggregate<>();
+    subtitlesInMovies = new FacetAggregate<>();
+    audioLanguagesInMovies = new FacetAggregate<>();
+    subtitleLanguagesInMovies = new FacetAggregate<>();
+    decadeInMovies = new FacetAggregate<>();
+    hdrFormatInMovies = new FacetAggregate<>();
+    audioTitlesInMovies = new FacetAggregate<>();
 
     // movie listener: its used to always have a full list of all tags, codecs, years, ... used in tmm
     movieListener = evt -> {
@@ -172,6 +184,13 @@ public final class MovieList extends AbstractModelObject {
             updateMediaInformationLists(Collections.singletonList(movie));
             break;
 
+          case PATH:
+          case DATA_SOURCE:
+          case IMDB:
+          case TMDB:
+            updateIndex(movie);
+            break;
+
           default:
             break;
         }
@@ -221,6 +240,8 @@ public final class MovieList extends AbstractModelObject {
     if (!movieList.contains(movie)) {
       int oldValue = movieList.size();
       movieList.add(movie);
+      moviesByUuid.put(movie.getDbId(), movie);
+      updateIndex(movie);
 
       updateLists(Collections.singletonList(movie));
       movie.addPropertyChangeListener(movieListener);
@@ -240,24 +261,14 @@ public final class MovieList extends AbstractModelObject {
       return;
     }
 
-    List<Movie> moviesToRemove = new ArrayList<>();
-    Path path = Paths.get(datasource);
-    for (int i = movieList.size() - 1; i >= 0; i--) {
-      Movie movie = movieList.get(i);
-      if (path.equals(Paths.get(movie.getDataSource()))) {
-        moviesToRemove.add(movie);
-      }
-    }
-
-    removeMovies(moviesToRemove);
+    removeMovies(getMoviesByDataSource(datasource));
   }
 
   /**
    * exchanges the given datasource in the entities/database with a new one
    */
   void exchangeDatasource(String oldDatasource, String newDatasource) {
-    Path oldPath = Paths.get(oldDatasource);
-    List<Movie> moviesToChange = movieList.stream().filter(movie -> oldPath.equals(Paths.get(movie.getDataSource()))).collect(Collectors.toList());
+    List<Movie> moviesToChange = getMoviesByDataSource(oldDatasource);
     List<MediaFile> imagesToCache = new ArrayList<>();
 
     for (Movie movie : moviesToChange) {
@@ -312,7 +323,7 @@ public final class MovieList extends AbstractModelObject {
    * @return MediaGenres list
    */
   public Collection<MediaGenres> getUsedGenres() {
-    return Collections.unmodifiableList(genresInMovies);
+    return genresInMovies.getValues();
   }
 
   /**
@@ -332,7 +343,10 @@ public final class MovieList extends AbstractModelObject {
       Movie movie = movies.get(i);
       readWriteLock.writeLock().lock();
       movieList.remove(movie);
+      moviesByUuid.remove(movie.getDbId());
+      movieLookup.remove(movie);
       readWriteLock.writeLock().unlock();
+      removeFromLists(Collections.singletonList(movie));
       if (movie.getMovieSet() != null) {
         MovieSet movieSet = movie.getMovieSet();
 
@@ -376,7 +390,10 @@ public final class MovieList extends AbstractModelObject {
       movie.deleteFilesSafely();
       readWriteLock.writeLock().lock();
       movieList.remove(movie);
+      moviesByUuid.remove(movie.getDbId());
+      movieLookup.remove(movie);
       readWriteLock.writeLock().unlock();
+      removeFromLists(Collections.singletonList(movie));
       if (movie.getMovieSet() != null) {
         MovieSet movieSet = movie.getMovieSet();
         movieSet.removeMovie(movie, false);
@@ -413,21 +430,34 @@ public final class MovieList extends AbstractModelObject {
   /**
    * Load movies from database.
    */
-  void loadMoviesFromDatabase(MVMap<UUID, String> movieMap) {
+  void loadMoviesFromDatabase(MVMap<UUID, Object> movieMap) {
     ReadWriteLock lock = new ReentrantReadWriteLock();
 
     // load movies
-    ObjectReader movieObjectReader = MovieModuleManager.getInstance().getMovieObjectReader();
+    MediaEntityCodec<Movie> movieCodec = MovieModuleManager.getInstance().getMovieCodec();
+    movieCodec.resetStatistics();
+
+    boolean lazyLoading = MovieModuleManager.getInstance().isLazyLoading();
 
     List<UUID> toRemove = new ArrayList<>();
+    Map<UUID, Movie> toMigrate = new HashMap<>();
 
     long start = System.nanoTime();
 
     new ArrayList<>(movieMap.keyList()).parallelStream().forEach((uuid) -> {
-      String json = "";
+      Object json = "";
       try {
         json = movieMap.get(uuid);
-        Movie movie = movieObjectReader.readValue(json);
+
+        Movie movie;
+        if (lazyLoading && movieCodec.isCurrentFormat(json)) {
+          // only load the summary - the heavy properties are loaded on first access
+          movie = movieCodec.decodeSummary(json);
+          movie.dehydrate(MovieModuleManager.getInstance());
+        }
+        else {
+          movie = movieCodec.decode(json);
+        }
         movie.setDbId(uuid);
 
         // sanity check: only movies with a video file are valid
@@ -443,6 +473,10 @@ public final class MovieList extends AbstractModelObject {
         // for performance reasons we add movies directly
         lock.writeLock().lock();
         movieList.add(movie);
+        moviesByUuid.put(uuid, movie);
+        if (!movieCodec.isCurrentFormat(json)) {
+          toMigrate.put(uuid, movie);
+        }
         lock.writeLock().unlock();
       }
       catch (Exception e) {
@@ -462,27 +496,37 @@ public final class MovieList extends AbstractModelObject {
     }
 
     LOGGER.info("found {} movies in database", movieList.size());
-    LOGGER.debug("took {} ms", (end - start) / 1000000);
+    LOGGER.debug("took {} ms ({})", (end - start) / 1000000, movieCodec.getStatistics());
+
+    // migrate all movies which are not stored in the configured format
+    movieCodec.migrate(movieMap, toMigrate);
   }
 
-  void loadMovieSetsFromDatabase(MVMap<UUID, String> movieSetMap) {
+  void loadMovieSetsFromDatabase(MVMap<UUID, Object> movieSetMap) {
     ReadWriteLock lock = new ReentrantReadWriteLock();
 
     // load movie sets
-    ObjectReader movieSetObjectReader = MovieModuleManager.getInstance().getMovieSetObjectReader();
+    MediaEntityCodec<MovieSet> movieSetCodec = MovieModuleManager.getInstance().getMovieSetCodec();
+    movieSetCodec.resetStatistics();
 
     List<UUID> toRemove = new ArrayList<>();
+    Map<UUID, MovieSet> toMigrate = new HashMap<>();
 
     long start = System.nanoTime();
 
     new ArrayList<>(movieSetMap.keyList()).parallelStream().forEach((uuid) -> {
       try {
-        MovieSet movieSet = movieSetObjectReader.readValue(movieSetMap.get(uuid));
+        Object value = movieSetMap.get(uuid);
+        MovieSet movieSet = movieSetCodec.decode(value);
         movieSet.setDbId(uuid);
 
         // for performance reasons we add movies sets directly
         lock.writeLock().lock();
         movieSetList.add(movieSet);
+        movieSetsByUuid.put(uuid, movieSet);
+        if (!movieSetCodec.isCurrentFormat(value)) {
+          toMigrate.put(uuid, movieSet);
+        }
         lock.writeLock().unlock();
       }
       catch (Exception e) {
@@ -502,8 +546,10 @@ public final class MovieList extends AbstractModelObject {
     }
 
     LOGGER.info("found {} movieSets in database", movieSetList.size());
-    LOGGER.debug("took {} ms", (end - start) / 1000000);
+    LOGGER.debug("took {} ms ({})", (end - start) / 1000000, movieSetCodec.getStatistics());
 
+    // migrate all movie sets which are not stored in the configured format
+    movieSetCodec.migrate(movieSetMap, toMigrate);
   }
 
   void initDataAfterLoading() {
@@ -522,6 +568,67 @@ public final class MovieList extends AbstractModelObject {
     for (MovieSet movieSet : movieSetList) {
       movieSet.initializeAfterLoading();
     }
+
+    updateIndex();
+  }
+
+  /**
+   * build the in-memory lookup for all movies. If the persistent index has been closed cleanly, the lookup is filled with the stored keys;
+   * otherwise all movies are re-indexed (only changed entries are written to the database)
+   */
+  void updateIndex() {
+    long start = System.nanoTime();
+
+    MediaEntityIndex index = MovieModuleManager.getInstance().getMovieIndex();
+    boolean clean = index != null && index.isClean();
+
+    int changed = 0;
+    for (Movie movie : movieList) {
+      Collection<String> keys = clean ? index.getKeys(movie.getDbId()) : Collections.emptySet();
+      if (keys.isEmpty()) {
+        keys = MediaEntityLookup.getIndexKeys(movie, INDEXED_IDS);
+        if (index != null && index.put(movie.getDbId(), keys)) {
+          changed++;
+        }
+      }
+      movieLookup.put(movie, keys);
+    }
+
+    if (index == null) {
+      LOGGER.debug("movie lookup: {} entries - took {} ms", movieLookup.size(), (System.nanoTime() - start) / 1000000);
+      return;
+    }
+
+    // remove orphaned entries
+    int removed = index.retainAll(moviesByUuid.keySet());
+
+    LOGGER.debug("movie index ({}): {} entries, {} updated, {} removed - took {} ms", clean ? "clean" : "re-indexed", index.size(), changed,
+        removed, (System.nanoTime() - start) / 1000000);
+  }
+
+  private void updateIndex(Movie movie) {
+    if (!moviesByUuid.containsKey(movie.getDbId())) {
+      return;
+    }
+
+    List<String> keys = MediaEntityLookup.getIndexKeys(movie, INDEXED_IDS);
+    movieLookup.put(movie, keys);
+
+    MediaEntityIndex index = MovieModuleManager.getInstance().getMovieIndex();
+    if (index != null) {
+      index.put(movie.getDbId(), keys);
+    }
+  }
+
+  /**
+   * find all movies with the given index key (in-memory lookup)
+   *
+   * @param key
+   *          the index key
+   * @return a list of all found movies
+   */
+  private List<Movie> findMoviesByIndexKey(String key) {
+    return movieLookup.get(key);
   }
 
   private boolean isMovieCorrupt(Movie movie) {
@@ -557,21 +664,17 @@ public final class MovieList extends AbstractModelObject {
   }
 
   public MovieSet lookupMovieSet(UUID uuid) {
-    for (MovieSet movieSet : movieSetList) {
-      if (movieSet.getDbId().equals(uuid)) {
-        return movieSet;
-      }
+    if (uuid == null) {
+      return null;
     }
-    return null;
+    return movieSetsByUuid.get(uuid);
   }
 
   public Movie lookupMovie(UUID uuid) {
-    for (Movie movie : movieList) {
-      if (movie.getDbId().equals(uuid)) {
-        return movie;
-      }
+    if (uuid == null) {
+      return null;
     }
-    return null;
+    return moviesByUuid.get(uuid);
   }
 
   /**
@@ -582,12 +685,11 @@ public final class MovieList extends AbstractModelObject {
    * @return the movie by path
    */
   public synchronized Movie getMovieByPath(Path path) {
-
-    for (Movie movie : movieList) {
-      if (movie.getPathNIO().compareTo(path.toAbsolutePath()) == 0) {
-        LOGGER.debug("Ok, found already existing movie '{}' in DB (path: {})", movie.getTitle(), path);
-        return movie;
-      }
+    List<Movie> movies = findMoviesByIndexKey(MediaEntityLookup.pathKey(path));
+    if (!movies.isEmpty()) {
+      Movie movie = movies.get(0);
+      LOGGER.debug("Ok, found already existing movie '{}' in DB (path: {})", movie.getTitle(), path);
+      return movie;
     }
 
     return null;
@@ -601,7 +703,37 @@ public final class MovieList extends AbstractModelObject {
    * @return the movie list
    */
   public synchronized List<Movie> getMoviesByPath(Path path) {
-    return movieList.parallelStream().filter(movie -> movie.getPathNIO().compareTo(path) == 0).collect(Collectors.toList());
+    return findMoviesByIndexKey(MediaEntityLookup.pathKey(path));
+  }
+
+  /**
+   * Gets all movies of the given data source
+   *
+   * @param dataSource
+   *          the data source
+   * @return the movie list
+   */
+  public List<Movie> getMoviesByDataSource(String dataSource) {
+    if (StringUtils.isBlank(dataSource)) {
+      return Collections.emptyList();
+    }
+    return findMoviesByIndexKey(MediaEntityLookup.dataSourceKey(dataSource));
+  }
+
+  /**
+   * Gets all movies with the given id of the given provider (imdb/tmdb)
+   *
+   * @param providerId
+   *          the provider id
+   * @param id
+   *          the id of the movie at the given provider
+   * @return the movie list
+   */
+  public List<Movie> getMoviesByProviderId(String providerId, Object id) {
+    if (StringUtils.isBlank(providerId) || id == null) {
+      return Collections.emptyList();
+    }
+    return findMoviesByIndexKey(MediaEntityLookup.idKey(providerId, id));
   }
 
   /**
@@ -930,7 +1062,6 @@ public final class MovieList extends AbstractModelObject {
 
   private void updateLists(Collection<Movie> movies) {
     updateYear(movies);
-    updateDecades(movies);
     updateTags(movies);
     updateGenres(movies);
     updateCertifications(movies);
@@ -938,33 +1069,54 @@ public final class MovieList extends AbstractModelObject {
   }
 
   /**
-   * Update year in movies
+   * remove the given movies from all aggregated lists
    *
    * @param movies
-   *          all movies to update
+   *          all removed movies
    */
-  private void updateYear(Collection<Movie> movies) {
-    Set<Integer> years = new HashSet<>();
-    movies.forEach(movie -> years.add(movie.getYear()));
+  private void removeFromLists(Collection<Movie> movies) {
+    for (Movie movie : movies) {
+      fireIfChanged(yearsInMovies.remove(movie), YEAR, yearsInMovies);
+      fireIfChanged(decadeInMovies.remove(movie), DECADE, decadeInMovies);
+      fireIfChanged(tagsInMovies.remove(movie), TAGS, tagsInMovies);
+      fireIfChanged(genresInMovies.remove(movie), GENRE, genresInMovies);
+      fireIfChanged(certificationsInMovies.remove(movie), Constants.CERTIFICATION, certificationsInMovies);
+      fireIfChanged(videoCodecsInMovies.remove(movie), Constants.VIDEO_CODEC, videoCodecsInMovies);
+      fireIfChanged(frameRatesInMovies.remove(movie), Constants.FRAME_RATE, frameRatesInMovies);
+      fireIfChanged(videoContainersInMovies.remove(movie), Constants.VIDEO_CONTAINER, videoContainersInMovies);
+      fireIfChanged(audioCodecsInMovies.remove(movie), Constants.AUDIO_CODEC, audioCodecsInMovies);
+      fireIfChanged(audioStreamsInMovies.remove(movie), Constants.AUDIOSTREAMS_COUNT, audioStreamsInMovies);
+      fireIfChanged(subtitlesInMovies.remove(movie), Constants.SUBTITLES_COUNT, subtitlesInMovies);
+      fireIfChanged(audioLanguagesInMovies.remove(movie), Constants.AUDIO_LANGUAGES, audioLanguagesInMovies);
+      fireIfChanged(subtitleLanguagesInMovies.remove(movie), Constants.SUBTITLE_LANGUAGES, subtitleLanguagesInMovies);
+      fireIfChanged(hdrFormatInMovies.remove(movie), Constants.HDR_FORMAT, hdrFormatInMovies);
+      fireIfChanged(audioTitlesInMovies.remove(movie), Constants.AUDIO_TITLE, audioTitlesInMovies);
+    }
+  }
 
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(yearsInMovies, years)) {
-      firePropertyChange(YEAR, null, yearsInMovies);
+  private void fireIfChanged(boolean changed, String propertyName, FacetAggregate<?> aggregate) {
+    if (changed) {
+      firePropertyChange(propertyName, null, aggregate.getValues());
     }
   }
 
   /**
-   * Update decades in movies
+   * Update year and decade in movies
    *
    * @param movies
    *          all movies to update
    */
-  private void updateDecades(Collection<Movie> movies) {
-    Set<String> decades = new HashSet<>();
-    movies.forEach(movie -> decades.add(movie.getDecadeShort()));
+  private void updateYear(Collection<Movie> movies) {
+    boolean yearsChanged = false;
+    boolean decadesChanged = false;
 
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(decadeInMovies, decades)) {
-      firePropertyChange(DECADE, null, decadeInMovies);
+    for (Movie movie : movies) {
+      yearsChanged |= yearsInMovies.update(movie, Collections.singleton(movie.getYear()));
+      decadesChanged |= decadeInMovies.update(movie, Collections.singleton(movie.getDecadeShort()));
     }
+
+    fireIfChanged(yearsChanged, YEAR, yearsInMovies);
+    fireIfChanged(decadesChanged, DECADE, decadeInMovies);
   }
 
   /**
@@ -974,12 +1126,11 @@ public final class MovieList extends AbstractModelObject {
    *          all movies to update
    */
   private void updateGenres(Collection<Movie> movies) {
-    Set<MediaGenres> genres = new HashSet<>();
-    movies.forEach(movie -> genres.addAll(movie.getGenres()));
-
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(genresInMovies, genres)) {
-      firePropertyChange(GENRE, null, genresInMovies);
+    boolean changed = false;
+    for (Movie movie : movies) {
+      changed |= genresInMovies.update(movie, movie.getGenres());
     }
+    fireIfChanged(changed, GENRE, genresInMovies);
   }
 
   /**
@@ -989,13 +1140,11 @@ public final class MovieList extends AbstractModelObject {
    *          all movies to update
    */
   private void updateTags(Collection<Movie> movies) {
-    Set<String> tags = new HashSet<>();
-    movies.forEach(movie -> tags.addAll(movie.getTags()));
-
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(tagsInMovies, tags)) {
-      Utils.removeDuplicateStringFromCollectionIgnoreCase(tagsInMovies);
-      firePropertyChange(TAGS, null, tagsInMovies);
+    boolean changed = false;
+    for (Movie movie : movies) {
+      changed |= tagsInMovies.update(movie, movie.getTags());
     }
+    fireIfChanged(changed, TAGS, tagsInMovies);
   }
 
   /**
@@ -1005,28 +1154,37 @@ public final class MovieList extends AbstractModelObject {
    *          all movies to update
    */
   private void updateMediaInformationLists(Collection<Movie> movies) {
-    Set<String> videoCodecs = new HashSet<>();
-    Set<Double> frameRates = new HashSet<>();
-    Map<String, String> videoContainers = new HashMap<>();
-    Set<String> audioCodecs = new HashSet<>();
-    Set<Integer> audioStreamCount = new HashSet<>();
-    Set<Integer> subtitleCount = new HashSet<>();
-    Set<String> audioLanguages = new HashSet<>();
-    Set<String> subtitleLanguages = new HashSet<>();
-    Set<String> hdrFormat = new HashSet<>();
-    Set<String> audioTitles = new HashSet<>();
-
-    // get Subtitle language from video files and subtitle files
+    boolean videoCodecsChanged = false;
+    boolean frameRatesChanged = false;
+    boolean videoContainersChanged = false;
+    boolean audioCodecsChanged = false;
+    boolean audioStreamCountChanged = false;
+    boolean subtitleCountChanged = false;
+    boolean audioLanguagesChanged = false;
+    boolean subtitleLanguagesChanged = false;
+    boolean hdrFormatChanged = false;
+    boolean audioTitlesChanged = false;
+
     for (Movie movie : movies) {
+      Set<String> videoCodecs = new HashSet<>();
+      Set<Double> frameRates = new HashSet<>();
+      Set<String> videoContainers = new HashSet<>();
+      Set<String> audioCodecs = new HashSet<>();
+      Set<Integer> audioStreamCount = new HashSet<>();
+      Set<Integer> subtitleCount = new HashSet<>();
+      Set<String> audioLanguages = new HashSet<>();
+      Set<String> subtitleLanguages = new HashSet<>();
+      Set<String> hdrFormat = new HashSet<>();
+      Set<String> audioTitles = new HashSet<>();
+
+      // get Subtitle language from video files and subtitle files
       for (MediaFile mf : movie.getMediaFiles(MediaFileType.VIDEO, MediaFileType.SUBTITLE)) {
         // subtitle language
         if (!mf.getSubtitleLanguagesList().isEmpty()) {
           subtitleLanguages.addAll(mf.getSubtitleLanguagesList());
         }
       }
-    }
 
-    for (Movie movie : movies) {
       for (MediaFile mf : movie.getMediaFiles(MediaFileType.VIDEO)) {
         // video codec
         if (StringUtils.isNotBlank(mf.getVideoCodec())) {
@@ -1040,7 +1198,7 @@ public final class MovieList extends AbstractModelObject {
 
         // video container
         if (StringUtils.isNotBlank(mf.getContainerFormat())) {
-          videoContainers.putIfAbsent(mf.getContainerFormat().toLowerCase(Locale.ROOT), mf.getContainerFormat());
+          videoContainers.add(mf.getContainerFormat());
         }
 
         // audio codec
@@ -1074,57 +1232,29 @@ public final class MovieList extends AbstractModelObject {
           audioTitles.addAll(mf.getAudioTitleList());
         }
       }
-    }
-
-    // video codecs
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(videoCodecsInMovies, videoCodecs)) {
-      firePropertyChange(Constants.VIDEO_CODEC, null, videoCodecsInMovies);
-    }
-
-    // frame rate
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(frameRatesInMovies, frameRates)) {
-      firePropertyChange(Constants.FRAME_RATE, null, frameRatesInMovies);
-    }
-
-    // video container
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(videoContainersInMovies, videoContainers.values())) {
-      firePropertyChange(Constants.VIDEO_CONTAINER, null, videoContainersInMovies);
-    }
-
-    // audio codec
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(audioCodecsInMovies, audioCodecs)) {
-      firePropertyChange(Constants.AUDIO_CODEC, null, audioCodecsInMovies);
-    }
 
-    // audio streams
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(audioStreamsInMovies, audioStreamCount)) {
-      firePropertyChange(Constants.AUDIOSTREAMS_COUNT, null, audioStreamsInMovies);
-    }
-
-    // subtitles
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(subtitlesInMovies, subtitleCount)) {
-      firePropertyChange(Constants.SUBTITLES_COUNT, null, subtitlesInMovies);
-    }
-
-    // audio languages
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(audioLanguagesInMovies, audioLanguages)) {
-      firePropertyChange(Constants.AUDIO_LANGUAGES, null, audioLanguagesInMovies);
-    }
-
-    // subtitle languages
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(subtitleLanguagesInMovies, subtitleLanguages)) {
-      firePropertyChange(Constants.SUBTITLE_LANGUAGES, null, subtitleLanguagesInMovies);
-    }
-
-    // HDR Format
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(hdrFormatInMovies, hdrFormat)) {
-      firePropertyChange(Constants.HDR_FORMAT, null, hdrFormatInMovies);
-    }
-
-    // AudioTitle
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(audioTitlesInMovies, audioTitles)) {
-      firePropertyChange(Constants.AUDIO_TITLE, null, audioTitlesInMovies);
-    }
+      videoCodecsChanged |= videoCodecsInMovies.update(movie, videoCodecs);
+      frameRatesChanged |= frameRatesInMovies.update(movie, frameRates);
+      videoContainersChanged |= videoContainersInMovies.update(movie, videoContainers);
+      audioCodecsChanged |= audioCodecsInMovies.update(movie, audioCodecs);
+      audioStreamCountChanged |= audioStreamsInMovies.update(movie, audioStreamCount);
+      subtitleCountChanged |= subtitlesInMovies.update(movie, subtitleCount);
+      audioLanguagesChanged |= audioLanguagesInMovies.update(movie, audioLanguages);
+      subtitleLanguagesChanged |= subtitleLanguagesInMovies.update(movie, subtitleLanguages);
+      hdrFormatChanged |= hdrFormatInMovies.update(movie, hdrFormat);
+      audioTitlesChanged |= audioTitlesInMovies.update(movie, audioTitles);
+    }
+
+    fireIfChanged(videoCodecsChanged, Constants.VIDEO_CODEC, videoCodecsInMovies);
+    fireIfChanged(frameRatesChanged, Constants.FRAME_RATE, frameRatesInMovies);
+    fireIfChanged(videoContainersChanged, Constants.VIDEO_CONTAINER, videoContainersInMovies);
+    fireIfChanged(audioCodecsChanged, Constants.AUDIO_CODEC, audioCodecsInMovies);
+    fireIfChanged(audioStreamCountChanged, Constants.AUDIOSTREAMS_COUNT, audioStreamsInMovies);
+    fireIfChanged(subtitleCountChanged, Constants.SUBTITLES_COUNT, subtitlesInMovies);
+    fireIfChanged(audioLanguagesChanged, Constants.AUDIO_LANGUAGES, audioLanguagesInMovies);
+    fireIfChanged(subtitleLanguagesChanged, Constants.SUBTITLE_LANGUAGES, subtitleLanguagesInMovies);
+    fireIfChanged(hdrFormatChanged, Constants.HDR_FORMAT, hdrFormatInMovies);
+    fireIfChanged(audioTitlesChanged, Constants.AUDIO_TITLE, audioTitlesInMovies);
   }
 
   /**
@@ -1134,12 +1264,11 @@ public final class MovieList extends AbstractModelObject {
    *          all movies to update
    */
   private void updateCertifications(Collection<Movie> movies) {
-    Set<MediaCertification> certifications = new HashSet<>();
-    movies.forEach(movie -> certifications.add(movie.getCertification()));
-
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(certificationsInMovies, certifications)) {
-      firePropertyChange(Constants.CERTIFICATION, null, certificationsInMovies);
+    boolean changed = false;
+    for (Movie movie : movies) {
+      changed |= certificationsInMovies.update(movie, Collections.singleton(movie.getCertification()));
     }
+    fireIfChanged(changed, Constants.CERTIFICATION, certificationsInMovies);
   }
 
   /**
@@ -1148,7 +1277,7 @@ public final class MovieList extends AbstractModelObject {
    * @return a {@link Set} of all years
    */
   public Collection<Integer> getYearsInMovies() {
-    return Collections.unmodifiableList(yearsInMovies);
+    return yearsInMovies.getValues();
   }
 
   /**
@@ -1157,7 +1286,7 @@ public final class MovieList extends AbstractModelObject {
    * @return a {@link Set} of all decades
    */
   public Collection<String> getDecadeInMovies() {
-    return Collections.unmodifiableList(decadeInMovies);
+    return decadeInMovies.getValues();
   }
 
   /**
@@ -1166,51 +1295,51 @@ public final class MovieList extends AbstractModelObject {
    * @return a {@link Set} of all tags
    */
   public Collection<String> getTagsInMovies() {
-    return Collections.unmodifiableList(tagsInMovies);
+    return tagsInMovies.getValues();
   }
 
   public Collection<String> getVideoCodecsInMovies() {
-    return Collections.unmodifiableList(videoCodecsInMovies);
+    return videoCodecsInMovies.getValues();
   }
 
   public Collection<String> getVideoContainersInMovies() {
-    return Collections.unmodifiableList(videoContainersInMovies);
+    return videoContainersInMovies.getValues();
   }
 
   public Collection<String> getAudioCodecsInMovies() {
-    return Collections.unmodifiableList(audioCodecsInMovies);
+    return audioCodecsInMovies.getValues();
   }
 
   public Collection<MediaCertification> getCertificationsInMovies() {
-    return Collections.unmodifiableList(certificationsInMovies);
+    return certificationsInMovies.getValues();
   }
 
   public Collection<Double> getFrameRatesInMovies() {
-    return Collections.unmodifiableList(frameRatesInMovies);
+    return frameRatesInMovies.getValues();
   }
 
   public Collection<Integer> getAudioStreamsInMovies() {
-    return Collections.unmodifiableList(audioStreamsInMovies);
+    return audioStreamsInMovies.getValues();
   }
 
   public Collection<Integer> getSubtitlesInMovies() {
-    return Collections.unmodifiableList(subtitlesInMovies);
+    return subtitlesInMovies.getValues();
   }
 
   public Collection<String> getAudioLanguagesInMovies() {
-    return Collections.unmodifiableList(audioLanguagesInMovies);
+    return audioLanguagesInMovies.getValues();
   }
 
   public Collection<String> getSubtitleLanguagesInMovies() {
-    return Collections.unmodifiableList(subtitleLanguagesInMovies);
+    return subtitleLanguagesInMovies.getValues();
   }
 
   public Collection<String> getHDRFormatInMovies() {
-    return Collections.unmodifiableList(hdrFormatInMovies);
+    return hdrFormatInMovies.getValues();
   }
 
   public Collection<String> getAudioTitlesInMovies() {
-    return Collections.unmodifiableList(audioTitlesInMovies);
+    return audioTitlesInMovies.getValues();
   }
 
   /**
@@ -1285,6 +1414,7 @@ public final class MovieList extends AbstractModelObject {
     int oldValue = movieSetList.size();
     readWriteLock.writeLock().lock();
     movieSetList.add(movieSet);
+    movieSetsByUuid.put(movieSet.getDbId(), movieSet);
     readWriteLock.writeLock().unlock();
     movieSet.addPropertyChangeListener(movieSetListener);
     firePropertyChange(Constants.ADDED_MOVIE_SET, null, movieSet);
@@ -1321,6 +1451,7 @@ public final class MovieList extends AbstractModelObject {
 
       readWriteLock.writeLock().lock();
       movieSetList.remove(movieSet);
+      movieSetsByUuid.remove(movieSet.getDbId());
       readWriteLock.writeLock().unlock();
       MovieModuleManager.getInstance().removeMovieSetFromDb(movieSet);
     }
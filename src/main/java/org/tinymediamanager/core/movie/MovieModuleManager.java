@@ -15,83 +15,101 @@
  */
 package org.tinymediamanager.core.movie;
 
+import java.beans.PropertyChangeListener;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TimeZone;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-import org.apache.commons.lang3.StringUtils;
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.MVStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.Globals;
 import org.tinymediamanager.core.Constants;
-import org.tinymediamanager.core.CustomNullStringSerializerProvider;
+import org.tinymediamanager.core.DatasourceWatcher;
 import org.tinymediamanager.core.ITmmModule;
-import org.tinymediamanager.core.NullKeySerializer;
 import org.tinymediamanager.core.Settings;
 import org.tinymediamanager.core.TmmResourceBundle;
 import org.tinymediamanager.core.Utils;
+import org.tinymediamanager.core.database.DatabaseBackup;
+import org.tinymediamanager.core.database.DatabaseCompactionService;
+import org.tinymediamanager.core.database.DatabaseFormat;
+import org.tinymediamanager.core.database.IMediaEntityHydrator;
+import org.tinymediamanager.core.database.MediaEntityCodec;
+import org.tinymediamanager.core.database.MediaEntityIndex;
+import org.tinymediamanager.core.database.WriteBehindQueue;
 import org.tinymediamanager.core.entities.MediaEntity;
+import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.http.TmmHttpServer;
 import org.tinymediamanager.core.movie.entities.Movie;
 import org.tinymediamanager.core.movie.entities.MovieSet;
 import org.tinymediamanager.core.movie.http.MovieCommandHandler;
-
-import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.MapperFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.tinymediamanager.core.movie.tasks.MovieUpdateDatasourceTask;
+import org.tinymediamanager.core.threading.TmmTaskManager;
 
 /**
  * The class MovieModuleManager. Used to manage the movies module
  * 
  * @author Manuel Laggner
  */
-public final class MovieModuleManager implements ITmmModule {
+public final class MovieModuleManager implements ITmmModule, IMediaEntityHydrator {
 
   private static final String          MODULE_TITLE         = "Movie management";
   private static final String          MOVIE_DB             = "movies.db";
   private static final Logger          LOGGER               = LoggerFactory.getLogger(MovieModuleManager.class);
   private static final int             COMMIT_DELAY         = 2000;
+  private static final int             WRITE_INTERVAL       = 500;
+  private static final int             EVICTION_DELAY       = 60000;
+  private static final long            EVICTION_IDLE_TIME   = 300000;
+  private static final int             BACKUP_DELAY         = 30000;
+  private static final long            MAX_COMPACT_TIME     = 1000;
 
   private static MovieModuleManager    instance;
 
   private final List<String>           startupMessages;
-  private final Map<MediaEntity, Long> pendingChanges;
   private final ReentrantReadWriteLock lock;
+  private final boolean                lazyLoading;
+  private final Set<MediaEntity>       hydratedEntities;
+  private final DatabaseBackup         databaseBackup;
+  private final ReentrantLock          maintenanceLock;
 
   private boolean                      enabled;
   private int                          autoCommitBufferSize = 8192;
   private MVStore                      mvStore;
-  private ObjectWriter                 movieObjectWriter;
-  private ObjectReader                 movieObjectReader;
-  private ObjectWriter                 movieSetObjectWriter;
-  private ObjectReader                 movieSetObjectReader;
+  private MediaEntityCodec<Movie>      movieCodec;
+  private MediaEntityCodec<MovieSet>   movieSetCodec;
 
-  private MVMap<UUID, String>          movieMap;
-  private MVMap<UUID, String>          movieSetMap;
+  private MVMap<UUID, Object>          movieMap;
+  private MVMap<UUID, Object>          movieSetMap;
+  private MediaEntityIndex             movieIndex;
+  private WriteBehindQueue             writeQueue;
 
   private Timer                        databaseTimer;
+  private DatasourceWatcher            datasourceWatcher;
+  private PropertyChangeListener       datasourceWatcherListener;
 
   private MovieModuleManager() {
     enabled = false;
     startupMessages = new ArrayList<>();
-    pendingChanges = new HashMap<>();
     lock = new ReentrantReadWriteLock();
+    hydratedEntities = ConcurrentHashMap.newKeySet();
+    maintenanceLock = new ReentrantLock();
+    databaseBackup = new DatabaseBackup(Paths.get(Globals.BACKUP_FOLDER, MOVIE_DB));
+
+    // lazy loading of heavy properties (cast, crew, trailers) can be activated via jvm args
+    lazyLoading = Boolean.getBoolean("tmm.db.lazyloading");
 
     // check if a custom autocommit buffer size has been set via jvm args
     int bufferSize = Integer.getInteger("tmm.mvstore.buffersize", 8);
@@ -132,24 +150,10 @@ public final class MovieModuleManager implements ITmmModule {
 
   @Override
   public void startUp() {
-    // configure JSON
-    ObjectMapper objectMapper = JsonMapper.builder()
-        .configure(MapperFeature.AUTO_DETECT_GETTERS, false)
-        .configure(MapperFeature.AUTO_DETECT_IS_GETTERS, false)
-        .configure(MapperFeature.AUTO_DETECT_SETTERS, false)
-        .configure(MapperFeature.AUTO_DETECT_FIELDS, false)
-        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-        .addModule(new BlackbirdModule())
-        .build();
-    objectMapper.setTimeZone(TimeZone.getDefault());
-    objectMapper.setSerializationInclusion(Include.NON_DEFAULT);
-    objectMapper.setSerializerProvider(new CustomNullStringSerializerProvider());
-    objectMapper.getSerializerProvider().setNullKeySerializer(new NullKeySerializer());
-
-    movieObjectWriter = objectMapper.writerFor(Movie.class);
-    movieObjectReader = objectMapper.readerFor(Movie.class);
-    movieSetObjectWriter = objectMapper.writerFor(MovieSet.class);
-    movieSetObjectReader = objectMapper.readerFor(MovieSet.class);
+    // configure the database codecs
+    DatabaseFormat databaseFormat = DatabaseFormat.getConfiguredFormat();
+    movieCodec = new MediaEntityCodec<>(Movie.class, databaseFormat, lazyLoading ? Movie.LAZY_PROPERTIES : Collections.emptyList());
+    movieSetCodec = new MediaEntityCodec<>(MovieSet.class, databaseFormat);
 
     // open database
     openDatabaseAndLoadMovies();
@@ -162,7 +166,26 @@ public final class MovieModuleManager implements ITmmModule {
       }
     };
     databaseTimer = new Timer();
-    databaseTimer.schedule(databaseWriteTask, COMMIT_DELAY, COMMIT_DELAY);
+    databaseTimer.schedule(databaseWriteTask, WRITE_INTERVAL, WRITE_INTERVAL);
+
+    if (lazyLoading) {
+      TimerTask evictionTask = new TimerTask() {
+        @Override
+        public void run() {
+          evictIdleEntities();
+        }
+      };
+      databaseTimer.schedule(evictionTask, EVICTION_DELAY, EVICTION_DELAY);
+    }
+
+    // update the database backup in the background after startup
+    TimerTask backupTask = new TimerTask() {
+      @Override
+      public void run() {
+        createDatabaseBackup();
+      }
+    };
+    databaseTimer.schedule(backupTask, BACKUP_DELAY);
 
     try {
       TmmHttpServer.getInstance().createContext("movie", new MovieCommandHandler());
@@ -172,6 +195,76 @@ public final class MovieModuleManager implements ITmmModule {
     }
   }
 
+  /**
+   * start watching the data sources for changes (if activated in the settings). The watcher is restarted whenever the data sources or the skip
+   * folders are changed
+   */
+  public synchronized void startDatasourceWatcher() {
+    if (datasourceWatcherListener == null) {
+      datasourceWatcherListener = evt -> {
+        if (MovieSettings.WATCH_DATASOURCES.equals(evt.getPropertyName()) || Constants.DATA_SOURCE.equals(evt.getPropertyName())
+            || MovieSettings.SKIP_FOLDER.equals(evt.getPropertyName())) {
+          startDatasourceWatcher();
+        }
+      };
+      getSettings().addPropertyChangeListener(datasourceWatcherListener);
+    }
+
+    stopDatasourceWatcher();
+
+    if (!enabled || !getSettings().isWatchDatasources()) {
+      return;
+    }
+
+    datasourceWatcher = new DatasourceWatcher("movies", MovieUpdateDatasourceTask.createSkipFolderFilter(), this::updateChangedDatasources);
+    datasourceWatcher.start(getSettings().getMovieDataSource());
+  }
+
+  private synchronized void stopDatasourceWatcher() {
+    if (datasourceWatcher != null) {
+      datasourceWatcher.stop();
+      datasourceWatcher = null;
+    }
+  }
+
+  private void updateChangedDatasources(Map<String, Set<Path>> changes) {
+    for (Map.Entry<String, Set<Path>> entry : changes.entrySet()) {
+      // ignore our own changes (NFO files/artwork written, movies renamed)
+      entry.getValue().removeIf(this::isKnownChange);
+      if (entry.getValue().isEmpty()) {
+        continue;
+      }
+
+      LOGGER.info("detected changes in {} folders of '{}'", entry.getValue().size(), entry.getKey());
+
+      MovieUpdateDatasourceTask task = new MovieUpdateDatasourceTask(entry.getKey());
+      task.setChangedPaths(entry.getValue());
+      TmmTaskManager.getInstance().addMainTask(task);
+    }
+  }
+
+  /**
+   * check whether the given changed path is already known in its current state (e.g. changed by tinyMediaManager itself)
+   */
+  private boolean isKnownChange(Path path) {
+    // the movies in this folder or in one of its parents (e.g. extrafanart, BDMV)
+    Path folder = path;
+    while (folder != null) {
+      List<Movie> movies = MovieList.getInstance().getMoviesByPath(folder);
+      if (!movies.isEmpty()) {
+        List<MediaFile> mediaFiles = new ArrayList<>();
+        for (Movie movie : movies) {
+          mediaFiles.addAll(movie.getMediaFiles());
+        }
+        return DatasourceWatcher.isKnownState(path, mediaFiles);
+      }
+      folder = folder.getParent();
+    }
+
+    // not part of any movie: deleting has no effect, everything else may be a new movie
+    return !Files.exists(path);
+  }
+
   /**
    * open the database<BR/>
    * 1. try to open the actual one<BR/>
@@ -206,6 +299,22 @@ public final class MovieModuleManager implements ITmmModule {
 
     LOGGER.info("try to restore the database from the backups");
 
+    // the incremental database backup at first
+    if (databaseBackup.restore(databaseFile)) {
+      try {
+        loadDatabase(databaseFile);
+        startupMessages.add(TmmResourceBundle.getString("movie.loaddb.failed.restore"));
+
+        return;
+      }
+      catch (Exception e) {
+        if (mvStore != null && !mvStore.isClosed()) {
+          mvStore.close();
+        }
+        LOGGER.error("Could not open database file from backup: {}", e.getMessage());
+      }
+    }
+
     // get backups
     List<Path> backups = Utils.listFiles(Paths.get(Globals.BACKUP_FOLDER));
     backups.sort(Comparator.reverseOrder());
@@ -224,7 +333,13 @@ public final class MovieModuleManager implements ITmmModule {
       }
 
       try {
+        Utils.deleteFileSafely(databaseFile);
         Utils.unzipFile(backup, Paths.get("/", "data", MOVIE_DB), databaseFile);
+        if (!Files.exists(databaseFile)) {
+          // newer backups of the data folder do not contain the database
+          continue;
+        }
+
         loadDatabase(databaseFile);
         startupMessages.add(TmmResourceBundle.getString("movie.loaddb.failed.restore"));
 
@@ -288,6 +403,9 @@ public final class MovieModuleManager implements ITmmModule {
 
           movieMap = mvStore.openMap("movies");
           movieSetMap = mvStore.openMap("movieSets");
+          movieIndex = new MediaEntityIndex(mvStore, "movieIndex");
+          createWriteQueue();
+          DatabaseCompactionService.getInstance().register(MOVIE_DB, mvStore, maintenanceLock);
 
           for (Movie movie : getMovieList().getMovies()) {
             persistMovie(movie);
@@ -297,6 +415,9 @@ public final class MovieModuleManager implements ITmmModule {
             persistMovieSet(movieSet);
           }
 
+          // the new index is empty - index all movies again
+          getMovieList().updateIndex();
+
           counter = 0;
         }
       }
@@ -314,10 +435,24 @@ public final class MovieModuleManager implements ITmmModule {
 
     movieMap = mvStore.openMap("movies");
     movieSetMap = mvStore.openMap("movieSets");
+    movieIndex = new MediaEntityIndex(mvStore, "movieIndex");
+    createWriteQueue();
+    DatabaseCompactionService.getInstance().register(MOVIE_DB, mvStore, maintenanceLock);
 
     getMovieList().loadMoviesFromDatabase(movieMap);
     getMovieList().loadMovieSetsFromDatabase(movieSetMap);
     getMovieList().initDataAfterLoading();
+
+    // the index is only trusted at the next start if the database has been closed cleanly
+    movieIndex.setClean(false);
+
+    LOGGER.debug("database file '{}' - {} KiB ({})", databaseFile.getFileName(), mvStore.getFileStore().size() / 1024, movieCodec.getFormat());
+  }
+
+  private void createWriteQueue() {
+    writeQueue = new WriteBehindQueue("movies", mvStore, lock, COMMIT_DELAY);
+    writeQueue.register(Movie.class, movieMap, movieCodec);
+    writeQueue.register(MovieSet.class, movieSetMap, movieSetCodec);
   }
 
   @Override
@@ -328,13 +463,18 @@ public final class MovieModuleManager implements ITmmModule {
 
     enabled = false;
 
+    stopDatasourceWatcher();
     databaseTimer.cancel();
+    DatabaseCompactionService.getInstance().unregister(MOVIE_DB);
 
     // write pending changes
     if (mvStore != null && !mvStore.isClosed()) {
       writePendingChanges(true);
+      movieIndex.setClean(true);
+      LOGGER.info("movie database - {}", writeQueue.getStatistics());
 
-      mvStore.compactMoveChunks();
+      // the database is compacted in the background - just a bounded compaction here
+      mvStore.compactFile(MAX_COMPACT_TIME);
       mvStore.close();
     }
 
@@ -346,69 +486,100 @@ public final class MovieModuleManager implements ITmmModule {
     }
   }
 
+  /**
+   * create/update the incremental backup of the database
+   */
+  private synchronized void createDatabaseBackup() {
+    if (!enabled || mvStore == null || mvStore.isClosed()) {
+      return;
+    }
+
+    maintenanceLock.lock();
+    try {
+      databaseBackup.backup(mvStore, lock);
+    }
+    catch (Exception e) {
+      LOGGER.warn("could not create a backup of the database - {}", e.getMessage());
+    }
+    finally {
+      maintenanceLock.unlock();
+    }
+  }
+
   private void writePendingChanges() {
     writePendingChanges(false);
   }
 
-  private synchronized void writePendingChanges(boolean force) {
+  private void writePendingChanges(boolean force) {
     if (mvStore == null || mvStore.isClosed()) {
       return;
     }
 
-    if (force) {
-      // force write - wait until the lock is released
-      lock.writeLock().lock();
-    }
-    else {
-      // lock if there is no other task running
-      if (!lock.writeLock().tryLock()) {
-        return;
-      }
+    writeQueue.flush(force);
+  }
+
+  /**
+   * drop the lazily loaded properties of all movies which have not been accessed for some time - but only if the memory is getting low
+   */
+  private void evictIdleEntities() {
+    Runtime runtime = Runtime.getRuntime();
+    long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+    if (hydratedEntities.isEmpty() || usedMemory < runtime.maxMemory() * 0.75) {
+      return;
     }
 
-    try {
-      Map<MediaEntity, Long> pending = new HashMap<>(pendingChanges);
+    // do not run while there is another task running
+    if (!lock.writeLock().tryLock()) {
+      return;
+    }
 
-      long now = System.currentTimeMillis();
+    int count = 0;
 
-      for (Map.Entry<MediaEntity, Long> entry : pending.entrySet()) {
-        if (force || entry.getValue() < (now - COMMIT_DELAY)) {
-          try {
-            if (entry.getKey() instanceof Movie) {
-              // store movie
-              Movie movie = (Movie) entry.getKey();
-
-              // only diffs
-              String oldValue = movieMap.get(movie.getDbId());
-              String newValue = movieObjectWriter.writeValueAsString(movie);
-              if (!StringUtils.equals(oldValue, newValue)) {
-                movieMap.put(movie.getDbId(), newValue);
-              }
-            }
-            else if (entry.getKey() instanceof MovieSet) {
-              // store movie set
-              MovieSet movieSet = (MovieSet) entry.getKey();
-
-              // only diffs
-              String oldValue = movieSetMap.get(movieSet.getDbId());
-              String newValue = movieSetObjectWriter.writeValueAsString(movieSet);
-              if (!StringUtils.equals(oldValue, newValue)) {
-                movieSetMap.put(movieSet.getDbId(), newValue);
-              }
-            }
-          }
-          catch (Exception e) {
-            LOGGER.warn("could not store '{}' - '{}'", entry.getKey().getClass().getName(), e.getMessage());
-          }
-          finally {
-            pendingChanges.remove(entry.getKey());
-          }
+    try {
+      long threshold = System.currentTimeMillis() - EVICTION_IDLE_TIME;
+
+      for (MediaEntity entity : hydratedEntities) {
+        // never drop entities with pending changes
+        if (entity.getLastAccess() < threshold && !writeQueue.isPending(entity)) {
+          entity.dehydrate(this);
+          hydratedEntities.remove(entity);
+          count++;
         }
       }
     }
     finally {
       lock.writeLock().unlock();
     }
+
+    if (count > 0) {
+      LOGGER.debug("dropped lazy properties of {} movies", count);
+    }
+  }
+
+  @Override
+  public MediaEntity loadFullEntity(MediaEntity entity) throws Exception {
+    if (!(entity instanceof Movie) || mvStore == null || mvStore.isClosed()) {
+      return null;
+    }
+
+    Object value = movieMap.get(entity.getDbId());
+    if (value == null) {
+      return null;
+    }
+
+    Movie movie = movieCodec.decode(value);
+    hydratedEntities.add(entity);
+
+    return movie;
+  }
+
+  /**
+   * check whether the lazy loading of heavy properties is activated
+   *
+   * @return true/false
+   */
+  boolean isLazyLoading() {
+    return lazyLoading;
   }
 
   @Override
@@ -424,9 +595,7 @@ public final class MovieModuleManager implements ITmmModule {
    */
   public void dump(Movie movie) {
     try {
-      ObjectMapper mapper = new ObjectMapper();
-      Object json = mapper.readValue(movieMap.get(movie.getDbId()), Object.class);
-      String s = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(json);
+      String s = movieCodec.toPrettyJson(movieMap.get(movie.getDbId()));
       LOGGER.info("Dumping Movie: {}\n{}", movie.getDbId(), s);
     }
     catch (Exception e) {
@@ -442,9 +611,7 @@ public final class MovieModuleManager implements ITmmModule {
    */
   public void dump(MovieSet movieSet) {
     try {
-      ObjectMapper mapper = new ObjectMapper();
-      Object json = mapper.readValue(movieSetMap.get(movieSet.getDbId()), Object.class);
-      String s = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(json);
+      String s = movieSetCodec.toPrettyJson(movieSetMap.get(movieSet.getDbId()));
       LOGGER.info("Dumping MovieSet: {}\n{}", movieSet.getDbId(), s);
     }
     catch (Exception e) {
@@ -454,45 +621,21 @@ public final class MovieModuleManager implements ITmmModule {
 
   void persistMovie(Movie movie) {
     // write movie to DB
-    try {
-      lock.writeLock().lock();
-      pendingChanges.put(movie, System.currentTimeMillis());
-    }
-    finally {
-      lock.writeLock().unlock();
-    }
+    writeQueue.enqueue(movie);
   }
 
   void removeMovieFromDb(Movie movie) {
-    try {
-      lock.writeLock().lock();
-      pendingChanges.remove(movie);
-      movieMap.remove(movie.getDbId());
-    }
-    finally {
-      lock.writeLock().unlock();
-    }
+    writeQueue.remove(movie);
+    hydratedEntities.remove(movie);
+    movieIndex.remove(movie.getDbId());
   }
 
   void persistMovieSet(MovieSet movieSet) {
-    try {
-      lock.writeLock().lock();
-      pendingChanges.put(movieSet, System.currentTimeMillis());
-    }
-    finally {
-      lock.writeLock().unlock();
-    }
+    writeQueue.enqueue(movieSet);
   }
 
   void removeMovieSetFromDb(MovieSet movieSet) {
-    try {
-      lock.writeLock().lock();
-      movieSetMap.remove(movieSet.getDbId());
-      pendingChanges.remove(movieSet);
-    }
-    finally {
-      lock.writeLock().unlock();
-    }
+    writeQueue.remove(movieSet);
   }
 
   @Override
@@ -510,11 +653,23 @@ public final class MovieModuleManager implements ITmmModule {
     return startupMessages;
   }
 
-  ObjectReader getMovieObjectReader() {
-    return movieObjectReader;
+  /**
+   * get the persistent index of all movies (path, data source, provider ids)
+   *
+   * @return the {@link MediaEntityIndex} or null if the database has not been opened yet
+   */
+  MediaEntityIndex getMovieIndex() {
+    if (mvStore == null || mvStore.isClosed()) {
+      return null;
+    }
+    return movieIndex;
+  }
+
+  MediaEntityCodec<Movie> getMovieCodec() {
+    return movieCodec;
   }
 
-  ObjectReader getMovieSetObjectReader() {
-    return movieSetObjectReader;
+  MediaEntityCodec<MovieSet> getMovieSetCodec() {
+    return movieSetCodec;
   }
 }
@@ -115,6 +115,7 @@ public final class MovieSettings extends AbstractSettings {
   static final String                       SUBTITLE_SCRAPERS                      = "subtitleScrapers";
   static final String                       BAD_WORD                               = "badWord";
   static final String                       SKIP_FOLDER                            = "skipFolder";
+  static final String                       WATCH_DATASOURCES                      = "watchDatasources";
   static final String                       MOVIE_CHECK_METADATA                   = "movieCheckMetadata";
   static final String                       MOVIE_CHECK_ARTWORK                    = "movieCheckArtwork";
   static final String                       MOVIESET_CHECK_METADATA                = "movieSetCheckMetadata";
@@ -145,6 +146,8 @@ public final class MovieSettings extends AbstractSettings {
 
   // data sources / NFO settings
   boolean                                   buildImageCacheOnImport                = true;
+  boolean                                   incrementalUpdate                      = true;
+  boolean                                   watchDatasources                       = false;
   MovieConnectors                           movieConnector                         = MovieConnectors.KODI;
   CertificationStyle                        certificationStyle                     = CertificationStyle.LARGE;
   boolean                                   nfoDiscFolderInside                    = true;
@@ -1255,6 +1258,26 @@ public final class MovieSettings extends AbstractSettings {
     firePropertyChange("buildImageCacheOnImport", oldValue, newValue);
   }
 
+  public boolean isIncrementalUpdate() {
+    return incrementalUpdate;
+  }
+
+  public void setIncrementalUpdate(boolean newValue) {
+    boolean oldValue = this.incrementalUpdate;
+    this.incrementalUpdate = newValue;
+    firePropertyChange("incrementalUpdate", oldValue, newValue);
+  }
+
+  public boolean isWatchDatasources() {
+    return watchDatasources;
+  }
+
+  public void setWatchDatasources(boolean newValue) {
+    boolean oldValue = this.watchDatasources;
+    this.watchDatasources = newValue;
+    firePropertyChange(WATCH_DATASOURCES, oldValue, newValue);
+  }
+
   public boolean isRenamerCreateMoviesetForSingleMovie() {
     return renamerCreateMoviesetForSingleMovie;
   }
@@ -144,6 +144,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
   private static final Logger                   LOGGER                     = LoggerFactory.getLogger(Movie.class);
   private static final Comparator<MediaFile>    MEDIA_FILE_COMPARATOR      = new MovieMediaFileComparator();
   private static final Comparator<MediaTrailer> TRAILER_QUALITY_COMPARATOR = new MediaTrailer.QualityComparator();
+  public static final List<String>              LAZY_PROPERTIES            = List.of(ACTORS, PRODUCERS, DIRECTORS, WRITERS, TRAILER);
 
   @JsonProperty
   private String                                sortTitle                  = "";
@@ -191,15 +192,15 @@ public class Movie extends MediaEntity implements IMediaInformation {
   @JsonProperty
   private final List<String>                    extraFanarts               = new CopyOnWriteArrayList<>();
   @JsonProperty
-  private final List<Person>                    actors                     = new CopyOnWriteArrayList<>();
+  private List<Person>                          actors                     = new CopyOnWriteArrayList<>();
   @JsonProperty
-  private final List<Person>                    producers                  = new CopyOnWriteArrayList<>();
+  private List<Person>                          producers                  = new CopyOnWriteArrayList<>();
   @JsonProperty
-  private final List<Person>                    directors                  = new CopyOnWriteArrayList<>();
+  private List<Person>                          directors                  = new CopyOnWriteArrayList<>();
   @JsonProperty
-  private final List<Person>                    writers                    = new CopyOnWriteArrayList<>();
+  private List<Person>                          writers                    = new CopyOnWriteArrayList<>();
   @JsonProperty
-  private final List<MediaTrailer>              trailer                    = new CopyOnWriteArrayList<>();
+  private List<MediaTrailer>                    trailer                    = new CopyOnWriteArrayList<>();
   @JsonProperty
   private final List<String>                    showlinks                  = new CopyOnWriteArrayList<>();
 
@@ -287,6 +288,29 @@ public class Movie extends MediaEntity implements IMediaInformation {
     setTrailers(mergedTrailers);
   }
 
+  @Override
+  protected void copyLazyProperties(MediaEntity source) {
+    if (!(source instanceof Movie)) {
+      return;
+    }
+
+    Movie other = (Movie) source;
+    actors = new CopyOnWriteArrayList<>(other.actors);
+    producers = new CopyOnWriteArrayList<>(other.producers);
+    directors = new CopyOnWriteArrayList<>(other.directors);
+    writers = new CopyOnWriteArrayList<>(other.writers);
+    trailer = new CopyOnWriteArrayList<>(other.trailer);
+  }
+
+  @Override
+  protected void clearLazyProperties() {
+    actors = new CopyOnWriteArrayList<>();
+    producers = new CopyOnWriteArrayList<>();
+    directors = new CopyOnWriteArrayList<>();
+    writers = new CopyOnWriteArrayList<>();
+    trailer = new CopyOnWriteArrayList<>();
+  }
+
   @Override
   protected Comparator<MediaFile> getMediaFileComparator() {
     return MEDIA_FILE_COMPARATOR;
@@ -497,6 +521,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    * @return the trailers
    */
   public List<MediaTrailer> getTrailer() {
+    hydrate();
     return this.trailer;
   }
 
@@ -507,6 +532,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    *          a {@link Collection} of trailers to be added
    */
   public void addToTrailer(Collection<MediaTrailer> newTrailers) {
+    hydrate();
     Set<MediaTrailer> newItems = new LinkedHashSet<>();
 
     // do not accept duplicates or null values
@@ -529,6 +555,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    * Removes the all trailers.
    */
   public void removeAllTrailers() {
+    hydrate();
     trailer.clear();
     firePropertyChange(TRAILER, null, trailer);
   }
@@ -1004,6 +1031,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    */
   @JsonSetter
   public void setTrailers(List<MediaTrailer> trailers) {
+    hydrate();
     MediaTrailer preferredTrailer = null;
     removeAllTrailers();
 
@@ -2027,6 +2055,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    *          a {@link Collection} of all actors to be added
    */
   public void addToActors(Collection<Person> newActors) {
+    hydrate();
     Set<Person> newItems = new LinkedHashSet<>();
 
     // do not accept duplicates or null values
@@ -2053,6 +2082,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    * remove all actors.
    */
   public void removeActors() {
+    hydrate();
     actors.clear();
     firePropertyChange(ACTORS, null, this.getActors());
   }
@@ -2065,6 +2095,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    */
   @JsonSetter
   public void setActors(List<Person> newActors) {
+    hydrate();
     // two way sync of actors
     mergePersons(actors, newActors);
     firePropertyChange(ACTORS, null, this.getActors());
@@ -2076,6 +2107,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    * @return the actors
    */
   public List<Person> getActors() {
+    hydrate();
     return this.actors;
   }
 
@@ -2086,6 +2118,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    *          a {@link Collection} of all producers to be added
    */
   public void addToProducers(Collection<Person> newProducers) {
+    hydrate();
     Set<Person> newItems = new LinkedHashSet<>();
 
     // do not accept duplicates or null values
@@ -2112,6 +2145,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    * remove all producers
    */
   public void removeProducers() {
+    hydrate();
     producers.clear();
     firePropertyChange(PRODUCERS, null, producers);
   }
@@ -2125,6 +2159,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    */
   @JsonSetter
   public void setProducers(List<Person> newProducers) {
+    hydrate();
     // two way sync of producers
     mergePersons(producers, newProducers);
     firePropertyChange(PRODUCERS, null, producers);
@@ -2136,6 +2171,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    * @return the producers
    */
   public List<Person> getProducers() {
+    hydrate();
     return this.producers;
   }
 
@@ -2146,6 +2182,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    *          a {@link Collection} of directors to be added
    */
   public void addToDirectors(Collection<Person> newDirectors) {
+    hydrate();
     Set<Person> newItems = new LinkedHashSet<>();
 
     // do not accept duplicates or null values
@@ -2173,6 +2210,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    * remove all directors.
    */
   public void removeDirectors() {
+    hydrate();
     directors.clear();
     firePropertyChange(DIRECTORS, null, directors);
     firePropertyChange(DIRECTORS_AS_STRING, null, getDirectorsAsString());
@@ -2186,6 +2224,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    */
   @JsonSetter
   public void setDirectors(List<Person> newDirectors) {
+    hydrate();
     // two way sync of directors
     mergePersons(directors, newDirectors);
 
@@ -2199,6 +2238,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    * @return the directors
    */
   public List<Person> getDirectors() {
+    hydrate();
     return directors;
   }
 
@@ -2208,6 +2248,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    * @return a string containing all directors; separated by ,
    */
   public String getDirectorsAsString() {
+    hydrate();
     List<String> directorNames = new ArrayList<>();
     for (Person director : directors) {
       directorNames.add(director.getName());
@@ -2222,6 +2263,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    *          a {@link Collection} of the writers to be added
    */
   public void addToWriters(Collection<Person> newWriters) {
+    hydrate();
     Set<Person> newItems = new LinkedHashSet<>();
 
     // do not accept duplicates or null values
@@ -2249,6 +2291,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    * remove all writers.
    */
   public void removeWriters() {
+    hydrate();
     writers.clear();
     firePropertyChange(WRITERS, null, getWriters());
     firePropertyChange(WRITERS_AS_STRING, null, getWritersAsString());
@@ -2262,6 +2305,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    */
   @JsonSetter
   public void setWriters(List<Person> newWriters) {
+    hydrate();
     // two way sync of writers
     mergePersons(writers, newWriters);
 
@@ -2275,6 +2319,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    * @return the writers
    */
   public List<Person> getWriters() {
+    hydrate();
     return writers;
   }
 
@@ -2284,6 +2329,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
    * @return a string containing all writers; separated by ,
    */
   public String getWritersAsString() {
+    hydrate();
     List<String> writerNames = new ArrayList<>();
     for (Person writer : writers) {
       writerNames.add(writer.getName());
@@ -2629,6 +2675,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
 
     // also remove from our trailer list
     if (mediaFile.getType() == MediaFileType.TRAILER) {
+      hydrate();
       for (int i = trailer.size() - 1; i >= 0; i--) {
         MediaTrailer mediaTrailer = trailer.get(i);
         if (mediaTrailer.getUrl().equals(mediaFile.getFileAsPath().toUri().toString())) {
@@ -2684,6 +2731,7 @@ public class Movie extends MediaEntity implements IMediaInformation {
   }
 
   private void mixinLocalTrailers() {
+    hydrate();
     // remove local ones
     for (int i = trailer.size() - 1; i >= 0; i--) {
       MediaTrailer mediaTrailer = trailer.get(i);
@@ -108,7 +108,14 @@ public class MovieRenameTask extends TmmThreadPool {
 
     @Override
     public String call() {
-      MovieRenamer.renameMovie(movie);
+      // collect all changes of the renamer and notify the listeners at once
+      movie.beginEdit();
+      try {
+        MovieRenamer.renameMovie(movie);
+      }
+      finally {
+        movie.commitEdit();
+      }
       return movie.getTitle();
     }
   }
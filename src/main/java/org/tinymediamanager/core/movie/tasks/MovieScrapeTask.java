@@ -157,6 +157,9 @@ public class MovieScrapeTask extends TmmThreadPool {
 
     @Override
     public void run() {
+      // collect all changes of the scrape and notify the listeners at once
+      movie.beginEdit();
+
       try {
         movieList = MovieModuleManager.getInstance().getMovieList();
         // set up scrapers
@@ -257,6 +260,9 @@ public class MovieScrapeTask extends TmmThreadPool {
         MessageManager.instance.pushMessage(
             new Message(MessageLevel.ERROR, "MovieScraper", "message.scrape.threadcrashed", new String[] { ":", e.getLocalizedMessage() }));
       }
+      finally {
+        movie.commitEdit();
+      }
     }
 
     private MediaSearchResult searchForMovie(MediaScraper mediaMetadataProvider) throws ScrapeException {
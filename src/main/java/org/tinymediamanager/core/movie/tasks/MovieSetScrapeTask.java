@@ -93,6 +93,9 @@ public class MovieSetScrapeTask extends TmmThreadPool {
 
     @Override
     public void run() {
+      // collect all changes of the scrape and notify the listeners at once
+      movieSet.beginEdit();
+
       try {
         MediaScraper mediaMetadataScraper = scrapeOptions.getMetadataScraper();
         List<MediaScraper> artworkScrapers = scrapeOptions.getArtworkScrapers();
@@ -121,6 +124,9 @@ public class MovieSetScrapeTask extends TmmThreadPool {
       catch (Exception e) {
         LOGGER.error("getMetadata", e);
       }
+      finally {
+        movieSet.commitEdit();
+      }
     }
 
     private List<MediaArtwork> getArtwork(MovieSet movieSet, MediaMetadata metadata, List<MediaScraper> artworkScrapers) {
@@ -46,14 +46,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -67,6 +73,7 @@ import org.apache.commons.text.WordUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.core.AbstractFileVisitor;
+import org.tinymediamanager.core.FileAttributeCache;
 import org.tinymediamanager.core.ImageCache;
 import org.tinymediamanager.core.MediaFileHelper;
 import org.tinymediamanager.core.MediaFileType;
@@ -74,6 +81,7 @@ import org.tinymediamanager.core.MediaSource;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
+import org.tinymediamanager.core.ParallelFileWalker;
 import org.tinymediamanager.core.Settings;
 import org.tinymediamanager.core.TmmResourceBundle;
 import org.tinymediamanager.core.Utils;
@@ -87,8 +95,11 @@ import org.tinymediamanager.core.movie.connector.MovieNfoParser;
 import org.tinymediamanager.core.movie.connector.MovieSetNfoParser;
 import org.tinymediamanager.core.movie.entities.Movie;
 import org.tinymediamanager.core.movie.entities.MovieSet;
+import org.tinymediamanager.core.tasks.DatasourceManifest;
 import org.tinymediamanager.core.tasks.ImageCacheTask;
 import org.tinymediamanager.core.tasks.MediaFileInformationFetcherTask;
+import org.tinymediamanager.core.tasks.MediaInfoScheduler;
+import org.tinymediamanager.core.tasks.ScanCheckpoint;
 import org.tinymediamanager.core.threading.TmmTaskManager;
 import org.tinymediamanager.core.threading.TmmThreadPool;
 import org.tinymediamanager.scraper.entities.MediaArtwork;
@@ -132,6 +143,12 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
   private final List<Runnable>         miTasks          = Collections.synchronizedList(new ArrayList<>());
   private final List<Path>             existingMovies   = new ArrayList<>();
   private final List<MediaFile>        imageFiles       = new ArrayList<>();
+  // all probed file attributes are cached while scanning
+  private final FileAttributeCache     attributeCache   = new FileAttributeCache();
+  // the movies in the folders which have been skipped (unchanged since the last update)
+  private final Set<Movie>             unchangedMovies  = ConcurrentHashMap.newKeySet();
+
+  private Set<Path>                    changedPaths     = null;
 
   public MovieUpdateDatasourceTask() {
     this(MovieModuleManager.getInstance().getSettings().getMovieDataSource());
@@ -160,24 +177,54 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
     init();
   }
 
+  /**
+   * set the paths which have been changed since the last update (reported by the {@link org.tinymediamanager.core.DatasourceWatcher}). All other
+   * folders of the data sources are taken from the manifest of the last update without checking them again
+   *
+   * @param changedPaths
+   *          all changed paths
+   */
+  public void setChangedPaths(Collection<Path> changedPaths) {
+    this.changedPaths = new HashSet<>();
+    for (Path path : changedPaths) {
+      this.changedPaths.add(path.toAbsolutePath());
+    }
+  }
+
   private void init() {
-    for (String skipFolder : MovieModuleManager.getInstance().getSettings().getSkipFolder()) {
+    skipFolders.addAll(compileSkipFolders(MovieModuleManager.getInstance().getSettings().getSkipFolder()));
+  }
+
+  private static List<Pattern> compileSkipFolders(List<String> skipFolderSettings) {
+    List<Pattern> patterns = new ArrayList<>();
+    for (String skipFolder : skipFolderSettings) {
       try {
         Pattern pattern = Pattern.compile(skipFolder);
-        skipFolders.add(pattern);
+        patterns.add(pattern);
       }
       catch (Exception e) {
         try {
           LOGGER.debug("no valid skip pattern - '{}'", skipFolder);
 
           Pattern pattern = Pattern.compile(Pattern.quote(skipFolder));
-          skipFolders.add(pattern);
+          patterns.add(pattern);
         }
         catch (Exception ignored) {
           // just ignore
         }
       }
     }
+    return patterns;
+  }
+
+  /**
+   * create a filter for all folders which are skipped by the update (skip folders, .tmmignore, ...)
+   *
+   * @return the filter for the skipped folders
+   */
+  public static Predicate<Path> createSkipFolderFilter() {
+    List<Pattern> patterns = compileSkipFolders(MovieModuleManager.getInstance().getSettings().getSkipFolder());
+    return dir -> isInSkipFolder(dir, patterns) || containsSkipFile(dir, null);
   }
 
   @Override
@@ -236,6 +283,10 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
       LOGGER.error("Thread crashed", e);
       MessageManager.instance.pushMessage(new Message(MessageLevel.ERROR, "update.datasource", "message.update.threadcrashed"));
     }
+    finally {
+      LOGGER.info("the file attribute cache saved {} stat calls", attributeCache.getSavedStatCalls());
+      attributeCache.clear();
+    }
   }
 
   private void updateDatasource() {
@@ -281,9 +332,13 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
         continue;
       }
 
+      // the manifest of the last update - to skip unchanged folders
+      DatasourceManifest manifest = DatasourceManifest.load("movies", ds, getManifestFingerprint());
+      Map<Path, List<Movie>> moviesByFolder = getMoviesByFolder(ds);
+
       List<Path> rootFiles = new ArrayList<>();
       for (Path path : rootList) {
-        if (Files.isDirectory(path)) {
+        if (attributeCache.isDirectory(path)) {
           if (existingMovies.contains(path)) {
             existingMovieDirs.add(path);
           }
@@ -298,12 +353,50 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
       rootList.clear();
       publishState();
 
-      for (Path path : newMovieDirs) {
-        searchAndParse(dsAsPath.toAbsolutePath(), path, Integer.MAX_VALUE);
-      }
-      for (Path path : existingMovieDirs) {
-        searchAndParse(dsAsPath.toAbsolutePath(), path, Integer.MAX_VALUE);
+      List<Path> roots = new ArrayList<>(newMovieDirs);
+      roots.addAll(existingMovieDirs);
+
+      // the progress is written periodically to resume an interrupted update
+      ScanCheckpoint checkpoint = new ScanCheckpoint(manifest, roots, () -> cancel);
+
+      // walk the folders concurrently - found movie folders are passed to the parser immediately
+      AtomicInteger skippedDirs = new AtomicInteger();
+      AtomicInteger resumedDirs = new AtomicInteger();
+      Set<Path> videoDirs = ConcurrentHashMap.newKeySet();
+      // a full update (incremental update disabled) does not resume an interrupted update either
+      boolean incrementalUpdate = MovieModuleManager.getInstance().getSettings().isIncrementalUpdate();
+      Consumer<Path> searchAndParse = path -> {
+        if (cancel) {
+          return;
+        }
+        if (incrementalUpdate && checkpoint.isCompleted(path)) {
+          // already done by the interrupted update
+          addFilesFound(moviesByFolder.get(path));
+          if (checkpoint.hasVideos(path)) {
+            videoDirs.add(path);
+          }
+          resumedDirs.incrementAndGet();
+          return;
+        }
+        if (isUnchanged(manifest, path, moviesByFolder.get(path))) {
+          skippedDirs.incrementAndGet();
+          return;
+        }
+
+        checkpoint.startFolder(path);
+        boolean hasVideos = searchAndParse(dsAsPath.toAbsolutePath(), path, Integer.MAX_VALUE, manifest, checkpoint);
+        if (hasVideos) {
+          videoDirs.add(path);
+        }
+        checkpoint.finishFolder(path, hasVideos);
+      };
+      ParallelFileWalker.invokeAll(newMovieDirs, searchAndParse);
+      ParallelFileWalker.invokeAll(existingMovieDirs, searchAndParse);
+      LOGGER.info("skipped {} unchanged folders", skippedDirs.get());
+      if (resumedDirs.get() > 0) {
+        LOGGER.info("skipped {} folders which have been completed by the last (interrupted) update", resumedDirs.get());
       }
+
       if (!rootFiles.isEmpty()) {
         submitTask(new ParseMultiMovieDirTask(dsAsPath.toAbsolutePath(), dsAsPath.toAbsolutePath(), rootFiles));
       }
@@ -320,24 +413,41 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
       LOGGER.debug("PostDirAll: {}", postDirAll);
       LOGGER.debug("VisFileAll: {}", visFileAll);
 
-      newMovieDirs.clear();
-      existingMovieDirs.clear();
       rootFiles.clear();
 
       if (cancel) {
+        checkpoint.save();
         break;
       }
 
       // cleanup
       cleanup(ds);
 
+      // remember the current state of the data source for the next update
+      checkpoint.finishScan();
+      Map<Path, List<Movie>> parsedMoviesByFolder = getMoviesByFolder(ds);
+      for (Path path : roots) {
+        int count = parsedMoviesByFolder.getOrDefault(path, Collections.emptyList()).size();
+        // video files without a movie (e.g. the parsing failed) - scan this folder again next time
+        if (count > 0 || !videoDirs.contains(path)) {
+          manifest.setEntityCount(path, count);
+        }
+      }
+      manifest.save(roots);
+
+      newMovieDirs.clear();
+      existingMovieDirs.clear();
+      videoDirs.clear();
+      roots.clear();
+
       // map Kodi entries
       if (StringUtils.isNotBlank(Settings.getInstance().getKodiHost())) {
         KodiRPC.getInstance().updateMovieMappings();
       }
 
       // mediainfo
-      gatherMediainfo(ds);
+      gatherMediainfo(ds, checkpoint);
+      unchangedMovies.clear();
 
       if (cancel) {
         break;
@@ -356,6 +466,116 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
     } // END datasource loop
   }
 
+  /**
+   * get a fingerprint of all settings which influence the scan of the data sources
+   *
+   * @return the fingerprint
+   */
+  private String getManifestFingerprint() {
+    return String.join("|", MovieModuleManager.getInstance().getSettings().getSkipFolder()) + "#"
+        + String.join("|", Settings.getInstance().getVideoFileType());
+  }
+
+  /**
+   * get all movies of the given data source grouped by the folder in the root of the data source
+   *
+   * @param datasource
+   *          the data source
+   * @return a map of all root folders to their movies
+   */
+  private Map<Path, List<Movie>> getMoviesByFolder(String datasource) {
+    Path dsAsPath = Paths.get(datasource).toAbsolutePath();
+    Map<Path, List<Movie>> moviesByFolder = new HashMap<>();
+
+    for (Movie movie : movieList.getMovies()) {
+      if (!dsAsPath.equals(Paths.get(movie.getDataSource()).toAbsolutePath())) {
+        continue;
+      }
+
+      Path movieDir = movie.getPathNIO().toAbsolutePath();
+      if (!movieDir.startsWith(dsAsPath) || movieDir.equals(dsAsPath)) {
+        // movies in the root of the data source are always parsed
+        continue;
+      }
+
+      Path folder = dsAsPath.resolve(dsAsPath.relativize(movieDir).getName(0));
+      moviesByFolder.computeIfAbsent(folder, k -> new ArrayList<>()).add(movie);
+    }
+
+    return moviesByFolder;
+  }
+
+  /**
+   * check if the given folder of the data source is unchanged since the last update. If so, the files of all movies in this folder are marked as
+   * found
+   *
+   * @param manifest
+   *          the manifest of the last update
+   * @param folder
+   *          the folder in the root of the data source
+   * @param movies
+   *          all movies in this folder (or null)
+   * @return true if the folder does not need to be scanned
+   */
+  private boolean isUnchanged(DatasourceManifest manifest, Path folder, List<Movie> movies) {
+    // an update triggered by the watcher only scans the reported paths - regardless of the incremental update setting
+    if (changedPaths == null && !MovieModuleManager.getInstance().getSettings().isIncrementalUpdate()) {
+      return false;
+    }
+
+    if (movies == null) {
+      movies = Collections.emptyList();
+    }
+
+    // movies have been added/removed in the meantime
+    if (manifest.getEntityCount(folder) != movies.size()) {
+      manifest.invalidate(folder);
+      return false;
+    }
+
+    Path absolutePath = folder.toAbsolutePath();
+    if (changedPaths != null && !changedPaths.contains(absolutePath.getParent())) {
+      // all changes have been reported by the watcher - only the reported folders have to be scanned
+      if (changedPaths.stream().anyMatch(path -> path.startsWith(absolutePath))) {
+        manifest.invalidate(folder);
+        return false;
+      }
+    }
+    else if (!manifest.isUnchanged(folder)) {
+      manifest.invalidate(folder);
+      return false;
+    }
+
+    addFilesFound(movies);
+    unchangedMovies.addAll(movies);
+    return true;
+  }
+
+  /**
+   * add all files of the given movies to the found files (to keep them in the cleanup)
+   *
+   * @param movies
+   *          the movies (or null)
+   */
+  private void addFilesFound(List<Movie> movies) {
+    if (movies == null) {
+      return;
+    }
+
+    fileLock.writeLock().lock();
+    try {
+      for (Movie movie : movies) {
+        filesFound.add(movie.getPathNIO().toAbsolutePath());
+        for (MediaFile mf : movie.getMediaFiles()) {
+          filesFound.add(mf.getFileAsPath());
+        }
+      }
+    }
+    finally {
+      fileLock.writeLock().unlock();
+    }
+  }
+
   private void updateMovieSets() {
     if (StringUtils.isBlank(MovieModuleManager.getInstance().getSettings().getMovieSetDataFolder())) {
       return;
@@ -567,7 +787,7 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
     Path movieRoot = movieDir; // root set to current dir - might be adjusted by disc folders
 
     for (Path path : movieDirList) {
-      if (Utils.isRegularFile(path)) {
+      if (attributeCache.isRegularFile(path)) {
         files.add(path.toAbsolutePath());
 
         // do not construct a fully MF yet
@@ -871,7 +1091,7 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
     boolean videoRemoved = false;
 
     for (MediaFile mediaFile : movie.getMediaFiles()) {
-      if (!Files.exists(mediaFile.getFile(), LinkOption.NOFOLLOW_LINKS)) {
+      if (!attributeCache.exists(mediaFile.getFile(), LinkOption.NOFOLLOW_LINKS)) {
         if (mediaFile.getType() == MediaFileType.VIDEO) {
           videoRemoved = true;
         }
@@ -1106,7 +1326,7 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
       // fifth round - remove files which are not here any more
       // ***************************************************************
       for (MediaFile mediaFile : movie.getMediaFiles()) {
-        if (!Files.exists(mediaFile.getFile())) {
+        if (!attributeCache.exists(mediaFile.getFile())) {
           movie.removeFromMediaFiles(mediaFile);
         }
       }
@@ -1363,7 +1583,7 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
 
       if (!dirFound) {
         // dir is not in hashset - check with exists to be sure it is not here
-        if (!Files.exists(movieDir)) {
+        if (!attributeCache.exists(movieDir)) {
           LOGGER.debug("movie directory '{}' not found, removing from DB...", movieDir);
           moviesToRemove.add(movie);
         }
@@ -1427,7 +1647,7 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
 
       if (!fileFound) {
         // dir is not in hashset - check with exists to be sure it is not here
-        if (!Files.exists(movieDir)) {
+        if (!attributeCache.exists(movieDir)) {
           LOGGER.debug("movie directory '{}' not found, removing from DB...", movieDir);
           moviesToRemove.add(movie);
         }
@@ -1474,12 +1694,13 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
   /*
    * gather mediainfo for ungathered movies
    */
-  private void gatherMediainfo(String datasource) {
+  private void gatherMediainfo(String datasource, ScanCheckpoint checkpoint) {
     // start MI
     setTaskName(TmmResourceBundle.getString("update.mediainfo"));
     publishState();
 
     initThreadPool(1, "mediainfo");
+    MediaInfoScheduler scheduler = new MediaInfoScheduler();
 
     LOGGER.info("getting Mediainfo...");
 
@@ -1500,16 +1721,21 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
       }
 
       boolean dirty = false;
+      // the folder has not been walked (unchanged since the last update) - no need to check the files again
+      boolean unchanged = unchangedMovies.contains(movie);
 
       for (MediaFile mf : new ArrayList<>(movie.getMediaFiles())) {
         if (StringUtils.isBlank(mf.getContainerFormat())) {
-          submitTask(new MediaFileInformationFetcherTask(mf, movie, false));
+          submitMediaInfoTask(scheduler, mf, movie,
+              checkpoint.trackMediaInfo(mf.getFileAsPath(), new MediaFileInformationFetcherTask(mf, movie, false)));
         }
-        else {
+        else if (!unchanged || checkpoint.isMediaInfoPending(mf.getFileAsPath())) {
           // at least update the file dates
-          if (MediaFileHelper.gatherFileInformation(mf)) {
+          // (or the MediaInfo of the file has not been fetched by the interrupted update)
+          if (MediaFileHelper.gatherFileInformation(mf, attributeCache) || checkpoint.isMediaInfoPending(mf.getFileAsPath())) {
             // okay, something changed with that movie file - force fetching mediainfo
-            submitTask(new MediaFileInformationFetcherTask(mf, movie, true));
+            submitMediaInfoTask(scheduler, mf, movie,
+                checkpoint.trackMediaInfo(mf.getFileAsPath(), new MediaFileInformationFetcherTask(mf, movie, true)));
           }
           dirty = true;
         }
@@ -1521,6 +1747,9 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
       }
     }
     waitForCompletionOrCancel();
+
+    // remember the MediaInfo which is still pending
+    checkpoint.save();
   }
 
   private void gatherMediainfo(List<Movie> movies) {
@@ -1529,6 +1758,7 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
     publishState();
 
     initThreadPool(1, "mediainfo");
+    MediaInfoScheduler scheduler = new MediaInfoScheduler();
 
     LOGGER.info("getting Mediainfo...");
     for (Movie movie : movies) {
@@ -1540,13 +1770,13 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
 
       for (MediaFile mf : new ArrayList<>(movie.getMediaFiles())) {
         if (StringUtils.isBlank(mf.getContainerFormat())) {
-          submitTask(new MediaFileInformationFetcherTask(mf, movie, false));
+          submitMediaInfoTask(scheduler, mf, movie, new MediaFileInformationFetcherTask(mf, movie, false));
         }
         else {
           // at least update the file dates
-          if (MediaFileHelper.gatherFileInformation(mf)) {
+          if (MediaFileHelper.gatherFileInformation(mf, attributeCache)) {
             // okay, something changed with that movie file - force fetching mediainfo
-            submitTask(new MediaFileInformationFetcherTask(mf, movie, true));
+            submitMediaInfoTask(scheduler, mf, movie, new MediaFileInformationFetcherTask(mf, movie, true));
           }
           dirty = true;
         }
@@ -1560,6 +1790,14 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
     waitForCompletionOrCancel();
   }
 
+  /**
+   * submit the MediaInfo task through the {@link MediaInfoScheduler} - the thread pool grows with every device the files are stored on
+   */
+  private void submitMediaInfoTask(MediaInfoScheduler scheduler, MediaFile mf, Movie movie, Runnable task) {
+    submitTask(scheduler.schedule(mf.getFileAsPath(), movie, task));
+    setThreadPoolSize(scheduler.getThreadCount());
+  }
+
   /**
    * gets mediaFile of specific type
    * 
@@ -1616,8 +1854,10 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
    */
   private List<Path> listFilesAndDirs(Path directory) {
     List<Path> fileNames = new ArrayList<>();
+    List<Path> entries = new ArrayList<>();
     try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
       for (Path path : directoryStream) {
+        entries.add(path);
         if (isInSkipFolder(path)) {
           LOGGER.debug("Skipping: {}", path);
         }
@@ -1625,6 +1865,7 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
           fileNames.add(path.toAbsolutePath());
         }
       }
+      attributeCache.putListing(directory, entries);
     }
     catch (Exception e) {
       LOGGER.error("error on listFilesAndDirs", e);
@@ -1672,7 +1913,9 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
     folder = folder.toAbsolutePath();
     AllFilesRecursive visitor = new AllFilesRecursive();
     try {
-      Files.walkFileTree(folder, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, visitor);
+      // skip folders and sub folders of disc folders are not listed at all
+      ParallelFileWalker.walkFileTree(folder, Integer.MAX_VALUE, visitor, attributeCache,
+          dir -> isInSkipFolder(dir) || isInDiscFolder(dir));
     }
     catch (IOException e) {
       // can not happen, since we have overridden visitFileFailed, which throws no exception ;)
@@ -1681,7 +1924,7 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
   }
 
   private class AllFilesRecursive extends AbstractFileVisitor {
-    private final Set<Path> fFound = new HashSet<>();
+    private final Set<Path> fFound = ConcurrentHashMap.newKeySet();
 
     public FileVisitResult visitFile(Path file, BasicFileAttributes attr) {
       incVisFile();
@@ -1721,8 +1964,13 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
     @Override
     public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
       incPreDir();
+      // don't go below a disc folder
+      if (isInDiscFolder(dir)) {
+        return SKIP_SUBTREE;
+      }
+
       // getFilename returns null on DS root!
-      if (dir.getFileName() != null && (isInSkipFolder(dir) || containsSkipFile(dir))) {
+      if (dir.getFileName() != null && (isInSkipFolder(dir) || containsSkipFile(dir, attributeCache))) {
         LOGGER.debug("Skipping dir: {}", dir);
         return SKIP_SUBTREE;
       }
@@ -1733,11 +1981,6 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
         return CONTINUE;
       }
 
-      // don't go below a disc folder
-      if (dir.getParent() != null && dir.getParent().getFileName() != null && dir.getParent().getFileName().toString().matches(DISC_FOLDER_REGEX)) {
-        return SKIP_SUBTREE;
-      }
-
       return CONTINUE;
     }
 
@@ -1753,29 +1996,45 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
   // detects movieRootDir (in case of stacked/disc folder)
   // and starts parsing directory immediately
   // **************************************
-  public void searchAndParse(Path datasource, Path folder, int deep) {
+  public boolean searchAndParse(Path datasource, Path folder, int deep, DatasourceManifest manifest, ScanCheckpoint checkpoint) {
+    SearchAndParseVisitor visitor = new SearchAndParseVisitor(datasource, folder, manifest.newRecorder(), checkpoint);
     folder = folder.toAbsolutePath();
-    SearchAndParseVisitor visitor = new SearchAndParseVisitor(datasource);
     try {
-      Files.walkFileTree(folder, EnumSet.of(FileVisitOption.FOLLOW_LINKS), deep, visitor);
+      // skip folders and sub folders of disc folders are not listed at all
+      ParallelFileWalker.walkFileTree(folder, deep, visitor, attributeCache, dir -> isInSkipFolder(dir) || isInDiscFolder(dir));
     }
     catch (IOException e) {
       // can not happen, since we override visitFileFailed, which throws no exception ;)
     }
+    visitor.parseStackedFolders();
+
+    // an interrupted walk must not be recorded
+    if (!cancel) {
+      visitor.recorder.commit();
+    }
+
+    return !visitor.videofolders.isEmpty();
   }
 
   private class SearchAndParseVisitor extends AbstractFileVisitor {
-    private final Path         datasource;
-    private final List<String> unstackedRoot = new ArrayList<>(); // only for folderstacking
-    private final Set<Path>    videofolders  = new HashSet<>();   // all found video folders
-
-    SearchAndParseVisitor(Path datasource) {
+    private final Path                        datasource;
+    private final Path                        root;
+    private final DatasourceManifest.Recorder recorder;
+    private final ScanCheckpoint              checkpoint;
+    private final Map<Path, Set<Path>>        stackedFolders = new ConcurrentHashMap<>();     // only for folderstacking
+    private final Set<Path>                   videofolders   = ConcurrentHashMap.newKeySet(); // all found video folders
+
+    SearchAndParseVisitor(Path datasource, Path root, DatasourceManifest.Recorder recorder, ScanCheckpoint checkpoint) {
       this.datasource = datasource;
+      this.root = root;
+      this.recorder = recorder;
+      this.checkpoint = checkpoint;
     }
 
     @Override
     public FileVisitResult visitFile(Path file, BasicFileAttributes attr) {
       incVisFile();
+      recorder.file(file);
       if (Utils.isRegularFile(attr) && !file.getFileName().toString().matches(SKIP_REGEX)) {
         // check for video?
         if (Settings.getInstance().getVideoFileType().contains("." + FilenameUtils.getExtension(file.toString()).toLowerCase(Locale.ROOT))) {
@@ -1800,10 +2059,13 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
         parent = dir.getParent().getFileName().toString().toUpperCase(Locale.ROOT); // skip all subdirs of disc folders
       }
 
-      if (dir.getFileName() != null && (isInSkipFolder(dir) || containsSkipFile(dir) || parent.matches(DISC_FOLDER_REGEX))) {
+      if (dir.getFileName() != null && (isInSkipFolder(dir) || parent.matches(DISC_FOLDER_REGEX) || containsSkipFile(dir, attributeCache))) {
         LOGGER.debug("Skipping dir: {}", dir);
+        recorder.folder(dir, attrs, true);
         return SKIP_SUBTREE;
       }
+
+      recorder.folder(dir, attrs, false);
       return CONTINUE;
     }
 
@@ -1815,41 +2077,52 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
       }
 
       if (this.videofolders.contains(dir)) {
-        boolean update = true;
         // quick fix for folder stacking
-        // name = stacking marker & parent has already been processed - skip
+        // name = stacking marker - only the first stacked folder of the parent is processed
         Path relative = datasource.relativize(dir);
         if (!Utils.getFolderStackingMarker(relative.toString()).isEmpty()
             && Utils.getFolderStackingMarker(relative.toString()).equals(dir.getFileName().toString())) {
-          if (unstackedRoot.contains(dir.getParent().toString())) {
-            update = false;
-          }
-          else {
-            unstackedRoot.add(dir.getParent().toString());
-          }
+          // the stacked folders are walked concurrently - collect them and pick the first one after the walk (independent of the walk order)
+          stackedFolders.computeIfAbsent(dir.getParent(), key -> new ConcurrentSkipListSet<>()).add(dir);
         }
-        if (update) {
-          // check if any existing movie has already the same (sub)dir
-          // IF we already have a movie a level deeper, we HAVE TO treat this folder as MMD!
-          // we always start to parse from deepest level down to root, so they should be all already populated
-          for (Path sub : this.videofolders) {
-            if (sub.equals(dir)) {
-              continue; // don't check ourself ;)
-            }
-            if (sub.startsWith(dir)) {
-              // ka-ching! parse this now as MMD and return
-              List<Path> rootFiles = listFilesOnly(dir); // get all files and dirs
-              submitTask(new ParseMultiMovieDirTask(datasource.toAbsolutePath(), dir, rootFiles));
-              publishState();
-              return CONTINUE;
-            }
-          }
-          submitTask(new FindMovieTask(dir, datasource));
+        else {
+          parseFolder(dir);
         }
       }
       return CONTINUE;
     }
 
+    /**
+     * parse the stacked folders: only the first folder (in the natural order) of every parent is parsed, the others are stacked into its movie
+     */
+    private void parseStackedFolders() {
+      for (Set<Path> folders : stackedFolders.values()) {
+        if (cancel) {
+          return;
+        }
+        parseFolder(folders.iterator().next());
+      }
+    }
+
+    private void parseFolder(Path dir) {
+      // check if any existing movie has already the same (sub)dir
+      // IF we already have a movie a level deeper, we HAVE TO treat this folder as MMD!
+      // we always start to parse from deepest level down to root, so they should be all already populated
+      for (Path sub : this.videofolders) {
+        if (sub.equals(dir)) {
+          continue; // don't check ourself ;)
+        }
+        if (sub.startsWith(dir)) {
+          // ka-ching! parse this now as MMD and return
+          List<Path> rootFiles = listFilesOnly(dir); // get all files and dirs
+          submitTask(checkpoint.track(root, new ParseMultiMovieDirTask(datasource.toAbsolutePath(), dir, rootFiles)));
+          publishState();
+          return;
+        }
+      }
+      submitTask(checkpoint.track(root, new FindMovieTask(dir, datasource)));
+    }
+
     /**
      * simple NIO File.listFiles() replacement<br>
      * returns ONLY regular files (NO folders, NO hidden) in specified dir, filtering against our badwords (NOT recursive)
@@ -1862,7 +2135,7 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
       List<Path> fileNames = new ArrayList<>();
       try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
         for (Path path : directoryStream) {
-          if (Utils.isRegularFile(path) || path.getFileName().toString().matches(DISC_FOLDER_REGEX)) {
+          if (attributeCache.isRegularFile(path) || path.getFileName().toString().matches(DISC_FOLDER_REGEX)) {
             if (isInSkipFolder(path)) {
               LOGGER.debug("Skipping: {}", path);
             }
@@ -1887,6 +2160,10 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
    * @return true/false
    */
   private boolean isInSkipFolder(Path dir) {
+    return isInSkipFolder(dir, skipFolders);
+  }
+
+  private static boolean isInSkipFolder(Path dir, List<Pattern> skipFolders) {
     if (dir == null || dir.getFileName() == null) {
       return false;
     }
@@ -1916,14 +2193,31 @@ public class MovieUpdateDatasourceTask extends TmmThreadPool {
     return false;
   }
 
+  /**
+   * check if the given folder is a sub folder of a disc folder
+   *
+   * @param dir
+   *          the folder to check
+   * @return true/false
+   */
+  private static boolean isInDiscFolder(Path dir) {
+    return dir.getParent() != null && dir.getParent().getFileName() != null && dir.getParent().getFileName().toString().matches(DISC_FOLDER_REGEX);
+  }
+
   /**
    * check if the given folder contains any of the well known skip files (tmmignore, .tmmignore, .nomedia)
    *
    * @param dir
    *          the folder to check
+   * @param attributeCache
+   *          the attribute cache of the scan (or null to check the file system directly)
    * @return true/false
    */
-  private boolean containsSkipFile(Path dir) {
+  private static boolean containsSkipFile(Path dir, FileAttributeCache attributeCache) {
+    if (attributeCache != null) {
+      return attributeCache.exists(dir.resolve(".tmmignore")) || attributeCache.exists(dir.resolve("tmmignore"))
+          || attributeCache.exists(dir.resolve(".nomedia"));
+    }
     return Files.exists(dir.resolve(".tmmignore")) || Files.exists(dir.resolve("tmmignore")) || Files.exists(dir.resolve(".nomedia"));
   }
 
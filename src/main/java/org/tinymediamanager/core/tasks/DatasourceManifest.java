@@ -0,0 +1,351 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.tasks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.Globals;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The class DatasourceManifest. A persisted snapshot of the directory structure of a data source (modification time and entry count of every
+ * directory) from the last complete update.<br />
+ * The modification time of a directory changes whenever an entry is added, removed or renamed, so a subtree whose directories all have their recorded
+ * modification time did not change since the last scan and does not need to be walked again. Only directories are checked - the files are never
+ * listed for unchanged subtrees
+ *
+ * @author Manuel Laggner
+ */
+public class DatasourceManifest {
+  private static final Logger       LOGGER        = LoggerFactory.getLogger(DatasourceManifest.class);
+  private static final Path         MANIFEST_DIR  = Paths.get(Globals.CACHE_FOLDER, "manifest");
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  // the timestamps of some file systems (FAT, SMB) have a granularity of 2 seconds; within this window the entries are counted too
+  private static final long         RACY_WINDOW   = 2000;
+
+  private final Path                 file;
+  private final String               fingerprint;
+  private final Map<String, Entry>   entries;
+
+  // the checkpoint of an interrupted update (see ScanCheckpoint)
+  private final Map<String, Boolean> completedFolders;
+  private final Set<String>          pendingMediaInfo;
+
+  private DatasourceManifest(Path file, String fingerprint) {
+    this.file = file;
+    this.fingerprint = fingerprint;
+    this.entries = new ConcurrentHashMap<>();
+    this.completedFolders = new ConcurrentHashMap<>();
+    this.pendingMediaInfo = ConcurrentHashMap.newKeySet();
+  }
+
+  /**
+   * load the manifest of the given data source. If there is no manifest or it has been created with other settings, an empty manifest is returned
+   *
+   * @param module
+   *          the module (e.g. movies, tvshows)
+   * @param datasource
+   *          the data source
+   * @param fingerprint
+   *          a fingerprint of all settings which influence the scan (e.g. skip folders) - the manifest is dropped if this changes
+   * @return the manifest
+   */
+  public static DatasourceManifest load(String module, String datasource, String fingerprint) {
+    String name = module + "-" + UUID.nameUUIDFromBytes(datasource.getBytes(StandardCharsets.UTF_8)) + ".json";
+    DatasourceManifest manifest = new DatasourceManifest(MANIFEST_DIR.resolve(name), fingerprint);
+
+    if (!Files.exists(manifest.file)) {
+      return manifest;
+    }
+
+    try {
+      Content content = OBJECT_MAPPER.readValue(manifest.file.toFile(), Content.class);
+      if (fingerprint.equals(content.fingerprint) && content.entries != null) {
+        manifest.entries.putAll(content.entries);
+        if (content.completed != null) {
+          manifest.completedFolders.putAll(content.completed);
+        }
+        if (content.mediainfo != null) {
+          manifest.pendingMediaInfo.addAll(content.mediainfo);
+        }
+      }
+      else {
+        LOGGER.info("settings have been changed since the last update of '{}' - doing a full scan", datasource);
+      }
+    }
+    catch (Exception e) {
+      LOGGER.warn("could not read the manifest of '{}' - {}", datasource, e.getMessage());
+    }
+
+    return manifest;
+  }
+
+  /**
+   * write the manifest. Only the given root folders and their (recorded) sub folders are kept - everything else has vanished from the data source
+   *
+   * @param roots
+   *          all root folders of the data source
+   */
+  public synchronized void save(Collection<Path> roots) {
+    Content content = new Content();
+    content.fingerprint = fingerprint;
+    content.entries = new HashMap<>();
+    content.completed = new HashMap<>(completedFolders);
+    content.mediainfo = new ArrayList<>(pendingMediaInfo);
+
+    Deque<Path> folders = new ArrayDeque<>(roots);
+    while (!folders.isEmpty()) {
+      Path folder = folders.pop();
+      String key = key(folder);
+      Entry entry = entries.get(key);
+      if (entry == null || content.entries.containsKey(key)) {
+        continue;
+      }
+
+      content.entries.put(key, entry);
+      for (String child : entry.children) {
+        folders.push(folder.resolve(child));
+      }
+    }
+
+    try {
+      Files.createDirectories(MANIFEST_DIR);
+      Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+      OBJECT_MAPPER.writeValue(tempFile.toFile(), content);
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch (Exception e) {
+      LOGGER.warn("could not write the manifest '{}' - {}", file, e.getMessage());
+    }
+  }
+
+  /**
+   * check whether the given folder and all its sub folders are unchanged since the last scan
+   *
+   * @param folder
+   *          the folder to check
+   * @return true if nothing has been changed in this subtree
+   */
+  public boolean isUnchanged(Path folder) {
+    Deque<Path> folders = new ArrayDeque<>();
+    folders.push(folder.toAbsolutePath());
+
+    while (!folders.isEmpty()) {
+      Path current = folders.pop();
+      Entry entry = entries.get(key(current));
+      if (entry == null) {
+        return false;
+      }
+
+      try {
+        BasicFileAttributes attrs = Files.readAttributes(current, BasicFileAttributes.class);
+        long modified = attrs.lastModifiedTime().toMillis();
+        if (!attrs.isDirectory() || modified != entry.modified) {
+          return false;
+        }
+
+        // changed in the same tick as the scan - the modification time is not reliable here
+        if (modified >= entry.scanned - RACY_WINDOW && (entry.entries < 0 || countEntries(current) != entry.entries)) {
+          return false;
+        }
+      }
+      catch (IOException e) {
+        return false;
+      }
+
+      for (String child : entry.children) {
+        folders.push(current.resolve(child));
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * forget the given folder (and thereby its whole subtree) - it has to be recorded again by the next scan
+   *
+   * @param folder
+   *          the folder
+   */
+  public void invalidate(Path folder) {
+    entries.remove(key(folder));
+  }
+
+  private int countEntries(Path folder) throws IOException {
+    int count = 0;
+    try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(folder)) {
+      for (Path ignored : directoryStream) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * get the amount of media entities (e.g. movies or episodes) which have been found in the given folder at the last scan
+   *
+   * @param folder
+   *          the folder
+   * @return the amount of media entities or -1 if unknown
+   */
+  public int getEntityCount(Path folder) {
+    Entry entry = entries.get(key(folder));
+    return entry == null ? -1 : entry.entities;
+  }
+
+  /**
+   * set the amount of media entities (e.g. movies or episodes) which have been found in the given folder
+   *
+   * @param folder
+   *          the folder
+   * @param count
+   *          the amount of media entities
+   */
+  public void setEntityCount(Path folder, int count) {
+    Entry entry = entries.get(key(folder));
+    if (entry != null) {
+      entry.entities = count;
+    }
+  }
+
+  /**
+   * create a new {@link Recorder} to record the folders of a walk through the file system
+   *
+   * @return the {@link Recorder}
+   */
+  public Recorder newRecorder() {
+    return new Recorder();
+  }
+
+  Map<String, Boolean> getCompletedFolders() {
+    return completedFolders;
+  }
+
+  Set<String> getPendingMediaInfo() {
+    return pendingMediaInfo;
+  }
+
+  static String key(Path folder) {
+    return folder.toAbsolutePath().toString();
+  }
+
+  /**
+   * The class Recorder. Collects all folders of one walk through the file system and adds them to the manifest at the end of the walk. Use one
+   * recorder per walk (the folders of a parallel walk may be recorded concurrently)
+   */
+  public class Recorder {
+    private final long             started  = System.currentTimeMillis();
+    private final Map<Path, Entry> recorded = new HashMap<>();
+
+    private Recorder() {
+    }
+
+    /**
+     * record a visited folder
+     *
+     * @param folder
+     *          the folder
+     * @param attrs
+     *          the attributes of the folder
+     * @param skipped
+     *          true if the content of this folder is not scanned (skip folder, .tmmignore, ...)
+     */
+    public synchronized void folder(Path folder, BasicFileAttributes attrs, boolean skipped) {
+      Entry entry = new Entry();
+      entry.modified = attrs.lastModifiedTime().toMillis();
+      entry.scanned = started;
+      entry.entries = skipped ? -1 : 0;
+      recorded.put(folder, entry);
+
+      Entry parent = recorded.get(folder.getParent());
+      if (parent != null && folder.getFileName() != null) {
+        parent.children.add(folder.getFileName().toString());
+        if (parent.entries >= 0) {
+          parent.entries++;
+        }
+      }
+    }
+
+    /**
+     * record a visited file
+     *
+     * @param file
+     *          the file
+     */
+    public synchronized void file(Path file) {
+      Entry parent = recorded.get(file.getParent());
+      if (parent != null && parent.entries >= 0) {
+        parent.entries++;
+      }
+    }
+
+    /**
+     * add all recorded folders to the manifest
+     */
+    public synchronized void commit() {
+      for (Map.Entry<Path, Entry> entry : recorded.entrySet()) {
+        entries.put(key(entry.getKey()), entry.getValue());
+      }
+      recorded.clear();
+    }
+  }
+
+  private static class Content {
+    @JsonProperty
+    private String               fingerprint;
+    @JsonProperty
+    private Map<String, Entry>   entries;
+    @JsonProperty
+    private Map<String, Boolean> completed;
+    @JsonProperty
+    private List<String>         mediainfo;
+  }
+
+  private static class Entry {
+    @JsonProperty("m")
+    private long         modified;
+    @JsonProperty("s")
+    private long         scanned;
+    @JsonProperty("e")
+    private int          entries;
+    @JsonProperty("n")
+    private int          entities = -1;
+    @JsonProperty("c")
+    private List<String> children = new ArrayList<>();
+  }
+}
@@ -16,28 +16,35 @@
 package org.tinymediamanager.core.tasks;
 
 import java.io.FileNotFoundException;
-import java.util.ArrayList;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.core.EmptyFileException;
 import org.tinymediamanager.core.ImageCache;
+import org.tinymediamanager.core.ImageCachePriority;
 import org.tinymediamanager.core.Settings;
 import org.tinymediamanager.core.TmmResourceBundle;
 import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.threading.TmmThreadPool;
 
 /**
- * The Class ImageCacheTask. Cache a bunch of images in a separate task
+ * The Class ImageCacheTask. Cache a bunch of images in a separate task. The images the user is looking at ({@link ImageCachePriority}) are cached
+ * first; the others are cached in the background while the UI is idle
  * 
  * @author Manuel Laggner
  */
 public class ImageCacheTask extends TmmThreadPool {
-  private static final Logger         LOGGER       = LoggerFactory.getLogger(ImageCacheTask.class);
+  private static final Logger        LOGGER       = LoggerFactory.getLogger(ImageCacheTask.class);
+  // the interval to check whether the UI is still busy
+  private static final long          BUSY_WAIT    = 100;
 
-  private final Collection<MediaFile> filesToCache = new ArrayList<>();
+  private final Map<Path, MediaFile> filesToCache = new LinkedHashMap<>();
 
   @Override
   public void callback(Object obj) {
@@ -46,7 +53,9 @@ public class ImageCacheTask extends TmmThreadPool {
 
   public ImageCacheTask(Collection<MediaFile> files) {
     super(TmmResourceBundle.getString("tmm.rebuildimagecache"));
-    filesToCache.addAll(files);
+    for (MediaFile file : files) {
+      filesToCache.putIfAbsent(file.getFileAsPath(), file);
+    }
   }
 
   @Override
@@ -55,35 +64,78 @@ public class ImageCacheTask extends TmmThreadPool {
       return;
     }
 
-    // distribute the work over all available cores
-    int threadCount = Runtime.getRuntime().availableProcessors() - 1;
-    if (threadCount < 2) {
-      threadCount = 2;
-    }
-
-    initThreadPool(threadCount, "imageCache");
+    // distribute the work over all available cores - the memory of the concurrent decodes is limited by the ImageMemoryBudget
+    initThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), "imageCache");
 
-    for (MediaFile fileToCache : filesToCache) {
+    // every task takes the next file by priority when it starts - not the file in the order of submission
+    int tasks = filesToCache.size();
+    for (int i = 0; i < tasks; i++) {
       if (cancel) {
         return;
       }
-      submitTask(new CacheTask(fileToCache));
+      submitTask(new CacheTask());
     }
     waitForCompletionOrCancel();
   }
 
-  private static class CacheTask implements Callable<Object> {
-    private final MediaFile fileToCache;
+  /**
+   * get the next file to cache: the prioritized files first (without any delay); the others only if the UI is not busy
+   */
+  private MediaFile nextFile() throws InterruptedException {
+    while (!cancel && ImageCachePriority.isBusy()) {
+      MediaFile prioritized = pollPrioritized();
+      if (prioritized != null) {
+        return prioritized;
+      }
+      Thread.sleep(BUSY_WAIT);
+    }
+
+    MediaFile prioritized = pollPrioritized();
+    if (prioritized != null) {
+      return prioritized;
+    }
 
-    CacheTask(MediaFile fileToCache) {
-      this.fileToCache = fileToCache;
+    synchronized (filesToCache) {
+      Iterator<MediaFile> iterator = filesToCache.values().iterator();
+      if (!iterator.hasNext()) {
+        return null;
+      }
+      MediaFile next = iterator.next();
+      iterator.remove();
+      return next;
     }
+  }
 
+  private MediaFile pollPrioritized() {
+    Collection<Path> prioritized = ImageCachePriority.getPrioritized();
+    synchronized (filesToCache) {
+      for (Path file : prioritized) {
+        MediaFile mediaFile = filesToCache.remove(file);
+        if (mediaFile != null) {
+          return mediaFile;
+        }
+      }
+    }
+    return null;
+  }
+
+  private class CacheTask implements Callable<Object> {
     @Override
     public Object call() {
+      MediaFile fileToCache;
+      try {
+        fileToCache = nextFile();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+
+      if (fileToCache == null) {
+        return null;
+      }
+
       try {
-        // sleep 50ms to let the system calm down from a previous task
-        Thread.sleep(50);
         ImageCache.cacheImage(fileToCache);
       }
       catch (EmptyFileException e) {
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.tasks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class MediaInfoScheduler. Distributes the MediaInfo tasks over the devices (mount points) the files are stored on: every device gets its own
+ * queue and a limited amount of concurrent MediaInfo sessions. Libraries spread over several disks/shares are processed in parallel without thrashing
+ * a single disk.<br />
+ * The tasks of the same group (e.g. all files of one movie) never run concurrently.<br />
+ * The amount of concurrent MediaInfo sessions per device can be configured with the jvm arg <i>tmm.mediainfo.threads</i> (default 2)
+ *
+ * @author Manuel Laggner
+ */
+public class MediaInfoScheduler {
+  private static final Logger       LOGGER             = LoggerFactory.getLogger(MediaInfoScheduler.class);
+  private static final int          THREADS_PER_DEVICE = Math.max(1, Math.min(Integer.getInteger("tmm.mediainfo.threads", 2), 16));
+
+  private final int                 threadsPerDevice;
+  private final Map<Path, Object>   devicesByFolder    = new HashMap<>();
+  private final Map<Object, Device> devices            = new LinkedHashMap<>();
+  private final Map<Object, Object> runningGroups      = new IdentityHashMap<>();
+
+  public MediaInfoScheduler() {
+    this(THREADS_PER_DEVICE);
+  }
+
+  MediaInfoScheduler(int threadsPerDevice) {
+    this.threadsPerDevice = threadsPerDevice;
+  }
+
+  /**
+   * schedule a MediaInfo task for the given file. The returned {@link Runnable} has to be executed (in any thread pool) - it runs the next task
+   * which is allowed to run on its device. Every returned {@link Runnable} runs exactly one scheduled task
+   *
+   * @param file
+   *          the file to get the MediaInfo for
+   * @param group
+   *          the group of the task (e.g. the media entity) - tasks of the same group are not executed concurrently
+   * @param task
+   *          the task
+   * @return the {@link Runnable} to execute
+   */
+  public Runnable schedule(Path file, Object group, Runnable task) {
+    Object device = getDevice(file);
+
+    synchronized (this) {
+      devices.computeIfAbsent(device, key -> new Device()).queue.add(new Entry(group, task));
+    }
+
+    return this::runNext;
+  }
+
+  /**
+   * get the amount of threads which are needed to use all devices with their maximum amount of MediaInfo sessions
+   *
+   * @return the amount of threads
+   */
+  public synchronized int getThreadCount() {
+    return Math.max(1, devices.size() * threadsPerDevice);
+  }
+
+  private Object getDevice(Path file) {
+    Path folder = file.toAbsolutePath().getParent();
+    if (folder == null) {
+      return "";
+    }
+
+    synchronized (devicesByFolder) {
+      return devicesByFolder.computeIfAbsent(folder, key -> {
+        try {
+          return Files.getFileStore(key);
+        }
+        catch (Exception e) {
+          LOGGER.trace("could not get the file store of '{}' - {}", key, e.getMessage());
+          return key.getRoot() != null ? key.getRoot() : "";
+        }
+      });
+    }
+  }
+
+  private void runNext() {
+    Device device;
+    Entry entry;
+
+    try {
+      synchronized (this) {
+        while (true) {
+          device = null;
+          entry = null;
+          for (Device candidate : devices.values()) {
+            if (candidate.running < threadsPerDevice) {
+              entry = candidate.take();
+              if (entry != null) {
+                device = candidate;
+                break;
+              }
+            }
+          }
+          if (entry != null) {
+            break;
+          }
+
+          // all devices with pending tasks are busy - wait for a free slot
+          wait();
+        }
+
+        device.running++;
+        if (entry.group != null) {
+          runningGroups.put(entry.group, entry.group);
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      // the thread pool has been shut down
+      Thread.currentThread().interrupt();
+      return;
+    }
+
+    try {
+      entry.task.run();
+    }
+    finally {
+      synchronized (this) {
+        device.running--;
+        if (entry.group != null) {
+          runningGroups.remove(entry.group);
+        }
+        notifyAll();
+      }
+    }
+  }
+
+  private class Device {
+    private final Deque<Entry> queue   = new ArrayDeque<>();
+    private int                running = 0;
+
+    /**
+     * take the first task of this device whose group is not running at the moment
+     */
+    private Entry take() {
+      Iterator<Entry> iterator = queue.iterator();
+      while (iterator.hasNext()) {
+        Entry entry = iterator.next();
+        if (entry.group == null || !runningGroups.containsKey(entry.group)) {
+          iterator.remove();
+          return entry;
+        }
+      }
+      return null;
+    }
+  }
+
+  private static class Entry {
+    private final Object   group;
+    private final Runnable task;
+
+    private Entry(Object group, Runnable task) {
+      this.group = group;
+      this.task = task;
+    }
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.tasks;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class ScanCheckpoint. Tracks the progress of an update of a data source and writes it periodically to the {@link DatasourceManifest}, so that
+ * a cancelled (or crashed) update can be resumed by the next update:
+ * <ul>
+ * <li>folders which have been walked and parsed completely are not walked again - as long as they are unchanged since the checkpoint</li>
+ * <li>MediaInfo work which has not been finished is done first (and forced) by the next update</li>
+ * </ul>
+ * The checkpoint is part of the manifest, so it is dropped with the manifest whenever the settings for the scan are changed
+ *
+ * @author Manuel Laggner
+ */
+public class ScanCheckpoint {
+  private static final Logger            LOGGER        = LoggerFactory.getLogger(ScanCheckpoint.class);
+  private static final long              SAVE_INTERVAL = 30000;
+
+  private final DatasourceManifest       manifest;
+  private final List<Path>               roots;
+  private final BooleanSupplier          cancelled;
+  private final Map<Path, AtomicInteger> pendingTasks;
+  private final Map<Path, Boolean>       videoFolders;
+
+  private long                           lastSave;
+
+  /**
+   * create a new checkpoint for the given data source
+   *
+   * @param manifest
+   *          the manifest of the data source (to persist the checkpoint)
+   * @param roots
+   *          all root folders of the data source
+   * @param cancelled
+   *          a check whether the update has been cancelled - no progress is recorded after a cancel
+   */
+  public ScanCheckpoint(DatasourceManifest manifest, Collection<Path> roots, BooleanSupplier cancelled) {
+    this.manifest = manifest;
+    this.roots = new ArrayList<>(roots);
+    this.cancelled = cancelled;
+    this.pendingTasks = new ConcurrentHashMap<>();
+    this.videoFolders = new ConcurrentHashMap<>();
+    this.lastSave = System.currentTimeMillis();
+
+    if (!manifest.getCompletedFolders().isEmpty() || !manifest.getPendingMediaInfo().isEmpty()) {
+      LOGGER.info("resuming the last update - {} folders completed, {} files pending for MediaInfo", manifest.getCompletedFolders().size(),
+          manifest.getPendingMediaInfo().size());
+    }
+  }
+
+  /**
+   * check whether the given folder has been completed by an interrupted update and is unchanged since then
+   *
+   * @param folder
+   *          the root folder to check
+   * @return true if the folder does not need to be scanned again
+   */
+  public boolean isCompleted(Path folder) {
+    return manifest.getCompletedFolders().containsKey(DatasourceManifest.key(folder)) && manifest.isUnchanged(folder);
+  }
+
+  /**
+   * check whether video files have been found in the given (completed) folder
+   *
+   * @param folder
+   *          the root folder to check
+   * @return true if there were video files in this folder
+   */
+  public boolean hasVideos(Path folder) {
+    return Boolean.TRUE.equals(manifest.getCompletedFolders().get(DatasourceManifest.key(folder)));
+  }
+
+  /**
+   * start the walk through the given root folder
+   *
+   * @param folder
+   *          the root folder
+   */
+  public void startFolder(Path folder) {
+    manifest.getCompletedFolders().remove(DatasourceManifest.key(folder));
+    pendingTasks.put(folder, new AtomicInteger(1));
+  }
+
+  /**
+   * the walk through the given root folder has been finished. The folder is completed as soon as all tracked tasks of this folder are finished
+   *
+   * @param folder
+   *          the root folder
+   * @param hasVideos
+   *          true if video files have been found in this folder
+   */
+  public void finishFolder(Path folder, boolean hasVideos) {
+    if (!cancelled.getAsBoolean()) {
+      taskFinished(folder, hasVideos);
+    }
+  }
+
+  /**
+   * track a task (e.g. parsing a movie folder) which belongs to the given root folder
+   *
+   * @param folder
+   *          the root folder
+   * @param task
+   *          the task
+   * @return the tracked task
+   */
+  public Callable<Object> track(Path folder, Callable<Object> task) {
+    AtomicInteger pending = pendingTasks.get(folder);
+    if (pending == null) {
+      return task;
+    }
+
+    pending.incrementAndGet();
+    return () -> {
+      try {
+        return task.call();
+      }
+      finally {
+        if (!cancelled.getAsBoolean()) {
+          taskFinished(folder, null);
+        }
+      }
+    };
+  }
+
+  private void taskFinished(Path folder, Boolean hasVideos) {
+    AtomicInteger pending = pendingTasks.get(folder);
+    if (pending == null) {
+      return;
+    }
+
+    if (hasVideos != null) {
+      videoFolders.put(folder, hasVideos);
+    }
+
+    if (pending.decrementAndGet() == 0) {
+      pendingTasks.remove(folder);
+      manifest.getCompletedFolders().put(DatasourceManifest.key(folder), Boolean.TRUE.equals(videoFolders.remove(folder)));
+      saveIfDue();
+    }
+  }
+
+  /**
+   * check whether the MediaInfo of the given file has not been fetched by the interrupted update
+   *
+   * @param file
+   *          the file to check
+   * @return true if the MediaInfo of this file should be fetched
+   */
+  public boolean isMediaInfoPending(Path file) {
+    return manifest.getPendingMediaInfo().contains(DatasourceManifest.key(file));
+  }
+
+  /**
+   * track a MediaInfo task
+   *
+   * @param file
+   *          the file to get the MediaInfo for
+   * @param task
+   *          the task
+   * @return the tracked task
+   */
+  public Runnable trackMediaInfo(Path file, Runnable task) {
+    String key = DatasourceManifest.key(file);
+    manifest.getPendingMediaInfo().add(key);
+
+    return () -> {
+      try {
+        task.run();
+      }
+      finally {
+        if (!cancelled.getAsBoolean()) {
+          manifest.getPendingMediaInfo().remove(key);
+          saveIfDue();
+        }
+      }
+    };
+  }
+
+  /**
+   * all folders have been scanned - the result of the scan is stored in the manifest itself now
+   */
+  public void finishScan() {
+    pendingTasks.clear();
+    videoFolders.clear();
+    manifest.getCompletedFolders().clear();
+  }
+
+  /**
+   * write the checkpoint
+   */
+  public synchronized void save() {
+    manifest.save(roots);
+    lastSave = System.currentTimeMillis();
+  }
+
+  private synchronized void saveIfDue() {
+    if (System.currentTimeMillis() - lastSave >= SAVE_INTERVAL) {
+      save();
+    }
+  }
+}
@@ -66,6 +66,28 @@ public abstract class TmmThreadPool extends TmmTask {
     this.service = new ExecutorCompletionService<>(pool);
   }
 
+  /**
+   * change the amount of threads of the running ThreadPool
+   *
+   * @param threads
+   *          amount of threads
+   */
+  protected synchronized void setThreadPoolSize(int threads) {
+    if (pool == null || threads < 1 || threads == pool.getMaximumPoolSize()) {
+      return;
+    }
+
+    // the core size must never exceed the maximum size
+    if (threads > pool.getMaximumPoolSize()) {
+      pool.setMaximumPoolSize(threads);
+      pool.setCorePoolSize(threads);
+    }
+    else {
+      pool.setCorePoolSize(threads);
+      pool.setMaximumPoolSize(threads);
+    }
+  }
+
   /**
    * submits a new callable to thread pool.
    * 
@@ -15,16 +15,24 @@
  */
 package org.tinymediamanager.core.tvshow;
 
+import static org.tinymediamanager.core.Constants.ADDED_EPISODE;
 import static org.tinymediamanager.core.Constants.ADDED_TV_SHOW;
+import static org.tinymediamanager.core.Constants.DATA_SOURCE;
 import static org.tinymediamanager.core.Constants.EPISODE_COUNT;
+import static org.tinymediamanager.core.Constants.IMDB;
 import static org.tinymediamanager.core.Constants.MEDIA_FILES;
 import static org.tinymediamanager.core.Constants.MEDIA_INFORMATION;
+import static org.tinymediamanager.core.Constants.PATH;
+import static org.tinymediamanager.core.Constants.REMOVED_EPISODE;
 import static org.tinymediamanager.core.Constants.REMOVED_TV_SHOW;
 import static org.tinymediamanager.core.Constants.TAGS;
+import static org.tinymediamanager.core.Constants.TMDB;
+import static org.tinymediamanager.core.Constants.TVDB;
 import static org.tinymediamanager.core.Constants.TV_SHOWS;
 import static org.tinymediamanager.core.Constants.TV_SHOW_COUNT;
 
 import java.beans.PropertyChangeListener;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -39,7 +47,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
@@ -52,12 +60,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.core.AbstractModelObject;
 import org.tinymediamanager.core.Constants;
+import org.tinymediamanager.core.FacetAggregate;
 import org.tinymediamanager.core.ImageCache;
 import org.tinymediamanager.core.MediaFileType;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
-import org.tinymediamanager.core.Utils;
+import org.tinymediamanager.core.database.MediaEntityCodec;
+import org.tinymediamanager.core.database.MediaEntityIndex;
+import org.tinymediamanager.core.database.MediaEntityLookup;
 import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.entities.MediaFileAudioStream;
 import org.tinymediamanager.core.tasks.ImageCacheTask;
@@ -74,11 +85,8 @@ import org.tinymediamanager.scraper.entities.MediaCertification;
 import org.tinymediamanager.scraper.entities.MediaLanguages;
 import org.tinymediamanager.scraper.exceptions.ScrapeException;
 import org.tinymediamanager.scraper.interfaces.ITvShowMetadataProvider;
-import org.tinymediamanager.scraper.util.ListUtils;
 import org.tinymediamanager.scraper.util.MediaIdUtil;
 
-import com.fasterxml.jackson.databind.ObjectReader;
-
 import ca.odell.glazedlists.BasicEventList;
 import ca.odell.glazedlists.GlazedLists;
 import ca.odell.glazedlists.ObservableElementList;
@@ -89,27 +97,33 @@ import ca.odell.glazedlists.ObservableElementList;
  * @author Manuel Laggner
  */
 public final class TvShowList extends AbstractModelObject {
-  private static final Logger                            LOGGER        = LoggerFactory.getLogger(TvShowList.class);
-  private static TvShowList                              instance      = null;
-
-  private final List<TvShow>                             tvShows;
-
-  private final CopyOnWriteArrayList<String>             tagsInTvShows;
-  private final CopyOnWriteArrayList<String>             tagsInEpisodes;
-  private final CopyOnWriteArrayList<String>             videoCodecsInEpisodes;
-  private final CopyOnWriteArrayList<String>             videoContainersInEpisodes;
-  private final CopyOnWriteArrayList<String>             audioCodecsInEpisodes;
-  private final CopyOnWriteArrayList<Double>             frameRatesInEpisodes;
-  private final CopyOnWriteArrayList<MediaCertification> certificationsInTvShows;
-  private final CopyOnWriteArrayList<Integer>            audioStreamsInEpisodes;
-  private final CopyOnWriteArrayList<String>             audioLanguagesInEpisodes;
-  private final CopyOnWriteArrayList<Integer>            subtitlesInEpisodes;
-  private final CopyOnWriteArrayList<String>             subtitleLanguagesInEpisodes;
-  private final CopyOnWriteArrayList<String>             hdrFormatInEpisodes;
-  private final CopyOnWriteArrayList<String>             audioTitlesInEpisodes;
-
-  private final PropertyChangeListener                   propertyChangeListener;
-  private final ReadWriteLock                            readWriteLock = new ReentrantReadWriteLock();
+  private static final Logger                      LOGGER                      = LoggerFactory.getLogger(TvShowList.class);
+  private static final String[]                    INDEXED_IDS                 = { IMDB, TMDB, TVDB };
+  private static final Set<String>                 INDEXED_PROPS               = Set.of(PATH, DATA_SOURCE, IMDB, TMDB, TVDB);
+  private static TvShowList                        instance                    = null;
+
+  private final List<TvShow>                       tvShows;
+  private final Map<UUID, TvShow>                  tvShowsByUuid;
+  private final MediaEntityLookup<TvShow>          tvShowLookup;
+  private final MediaEntityLookup<TvShowEpisode>   episodeLookup;
+  private final Set<UUID>                          tvShowsInEpisodeLookup;
+
+  private final FacetAggregate<String>             tagsInTvShows;
+  private final FacetAggregate<String>             tagsInEpisodes;
+  private final FacetAggregate<String>             videoCodecsInEpisodes;
+  private final FacetAggregate<String>             videoContainersInEpisodes;
+  private final FacetAggregate<String>             audioCodecsInEpisodes;
+  private final FacetAggregate<Double>             frameRatesInEpisodes;
+  private final FacetAggregate<MediaCertification> certificationsInTvShows;
+  private final FacetAggregate<Integer>            audioStreamsInEpisodes;
+  private final FacetAggregate<String>             audioLanguagesInEpisodes;
+  private final FacetAggregate<Integer>            subtitlesInEpisodes;
+  private final FacetAggregate<String>             subtitleLanguagesInEpisodes;
+  private final FacetAggregate<String>             hdrFormatInEpisodes;
+  private final FacetAggregate<String>             audioTitlesInEpisodes;
+
+  private final PropertyChangeListener             propertyChangeListener;
+  private final ReadWriteLock                      readWriteLock               = new ReentrantReadWriteLock();
 
   /**
    * Instantiates a new TvShowList.
@@ -117,19 +131,23 @@ public final class TvShowList extends AbstractModelObject {
   private TvShowList() {
     // create the lists
     tvShows = new ObservableElementList<>(GlazedLists.threadSafeList(new BasicEventList<>()), GlazedLists.beanConnector(TvShow.class));
-    tagsInTvShows = new CopyOnWriteArrayList<>();
-    tagsInEpisodes = new CopyOnWriteArrayList<>();
-    videoCodecsInEpisodes = new CopyOnWriteArrayList<>();
-    videoContainersInEpisodes = new CopyOnWriteArrayList<>();
-    audioCodecsInEpisodes = new CopyOnWriteArrayList<>();
-    frameRatesInEpisodes = new CopyOnWriteArrayList<>();
-    certificationsInTvShows = new CopyOnWriteArrayList<>();
-    audioStreamsInEpisodes = new CopyOnWriteArrayList<>();
-    audioLanguagesInEpisodes = new CopyOnWriteArrayList<>();
-    subtitlesInEpisodes = new CopyOnWriteArrayList<>();
-    subtitleLanguagesInEpisodes = new CopyOnWriteArrayList<>();
-    hdrFormatInEpisodes = new CopyOnWriteArrayList<>();
-    audioTitlesInEpisodes = new CopyOnWriteArrayList<>();
+    tvShowsByUuid = new ConcurrentHashMap<>();
+    tvShowLookup = new MediaEntityLookup<>();
+    episodeLookup = new MediaEntityLookup<>();
+    tvShowsInEpisodeLookup = ConcurrentHashMap.newKeySet();
+    tagsInTvShows = new FacetAggregate<>(tag -> tag.toUpperCase(Locale.ROOT));
+    tagsInEpisodes = new FacetAggregate<>(tag -> tag.toUpperCase(Locale.ROOT));
+    videoCodecsInEpisodes = new FacetAggregate<>();
+    videoContainersInEpisodes = new FacetAggregate<>(container -> container.toLowerCase(Locale.ROOT));
+    audioCodecsInEpisodes = new FacetAggregate<>();
+    frameRatesInEpisodes = new FacetAggregate<>();
+    certificationsInTvShows = new FacetAggregate<>();
+    audioStreamsInEpisodes = new FacetAggregate<>();
+    audioLanguagesInEpisodes = new FacetAggregate<>();
+    subtitlesInEpisodes = new FacetAggregate<>();
+    subtitleLanguagesInEpisodes = new FacetAggregate<>();
+    hdrFormatInEpisodes = new FacetAggregate<>();
+    audioTitlesInEpisodes = new FacetAggregate<>();
 
     // the tag listener: its used to always have a full list of all tags used in tmm
     propertyChangeListener = evt -> {
@@ -138,6 +156,10 @@ public final class TvShowList extends AbstractModelObject {
         TvShow tvShow = (TvShow) evt.getSource();
         updateTvShowTags(Collections.singleton(tvShow));
       }
+      if (Constants.CERTIFICATION.equals(evt.getPropertyName()) && evt.getSource() instanceof TvShow) {
+        TvShow tvShow = (TvShow) evt.getSource();
+        updateCertification(Collections.singleton(tvShow));
+      }
       if (Constants.TAGS.equals(evt.getPropertyName()) && evt.getSource() instanceof TvShowEpisode) {
         TvShowEpisode episode = (TvShowEpisode) evt.getSource();
         updateEpisodeTags(Collections.singleton(episode));
@@ -147,9 +169,29 @@ public final class TvShowList extends AbstractModelObject {
         TvShowEpisode episode = (TvShowEpisode) evt.getSource();
         updateMediaInformationLists(Collections.singleton(episode));
       }
+      if (MEDIA_FILES.equals(evt.getPropertyName()) && evt.getSource() instanceof TvShowEpisode) {
+        updateEpisodeLookup((TvShowEpisode) evt.getSource());
+      }
+      if (ADDED_EPISODE.equals(evt.getPropertyName()) && evt.getNewValue() instanceof TvShowEpisode) {
+        TvShowEpisode episode = (TvShowEpisode) evt.getNewValue();
+        // dummy episodes (missing episodes) have no files
+        if (!episode.isDummy()) {
+          updateEpisodeLookup(episode);
+          updateEpisodeTags(Collections.singleton(episode));
+          updateMediaInformationLists(Collections.singleton(episode));
+        }
+      }
+      if (REMOVED_EPISODE.equals(evt.getPropertyName()) && evt.getNewValue() instanceof TvShowEpisode) {
+        TvShowEpisode episode = (TvShowEpisode) evt.getNewValue();
+        episodeLookup.remove(episode);
+        removeFromLists(episode);
+      }
       if (EPISODE_COUNT.equals(evt.getPropertyName())) {
         firePropertyChange(EPISODE_COUNT, 0, 1);
       }
+      if (INDEXED_PROPS.contains(evt.getPropertyName()) && evt.getSource() instanceof TvShow) {
+        updateIndex((TvShow) evt.getSource());
+      }
     };
 
     License.getInstance().addEventListener(() -> {
@@ -252,8 +294,17 @@ public final class TvShowList extends AbstractModelObject {
     readWriteLock.writeLock().lock();
     int oldValue = tvShows.size();
     tvShows.add(newValue);
+    tvShowsByUuid.put(newValue.getDbId(), newValue);
     readWriteLock.writeLock().unlock();
 
+    updateIndex(newValue);
+    addToEpisodeLookup(newValue);
+
+    updateTvShowTags(Collections.singleton(newValue));
+    updateCertification(Collections.singleton(newValue));
+    updateEpisodeTags(newValue.getEpisodes());
+    updateMediaInformationLists(newValue.getEpisodes());
+
     newValue.addPropertyChangeListener(propertyChangeListener);
     firePropertyChange(TV_SHOWS, null, tvShows);
     firePropertyChange(ADDED_TV_SHOW, null, newValue);
@@ -271,11 +322,8 @@ public final class TvShowList extends AbstractModelObject {
       return;
     }
 
-    for (int i = tvShows.size() - 1; i >= 0; i--) {
-      TvShow tvShow = tvShows.get(i);
-      if (Paths.get(path).equals(Paths.get(tvShow.getDataSource()))) {
-        removeTvShow(tvShow);
-      }
+    for (TvShow tvShow : getTvShowsByDataSource(path)) {
+      removeTvShow(tvShow);
     }
   }
 
@@ -283,8 +331,7 @@ public final class TvShowList extends AbstractModelObject {
    * exchanges the given datasource in the entities/database with a new one
    */
   void exchangeDatasource(String oldDatasource, String newDatasource) {
-    Path oldPath = Paths.get(oldDatasource);
-    List<TvShow> tvShowsToChange = tvShows.stream().filter(tvShow -> oldPath.equals(Paths.get(tvShow.getDataSource()))).collect(Collectors.toList());
+    List<TvShow> tvShowsToChange = getTvShowsByDataSource(oldDatasource);
     List<MediaFile> imagesToCache = new ArrayList<>();
 
     for (TvShow tvShow : tvShowsToChange) {
@@ -337,8 +384,13 @@ public final class TvShowList extends AbstractModelObject {
     int oldValue = tvShows.size();
     // first remove the TV show itself to deregister the events in the UI (no more UI handling of the tbe removed episodes needed)
     tvShows.remove(tvShow);
+    tvShowsByUuid.remove(tvShow.getDbId());
     readWriteLock.writeLock().unlock();
 
+    tvShowLookup.remove(tvShow);
+    removeFromEpisodeLookup(tvShow);
+    removeFromLists(tvShow);
+
     firePropertyChange(TV_SHOWS, null, tvShows);
     firePropertyChange(REMOVED_TV_SHOW, null, tvShow);
     firePropertyChange(TV_SHOW_COUNT, oldValue, tvShows.size());
@@ -372,8 +424,13 @@ public final class TvShowList extends AbstractModelObject {
     readWriteLock.writeLock().lock();
     int oldValue = tvShows.size();
     tvShows.remove(tvShow);
+    tvShowsByUuid.remove(tvShow.getDbId());
     readWriteLock.writeLock().unlock();
 
+    tvShowLookup.remove(tvShow);
+    removeFromEpisodeLookup(tvShow);
+    removeFromLists(tvShow);
+
     tvShow.deleteFilesSafely();
     tvShow.removeAllEpisodes();
 
@@ -448,38 +505,52 @@ public final class TvShowList extends AbstractModelObject {
   }
 
   public TvShow lookupTvShow(UUID uuid) {
-    for (TvShow tvShow : tvShows) {
-      if (tvShow.getDbId().equals(uuid)) {
-        return tvShow;
-      }
+    if (uuid == null) {
+      return null;
     }
-    return null;
+    return tvShowsByUuid.get(uuid);
   }
 
   /**
    * Load tv shows from database.
    */
-  void loadTvShowsFromDatabase(MVMap<UUID, String> tvShowMap, MVMap<UUID, String> episodesMap) {
+  void loadTvShowsFromDatabase(MVMap<UUID, Object> tvShowMap, MVMap<UUID, Object> episodesMap) {
     ReadWriteLock lock = new ReentrantReadWriteLock();
 
     // load all TV shows from the database
+    boolean lazyLoading = TvShowModuleManager.getInstance().isLazyLoading();
+
     List<TvShow> tvShowsFromDb = new ArrayList<>();
-    ObjectReader tvShowObjectReader = TvShowModuleManager.getInstance().getTvShowObjectReader();
+    MediaEntityCodec<TvShow> tvShowCodec = TvShowModuleManager.getInstance().getTvShowCodec();
+    tvShowCodec.resetStatistics();
 
     List<UUID> toRemove = new ArrayList<>();
+    Map<UUID, TvShow> tvShowsToMigrate = new HashMap<>();
 
     long start = System.nanoTime();
 
     new ArrayList<>(tvShowMap.keyList()).parallelStream().forEach((uuid) -> {
-      String json = "";
+      Object json = "";
       try {
         json = tvShowMap.get(uuid);
-        TvShow tvShow = tvShowObjectReader.readValue(json);
+
+        TvShow tvShow;
+        if (lazyLoading && tvShowCodec.isCurrentFormat(json)) {
+          // only load the summary - the heavy properties are loaded on first access
+          tvShow = tvShowCodec.decodeSummary(json);
+          tvShow.dehydrate(TvShowModuleManager.getInstance());
+        }
+        else {
+          tvShow = tvShowCodec.decode(json);
+        }
         tvShow.setDbId(uuid);
 
         // for performance reasons we add tv shows after loading the episodes
         lock.writeLock().lock();
         tvShowsFromDb.add(tvShow);
+        if (!tvShowCodec.isCurrentFormat(json)) {
+          tvShowsToMigrate.put(uuid, tvShow);
+        }
         lock.writeLock().unlock();
       }
       catch (Exception e) {
@@ -499,7 +570,10 @@ public final class TvShowList extends AbstractModelObject {
     }
 
     LOGGER.info("found {} TV shows in database", tvShowsFromDb.size());
-    LOGGER.debug("took {} ms", (end - start) / 1000000);
+    LOGGER.debug("took {} ms ({})", (end - start) / 1000000, tvShowCodec.getStatistics());
+
+    // migrate all TV shows which are not stored in the configured format
+    tvShowCodec.migrate(tvShowMap, tvShowsToMigrate);
 
     // build a map for faster show lookup
     Map<UUID, TvShow> tvShowUuidMap = new HashMap<>();
@@ -509,7 +583,9 @@ public final class TvShowList extends AbstractModelObject {
 
     // load all episodes from the database
     toRemove.clear();
-    ObjectReader episodeObjectReader = TvShowModuleManager.getInstance().getEpisodeObjectReader();
+    MediaEntityCodec<TvShowEpisode> episodeCodec = TvShowModuleManager.getInstance().getEpisodeCodec();
+    episodeCodec.resetStatistics();
+    Map<UUID, TvShowEpisode> episodesToMigrate = new HashMap<>();
 
     // just to get the episode count
     List<TvShowEpisode> episodesToCount = new ArrayList<>();
@@ -517,10 +593,19 @@ public final class TvShowList extends AbstractModelObject {
     start = System.nanoTime();
 
     new ArrayList<>(episodesMap.keyList()).parallelStream().forEach((uuid) -> {
-      String json = "";
+      Object json = "";
       try {
         json = episodesMap.get(uuid);
-        TvShowEpisode episode = episodeObjectReader.readValue(json);
+
+        TvShowEpisode episode;
+        if (lazyLoading && episodeCodec.isCurrentFormat(json)) {
+          // only load the summary - the heavy properties are loaded on first access
+          episode = episodeCodec.decodeSummary(json);
+          episode.dehydrate(TvShowModuleManager.getInstance());
+        }
+        else {
+          episode = episodeCodec.decode(json);
+        }
         episode.setDbId(uuid);
 
         // sanity check: only episodes with a video file are valid
@@ -541,6 +626,9 @@ public final class TvShowList extends AbstractModelObject {
 
           lock.writeLock().lock();
           episodesToCount.add(episode);
+          if (!episodeCodec.isCurrentFormat(json)) {
+            episodesToMigrate.put(uuid, episode);
+          }
           lock.writeLock().unlock();
         }
         else {
@@ -565,10 +653,14 @@ public final class TvShowList extends AbstractModelObject {
     }
 
     LOGGER.info("found {} episodes in database", episodesToCount.size());
-    LOGGER.debug("took {} ms", (end - start) / 1000000);
+    LOGGER.debug("took {} ms ({})", (end - start) / 1000000, episodeCodec.getStatistics());
+
+    // migrate all episodes which are not stored in the configured format
+    episodeCodec.migrate(episodesMap, episodesToMigrate);
 
     // and add all TV shows to the UI
     tvShows.addAll(tvShowsFromDb);
+    tvShowsByUuid.putAll(tvShowUuidMap);
   }
 
   void initDataAfterLoading() {
@@ -594,6 +686,96 @@ public final class TvShowList extends AbstractModelObject {
 
     updateEpisodeTags(episodes);
     updateMediaInformationLists(episodes);
+
+    updateIndex();
+  }
+
+  /**
+   * build the in-memory lookups for all TV shows and episodes. If the persistent index has been closed cleanly, the TV show lookup is filled with
+   * the stored keys; otherwise all TV shows are re-indexed (only changed entries are written to the database)
+   */
+  void updateIndex() {
+    long start = System.nanoTime();
+
+    MediaEntityIndex index = TvShowModuleManager.getInstance().getTvShowIndex();
+    boolean clean = index != null && index.isClean();
+
+    int changed = 0;
+    for (TvShow tvShow : tvShows) {
+      Collection<String> keys = clean ? index.getKeys(tvShow.getDbId()) : Collections.emptySet();
+      if (keys.isEmpty()) {
+        keys = MediaEntityLookup.getIndexKeys(tvShow, INDEXED_IDS);
+        if (index != null && index.put(tvShow.getDbId(), keys)) {
+          changed++;
+        }
+      }
+      tvShowLookup.put(tvShow, keys);
+      addToEpisodeLookup(tvShow);
+    }
+
+    if (index == null) {
+      LOGGER.debug("TV show lookup: {} entries, {} episodes - took {} ms", tvShowLookup.size(), episodeLookup.size(),
+          (System.nanoTime() - start) / 1000000);
+      return;
+    }
+
+    // remove orphaned entries
+    int removed = index.retainAll(tvShowsByUuid.keySet());
+
+    LOGGER.debug("TV show index ({}): {} entries, {} updated, {} removed, {} episodes - took {} ms", clean ? "clean" : "re-indexed",
+        index.size(), changed, removed, episodeLookup.size(), (System.nanoTime() - start) / 1000000);
+  }
+
+  private void updateIndex(TvShow tvShow) {
+    if (!tvShowsByUuid.containsKey(tvShow.getDbId())) {
+      return;
+    }
+
+    List<String> keys = MediaEntityLookup.getIndexKeys(tvShow, INDEXED_IDS);
+    tvShowLookup.put(tvShow, keys);
+
+    MediaEntityIndex index = TvShowModuleManager.getInstance().getTvShowIndex();
+    if (index != null) {
+      index.put(tvShow.getDbId(), keys);
+    }
+  }
+
+  /**
+   * find all TV shows with the given index key (in-memory lookup)
+   *
+   * @param key
+   *          the index key
+   * @return a list of all found TV shows
+   */
+  private List<TvShow> findTvShowsByIndexKey(String key) {
+    return tvShowLookup.get(key);
+  }
+
+  private void addToEpisodeLookup(TvShow tvShow) {
+    for (TvShowEpisode episode : tvShow.getEpisodes()) {
+      updateEpisodeLookup(episode);
+    }
+    tvShowsInEpisodeLookup.add(tvShow.getDbId());
+  }
+
+  private void removeFromEpisodeLookup(TvShow tvShow) {
+    tvShowsInEpisodeLookup.remove(tvShow.getDbId());
+    for (TvShowEpisode episode : tvShow.getEpisodes()) {
+      episodeLookup.remove(episode);
+    }
+  }
+
+  private void updateEpisodeLookup(TvShowEpisode episode) {
+    List<String> keys = new ArrayList<>();
+    for (MediaFile mediaFile : episode.getMediaFiles()) {
+      try {
+        keys.add(MediaEntityLookup.pathKey(mediaFile.getFile()));
+      }
+      catch (InvalidPathException e) {
+        // not resolvable on this system - cannot be indexed
+      }
+    }
+    episodeLookup.put(episode, keys);
   }
 
   private boolean isEpisodeCorrupt(TvShowEpisode episode) {
@@ -828,55 +1010,100 @@ public final class TvShowList extends AbstractModelObject {
   }
 
   private void updateTvShowTags(Collection<TvShow> tvShows) {
-    Set<String> tags = new HashSet<>();
-    tvShows.forEach(tvShow -> tags.addAll(tvShow.getTags()));
-
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(tagsInTvShows, tags)) {
-      Utils.removeDuplicateStringFromCollectionIgnoreCase(tagsInTvShows);
-      firePropertyChange(TAGS, null, tagsInTvShows);
+    boolean changed = false;
+    for (TvShow tvShow : tvShows) {
+      changed |= tagsInTvShows.update(tvShow, tvShow.getTags());
     }
+    fireIfChanged(changed, TAGS, tagsInTvShows);
   }
 
   private void updateCertification(Collection<TvShow> tvShows) {
-    Set<MediaCertification> certifications = new HashSet<>();
-    tvShows.forEach(tvShow -> certifications.add(tvShow.getCertification()));
-
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(certificationsInTvShows, certifications)) {
-      firePropertyChange(Constants.CERTIFICATION, null, certificationsInTvShows);
+    boolean changed = false;
+    for (TvShow tvShow : tvShows) {
+      changed |= certificationsInTvShows.update(tvShow, Collections.singleton(tvShow.getCertification()));
     }
+    fireIfChanged(changed, Constants.CERTIFICATION, certificationsInTvShows);
   }
 
   public List<String> getTagsInTvShows() {
-    return tagsInTvShows;
+    return tagsInTvShows.getValues();
   }
 
   private void updateEpisodeTags(Collection<TvShowEpisode> episodes) {
-    Set<String> tags = new HashSet<>();
-    episodes.forEach(episode -> tags.addAll(episode.getTags()));
-
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(tagsInEpisodes, tags)) {
-      Utils.removeDuplicateStringFromCollectionIgnoreCase(tagsInEpisodes);
-      firePropertyChange(TAGS, null, tagsInEpisodes);
+    boolean changed = false;
+    for (TvShowEpisode episode : episodes) {
+      changed |= tagsInEpisodes.update(episode, episode.getTags());
     }
+    fireIfChanged(changed, TAGS, tagsInEpisodes);
   }
 
   public Collection<String> getTagsInEpisodes() {
-    return tagsInEpisodes;
+    return tagsInEpisodes.getValues();
+  }
+
+  /**
+   * remove the given TV show and all its episodes from the aggregated lists
+   *
+   * @param tvShow
+   *          the removed TV show
+   */
+  private void removeFromLists(TvShow tvShow) {
+    fireIfChanged(tagsInTvShows.remove(tvShow), TAGS, tagsInTvShows);
+    fireIfChanged(certificationsInTvShows.remove(tvShow), Constants.CERTIFICATION, certificationsInTvShows);
+
+    for (TvShowEpisode episode : tvShow.getEpisodes()) {
+      removeFromLists(episode);
+    }
+  }
+
+  /**
+   * remove the given episode from the aggregated lists
+   *
+   * @param episode
+   *          the removed episode
+   */
+  private void removeFromLists(TvShowEpisode episode) {
+    fireIfChanged(tagsInEpisodes.remove(episode), TAGS, tagsInEpisodes);
+    fireIfChanged(videoCodecsInEpisodes.remove(episode), Constants.VIDEO_CODEC, videoCodecsInEpisodes);
+    fireIfChanged(frameRatesInEpisodes.remove(episode), Constants.FRAME_RATE, frameRatesInEpisodes);
+    fireIfChanged(videoContainersInEpisodes.remove(episode), Constants.VIDEO_CONTAINER, videoContainersInEpisodes);
+    fireIfChanged(audioCodecsInEpisodes.remove(episode), Constants.AUDIO_CODEC, audioCodecsInEpisodes);
+    fireIfChanged(audioStreamsInEpisodes.remove(episode), Constants.AUDIOSTREAMS_COUNT, audioStreamsInEpisodes);
+    fireIfChanged(audioLanguagesInEpisodes.remove(episode), Constants.AUDIO_LANGUAGES, audioLanguagesInEpisodes);
+    fireIfChanged(subtitlesInEpisodes.remove(episode), Constants.SUBTITLES_COUNT, subtitlesInEpisodes);
+    fireIfChanged(subtitleLanguagesInEpisodes.remove(episode), Constants.SUBTITLE_LANGUAGES, subtitleLanguagesInEpisodes);
+    fireIfChanged(hdrFormatInEpisodes.remove(episode), Constants.HDR_FORMAT, hdrFormatInEpisodes);
+    fireIfChanged(audioTitlesInEpisodes.remove(episode), Constants.AUDIO_TITLE, audioTitlesInEpisodes);
+  }
+
+  private void fireIfChanged(boolean changed, String propertyName, FacetAggregate<?> aggregate) {
+    if (changed) {
+      firePropertyChange(propertyName, null, aggregate.getValues());
+    }
   }
 
   private void updateMediaInformationLists(Collection<TvShowEpisode> episodes) {
-    Set<String> videoCodecs = new HashSet<>();
-    Set<Double> frameRates = new HashSet<>();
-    Map<String, String> videoContainers = new HashMap<>();
-    Set<String> audioCodecs = new HashSet<>();
-    Set<Integer> audioStreamCount = new HashSet<>();
-    Set<String> audioLanguages = new HashSet<>();
-    Set<Integer> subtitleStreamCount = new HashSet<>();
-    Set<String> subtitleLanguages = new HashSet<>();
-    Set<String> hdrFormat = new HashSet<>();
-    Set<String> audioTitles = new HashSet<>();
+    boolean videoCodecsChanged = false;
+    boolean frameRatesChanged = false;
+    boolean videoContainersChanged = false;
+    boolean audioCodecsChanged = false;
+    boolean audioStreamCountChanged = false;
+    boolean audioLanguagesChanged = false;
+    boolean subtitleStreamCountChanged = false;
+    boolean subtitleLanguagesChanged = false;
+    boolean hdrFormatChanged = false;
+    boolean audioTitlesChanged = false;
 
     for (TvShowEpisode episode : episodes) {
+      Set<String> videoCodecs = new HashSet<>();
+      Set<Double> frameRates = new HashSet<>();
+      Set<String> videoContainers = new HashSet<>();
+      Set<String> audioCodecs = new HashSet<>();
+      Set<String> audioLanguages = new HashSet<>();
+      Set<String> subtitleLanguages = new HashSet<>();
+      Set<String> hdrFormat = new HashSet<>();
+      Set<String> audioTitles = new HashSet<>();
+
       int audioCount = 0;
       int subtitleCount = 0;
 
@@ -895,7 +1122,7 @@ public final class TvShowList extends AbstractModelObject {
 
         // video container
         if (StringUtils.isNotBlank(mf.getContainerFormat())) {
-          videoContainers.putIfAbsent(mf.getContainerFormat().toLowerCase(Locale.ROOT), mf.getContainerFormat());
+          videoContainers.add(mf.getContainerFormat());
         }
 
         // audio codec
@@ -941,104 +1168,72 @@ public final class TvShowList extends AbstractModelObject {
         audioTitles.addAll(mf.getAudioTitleList());
       }
 
-      audioStreamCount.add(audioCount);
-      subtitleStreamCount.add(subtitleCount);
-    }
-
-    // video codecs
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(videoCodecsInEpisodes, videoCodecs)) {
-      firePropertyChange(Constants.VIDEO_CODEC, null, videoCodecsInEpisodes);
-
-    }
-
-    // frame rate
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(frameRatesInEpisodes, frameRates)) {
-      firePropertyChange(Constants.FRAME_RATE, null, frameRatesInEpisodes);
-    }
-
-    // video container
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(videoContainersInEpisodes, videoContainers.values())) {
-      firePropertyChange(Constants.VIDEO_CONTAINER, null, videoContainersInEpisodes);
-    }
-
-    // audio codec
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(audioCodecsInEpisodes, audioCodecs)) {
-      firePropertyChange(Constants.AUDIO_CODEC, null, audioCodecsInEpisodes);
-    }
-
-    // audio streams
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(audioStreamsInEpisodes, audioStreamCount)) {
-      firePropertyChange(Constants.AUDIOSTREAMS_COUNT, null, audioStreamsInEpisodes);
-    }
-
-    // audio languages
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(audioLanguagesInEpisodes, audioLanguages)) {
-      firePropertyChange(Constants.SUBTITLE_LANGUAGES, null, audioLanguagesInEpisodes);
-    }
-
-    // subtitles
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(subtitlesInEpisodes, subtitleStreamCount)) {
-      firePropertyChange(Constants.SUBTITLES_COUNT, null, subtitlesInEpisodes);
-    }
-
-    // subtitle languages
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(subtitleLanguagesInEpisodes, subtitleLanguages)) {
-      firePropertyChange(Constants.SUBTITLE_LANGUAGES, null, subtitleLanguagesInEpisodes);
+      videoCodecsChanged |= videoCodecsInEpisodes.update(episode, videoCodecs);
+      frameRatesChanged |= frameRatesInEpisodes.update(episode, frameRates);
+      videoContainersChanged |= videoContainersInEpisodes.update(episode, videoContainers);
+      audioCodecsChanged |= audioCodecsInEpisodes.update(episode, audioCodecs);
+      audioStreamCountChanged |= audioStreamsInEpisodes.update(episode, Collections.singleton(audioCount));
+      audioLanguagesChanged |= audioLanguagesInEpisodes.update(episode, audioLanguages);
+      subtitleStreamCountChanged |= subtitlesInEpisodes.update(episode, Collections.singleton(subtitleCount));
+      subtitleLanguagesChanged |= subtitleLanguagesInEpisodes.update(episode, subtitleLanguages);
+      hdrFormatChanged |= hdrFormatInEpisodes.update(episode, hdrFormat);
+      audioTitlesChanged |= audioTitlesInEpisodes.update(episode, audioTitles);
     }
 
-    // HDR Format
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(hdrFormatInEpisodes, hdrFormat)) {
-      firePropertyChange(Constants.HDR_FORMAT, null, hdrFormatInEpisodes);
-    }
-
-    // audio titles
-    if (ListUtils.addToCopyOnWriteArrayListIfAbsent(audioTitlesInEpisodes, audioTitles)) {
-      firePropertyChange(Constants.AUDIO_TITLE, null, audioTitlesInEpisodes);
-    }
+    fireIfChanged(videoCodecsChanged, Constants.VIDEO_CODEC, videoCodecsInEpisodes);
+    fireIfChanged(frameRatesChanged, Constants.FRAME_RATE, frameRatesInEpisodes);
+    fireIfChanged(videoContainersChanged, Constants.VIDEO_CONTAINER, videoContainersInEpisodes);
+    fireIfChanged(audioCodecsChanged, Constants.AUDIO_CODEC, audioCodecsInEpisodes);
+    fireIfChanged(audioStreamCountChanged, Constants.AUDIOSTREAMS_COUNT, audioStreamsInEpisodes);
+    fireIfChanged(audioLanguagesChanged, Constants.AUDIO_LANGUAGES, audioLanguagesInEpisodes);
+    fireIfChanged(subtitleStreamCountChanged, Constants.SUBTITLES_COUNT, subtitlesInEpisodes);
+    fireIfChanged(subtitleLanguagesChanged, Constants.SUBTITLE_LANGUAGES, subtitleLanguagesInEpisodes);
+    fireIfChanged(hdrFormatChanged, Constants.HDR_FORMAT, hdrFormatInEpisodes);
+    fireIfChanged(audioTitlesChanged, Constants.AUDIO_TITLE, audioTitlesInEpisodes);
   }
 
   public Collection<String> getVideoCodecsInEpisodes() {
-    return Collections.unmodifiableList(videoCodecsInEpisodes);
+    return videoCodecsInEpisodes.getValues();
   }
 
   public Collection<String> getVideoContainersInEpisodes() {
-    return Collections.unmodifiableList(videoContainersInEpisodes);
+    return videoContainersInEpisodes.getValues();
   }
 
   public Collection<Double> getFrameRatesInEpisodes() {
-    return Collections.unmodifiableList(frameRatesInEpisodes);
+    return frameRatesInEpisodes.getValues();
   }
 
   public Collection<String> getAudioCodecsInEpisodes() {
-    return Collections.unmodifiableList(audioCodecsInEpisodes);
+    return audioCodecsInEpisodes.getValues();
   }
 
   public Collection<MediaCertification> getCertification() {
-    return Collections.unmodifiableList(certificationsInTvShows);
+    return certificationsInTvShows.getValues();
   }
 
   public Collection<Integer> getAudioStreamsInEpisodes() {
-    return Collections.unmodifiableList(audioStreamsInEpisodes);
+    return audioStreamsInEpisodes.getValues();
   }
 
   public Collection<Integer> getSubtitlesInEpisodes() {
-    return Collections.unmodifiableList(subtitlesInEpisodes);
+    return subtitlesInEpisodes.getValues();
   }
 
   public Collection<String> getAudioLanguagesInEpisodes() {
-    return Collections.unmodifiableList(audioLanguagesInEpisodes);
+    return audioLanguagesInEpisodes.getValues();
   }
 
   public Collection<String> getSubtitleLanguagesInEpisodes() {
-    return Collections.unmodifiableList(subtitleLanguagesInEpisodes);
+    return subtitleLanguagesInEpisodes.getValues();
   }
 
   public Collection<String> getHdrFormatInEpisodes() {
-    return Collections.unmodifiableList(hdrFormatInEpisodes);
+    return hdrFormatInEpisodes.getValues();
   }
 
   public Collection<String> getAudioTitlesInEpisodes() {
-    return Collections.unmodifiableList(audioTitlesInEpisodes);
+    return audioTitlesInEpisodes.getValues();
   }
 
   /**
@@ -1049,16 +1244,44 @@ public final class TvShowList extends AbstractModelObject {
    * @return the TV show by path
    */
   public TvShow getTvShowByPath(Path path) {
-    // iterate over all tv shows and check whether this path is being owned by one
-    for (TvShow tvShow : this.tvShows) {
-      if (tvShow.getPathNIO().compareTo(path.toAbsolutePath()) == 0) {
-        return tvShow;
-      }
+    List<TvShow> foundTvShows = findTvShowsByIndexKey(MediaEntityLookup.pathKey(path));
+    if (!foundTvShows.isEmpty()) {
+      return foundTvShows.get(0);
     }
 
     return null;
   }
 
+  /**
+   * Gets all TV shows of the given data source
+   *
+   * @param dataSource
+   *          the data source
+   * @return the TV show list
+   */
+  public List<TvShow> getTvShowsByDataSource(String dataSource) {
+    if (StringUtils.isBlank(dataSource)) {
+      return Collections.emptyList();
+    }
+    return findTvShowsByIndexKey(MediaEntityLookup.dataSourceKey(dataSource));
+  }
+
+  /**
+   * Gets all TV shows with the given id of the given provider (imdb/tmdb/tvdb)
+   *
+   * @param providerId
+   *          the provider id
+   * @param id
+   *          the id of the TV show at the given provider
+   * @return the TV show list
+   */
+  public List<TvShow> getTvShowsByProviderId(String providerId, Object id) {
+    if (StringUtils.isBlank(providerId) || id == null) {
+      return Collections.emptyList();
+    }
+    return findTvShowsByIndexKey(MediaEntityLookup.idKey(providerId, id));
+  }
+
   /**
    * Gets the episodes by file. Filter out all episodes from the Database which are part of this file
    * 
@@ -1067,19 +1290,32 @@ public final class TvShowList extends AbstractModelObject {
    * @return the tv episodes by file
    */
   public static List<TvShowEpisode> getTvEpisodesByFile(TvShow tvShow, Path file) {
-    List<TvShowEpisode> episodes = new ArrayList<>(1);
     // validy check
     if (file == null) {
-      return episodes;
+      return new ArrayList<>(1);
     }
 
-    // check if that file is in this tv show/episode (iterating thread safe)
-    for (TvShowEpisode episode : new ArrayList<>(tvShow.getEpisodes())) {
-      for (MediaFile mediaFile : new ArrayList<>(episode.getMediaFiles())) {
-        if (file.equals(mediaFile.getFile())) {
+    return TvShowModuleManager.getInstance().getTvShowList().getEpisodesByFile(tvShow, file);
+  }
+
+  private List<TvShowEpisode> getEpisodesByFile(TvShow tvShow, Path file) {
+    List<TvShowEpisode> episodes = new ArrayList<>(1);
+
+    if (tvShowsInEpisodeLookup.contains(tvShow.getDbId()) && tvShowsByUuid.get(tvShow.getDbId()) == tvShow) {
+      for (TvShowEpisode episode : episodeLookup.get(MediaEntityLookup.pathKey(file))) {
+        // the lookup is case insensitive on windows - so double check the file
+        if (episode.getTvShow() == tvShow && episode.hasMediaFile(file)) {
           episodes.add(episode);
         }
       }
+      return episodes;
+    }
+
+    // the TV show is not (yet) in the lookup: check if that file is in this tv show/episode (iterating thread safe)
+    for (TvShowEpisode episode : tvShow.getEpisodes()) {
+      if (episode.hasMediaFile(file)) {
+        episodes.add(episode);
+      }
     }
 
     return episodes;
@@ -15,86 +15,106 @@
  */
 package org.tinymediamanager.core.tvshow;
 
+import java.beans.PropertyChangeListener;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TimeZone;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-import org.apache.commons.lang3.StringUtils;
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.MVStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.Globals;
 import org.tinymediamanager.core.Constants;
-import org.tinymediamanager.core.CustomNullStringSerializerProvider;
+import org.tinymediamanager.core.DatasourceWatcher;
 import org.tinymediamanager.core.ITmmModule;
-import org.tinymediamanager.core.NullKeySerializer;
 import org.tinymediamanager.core.Settings;
 import org.tinymediamanager.core.TmmResourceBundle;
 import org.tinymediamanager.core.Utils;
+import org.tinymediamanager.core.database.DatabaseBackup;
+import org.tinymediamanager.core.database.DatabaseCompactionService;
+import org.tinymediamanager.core.database.DatabaseFormat;
+import org.tinymediamanager.core.database.IMediaEntityHydrator;
+import org.tinymediamanager.core.database.MediaEntityCodec;
+import org.tinymediamanager.core.database.MediaEntityIndex;
+import org.tinymediamanager.core.database.WriteBehindQueue;
 import org.tinymediamanager.core.entities.MediaEntity;
+import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.http.TmmHttpServer;
+import org.tinymediamanager.core.threading.TmmTaskManager;
 import org.tinymediamanager.core.tvshow.entities.TvShow;
 import org.tinymediamanager.core.tvshow.entities.TvShowEpisode;
 import org.tinymediamanager.core.tvshow.http.TvShowCommandHandler;
+import org.tinymediamanager.core.tvshow.tasks.TvShowUpdateDatasourceTask;
 
-import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 
 /**
  * The class TvShowModuleManager. Used to manage the tv show module
  * 
  * @author Manuel Laggner
  */
-public final class TvShowModuleManager implements ITmmModule {
-
-  private static final String          MODULE_TITLE         = "TV show management";
-  private static final String          TV_SHOW_DB           = "tvshows.db";
-  private static final Logger          LOGGER               = LoggerFactory.getLogger(TvShowModuleManager.class);
-  private static final int             COMMIT_DELAY         = 2000;
-
-  private static TvShowModuleManager   instance;
-
-  private final List<String>           startupMessages;
-  private final Map<MediaEntity, Long> pendingChanges;
-  private final ReentrantReadWriteLock lock;
-
-  private boolean                      enabled;
-  private int                          autoCommitBufferSize = 8192;
-  private MVStore                      mvStore;
-  private ObjectWriter                 tvShowObjectWriter;
-  private ObjectReader                 tvShowObjectReader;
-  private ObjectWriter                 episodeObjectWriter;
-  private ObjectReader                 episodeObjectReader;
-
-  private MVMap<UUID, String>          tvShowMap;
-  private MVMap<UUID, String>          episodeMap;
-
-  private Timer                        databaseTimer;
+public final class TvShowModuleManager implements ITmmModule, IMediaEntityHydrator {
+
+  private static final String             MODULE_TITLE         = "TV show management";
+  private static final String             TV_SHOW_DB           = "tvshows.db";
+  private static final Logger             LOGGER               = LoggerFactory.getLogger(TvShowModuleManager.class);
+  private static final int                COMMIT_DELAY         = 2000;
+  private static final int                WRITE_INTERVAL       = 500;
+  private static final int                EVICTION_DELAY       = 60000;
+  private static final long               EVICTION_IDLE_TIME   = 300000;
+  private static final int                BACKUP_DELAY         = 30000;
+  private static final long               MAX_COMPACT_TIME     = 1000;
+
+  private static TvShowModuleManager      instance;
+
+  private final List<String>              startupMessages;
+  private final ReentrantReadWriteLock    lock;
+  private final boolean                   lazyLoading;
+  private final Set<MediaEntity>          hydratedEntities;
+  private final DatabaseBackup            databaseBackup;
+  private final ReentrantLock             maintenanceLock;
+
+  private boolean                         enabled;
+  private int                             autoCommitBufferSize = 8192;
+  private MVStore                         mvStore;
+  private MediaEntityCodec<TvShow>        tvShowCodec;
+  private MediaEntityCodec<TvShowEpisode> episodeCodec;
+
+  private MVMap<UUID, Object>             tvShowMap;
+  private MVMap<UUID, Object>             episodeMap;
+  private MediaEntityIndex                tvShowIndex;
+  private WriteBehindQueue                writeQueue;
+
+  private Timer                           databaseTimer;
+  private DatasourceWatcher               datasourceWatcher;
+  private PropertyChangeListener          datasourceWatcherListener;
 
   private TvShowModuleManager() {
     enabled = false;
     startupMessages = new ArrayList<>();
-    pendingChanges = new HashMap<>();
     lock = new ReentrantReadWriteLock();
+    hydratedEntities = ConcurrentHashMap.newKeySet();
+    maintenanceLock = new ReentrantLock();
+    databaseBackup = new DatabaseBackup(Paths.get(Globals.BACKUP_FOLDER, TV_SHOW_DB));
+
+    // lazy loading of heavy properties (cast, crew) can be activated via jvm args
+    lazyLoading = Boolean.getBoolean("tmm.db.lazyloading");
 
     // check if a custom autocommit buffer size has been set via jvm args
     int bufferSize = Integer.getInteger("tmm.mvstore.buffersize", 8);
@@ -135,24 +155,12 @@ public final class TvShowModuleManager implements ITmmModule {
 
   @Override
   public void startUp() {
-    // configure JSON
-    ObjectMapper objectMapper = JsonMapper.builder()
-        .configure(MapperFeature.AUTO_DETECT_GETTERS, false)
-        .configure(MapperFeature.AUTO_DETECT_IS_GETTERS, false)
-        .configure(MapperFeature.AUTO_DETECT_SETTERS, false)
-        .configure(MapperFeature.AUTO_DETECT_FIELDS, false)
-        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-        .addModule(new BlackbirdModule())
-        .build();
-    objectMapper.setTimeZone(TimeZone.getDefault());
-    objectMapper.setSerializationInclusion(Include.NON_DEFAULT);
-    objectMapper.setSerializerProvider(new CustomNullStringSerializerProvider());
-    objectMapper.getSerializerProvider().setNullKeySerializer(new NullKeySerializer());
-
-    tvShowObjectWriter = objectMapper.writerFor(TvShow.class);
-    tvShowObjectReader = objectMapper.readerFor(TvShow.class);
-    episodeObjectWriter = objectMapper.writerFor(TvShowEpisode.class);
-    episodeObjectReader = objectMapper.readerFor(TvShowEpisode.class);
+    // configure the database codecs
+    DatabaseFormat databaseFormat = DatabaseFormat.getConfiguredFormat();
+    tvShowCodec = new MediaEntityCodec<>(TvShow.class, databaseFormat, lazyLoading ? TvShow.LAZY_PROPERTIES : Collections.emptyList(),
+        TvShow.SUMMARY_PROPERTIES);
+    episodeCodec = new MediaEntityCodec<>(TvShowEpisode.class, databaseFormat,
+        lazyLoading ? TvShowEpisode.LAZY_PROPERTIES : Collections.emptyList());
 
     // open database
     openDatabaseAndLoadTvShows();
@@ -165,7 +173,26 @@ public final class TvShowModuleManager implements ITmmModule {
       }
     };
     databaseTimer = new Timer();
-    databaseTimer.schedule(databaseWriteTask, COMMIT_DELAY, COMMIT_DELAY);
+    databaseTimer.schedule(databaseWriteTask, WRITE_INTERVAL, WRITE_INTERVAL);
+
+    if (lazyLoading) {
+      TimerTask evictionTask = new TimerTask() {
+        @Override
+        public void run() {
+          evictIdleEntities();
+        }
+      };
+      databaseTimer.schedule(evictionTask, EVICTION_DELAY, EVICTION_DELAY);
+    }
+
+    // update the database backup in the background after startup
+    TimerTask backupTask = new TimerTask() {
+      @Override
+      public void run() {
+        createDatabaseBackup();
+      }
+    };
+    databaseTimer.schedule(backupTask, BACKUP_DELAY);
 
     try {
       TmmHttpServer.getInstance().createContext("tvshow", new TvShowCommandHandler());
@@ -175,6 +202,76 @@ public final class TvShowModuleManager implements ITmmModule {
     }
   }
 
+  /**
+   * start watching the data sources for changes (if activated in the settings). The watcher is restarted whenever the data sources or the skip
+   * folders are changed
+   */
+  public synchronized void startDatasourceWatcher() {
+    if (datasourceWatcherListener == null) {
+      datasourceWatcherListener = evt -> {
+        if (TvShowSettings.WATCH_DATASOURCES.equals(evt.getPropertyName()) || Constants.DATA_SOURCE.equals(evt.getPropertyName())
+            || TvShowSettings.SKIP_FOLDER.equals(evt.getPropertyName())) {
+          startDatasourceWatcher();
+        }
+      };
+      getSettings().addPropertyChangeListener(datasourceWatcherListener);
+    }
+
+    stopDatasourceWatcher();
+
+    if (!enabled || !getSettings().isWatchDatasources()) {
+      return;
+    }
+
+    datasourceWatcher = new DatasourceWatcher("tvshows", TvShowUpdateDatasourceTask.createSkipFolderFilter(), this::updateChangedDatasources);
+    datasourceWatcher.start(getSettings().getTvShowDataSource());
+  }
+
+  private synchronized void stopDatasourceWatcher() {
+    if (datasourceWatcher != null) {
+      datasourceWatcher.stop();
+      datasourceWatcher = null;
+    }
+  }
+
+  private void updateChangedDatasources(Map<String, Set<Path>> changes) {
+    for (Map.Entry<String, Set<Path>> entry : changes.entrySet()) {
+      // ignore our own changes (NFO files/artwork written, episodes renamed)
+      entry.getValue().removeIf(this::isKnownChange);
+      if (entry.getValue().isEmpty()) {
+        continue;
+      }
+
+      LOGGER.info("detected changes in {} folders of '{}'", entry.getValue().size(), entry.getKey());
+
+      TvShowUpdateDatasourceTask task = new TvShowUpdateDatasourceTask(entry.getKey());
+      task.setChangedPaths(entry.getValue());
+      TmmTaskManager.getInstance().addMainTask(task);
+    }
+  }
+
+  /**
+   * check whether the given changed path is already known in its current state (e.g. changed by tinyMediaManager itself)
+   */
+  private boolean isKnownChange(Path path) {
+    // the TV show in this folder or in one of its parents (season folders, extrafanart, ...)
+    Path folder = path;
+    while (folder != null) {
+      TvShow tvShow = TvShowList.getInstance().getTvShowByPath(folder);
+      if (tvShow != null) {
+        List<MediaFile> mediaFiles = new ArrayList<>(tvShow.getMediaFiles());
+        for (TvShowEpisode episode : tvShow.getEpisodes()) {
+          mediaFiles.addAll(episode.getMediaFiles());
+        }
+        return DatasourceWatcher.isKnownState(path, mediaFiles);
+      }
+      folder = folder.getParent();
+    }
+
+    // not part of any TV show: deleting has no effect, everything else may be a new TV show
+    return !Files.exists(path);
+  }
+
   /**
    * open the database<BR/>
    * 1. try to open the actual one<BR/>
@@ -209,6 +306,22 @@ public final class TvShowModuleManager implements ITmmModule {
 
     LOGGER.info("try to restore the database from the backups");
 
+    // the incremental database backup at first
+    if (databaseBackup.restore(databaseFile)) {
+      try {
+        loadDatabase(databaseFile);
+        startupMessages.add(TmmResourceBundle.getString("tvshow.loaddb.failed.restore"));
+
+        return;
+      }
+      catch (Exception e) {
+        if (mvStore != null && !mvStore.isClosed()) {
+          mvStore.close();
+        }
+        LOGGER.error("Could not open database file from backup: {}", e.getMessage());
+      }
+    }
+
     // get backups
     List<Path> backups = Utils.listFiles(Paths.get(Globals.BACKUP_FOLDER));
     backups.sort(Comparator.reverseOrder());
@@ -227,7 +340,13 @@ public final class TvShowModuleManager implements ITmmModule {
       }
 
       try {
+        Utils.deleteFileSafely(databaseFile);
         Utils.unzipFile(backup, Paths.get("/", "data", TV_SHOW_DB), databaseFile);
+        if (!Files.exists(databaseFile)) {
+          // newer backups of the data folder do not contain the database
+          continue;
+        }
+
         loadDatabase(databaseFile);
         startupMessages.add(TmmResourceBundle.getString("tvshow.loaddb.failed.restore"));
 
@@ -291,6 +410,9 @@ public final class TvShowModuleManager implements ITmmModule {
 
           tvShowMap = mvStore.openMap("tvshows");
           episodeMap = mvStore.openMap("episodes");
+          tvShowIndex = new MediaEntityIndex(mvStore, "tvShowIndex");
+          createWriteQueue();
+          DatabaseCompactionService.getInstance().register(TV_SHOW_DB, mvStore, maintenanceLock);
 
           for (TvShow tvShow : getTvShowList().getTvShows()) {
             persistTvShow(tvShow);
@@ -300,6 +422,9 @@ public final class TvShowModuleManager implements ITmmModule {
             }
           }
 
+          // the new index is empty - index all TV shows again
+          getTvShowList().updateIndex();
+
           counter = 0;
         }
       }
@@ -317,9 +442,23 @@ public final class TvShowModuleManager implements ITmmModule {
 
     tvShowMap = mvStore.openMap("tvshows");
     episodeMap = mvStore.openMap("episodes");
+    tvShowIndex = new MediaEntityIndex(mvStore, "tvShowIndex");
+    createWriteQueue();
+    DatabaseCompactionService.getInstance().register(TV_SHOW_DB, mvStore, maintenanceLock);
 
     getTvShowList().loadTvShowsFromDatabase(tvShowMap, episodeMap);
     getTvShowList().initDataAfterLoading();
+
+    // the index is only trusted at the next start if the database has been closed cleanly
+    tvShowIndex.setClean(false);
+
+    LOGGER.debug("database file '{}' - {} KiB ({})", databaseFile.getFileName(), mvStore.getFileStore().size() / 1024, tvShowCodec.getFormat());
+  }
+
+  private void createWriteQueue() {
+    writeQueue = new WriteBehindQueue("tvshows", mvStore, lock, COMMIT_DELAY);
+    writeQueue.register(TvShow.class, tvShowMap, tvShowCodec);
+    writeQueue.register(TvShowEpisode.class, episodeMap, episodeCodec);
   }
 
   @Override
@@ -330,13 +469,18 @@ public final class TvShowModuleManager implements ITmmModule {
 
     enabled = false;
 
+    stopDatasourceWatcher();
     databaseTimer.cancel();
+    DatabaseCompactionService.getInstance().unregister(TV_SHOW_DB);
 
     // write pending changes
     if (mvStore != null && !mvStore.isClosed()) {
       writePendingChanges(true);
+      tvShowIndex.setClean(true);
+      LOGGER.info("TV show database - {}", writeQueue.getStatistics());
 
-      mvStore.compactMoveChunks();
+      // the database is compacted in the background - just a bounded compaction here
+      mvStore.compactFile(MAX_COMPACT_TIME);
       mvStore.close();
     }
 
@@ -348,65 +492,111 @@ public final class TvShowModuleManager implements ITmmModule {
     }
   }
 
+  /**
+   * create/update the incremental backup of the database
+   */
+  private synchronized void createDatabaseBackup() {
+    if (!enabled || mvStore == null || mvStore.isClosed()) {
+      return;
+    }
+
+    maintenanceLock.lock();
+    try {
+      databaseBackup.backup(mvStore, lock);
+    }
+    catch (Exception e) {
+      LOGGER.warn("could not create a backup of the database - {}", e.getMessage());
+    }
+    finally {
+      maintenanceLock.unlock();
+    }
+  }
+
   private void writePendingChanges() {
     writePendingChanges(false);
   }
 
-  private synchronized void writePendingChanges(boolean force) {
-    if (force) {
-      // force write - wait until the lock is released
-      lock.writeLock().lock();
+  private void writePendingChanges(boolean force) {
+    if (mvStore == null || mvStore.isClosed()) {
+      return;
     }
-    else {
-      // lock if there is no other task running
-      if (!lock.writeLock().tryLock()) {
-        return;
-      }
+
+    writeQueue.flush(force);
+  }
+
+  /**
+   * drop the lazily loaded properties of all TV shows/episodes which have not been accessed for some time - but only if the memory is getting low
+   */
+  private void evictIdleEntities() {
+    Runtime runtime = Runtime.getRuntime();
+    long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+    if (hydratedEntities.isEmpty() || usedMemory < runtime.maxMemory() * 0.75) {
+      return;
     }
 
-    try {
-      Map<MediaEntity, Long> pending = new HashMap<>(pendingChanges);
+    // do not run while there is another task running
+    if (!lock.writeLock().tryLock()) {
+      return;
+    }
 
-      long now = System.currentTimeMillis();
+    int count = 0;
 
-      for (Map.Entry<MediaEntity, Long> entry : pending.entrySet()) {
-        if (force || entry.getValue() < (now - COMMIT_DELAY)) {
-          try {
-            if (entry.getKey() instanceof TvShow) {
-              // store TV show
-              TvShow tvShow = (TvShow) entry.getKey();
-
-              // only diffs
-              String oldValue = tvShowMap.get(tvShow.getDbId());
-              String newValue = tvShowObjectWriter.writeValueAsString(tvShow);
-              if (!StringUtils.equals(oldValue, newValue)) {
-                tvShowMap.put(tvShow.getDbId(), newValue);
-              }
-            }
-            else if (entry.getKey() instanceof TvShowEpisode) {
-              // store episode
-              TvShowEpisode episode = (TvShowEpisode) entry.getKey();
-
-              // only diffs
-              String oldValue = episodeMap.get(episode.getDbId());
-              String newValue = episodeObjectWriter.writeValueAsString(episode);
-              if (!StringUtils.equals(oldValue, newValue)) {
-                episodeMap.put(episode.getDbId(), newValue);
-              }
-            }
-          }
-          catch (Exception e) {
-            LOGGER.warn("could not store '{}' - '{}'", entry.getKey().getClass().getName(), e.getMessage());
-          }
-          finally {
-            pendingChanges.remove(entry.getKey());
-          }
+    try {
+      long threshold = System.currentTimeMillis() - EVICTION_IDLE_TIME;
+
+      for (MediaEntity entity : hydratedEntities) {
+        // never drop entities with pending changes
+        if (entity.getLastAccess() < threshold && !writeQueue.isPending(entity)) {
+          entity.dehydrate(this);
+          hydratedEntities.remove(entity);
+          count++;
         }
       }
     }
     finally {
       lock.writeLock().unlock();
     }
+
+    if (count > 0) {
+      LOGGER.debug("dropped lazy properties of {} TV shows/episodes", count);
+    }
+  }
+
+  @Override
+  public MediaEntity loadFullEntity(MediaEntity entity) throws Exception {
+    if (mvStore == null || mvStore.isClosed()) {
+      return null;
+    }
+
+    MediaEntity fullEntity = null;
+
+    if (entity instanceof TvShow) {
+      Object value = tvShowMap.get(entity.getDbId());
+      if (value != null) {
+        fullEntity = tvShowCodec.decode(value);
+      }
+    }
+    else if (entity instanceof TvShowEpisode) {
+      Object value = episodeMap.get(entity.getDbId());
+      if (value != null) {
+        fullEntity = episodeCodec.decode(value);
+      }
+    }
+
+    if (fullEntity != null) {
+      hydratedEntities.add(entity);
+    }
+
+    return fullEntity;
+  }
+
+  /**
+   * check whether the lazy loading of heavy properties is activated
+   *
+   * @return true/false
+   */
+  boolean isLazyLoading() {
+    return lazyLoading;
   }
 
   @Override
@@ -423,11 +613,11 @@ public final class TvShowModuleManager implements ITmmModule {
   public void dump(TvShow tvshow) {
     try {
       ObjectMapper mapper = new ObjectMapper();
-      ObjectNode node = mapper.readValue(tvShowMap.get(tvshow.getDbId()), ObjectNode.class);
+      ObjectNode node = (ObjectNode) tvShowCodec.toJsonNode(tvShowMap.get(tvshow.getDbId()));
 
       ArrayNode episodes = JsonNodeFactory.instance.arrayNode();
       for (TvShowEpisode ep : tvshow.getEpisodes()) {
-        ObjectNode epNode = mapper.readValue(episodeMap.get(ep.getDbId()), ObjectNode.class);
+        ObjectNode epNode = (ObjectNode) episodeCodec.toJsonNode(episodeMap.get(ep.getDbId()));
         episodes.add(epNode);
         // TODO: dump EP IDs !!!
       }
@@ -442,46 +632,23 @@ public final class TvShowModuleManager implements ITmmModule {
   }
 
   void persistTvShow(TvShow tvShow) {
-    // write movie to DB
-    try {
-      lock.writeLock().lock();
-      pendingChanges.put(tvShow, System.currentTimeMillis());
-    }
-    finally {
-      lock.writeLock().unlock();
-    }
+    // write TV show to DB
+    writeQueue.enqueue(tvShow);
   }
 
   void removeTvShowFromDb(TvShow tvShow) {
-    try {
-      lock.writeLock().lock();
-      pendingChanges.remove(tvShow);
-      tvShowMap.remove(tvShow.getDbId());
-    }
-    finally {
-      lock.writeLock().unlock();
-    }
+    writeQueue.remove(tvShow);
+    hydratedEntities.remove(tvShow);
+    tvShowIndex.remove(tvShow.getDbId());
   }
 
   void persistEpisode(TvShowEpisode episode) {
-    try {
-      lock.writeLock().lock();
-      pendingChanges.put(episode, System.currentTimeMillis());
-    }
-    finally {
-      lock.writeLock().unlock();
-    }
+    writeQueue.enqueue(episode);
   }
 
   void removeEpisodeFromDb(TvShowEpisode episode) {
-    try {
-      lock.writeLock().lock();
-      pendingChanges.remove(episode);
-      episodeMap.remove(episode.getDbId());
-    }
-    finally {
-      lock.writeLock().unlock();
-    }
+    writeQueue.remove(episode);
+    hydratedEntities.remove(episode);
   }
 
   @Override
@@ -499,11 +666,23 @@ public final class TvShowModuleManager implements ITmmModule {
     return startupMessages;
   }
 
-  public ObjectReader getTvShowObjectReader() {
-    return tvShowObjectReader;
+  /**
+   * get the persistent index of all TV shows (path, data source, provider ids)
+   *
+   * @return the {@link MediaEntityIndex} or null if the database has not been opened yet
+   */
+  MediaEntityIndex getTvShowIndex() {
+    if (mvStore == null || mvStore.isClosed()) {
+      return null;
+    }
+    return tvShowIndex;
+  }
+
+  MediaEntityCodec<TvShow> getTvShowCodec() {
+    return tvShowCodec;
   }
 
-  public ObjectReader getEpisodeObjectReader() {
-    return episodeObjectReader;
+  MediaEntityCodec<TvShowEpisode> getEpisodeCodec() {
+    return episodeCodec;
   }
 }
@@ -94,6 +94,7 @@ public final class TvShowSettings extends AbstractSettings {
   static final String                            RENAMER_SEASON_FOLDER                  = "renamerSeasonFoldername";
   static final String                            BAD_WORD                               = "badWord";
   static final String                            SKIP_FOLDER                            = "skipFolder";
+  static final String                            WATCH_DATASOURCES                      = "watchDatasources";
   static final String                            SUBTITLE_SCRAPERS                      = "subtitleScrapers";
   static final String                            NFO_FILENAME                           = "nfoFilename";
   static final String                            POSTER_FILENAME                        = "posterFilename";
@@ -216,6 +217,8 @@ public final class TvShowSettings extends AbstractSettings {
 
   // misc
   boolean                                        buildImageCacheOnImport                = true;
+  boolean                                        incrementalUpdate                      = true;
+  boolean                                        watchDatasources                       = false;
   boolean                                        syncTrakt                              = false;
   boolean                                        syncTraktCollection                    = true;
   boolean                                        syncTraktWatched                       = true;
@@ -704,6 +707,26 @@ public final class TvShowSettings extends AbstractSettings {
     firePropertyChange("buildImageCacheOnImport", oldValue, newValue);
   }
 
+  public boolean isIncrementalUpdate() {
+    return incrementalUpdate;
+  }
+
+  public void setIncrementalUpdate(boolean newValue) {
+    boolean oldValue = this.incrementalUpdate;
+    this.incrementalUpdate = newValue;
+    firePropertyChange("incrementalUpdate", oldValue, newValue);
+  }
+
+  public boolean isWatchDatasources() {
+    return watchDatasources;
+  }
+
+  public void setWatchDatasources(boolean newValue) {
+    boolean oldValue = this.watchDatasources;
+    this.watchDatasources = newValue;
+    firePropertyChange(WATCH_DATASOURCES, oldValue, newValue);
+  }
+
   public boolean isExtractArtworkFromVsmeta() {
     return extractArtworkFromVsmeta;
   }
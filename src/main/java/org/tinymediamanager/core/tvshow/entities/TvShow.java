@@ -133,6 +133,9 @@ public class TvShow extends MediaEntity implements IMediaInformation {
 
   private static final Pattern                  SEASON_NUMBER              = Pattern.compile("(?i)season([0-9]{1,4}).*");
   private static final Pattern                  SEASON_FOLDER_NUMBER       = Pattern.compile("(?i).*([0-9]{1,4}).*");
+  public static final List<String>              LAZY_PROPERTIES            = List.of(ACTORS);
+  // only needed for summaries (lazy database loading)
+  public static final List<String>              SUMMARY_PROPERTIES         = List.of("actorCount");
 
   @JsonProperty
   private int                                   runtime                    = 0;
@@ -147,6 +150,10 @@ public class TvShow extends MediaEntity implements IMediaInformation {
   private MediaCertification                    certification              = MediaCertification.UNKNOWN;
   @JsonProperty
   private String                                country                    = "";
+  // the amount of actors is part of the summary: isScraped() must not load the lazy actors (-1 = unknown in older databases); only written
+  // with lazy database loading
+  @JsonProperty
+  private int                                   actorCount                 = -1;
 
   @JsonProperty
   private final List<MediaGenres>               genres                     = new CopyOnWriteArrayList<>();
@@ -161,7 +168,7 @@ public class TvShow extends MediaEntity implements IMediaInformation {
   @JsonProperty
   private final Map<Integer, String>            seasonThumbUrlMap          = new HashMap<>(0);
   @JsonProperty
-  private final List<Person>                    actors                     = new CopyOnWriteArrayList<>();
+  private List<Person>                          actors                     = new CopyOnWriteArrayList<>();
   @JsonProperty
   private final List<TvShowEpisode>             dummyEpisodes              = new CopyOnWriteArrayList<>();
   @JsonProperty
@@ -440,6 +447,22 @@ public class TvShow extends MediaEntity implements IMediaInformation {
     }
   }
 
+  @Override
+  protected void copyLazyProperties(MediaEntity source) {
+    if (!(source instanceof TvShow)) {
+      return;
+    }
+
+    TvShow other = (TvShow) source;
+    actors = new CopyOnWriteArrayList<>(other.actors);
+    actorCount = actors.size();
+  }
+
+  @Override
+  protected void clearLazyProperties() {
+    actors = new CopyOnWriteArrayList<>();
+  }
+
   @Override
   public void addToMediaFiles(MediaFile mediaFile) {
     super.addToMediaFiles(mediaFile);
@@ -1447,6 +1470,7 @@ public class TvShow extends MediaEntity implements IMediaInformation {
    *          a {@link Collection} of all actors to be added
    */
   public void addToActors(Collection<Person> newActors) {
+    hydrate();
     Set<Person> newItems = new LinkedHashSet<>();
 
     // do not accept duplicates or null values
@@ -1466,6 +1490,7 @@ public class TvShow extends MediaEntity implements IMediaInformation {
     }
 
     actors.addAll(newItems);
+    actorCount = actors.size();
     firePropertyChange(ACTORS, null, actors);
   }
 
@@ -1475,6 +1500,7 @@ public class TvShow extends MediaEntity implements IMediaInformation {
    * @return the actors
    */
   public List<Person> getActors() {
+    hydrate();
     return this.actors;
   }
 
@@ -1482,7 +1508,9 @@ public class TvShow extends MediaEntity implements IMediaInformation {
    * Removes all actors.
    */
   public void removeActors() {
+    hydrate();
     actors.clear();
+    actorCount = 0;
     firePropertyChange(ACTORS, null, this.getActors());
   }
 
@@ -1494,8 +1522,10 @@ public class TvShow extends MediaEntity implements IMediaInformation {
    */
   @JsonSetter
   public void setActors(List<Person> newActors) {
+    hydrate();
     // two way sync of actors
     mergePersons(actors, newActors);
+    actorCount = actors.size();
     firePropertyChange(ACTORS, null, this.getActors());
   }
 
@@ -2225,13 +2255,25 @@ public class TvShow extends MediaEntity implements IMediaInformation {
   @Override
   public boolean isScraped() {
     if (!scraped) {
-      if (StringUtils.isNotBlank(plot) && year > 0 && ListUtils.isNotEmpty(genres) && ListUtils.isNotEmpty(actors)) {
+      if (StringUtils.isNotBlank(plot) && year > 0 && ListUtils.isNotEmpty(genres) && hasActors()) {
         return true;
       }
     }
     return scraped;
   }
 
+  /**
+   * checks whether this TV show has any actors - without loading the lazy actors if the amount is known
+   *
+   * @return true/false
+   */
+  private boolean hasActors() {
+    if (isHydrated() || actorCount < 0) {
+      return ListUtils.isNotEmpty(getActors());
+    }
+    return actorCount > 0;
+  }
+
   /**
    * Write actor images.
    */
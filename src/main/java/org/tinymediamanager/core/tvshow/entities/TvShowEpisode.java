@@ -123,6 +123,7 @@ import com.fasterxml.jackson.annotation.JsonSetter;
 public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpisode>, IMediaInformation {
   private static final Logger                LOGGER                = LoggerFactory.getLogger(TvShowEpisode.class);
   private static final Comparator<MediaFile> MEDIA_FILE_COMPARATOR = new TvShowMediaFileComparator();
+  public static final List<String>           LAZY_PROPERTIES       = List.of(ACTORS, DIRECTORS, WRITERS);
 
   @JsonProperty
   @JsonInclude
@@ -163,11 +164,11 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
   private boolean                            stacked               = false;
 
   @JsonProperty
-  private final List<Person>                 actors                = new CopyOnWriteArrayList<>();
+  private List<Person>                       actors                = new CopyOnWriteArrayList<>();
   @JsonProperty
-  private final List<Person>                 directors             = new CopyOnWriteArrayList<>();
+  private List<Person>                       directors             = new CopyOnWriteArrayList<>();
   @JsonProperty
-  private final List<Person>                 writers               = new CopyOnWriteArrayList<>();
+  private List<Person>                       writers               = new CopyOnWriteArrayList<>();
 
   private TvShow                             tvShow                = null;
   private String                             titleSortable         = "";
@@ -272,6 +273,25 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
     setWriters(other.writers);
   }
 
+  @Override
+  protected void copyLazyProperties(MediaEntity source) {
+    if (!(source instanceof TvShowEpisode)) {
+      return;
+    }
+
+    TvShowEpisode other = (TvShowEpisode) source;
+    actors = new CopyOnWriteArrayList<>(other.actors);
+    directors = new CopyOnWriteArrayList<>(other.directors);
+    writers = new CopyOnWriteArrayList<>(other.writers);
+  }
+
+  @Override
+  protected void clearLazyProperties() {
+    actors = new CopyOnWriteArrayList<>();
+    directors = new CopyOnWriteArrayList<>();
+    writers = new CopyOnWriteArrayList<>();
+  }
+
   @Override
   protected Comparator<MediaFile> getMediaFileComparator() {
     return MEDIA_FILE_COMPARATOR;
@@ -304,6 +324,8 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    *          the source episode
    */
   public TvShowEpisode(TvShowEpisode source) {
+    source.hydrate();
+
     // the reference to the tv show and the media files are the only things we don't
     // copy
     tvShow = source.tvShow;
@@ -916,6 +938,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    *          a {@link Collection} of all actors to be added
    */
   public void addToActors(Collection<Person> newActors) {
+    hydrate();
     Set<Person> newItems = new LinkedHashSet<>();
 
     // do not accept duplicates or null values
@@ -942,6 +965,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    * remove all actors.
    */
   public void removeActors() {
+    hydrate();
     actors.clear();
     firePropertyChange(ACTORS, null, this.getActors());
   }
@@ -952,6 +976,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    * @return the actors of this episode
    */
   public List<Person> getActors() {
+    hydrate();
     return actors;
   }
 
@@ -963,6 +988,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    */
   @JsonSetter
   public void setActors(List<Person> newActors) {
+    hydrate();
     // two way sync of actors
     mergePersons(actors, newActors);
     firePropertyChange(ACTORS, null, this.getActors());
@@ -975,6 +1001,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    *          a {@link Collection} of directors to be added
    */
   public void addToDirectors(Collection<Person> newDirectors) {
+    hydrate();
     Set<Person> newItems = new LinkedHashSet<>();
 
     // do not accept duplicates or null values
@@ -1002,6 +1029,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    * remove the all directors.
    */
   public void removeDirectors() {
+    hydrate();
     directors.clear();
     firePropertyChange(DIRECTORS, null, this.getDirectors());
     firePropertyChange(DIRECTORS_AS_STRING, null, this.getDirectorsAsString());
@@ -1015,6 +1043,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    */
   @JsonSetter
   public void setDirectors(List<Person> newDirectors) {
+    hydrate();
     // two way sync of directors
     mergePersons(directors, newDirectors);
 
@@ -1028,6 +1057,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    * @return the directors
    */
   public List<Person> getDirectors() {
+    hydrate();
     return directors;
   }
 
@@ -1037,6 +1067,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    * @return a string containing all directors; separated by ,
    */
   public String getDirectorsAsString() {
+    hydrate();
     List<String> directorNames = new ArrayList<>();
     for (Person director : directors) {
       directorNames.add(director.getName());
@@ -1051,6 +1082,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    *          a {@link Collection} of the writers to be added
    */
   public void addToWriters(Collection<Person> newWriters) {
+    hydrate();
     Set<Person> newItems = new LinkedHashSet<>();
 
     // do not accept duplicates or null values
@@ -1078,6 +1110,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    * remove all writers.
    */
   public void removeWriters() {
+    hydrate();
     writers.clear();
     firePropertyChange(WRITERS, null, this.getWriters());
     firePropertyChange(WRITERS_AS_STRING, null, this.getWritersAsString());
@@ -1091,6 +1124,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    */
   @JsonSetter
   public void setWriters(List<Person> newWriters) {
+    hydrate();
     // two way sync of writers
     mergePersons(writers, newWriters);
 
@@ -1104,6 +1138,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    * @return the writers
    */
   public List<Person> getWriters() {
+    hydrate();
     return writers;
   }
 
@@ -1113,6 +1148,7 @@ public class TvShowEpisode extends MediaEntity implements Comparable<TvShowEpiso
    * @return a string containing all writers; separated by ,
    */
   public String getWritersAsString() {
+    hydrate();
     List<String> writerNames = new ArrayList<>();
     for (Person writer : writers) {
       writerNames.add(writer.getName());
@@ -112,6 +112,9 @@ public class TvShowEpisodeScrapeTask extends TmmTask {
         options.setId(MediaMetadata.EPISODE_NR, String.valueOf(episode.getAiredEpisode()));
       }
 
+      // collect all changes of the scrape and notify the listeners at once
+      episode.beginEdit();
+
       try {
         LOGGER.info("=====================================================");
         LOGGER.info("Scrape metadata with scraper: {}", mediaScraper.getMediaProvider().getProviderInfo().getId());
@@ -152,6 +155,9 @@ public class TvShowEpisodeScrapeTask extends TmmTask {
         MessageManager.instance.pushMessage(
             new Message(Message.MessageLevel.ERROR, episode, "message.scrape.metadataepisodefailed", new String[] { ":", e.getLocalizedMessage() }));
       }
+      finally {
+        episode.commitEdit();
+      }
     }
 
     if (TvShowModuleManager.getInstance().getSettings().getSyncTrakt()) {
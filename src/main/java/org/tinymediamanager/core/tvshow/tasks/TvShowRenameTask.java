@@ -103,7 +103,13 @@ public class TvShowRenameTask extends TmmThreadPool {
           if (cancel) {
             break;
           }
-          TvShowRenamer.renameTvShow(aTvShowsToRename); // rename root and artwork and update ShowMFs
+          aTvShowsToRename.beginEdit();
+          try {
+            TvShowRenamer.renameTvShow(aTvShowsToRename); // rename root and artwork and update ShowMFs
+          }
+          finally {
+            aTvShowsToRename.commitEdit();
+          }
         }
       }
 
@@ -127,7 +133,14 @@ public class TvShowRenameTask extends TmmThreadPool {
 
     @Override
     public String call() {
-      TvShowRenamer.renameEpisode(episode);
+      // collect all changes of the renamer and notify the listeners at once
+      episode.beginEdit();
+      try {
+        TvShowRenamer.renameEpisode(episode);
+      }
+      finally {
+        episode.commitEdit();
+      }
       return episode.getTitle();
     }
   }
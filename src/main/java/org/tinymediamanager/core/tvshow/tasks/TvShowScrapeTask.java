@@ -125,6 +125,9 @@ public class TvShowScrapeTask extends TmmThreadPool {
 
     @Override
     public void run() {
+      // collect all changes of the scrape and notify the listeners at once
+      tvShow.beginEdit();
+
       try {
         // set up scrapers
         MediaScraper mediaMetadataScraper = tvShowScrapeParams.scrapeOptions.getMetadataScraper();
@@ -301,6 +304,9 @@ public class TvShowScrapeTask extends TmmThreadPool {
         MessageManager.instance.pushMessage(
             new Message(MessageLevel.ERROR, "TvShowScraper", "message.scrape.threadcrashed", new String[] { ":", e.getLocalizedMessage() }));
       }
+      finally {
+        tvShow.commitEdit();
+      }
     }
 
     /**
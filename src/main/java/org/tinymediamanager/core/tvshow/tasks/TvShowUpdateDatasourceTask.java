@@ -30,13 +30,16 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -49,6 +52,7 @@ import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.core.AbstractFileVisitor;
+import org.tinymediamanager.core.FileAttributeCache;
 import org.tinymediamanager.core.ImageCache;
 import org.tinymediamanager.core.MediaFileHelper;
 import org.tinymediamanager.core.MediaFileType;
@@ -56,11 +60,16 @@ import org.tinymediamanager.core.MediaSource;
 import org.tinymediamanager.core.Message;
 import org.tinymediamanager.core.Message.MessageLevel;
 import org.tinymediamanager.core.MessageManager;
+import org.tinymediamanager.core.ParallelFileWalker;
 import org.tinymediamanager.core.Settings;
 import org.tinymediamanager.core.TmmResourceBundle;
 import org.tinymediamanager.core.Utils;
+import org.tinymediamanager.core.entities.MediaEntity;
 import org.tinymediamanager.core.entities.MediaFile;
+import org.tinymediamanager.core.tasks.DatasourceManifest;
 import org.tinymediamanager.core.tasks.MediaFileInformationFetcherTask;
+import org.tinymediamanager.core.tasks.MediaInfoScheduler;
+import org.tinymediamanager.core.tasks.ScanCheckpoint;
 import org.tinymediamanager.core.threading.TmmTaskManager;
 import org.tinymediamanager.core.threading.TmmThreadPool;
 import org.tinymediamanager.core.tvshow.TvShowArtworkHelper;
@@ -87,27 +96,35 @@ import org.tinymediamanager.thirdparty.trakttv.TvShowSyncTraktTvTask;
  */
 
 public class TvShowUpdateDatasourceTask extends TmmThreadPool {
-  private static final Logger          LOGGER        = LoggerFactory.getLogger(TvShowUpdateDatasourceTask.class);
+  private static final Logger               LOGGER             = LoggerFactory.getLogger(TvShowUpdateDatasourceTask.class);
 
   // skip well-known, but unneeded folders (UPPERCASE)
-  private static final List<String>    SKIP_FOLDERS  = Arrays.asList(".", "..", "CERTIFICATE", "$RECYCLE.BIN", "RECYCLER",
+  private static final List<String>         SKIP_FOLDERS       = Arrays.asList(".", "..", "CERTIFICATE", "$RECYCLE.BIN", "RECYCLER",
       "SYSTEM VOLUME INFORMATION", "@EADIR", "ADV_OBJ", "EXTRAS", "EXTRA", "EXTRATHUMB", "PLEX VERSIONS");
 
   // skip folders starting with a SINGLE "." or "._"
-  private static final String          SKIP_REGEX    = "^[.][\\w@]+.*";
+  private static final String               SKIP_REGEX         = "^[.][\\w@]+.*";
 
-  private static final Pattern         seasonNumber  = Pattern.compile("(?i)season([0-9]{1,4}).*");
+  private static final Pattern              seasonNumber       = Pattern.compile("(?i)season([0-9]{1,4}).*");
 
-  private static long                  preDir        = 0;
-  private static long                  postDir       = 0;
-  private static long                  visFile       = 0;
+  private static long                       preDir             = 0;
+  private static long                       postDir            = 0;
+  private static long                       visFile            = 0;
 
-  private final List<String>           dataSources;
-  private final List<String>           skipFolders;
-  private final List<Path>             tvShowFolders = new ArrayList<>();
-  private final TvShowList             tvShowList;
-  private final Set<Path>              filesFound    = new HashSet<>();
-  private final ReentrantReadWriteLock fileLock      = new ReentrantReadWriteLock();
+  private final List<String>                dataSources;
+  private final List<String>                skipFolders;
+  private final List<Path>                  tvShowFolders      = new ArrayList<>();
+  private final TvShowList                  tvShowList;
+  private final Set<Path>                   filesFound         = new HashSet<>();
+  private final ReentrantReadWriteLock      fileLock           = new ReentrantReadWriteLock();
+  private final Map<String, ScanCheckpoint> checkpoints        = new HashMap<>();
+  // all probed file attributes are cached while scanning
+  private final FileAttributeCache          attributeCache     = new FileAttributeCache();
+  // the TV shows in the folders which have been skipped (unchanged since the last update)
+  private final Set<TvShow>                 unchangedTvShows   = new HashSet<>();
+
+  private Set<Path>                         changedPaths       = null;
+  private MediaInfoScheduler                mediaInfoScheduler = null;
 
   /**
    * Instantiates a new scrape task - to update all datasources
@@ -161,6 +178,20 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
     this.tvShowFolders.addAll(tvShowFolders);
   }
 
+  /**
+   * set the paths which have been changed since the last update (reported by the {@link org.tinymediamanager.core.DatasourceWatcher}). All other
+   * folders of the data sources are taken from the manifest of the last update without checking them again
+   *
+   * @param changedPaths
+   *          all changed paths
+   */
+  public void setChangedPaths(Collection<Path> changedPaths) {
+    this.changedPaths = new HashSet<>();
+    for (Path path : changedPaths) {
+      this.changedPaths.add(path.toAbsolutePath());
+    }
+  }
+
   @Override
   public void doInBackground() {
     // check if there is at least one DS to update
@@ -216,6 +247,10 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
           }
           publishState();
 
+          // the manifest of the last update - to skip unchanged folders
+          DatasourceManifest manifest = DatasourceManifest.load("tvshows", ds, getManifestFingerprint());
+          Map<Path, TvShow> tvShowsByFolder = getTvShowsByFolder(ds);
+
           List<Path> newTvShowDirs = new ArrayList<>();
           List<Path> existingTvShowDirs = new ArrayList<>();
           List<Path> rootList = listFilesAndDirs(dsAsPath);
@@ -231,13 +266,13 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
           }
 
           for (Path path : rootList) {
-            if (Files.isDirectory(path)) {
+            if (attributeCache.isDirectory(path)) {
 
               // additional datasource/A/show sub dirs!
               if (path.getFileName().toString().length() == 1) {
                 List<Path> subList = listFilesAndDirs(path);
                 for (Path sub : subList) {
-                  if (Files.isDirectory(sub)) {
+                  if (attributeCache.isDirectory(sub)) {
                     if (existing.contains(sub)) {
                       existingTvShowDirs.add(sub);
                     }
@@ -268,12 +303,39 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
             }
           }
 
-          for (Path subdir : newTvShowDirs) {
-            submitTask(new FindTvShowTask(subdir, dsAsPath.toAbsolutePath()));
+          List<Path> roots = new ArrayList<>(newTvShowDirs);
+          roots.addAll(existingTvShowDirs);
+
+          // the progress is written periodically to resume an interrupted update
+          ScanCheckpoint checkpoint = new ScanCheckpoint(manifest, roots, () -> cancel);
+          checkpoints.put(ds, checkpoint);
+
+          int skippedDirs = 0;
+          int resumedDirs = 0;
+          // a full update (incremental update disabled) does not resume an interrupted update either
+          boolean incrementalUpdate = TvShowModuleManager.getInstance().getSettings().isIncrementalUpdate();
+          for (Path subdir : roots) {
+            if (incrementalUpdate && checkpoint.isCompleted(subdir)) {
+              // already done by the interrupted update
+              addFilesFound(subdir, tvShowsByFolder.get(subdir));
+              resumedDirs++;
+              continue;
+            }
+            if (isUnchanged(manifest, subdir, tvShowsByFolder.get(subdir))) {
+              skippedDirs++;
+              continue;
+            }
+
+            // the whole folder is processed by this task
+            checkpoint.startFolder(subdir);
+            submitTask(checkpoint.track(subdir, new FindTvShowTask(subdir, dsAsPath.toAbsolutePath(), manifest)));
+            checkpoint.finishFolder(subdir, false);
           }
-          for (Path subdir : existingTvShowDirs) {
-            submitTask(new FindTvShowTask(subdir, dsAsPath.toAbsolutePath()));
+          LOGGER.info("skipped {} unchanged folders", skippedDirs);
+          if (resumedDirs > 0) {
+            LOGGER.info("skipped {} folders which have been completed by the last (interrupted) update", resumedDirs);
           }
+
           waitForCompletionOrCancel();
 
           // print stats
@@ -285,14 +347,24 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
           LOGGER.debug("VisFile: {}", visFile);
 
           if (cancel) {
+            checkpoint.save();
             break;
           }
 
           cleanupDatasource(ds);
           waitForCompletionOrCancel();
           if (cancel) {
+            checkpoint.save();
             break;
           }
+
+          // remember the current state of the data source for the next update
+          checkpoint.finishScan();
+          tvShowsByFolder = getTvShowsByFolder(ds);
+          for (Path path : roots) {
+            manifest.setEntityCount(path, getEntityCount(tvShowsByFolder.get(path)));
+          }
+          manifest.save(roots);
         } // end foreach datasource
       }
       else {
@@ -309,7 +381,7 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
                 new String[] { path.toAbsolutePath().toString() }));
             continue;
           }
-          submitTask(new FindTvShowTask(path, path.getParent().toAbsolutePath()));
+          submitTask(new FindTvShowTask(path, path.getParent().toAbsolutePath(), null));
         }
         waitForCompletionOrCancel();
 
@@ -339,6 +411,7 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
       LOGGER.info("getting Mediainfo...");
 
       initThreadPool(1, "mediainfo");
+      mediaInfoScheduler = new MediaInfoScheduler();
       setTaskName(TmmResourceBundle.getString("update.mediainfo"));
       setTaskDescription(null);
       setProgressDone(0);
@@ -352,7 +425,7 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
             }
             TvShow tvShow = tvShowList.getTvShows().get(i);
             if (dataSources.contains(tvShow.getDataSource())) {
-              gatherMediaInformationForUngatheredMediaFiles(tvShow);
+              gatherMediaInformationForUngatheredMediaFiles(tvShow, checkpoints.get(tvShow.getDataSource()));
             }
           }
         }
@@ -364,11 +437,16 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
             }
             TvShow tvShow = tvShowList.getTvShows().get(i);
             if (tvShowFolders.contains(tvShow.getPathNIO())) {
-              gatherMediaInformationForUngatheredMediaFiles(tvShow);
+              gatherMediaInformationForUngatheredMediaFiles(tvShow, null);
             }
           }
         }
         waitForCompletionOrCancel();
+
+        // remember the MediaInfo which is still pending
+        for (ScanCheckpoint checkpoint : checkpoints.values()) {
+          checkpoint.save();
+        }
       }
 
       if (cancel) {
@@ -395,6 +473,117 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
       LOGGER.error("Thread crashed", e);
       MessageManager.instance.pushMessage(new Message(MessageLevel.ERROR, "update.datasource", "message.update.threadcrashed"));
     }
+    finally {
+      LOGGER.info("the file attribute cache saved {} stat calls", attributeCache.getSavedStatCalls());
+      attributeCache.clear();
+    }
+  }
+
+  /**
+   * get a fingerprint of all settings which influence the scan of the data sources
+   *
+   * @return the fingerprint
+   */
+  private String getManifestFingerprint() {
+    return String.join("|", skipFolders) + "#" + String.join("|", Settings.getInstance().getVideoFileType());
+  }
+
+  /**
+   * get all TV shows of the given data source by their folder
+   *
+   * @param datasource
+   *          the data source
+   * @return a map of all TV show folders to their TV shows
+   */
+  private Map<Path, TvShow> getTvShowsByFolder(String datasource) {
+    Path dsAsPath = Paths.get(datasource).toAbsolutePath();
+    Map<Path, TvShow> tvShowsByFolder = new HashMap<>();
+
+    for (TvShow tvShow : tvShowList.getTvShows()) {
+      if (dsAsPath.equals(Paths.get(tvShow.getDataSource()).toAbsolutePath())) {
+        tvShowsByFolder.put(tvShow.getPathNIO().toAbsolutePath(), tvShow);
+      }
+    }
+
+    return tvShowsByFolder;
+  }
+
+  /**
+   * the amount of media entities (the TV show itself and its episodes) to detect changes in the database
+   */
+  private int getEntityCount(TvShow tvShow) {
+    return tvShow == null ? 0 : 1 + tvShow.getEpisodes().size();
+  }
+
+  /**
+   * check if the given TV show folder is unchanged since the last update. If so, the files of the TV show and its episodes are marked as found
+   *
+   * @param manifest
+   *          the manifest of the last update
+   * @param folder
+   *          the TV show folder
+   * @param tvShow
+   *          the TV show in this folder (or null)
+   * @return true if the folder does not need to be scanned
+   */
+  private boolean isUnchanged(DatasourceManifest manifest, Path folder, TvShow tvShow) {
+    // an update triggered by the watcher only scans the reported paths - regardless of the incremental update setting
+    if (changedPaths == null && !TvShowModuleManager.getInstance().getSettings().isIncrementalUpdate()) {
+      return false;
+    }
+
+    // TV show/episodes have been added/removed in the meantime
+    if (manifest.getEntityCount(folder) != getEntityCount(tvShow)) {
+      manifest.invalidate(folder);
+      return false;
+    }
+
+    Path absolutePath = folder.toAbsolutePath();
+    if (changedPaths != null && !changedPaths.contains(absolutePath.getParent())) {
+      // all changes have been reported by the watcher - only the reported folders have to be scanned
+      if (changedPaths.stream().anyMatch(path -> path.startsWith(absolutePath))) {
+        manifest.invalidate(folder);
+        return false;
+      }
+    }
+    else if (!manifest.isUnchanged(folder)) {
+      manifest.invalidate(folder);
+      return false;
+    }
+
+    addFilesFound(folder, tvShow);
+    if (tvShow != null) {
+      unchangedTvShows.add(tvShow);
+    }
+    return true;
+  }
+
+  /**
+   * add all files of the given TV show to the found files (to keep them in the cleanup)
+   *
+   * @param folder
+   *          the folder of the TV show
+   * @param tvShow
+   *          the TV show (or null)
+   */
+  private void addFilesFound(Path folder, TvShow tvShow) {
+    if (tvShow != null) {
+      fileLock.writeLock().lock();
+      try {
+        filesFound.add(folder);
+        for (MediaFile mf : tvShow.getMediaFiles()) {
+          filesFound.add(mf.getFileAsPath());
+        }
+        for (TvShowEpisode episode : tvShow.getEpisodes()) {
+          for (MediaFile mf : episode.getMediaFiles()) {
+            filesFound.add(mf.getFileAsPath());
+          }
+        }
+      }
+      finally {
+        fileLock.writeLock().unlock();
+      }
+    }
   }
 
   private void cleanupShows() {
@@ -416,7 +605,7 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
         continue;
       }
 
-      if (!Files.exists(tvShow.getPathNIO())) {
+      if (!attributeCache.exists(tvShow.getPathNIO())) {
         tvShowList.removeTvShow(tvShow);
       }
       else {
@@ -444,7 +633,7 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
         continue;
       }
 
-      if (!Files.exists(tvShow.getPathNIO())) {
+      if (!attributeCache.exists(tvShow.getPathNIO())) {
         tvShowList.removeTvShow(tvShow);
       }
       else {
@@ -512,18 +701,22 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
   /*
    * detect which mediafiles has to be parsed and start a thread to do that
    */
-  private void gatherMediaInformationForUngatheredMediaFiles(TvShow tvShow) {
+  private void gatherMediaInformationForUngatheredMediaFiles(TvShow tvShow, ScanCheckpoint checkpoint) {
     boolean dirty = false;
+    // the folder has not been walked (unchanged since the last update) - no need to check the files again
+    boolean unchanged = unchangedTvShows.contains(tvShow);
+
     // get mediainfo for tv show (fanart/poster..)
     for (MediaFile mf : tvShow.getMediaFiles()) {
       if (StringUtils.isBlank(mf.getContainerFormat())) {
-        submitTask(new MediaFileInformationFetcherTask(mf, tvShow, false));
+        submitMediaInfoTask(checkpoint, mf, tvShow, false);
       }
-      else {
+      else if (!unchanged || isMediaInfoPending(checkpoint, mf)) {
         // at least update the file dates
-        if (MediaFileHelper.gatherFileInformation(mf)) {
+        // (or the MediaInfo of the file has not been fetched by the interrupted update)
+        if (MediaFileHelper.gatherFileInformation(mf, attributeCache) || isMediaInfoPending(checkpoint, mf)) {
           // okay, something changed with that movie file - force fetching mediainfo
-          submitTask(new MediaFileInformationFetcherTask(mf, tvShow, true));
+          submitMediaInfoTask(checkpoint, mf, tvShow, true);
         }
         dirty = true;
       }
@@ -539,13 +732,14 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
       dirty = false;
       for (MediaFile mf : episode.getMediaFiles()) {
         if (StringUtils.isBlank(mf.getContainerFormat())) {
-          submitTask(new MediaFileInformationFetcherTask(mf, episode, false));
+          submitMediaInfoTask(checkpoint, mf, episode, false);
         }
-        else {
+        else if (!unchanged || isMediaInfoPending(checkpoint, mf)) {
           // at least update the file dates
-          if (MediaFileHelper.gatherFileInformation(mf)) {
+          // (or the MediaInfo of the file has not been fetched by the interrupted update)
+          if (MediaFileHelper.gatherFileInformation(mf, attributeCache) || isMediaInfoPending(checkpoint, mf)) {
             // okay, something changed with that movie file - force fetching mediainfo
-            submitTask(new MediaFileInformationFetcherTask(mf, episode, true));
+            submitMediaInfoTask(checkpoint, mf, episode, true);
           }
           dirty = true;
         }
@@ -558,15 +752,32 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
     }
   }
 
+  private static boolean isMediaInfoPending(ScanCheckpoint checkpoint, MediaFile mf) {
+    // the MediaInfo of the file has not been fetched by the interrupted update
+    return checkpoint != null && checkpoint.isMediaInfoPending(mf.getFileAsPath());
+  }
+
+  private void submitMediaInfoTask(ScanCheckpoint checkpoint, MediaFile mf, MediaEntity mediaEntity, boolean force) {
+    Runnable task = new MediaFileInformationFetcherTask(mf, mediaEntity, force);
+    if (checkpoint != null) {
+      task = checkpoint.trackMediaInfo(mf.getFileAsPath(), task);
+    }
+
+    // the thread pool grows with every device the files are stored on
+    submitTask(mediaInfoScheduler.schedule(mf.getFileAsPath(), mediaEntity, task));
+    setThreadPoolSize(mediaInfoScheduler.getThreadCount());
+  }
+
   /**
    * The Class FindTvShowTask.
    * 
    * @author Manuel Laggner
    */
   private class FindTvShowTask implements Callable<Object> {
-    private final Path showDir;
-    private final Path datasource;
-    private final long uniqueId;
+    private final Path                        showDir;
+    private final Path                        datasource;
+    private final long                        uniqueId;
+    private final DatasourceManifest.Recorder recorder;
 
     /**
      * Instantiates a new find tv show task.
@@ -575,11 +786,14 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
      *          the subdir
      * @param datasource
      *          the datasource
+     * @param manifest
+     *          the manifest to record the folders in (or null)
      */
-    public FindTvShowTask(Path showDir, Path datasource) {
+    public FindTvShowTask(Path showDir, Path datasource, DatasourceManifest manifest) {
       this.showDir = showDir;
       this.datasource = datasource;
       this.uniqueId = TmmTaskManager.getInstance().GLOB_THRD_CNT.incrementAndGet();
+      this.recorder = manifest != null ? manifest.newRecorder() : null;
     }
 
     @Override
@@ -599,6 +813,7 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
       Set<Path> allFiles = getAllFilesRecursive(showDir, Integer.MAX_VALUE);
       if (allFiles == null || allFiles.isEmpty()) {
         LOGGER.info("skip empty directory: {}", showDir);
+        commitRecorder();
         return "";
       }
 
@@ -635,6 +850,7 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
 
       if (getMediaFiles(mfs, MediaFileType.VIDEO).isEmpty()) {
         LOGGER.info("no video file found in directory {}", showDir);
+        commitRecorder();
         return "";
       }
 
@@ -645,6 +861,7 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
 
       if (tvShow != null && tvShow.isLocked()) {
         LOGGER.info("TV show '{}' found in uds, but is locked", tvShow.getPath());
+        commitRecorder();
         return "";
       }
 
@@ -652,7 +869,7 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
       MediaFile showNFO = new MediaFile(showDir.resolve("tvshow.nfo"), MediaFileType.NFO); // fixate
       if (tvShow == null) {
         // tvShow did not exist - try to parse a NFO file in parent folder
-        if (Files.exists(showNFO.getFileAsPath())) {
+        if (attributeCache.exists(showNFO.getFileAsPath())) {
           try {
             TvShowNfoParser parser = TvShowNfoParser.parseNfo(showNFO.getFileAsPath());
             tvShow = parser.toTvShow();
@@ -684,7 +901,7 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
         }
 
         // was NFO, but parsing exception. try to find at least imdb id within
-        if ((tvShow.getImdbId().isEmpty() || tvShow.getTmdbId() == 0) && Files.exists(showNFO.getFileAsPath())) {
+        if ((tvShow.getImdbId().isEmpty() || tvShow.getTmdbId() == 0) && attributeCache.exists(showNFO.getFileAsPath())) {
           try {
             String content = Utils.readFileToString(showNFO.getFileAsPath());
             String imdb = ParserUtils.detectImdbId(content);
@@ -1149,10 +1366,20 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
       }
 
       tvShow.saveToDb();
+      commitRecorder();
 
       return showDir.getFileName().toString();
     }
 
+    /**
+     * add the recorded folders to the manifest - only if the TV show folder has been processed completely
+     */
+    private void commitRecorder() {
+      if (recorder != null && !cancel) {
+        recorder.commit();
+      }
+    }
+
     /**
      * gets mediaFile of specific type
      *
@@ -1239,9 +1466,11 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
      */
     private Set<Path> getAllFilesRecursive(Path path, int deep) {
       Path folder = path.toAbsolutePath();
-      AllFilesRecursive visitor = new AllFilesRecursive(skipFolders);
+      AllFilesRecursive visitor = new AllFilesRecursive(skipFolders, recorder, attributeCache);
       try {
-        Files.walkFileTree(folder, EnumSet.of(FileVisitOption.FOLLOW_LINKS), deep, visitor);
+        // skip folders and sub folders of disc folders are not listed at all
+        ParallelFileWalker.walkFileTree(folder, deep, visitor, attributeCache,
+            dir -> isSkipFolderByPath(dir, skipFolders) || isInDiscFolder(dir));
       }
       catch (IOException e) {
         // can not happen, since we've overridden visitFileFailed, which throws no exception ;)
@@ -1267,8 +1496,10 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
    */
   private List<Path> listFilesAndDirs(Path directory) {
     List<Path> fileNames = new ArrayList<>();
+    List<Path> entries = new ArrayList<>();
     try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
       for (Path path : directoryStream) {
+        entries.add(path);
         String fn = path.getFileName().toString().toUpperCase(Locale.ROOT);
         if (!SKIP_FOLDERS.contains(fn) && !fn.matches(SKIP_REGEX) && !skipFolders.contains(path.toFile().getAbsolutePath())) {
           fileNames.add(path.toAbsolutePath());
@@ -1277,6 +1508,7 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
           LOGGER.debug("Skipping: {}", path);
         }
       }
+      attributeCache.putListing(directory, entries);
     }
     catch (IOException e) {
       LOGGER.error("error on listFilesAndDirs", e);
@@ -1317,17 +1549,73 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
     return fileNames;
   }
 
+  /**
+   * create a filter for all folders which are skipped by the update (skip folders, .tmmignore, ...)
+   *
+   * @return the filter for the skipped folders
+   */
+  public static Predicate<Path> createSkipFolderFilter() {
+    List<String> skipFolders = new ArrayList<>(TvShowModuleManager.getInstance().getSettings().getSkipFolder());
+    return dir -> isSkipFolder(dir, skipFolders, null);
+  }
+
+  private static boolean isSkipFolder(Path dir, List<String> skipFolders, FileAttributeCache attributeCache) {
+    // getFilename returns null on DS root!
+    return isSkipFolderByPath(dir, skipFolders) || (dir.getFileName() != null && containsSkipFile(dir, attributeCache));
+  }
+
+  /**
+   * check if the given folder is a skip folder by its path (without looking at its content)
+   */
+  private static boolean isSkipFolderByPath(Path dir, List<String> skipFolders) {
+    // getFilename returns null on DS root!
+    return dir.getFileName() != null
+        && (SKIP_FOLDERS.contains(dir.getFileName().toString().toUpperCase(Locale.ROOT)) || dir.getFileName().toString().matches(SKIP_REGEX))
+        || skipFolders.contains(dir.toFile().getAbsolutePath());
+  }
+
+  /**
+   * check if the given folder is a sub folder of a disc folder
+   */
+  private static boolean isInDiscFolder(Path dir) {
+    return dir.getParent() != null && dir.getParent().getFileName() != null && dir.getParent().getFileName().toString().matches(DISC_FOLDER_REGEX);
+  }
+
+  /**
+   * check if the given folder contains any of the well known skip files (tmmignore, .tmmignore, .nomedia)
+   *
+   * @param dir
+   *          the folder to check
+   * @param attributeCache
+   *          the attribute cache of the scan (or null to check the file system directly)
+   * @return true/false
+   */
+  private static boolean containsSkipFile(Path dir, FileAttributeCache attributeCache) {
+    if (attributeCache != null) {
+      return attributeCache.exists(dir.resolve(".tmmignore")) || attributeCache.exists(dir.resolve("tmmignore"))
+          || attributeCache.exists(dir.resolve(".nomedia"));
+    }
+    return Files.exists(dir.resolve(".tmmignore")) || Files.exists(dir.resolve("tmmignore")) || Files.exists(dir.resolve(".nomedia"));
+  }
+
   private static class AllFilesRecursive extends AbstractFileVisitor {
-    private final Set<Path>    fFound = new HashSet<>();
-    private final List<String> skipFolders;
+    private final Set<Path>                   fFound = ConcurrentHashMap.newKeySet();
+    private final List<String>                skipFolders;
+    private final DatasourceManifest.Recorder recorder;
+    private final FileAttributeCache          attributeCache;
 
-    public AllFilesRecursive(List<String> skipFolders) {
+    public AllFilesRecursive(List<String> skipFolders, DatasourceManifest.Recorder recorder, FileAttributeCache attributeCache) {
       this.skipFolders = new ArrayList<>(skipFolders);
+      this.recorder = recorder;
+      this.attributeCache = attributeCache;
     }
 
     @Override
     public FileVisitResult visitFile(Path file, BasicFileAttributes attr) {
       incVisFile();
+      if (recorder != null) {
+        recorder.file(file);
+      }
 
       if (file.getFileName() == null) {
         return CONTINUE;
@@ -1364,26 +1652,26 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
     @Override
     public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
       incPreDir();
-      // getFilename returns null on DS root!
-      if (dir.getFileName() != null
-          && (Files.exists(dir.resolve(".tmmignore")) || Files.exists(dir.resolve("tmmignore")) || Files.exists(dir.resolve(".nomedia"))
-              || SKIP_FOLDERS.contains(dir.getFileName().toString().toUpperCase(Locale.ROOT)) || dir.getFileName().toString().matches(SKIP_REGEX))
-          || skipFolders.contains(dir.toFile().getAbsolutePath())) {
+      // don't go below a disc folder
+      if (isInDiscFolder(dir)) {
+        recordFolder(dir, attrs, true);
+        return SKIP_SUBTREE;
+      }
+
+      if (isSkipFolder(dir, skipFolders, attributeCache)) {
         LOGGER.debug("Skipping dir: {}", dir);
+        recordFolder(dir, attrs, true);
         return SKIP_SUBTREE;
       }
 
       // add the disc folder itself (clean disc folder)
       if (dir.getFileName() != null && dir.getFileName().toString().matches(DISC_FOLDER_REGEX)) {
         fFound.add(dir.toAbsolutePath());
+        recordFolder(dir, attrs, false);
         return CONTINUE;
       }
 
-      // don't go below a disc folder
-      if (dir.getParent() != null && dir.getParent().getFileName() != null && dir.getParent().getFileName().toString().matches(DISC_FOLDER_REGEX)) {
-        return SKIP_SUBTREE;
-      }
-
+      recordFolder(dir, attrs, false);
       return CONTINUE;
     }
 
@@ -1392,6 +1680,12 @@ public class TvShowUpdateDatasourceTask extends TmmThreadPool {
       incPostDir();
       return CONTINUE;
     }
+
+    private void recordFolder(Path dir, BasicFileAttributes attrs, boolean skipped) {
+      if (recorder != null) {
+        recorder.folder(dir, attrs, skipped);
+      }
+    }
   }
 
   private static void resetCounters() {
@@ -20,11 +20,14 @@ import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
 import java.io.ObjectStreamException;
 import java.lang.reflect.Array;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * The class DynaEnum is used to create a "dynamic" enum - an enum which is extensible at runtime
@@ -35,8 +38,8 @@ import java.util.Set;
  * @since 1.0
  */
 public abstract class DynaEnum<E extends DynaEnum<E>> {
-  private static Map<Class<? extends DynaEnum<?>>, Map<String, DynaEnum<?>>>   elements  = new LinkedHashMap<>();
-  private static Map<Class<? extends DynaEnum<?>>, Set<DynaEnumEventListener>> listeners = new LinkedHashMap<>();
+  private static Map<Class<? extends DynaEnum<?>>, Map<String, DynaEnum<?>>>   elements  = new ConcurrentHashMap<>();
+  private static Map<Class<? extends DynaEnum<?>>, Set<DynaEnumEventListener>> listeners = new ConcurrentHashMap<>();
   private final String                                                         name;
   protected final int                                                          ordinal;
 
@@ -67,14 +70,10 @@ public abstract class DynaEnum<E extends DynaEnum<E>> {
   }
 
   /**
-   * add this element to the list of elements
+   * add this element to the list of elements (thread safe - new values can be added from several threads at once)
    */
   protected void addElement() {
-    Map<String, DynaEnum<?>> typeElements = elements.get(getClass());
-    if (typeElements == null) {
-      typeElements = new LinkedHashMap<>();
-      elements.put(getDynaEnumClass(), typeElements);
-    }
+    Map<String, DynaEnum<?>> typeElements = elements.computeIfAbsent(getDynaEnumClass(), clazz -> Collections.synchronizedMap(new LinkedHashMap<>()));
     typeElements.put(name, this);
 
     valueAdded(getClass(), this);
@@ -189,7 +188,11 @@ public abstract class DynaEnum<E extends DynaEnum<E>> {
    */
   @SuppressWarnings("unchecked")
   public static <E> E[] values(Class<E> enumType) {
-    Collection<DynaEnum<?>> values = elements.get(enumType).values();
+    Map<String, DynaEnum<?>> typeElements = elements.get(enumType);
+    List<DynaEnum<?>> values;
+    synchronized (typeElements) {
+      values = new ArrayList<>(typeElements.values());
+    }
     int n = values.size();
     E[] typedValues = (E[]) Array.newInstance(enumType, n);
     int i = 0;
@@ -210,12 +213,7 @@ public abstract class DynaEnum<E extends DynaEnum<E>> {
    *          the new listener to be added
    */
   protected static void addListener(Class<? extends DynaEnum<?>> clazz, DynaEnumEventListener listener) {
-    Set<DynaEnumEventListener> listenerSet = listeners.get(clazz);
-    if (listenerSet == null) {
-      listenerSet = new HashSet<>();
-      listeners.put(clazz, listenerSet);
-    }
-    listenerSet.add(listener);
+    listeners.computeIfAbsent(clazz, key -> new CopyOnWriteArraySet<>()).add(listener);
   }
 
   /**
@@ -20,6 +20,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.lang3.StringUtils;
@@ -29,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.Globals;
 import org.tinymediamanager.core.Utils;
+import org.tinymediamanager.core.database.DatabaseCompactionService;
 import org.tinymediamanager.core.entities.MediaRating;
 import org.tinymediamanager.scraper.MediaMetadata;
 import org.tinymediamanager.scraper.http.OnDiskCachedUrl;
@@ -41,8 +43,11 @@ import org.tinymediamanager.scraper.util.MediaIdUtil;
  * @author Manuel Laggner
  */
 class ImdbRating {
-  private static final Logger          LOGGER  = LoggerFactory.getLogger(ImdbRating.class);
-  private static final String          IMDB_DB = "imdb_ratings.db";
+  private static final Logger          LOGGER           = LoggerFactory.getLogger(ImdbRating.class);
+  private static final String          IMDB_DB          = "imdb_ratings.db";
+  private static final long            MAX_COMPACT_TIME = 1000;
+  // held while the ratings are imported (autocommit is disabled) - keeps the compaction from committing a partial import
+  private static final ReentrantLock   LOCK             = new ReentrantLock();
 
   private static MVStore               mvStore;
   private static MVMap<String, String> ratingMap;
@@ -90,9 +95,11 @@ class ImdbRating {
     try {
       mvStore = new MVStore.Builder().fileName(databaseFile.toString()).compressHigh().autoCommitDisabled().open();
       ratingMap = mvStore.openMap("ratings");
+      DatabaseCompactionService.getInstance().register(IMDB_DB, mvStore, LOCK);
 
       Url cachedUrl = new OnDiskCachedUrl("https://datasets.imdbws.com/title.ratings.tsv.gz", 1, TimeUnit.DAYS);
 
+      LOCK.lock();
       try (InputStream httpInputStream = cachedUrl.getInputStream()) {
         // performance hack: even if we re-zip the same file we get a different file size
         // so, we do store the file size in the map and only if the file size changes, we refill the map
@@ -121,6 +128,9 @@ class ImdbRating {
           mvStore.commit();
         }
       }
+      finally {
+        LOCK.unlock();
+      }
     }
     catch (InterruptedException e) {
       Thread.currentThread().interrupt();
@@ -133,9 +143,12 @@ class ImdbRating {
   }
 
   static synchronized void shutdown() {
+    DatabaseCompactionService.getInstance().unregister(IMDB_DB);
+
     try {
       if (mvStore != null && !mvStore.isClosed()) {
-        mvStore.compactMoveChunks();
+        // the cache is compacted in the background - just a bounded compaction here
+        mvStore.compactFile(MAX_COMPACT_TIME);
         mvStore.close();
       }
     }
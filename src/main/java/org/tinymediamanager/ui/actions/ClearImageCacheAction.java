@@ -22,6 +22,7 @@ import java.nio.file.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.core.ImageCache;
+import org.tinymediamanager.core.ImageCacheIndex;
 import org.tinymediamanager.core.TmmResourceBundle;
 import org.tinymediamanager.core.Utils;
 
@@ -47,6 +48,7 @@ public class ClearImageCacheAction extends TmmAction {
       try {
         Utils.deleteDirectoryRecursive(cache);
         ImageCache.createSubdirs();
+        ImageCacheIndex.clear();
       }
       catch (Exception e) {
         LOGGER.warn(e.getMessage());
@@ -30,6 +30,7 @@ import java.awt.event.MouseListener;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -37,11 +38,14 @@ import java.nio.file.Paths;
 
 import javax.swing.ImageIcon;
 import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
 import javax.swing.UIManager;
 
 import org.apache.commons.lang3.StringUtils;
 import org.imgscalr.Scalr;
+import org.tinymediamanager.core.DecodedImageCache;
+import org.tinymediamanager.core.DecodedImageCache.DecodedImage;
 import org.tinymediamanager.core.ImageCache;
 import org.tinymediamanager.core.ImageUtils;
 import org.tinymediamanager.scraper.http.InMemoryCachedUrl;
@@ -76,6 +80,12 @@ public class ImageLabel extends JComponent {
   private static final int          SHADOW_SIZE            = 8;
   protected byte[]                  originalImageBytes;
   protected Dimension               originalImageSize      = EMPTY_SIZE;
+  // the long side of the loaded thumbnail from the image cache (0 if the full image has been loaded) and the size of the full image
+  protected int                     thumbnailSize          = 0;
+  protected Dimension               fullImageSize          = null;
+  // the source of the loaded image in the decoded image cache and the file to read the image from if it has been taken from there
+  protected String                  imageSource            = null;
+  protected Path                    imageFile              = null;
   protected Image                   scaledImage;
   protected ImageIcon               animatedGif;
 
@@ -134,6 +144,8 @@ public class ImageLabel extends JComponent {
   }
 
   public void setOriginalImage(byte[] originalImageBytes) {
+    imageSource = null;
+    imageFile = null;
     setImageBytes(originalImageBytes);
     recreateScaledImageIfNeeded(0, 0, this.getSize().width, this.getSize().height);
     repaint();
@@ -157,21 +169,49 @@ public class ImageLabel extends JComponent {
     else {
       // this is just a normal pic
       BufferedImage originalImage = ImageUtils.createImage(originalImageBytes);
-      originalImageSize = new Dimension(originalImage.getWidth(), originalImage.getHeight());
+      // a thumbnail stands in for the full image - report the size of the full image
+      originalImageSize = fullImageSize != null ? fullImageSize : new Dimension(originalImage.getWidth(), originalImage.getHeight());
 
+      BufferedImage image;
       if (width < 1000 || height < 1000) {
         // scale fast
-        scaledImage = Scalr.resize(originalImage, Scalr.Method.AUTOMATIC, Scalr.Mode.AUTOMATIC, width, height, Scalr.OP_ANTIALIAS);
+        image = Scalr.resize(originalImage, Scalr.Method.AUTOMATIC, Scalr.Mode.AUTOMATIC, width, height, Scalr.OP_ANTIALIAS);
       }
       else {
         // scale good
-        scaledImage = Scalr.resize(originalImage, Scalr.Method.BALANCED, Scalr.Mode.AUTOMATIC, width, height, Scalr.OP_ANTIALIAS);
+        image = Scalr.resize(originalImage, Scalr.Method.BALANCED, Scalr.Mode.AUTOMATIC, width, height, Scalr.OP_ANTIALIAS);
       }
       originalImage.flush();
+      scaledImage = image;
       animatedGif = null;
+
+      if (imageSource != null) {
+        DecodedImageCache.getInstance().put(imageSource, width, height, image, originalImageSize);
+      }
     }
   }
 
+  /**
+   * take the scaled image from the decoded image cache (if available)
+   *
+   * @return true if the image has been found in the decoded image cache
+   */
+  private boolean useDecodedImage(int width, int height) {
+    if (imageSource == null) {
+      return false;
+    }
+
+    DecodedImage decodedImage = DecodedImageCache.getInstance().get(imageSource, width, height);
+    if (decodedImage == null) {
+      return false;
+    }
+
+    scaledImage = decodedImage.getImage();
+    originalImageSize = decodedImage.getOriginalSize();
+    animatedGif = null;
+    return true;
+  }
+
   public String getImagePath() {
     return imagePath;
   }
@@ -220,6 +260,10 @@ public class ImageLabel extends JComponent {
     scaledImage = null;
     originalImageBytes = null;
     originalImageSize = EMPTY_SIZE;
+    thumbnailSize = 0;
+    fullImageSize = null;
+    imageSource = null;
+    imageFile = null;
     firePropertyChange("originalImageSize", null, 0);
     firePropertyChange("originalImageBytes", null, new byte[] {});
   }
@@ -588,7 +632,67 @@ public class ImageLabel extends JComponent {
     return worker != null && !worker.isDone();
   }
 
+  /**
+   * get the size (long side in device pixels) the image is shown with for the given size of this component. Returns 0 if the full image is needed
+   * (no image cache preferred, unscaled or full width drawing)
+   */
+  protected int getNeededImageSize(Dimension size) {
+    if (!preferCache || !scaleUpIfTooSmall || drawFullWidth || size == null || size.width <= 0 || size.height <= 0) {
+      return 0;
+    }
+
+    double scale = getGraphicsConfiguration() != null ? getGraphicsConfiguration().getDefaultTransform().getScaleX() : 1;
+    return (int) Math.ceil(Math.max(size.width, size.height) * scale);
+  }
+
+  /**
+   * get the thumbnail of the cached file which fits the needed size and remember which thumbnail has been taken
+   */
+  private Path getThumbnail(Path cachedFile, int neededSize) {
+    Path thumbnail = ImageCache.getCachedThumbnail(cachedFile, neededSize);
+    if (thumbnail == null || thumbnail.equals(cachedFile)) {
+      return cachedFile;
+    }
+
+    Dimension size = ImageUtils.readImageSize(thumbnail);
+    Dimension cachedFileSize = ImageUtils.readImageSize(cachedFile);
+    if (size == null || cachedFileSize == null) {
+      return cachedFile;
+    }
+
+    thumbnailSize = Math.max(size.width, size.height);
+    fullImageSize = cachedFileSize;
+    return thumbnail;
+  }
+
+  private void reloadBiggerThumbnail(int newWidth, int newHeight) {
+    if (thumbnailSize <= 0 || isLoading() || !SwingUtilities.isEventDispatchThread()
+        || Math.max(newWidth, newHeight) <= thumbnailSize * 1.2f) {
+      return;
+    }
+
+    // the loaded thumbnail is too small for the new size - load a bigger one (or the full image)
+    reloadImage(newWidth, newHeight);
+  }
+
+  /**
+   * load the image again in a worker (for the given size in device pixels)
+   */
+  private void reloadImage(int newWidth, int newHeight) {
+    double scale = getGraphicsConfiguration() != null ? getGraphicsConfiguration().getDefaultTransform().getScaleX() : 1;
+    Dimension size = new Dimension((int) Math.ceil(newWidth / scale), (int) Math.ceil(newHeight / scale));
+    if (StringUtils.isNotBlank(imagePath)) {
+      worker = new ImageLoader(imagePath, size);
+      worker.execute();
+    }
+    else if (StringUtils.isNotBlank(imageUrl)) {
+      worker = new ImageFetcher(imageUrl, size);
+      worker.execute();
+    }
+  }
+
   private void recreateScaledImageIfNeeded(int originalWidth, int originalHeight, int newWidth, int newHeight) {
+    reloadBiggerThumbnail(newWidth, newHeight);
 
     if (animatedGif != null) {
       scaledImage = animatedGif.getImage();
@@ -596,7 +700,21 @@ public class ImageLabel extends JComponent {
     else if (originalWidth < 20 || originalHeight < 20 || (newWidth * 0.8f > originalWidth) || (originalWidth > newWidth * 1.2f)
         || (newHeight * 0.8f > originalHeight) || (originalHeight > newHeight * 1.2f)) {
 
+      if (useDecodedImage(newWidth, newHeight)) {
+        return;
+      }
+
       try {
+        if (originalImageBytes == null && imageFile != null) {
+          // the image has been taken from the decoded image cache until now - never read the file on the EDT
+          if (SwingUtilities.isEventDispatchThread()) {
+            if (!isLoading()) {
+              reloadImage(newWidth, newHeight);
+            }
+            return;
+          }
+          setImageBytes(Files.readAllBytes(imageFile));
+        }
         createScaledImage(originalImageBytes, newWidth, newHeight);
       }
       catch (Exception e) {
@@ -645,16 +763,31 @@ public class ImageLabel extends JComponent {
     this.cacheUrl = cacheUrl;
   }
 
+  /**
+   * load the image from the given file - if the decoded image cache contains the image in the needed size, the file is not read at all
+   */
+  private void loadImageFile(Path file, Dimension size) throws IOException {
+    imageSource = DecodedImageCache.getSource(file);
+    imageFile = file;
+
+    if (!useDecodedImage(size.width, size.height)) {
+      setImageBytes(Files.readAllBytes(file));
+      recreateScaledImageIfNeeded(0, 0, size.width, size.height);
+    }
+  }
+
   /*
    * inner class for downloading online images
    */
   protected class ImageFetcher extends SwingWorker<Void, Void> {
     private final String    imageUrl;
     private final Dimension newSize;
+    private final int       neededSize;
 
     public ImageFetcher(String imageUrl, Dimension newSize) {
       this.imageUrl = imageUrl;
       this.newSize = newSize;
+      this.neededSize = getNeededImageSize(newSize);
     }
 
     @Override
@@ -667,10 +800,8 @@ public class ImageLabel extends JComponent {
           if (cachedFile != null && Files.exists(cachedFile)) {
 
             try {
-              byte[] bytes = Files.readAllBytes(cachedFile);
               clearImageData();
-              setImageBytes(bytes);
-              recreateScaledImageIfNeeded(0, 0, newSize.width, newSize.height);
+              loadImageFile(getThumbnail(cachedFile, neededSize), newSize);
               return null;
             }
             catch (Exception e) {
@@ -692,6 +823,7 @@ public class ImageLabel extends JComponent {
         }
         byte[] bytes = url.getBytesWithRetry(2);
         clearImageData();
+        imageSource = imageUrl;
         setImageBytes(bytes);
         recreateScaledImageIfNeeded(0, 0, newSize.width, newSize.height);
       }
@@ -726,19 +858,23 @@ public class ImageLabel extends JComponent {
   protected class ImageLoader extends SwingWorker<Void, Void> {
     private final String    imagePath;
     private final Dimension newSize;
+    private final int       neededSize;
 
     public ImageLoader(String imagePath, Dimension newSize) {
       this.imagePath = imagePath;
       this.newSize = newSize;
+      this.neededSize = getNeededImageSize(newSize);
     }
 
     @Override
     protected Void doInBackground() {
       Path file = null;
+      Path cachedFile = null;
 
       // we prefer reading it from the cache
       if (preferCache) {
-        file = ImageCache.getCachedFile(Paths.get(imagePath));
+        cachedFile = ImageCache.getCachedFile(Paths.get(imagePath));
+        file = cachedFile;
       }
 
       // not in the cache - read it from the path
@@ -755,10 +891,12 @@ public class ImageLabel extends JComponent {
       if (file != null && Files.exists(file)) {
 
         try {
-          byte[] bytes = Files.readAllBytes(file);
           clearImageData();
-          setImageBytes(bytes);
-          recreateScaledImageIfNeeded(0, 0, newSize.width, newSize.height);
+          if (file.equals(cachedFile)) {
+            // the smallest thumbnail of the cached file which fits the size of this label
+            file = getThumbnail(cachedFile, neededSize);
+          }
+          loadImageFile(file, newSize);
         }
         catch (Exception e) {
           // okay, we got an exception here - set the image path to empty to avoid an endless try-to-reload
@@ -75,6 +75,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.imgscalr.Scalr;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.DecodedImageCache;
+import org.tinymediamanager.core.DecodedImageCache.DecodedImage;
 import org.tinymediamanager.core.ImageUtils;
 import org.tinymediamanager.core.TmmProperties;
 import org.tinymediamanager.core.TmmResourceBundle;
@@ -1233,11 +1235,20 @@ public class ImageChooserDialog extends TmmDialog {
             }
 
             Callable<DownloadChunk> callable = () -> {
-              Url url = new Url(art.getPreviewUrl());
               DownloadChunk chunk = new DownloadChunk();
               chunk.artwork = art;
+
+              // the preview may have been decoded already (e.g. when re-opening the chooser)
+              DecodedImage decodedImage = DecodedImageCache.getInstance().get(art.getPreviewUrl(), 0, 0);
+              if (decodedImage != null) {
+                chunk.image = decodedImage.getImage();
+                return chunk;
+              }
+
+              Url url = new Url(art.getPreviewUrl());
               try {
                 chunk.image = ImageUtils.createImage(url.getBytesWithRetry(5));
+                DecodedImageCache.getInstance().put(art.getPreviewUrl(), 0, 0, chunk.image, null);
               }
               catch (Exception e) {
                 // ignore, return empty chunk
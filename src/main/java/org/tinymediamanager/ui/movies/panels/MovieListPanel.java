@@ -17,13 +17,16 @@ package org.tinymediamanager.ui.movies.panels;
 
 import static java.awt.event.InputEvent.CTRL_DOWN_MASK;
 
+import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 
 import javax.swing.Action;
@@ -46,8 +49,10 @@ import org.jdesktop.beansbinding.AutoBinding;
 import org.jdesktop.beansbinding.AutoBinding.UpdateStrategy;
 import org.jdesktop.beansbinding.BeanProperty;
 import org.jdesktop.beansbinding.Bindings;
+import org.tinymediamanager.core.ImageCachePriority;
 import org.tinymediamanager.core.TmmResourceBundle;
 import org.tinymediamanager.core.entities.MediaEntity;
+import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.movie.MovieComparator;
 import org.tinymediamanager.core.movie.MovieList;
 import org.tinymediamanager.core.movie.MovieModuleManager;
@@ -147,6 +152,16 @@ public class MovieListPanel extends TmmListPanel implements ITmmTabItem {
     movieTable.configureScrollPane(scrollPane);
     add(scrollPane, "cell 0 1 2 1,grow");
 
+    // the images of the visible movies are cached first
+    scrollPane.getViewport().addChangeListener(e -> prioritizeVisibleImages(textFilteredMovies));
+    // the viewport changes on every row insert/update too - only scrolling by the user pauses the background caching
+    scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+      if (e.getValueIsAdjusting()) {
+        ImageCachePriority.markBusy();
+      }
+    });
+    scrollPane.addMouseWheelListener(e -> ImageCachePriority.markBusy());
+
     btnExtendedFilter = new SplitButton(TmmResourceBundle.getString("movieextendedsearch.filter"));
     btnExtendedFilter.setToolTipText(TmmResourceBundle.getString("movieextendedsearch.options"));
     btnExtendedFilter.getActionButton().addActionListener(e -> MovieUIModule.getInstance().setFilterDialogVisible(true));
@@ -220,6 +235,11 @@ public class MovieListPanel extends TmmListPanel implements ITmmTabItem {
     }
 
     selectionModel.addPropertyChangeListener(MovieSelectionModel.SELECTED_MOVIES, evt -> updateSelectionSums());
+    selectionModel.addPropertyChangeListener(MovieSelectionModel.SELECTED_MOVIE, evt -> {
+      if (evt.getNewValue() instanceof Movie) {
+        ImageCachePriority.setSelected(((Movie) evt.getNewValue()).getMediaFiles());
+      }
+    });
 
     // initialize filteredCount
     lblMovieCountFiltered.setText(String.valueOf(movieTableModel.getRowCount()));
@@ -239,6 +259,28 @@ public class MovieListPanel extends TmmListPanel implements ITmmTabItem {
     });
   }
 
+  private void prioritizeVisibleImages(List<Movie> movies) {
+    Rectangle visibleRect = movieTable.getVisibleRect();
+    int firstRow = movieTable.rowAtPoint(visibleRect.getLocation());
+    if (firstRow < 0) {
+      return;
+    }
+
+    int lastRow = movieTable.rowAtPoint(new Point(visibleRect.x, visibleRect.y + visibleRect.height - 1));
+    if (lastRow < 0) {
+      lastRow = movieTable.getRowCount() - 1;
+    }
+
+    List<MediaFile> mediaFiles = new ArrayList<>();
+    for (int row = firstRow; row <= lastRow; row++) {
+      int index = movieTable.convertRowIndexToModel(row);
+      if (index >= 0 && index < movies.size()) {
+        mediaFiles.addAll(movies.get(index).getMediaFiles());
+      }
+    }
+    ImageCachePriority.setVisible(mediaFiles);
+  }
+
   private void updateSelectionSums() {
     String selectedMovies = TmmResourceBundle.getString("movie.selected")
         .replace("{}", String.valueOf(selectionModel.getSelectedMovies(true).size()));
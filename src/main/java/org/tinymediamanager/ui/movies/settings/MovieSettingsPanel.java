@@ -65,6 +65,8 @@ public class MovieSettingsPanel extends JPanel {
   private JCheckBox           chckbxARDAfterScrape;
   private JCheckBox           chckbxAutoUpdateOnStart;
   private JCheckBox           chckbxBuildImageCache;
+  private JCheckBox           chckbxIncrementalUpdate;
+  private JCheckBox           chckbxWatchDatasources;
   private JCheckBox           chckbxExtractArtworkFromVsmeta;
   private JCheckBox           chckbxRuntimeFromMi;
   private JButton             btnPresetKodi;
@@ -193,7 +195,7 @@ public class MovieSettingsPanel extends JPanel {
     }
     {
       JPanel panelMisc = new JPanel();
-      panelMisc.setLayout(new MigLayout("hidemode 1, insets 0", "[20lp!][16lp!][grow]", "[][][][][][]")); // 16lp ~ width of the
+      panelMisc.setLayout(new MigLayout("hidemode 1, insets 0", "[20lp!][16lp!][grow]", "[][][][][][][][]")); // 16lp ~ width of the
 
       JLabel lblMiscT = new TmmLabel(TmmResourceBundle.getString("Settings.misc"), H3);
       CollapsiblePanel collapsiblePanel = new CollapsiblePanel(panelMisc, lblMiscT, true);
@@ -218,6 +220,20 @@ public class MovieSettingsPanel extends JPanel {
 
         chckbxIncludeExternalAudioStreams = new JCheckBox(TmmResourceBundle.getString("Settings.includeexternalstreamsinnfo"));
         panelMisc.add(chckbxIncludeExternalAudioStreams, "cell 1 4 2 1");
+
+        chckbxIncrementalUpdate = new JCheckBox(TmmResourceBundle.getString("Settings.incrementalupdate"));
+        panelMisc.add(chckbxIncrementalUpdate, "cell 1 5 2 1");
+
+        JLabel lblIncrementalUpdateHint = new JLabel(IconManager.HINT);
+        lblIncrementalUpdateHint.setToolTipText(TmmResourceBundle.getString("Settings.incrementalupdate.desc"));
+        panelMisc.add(lblIncrementalUpdateHint, "cell 1 5 2 1");
+
+        chckbxWatchDatasources = new JCheckBox(TmmResourceBundle.getString("Settings.watchdatasources"));
+        panelMisc.add(chckbxWatchDatasources, "cell 1 6 2 1");
+
+        JLabel lblWatchDatasourcesHint = new JLabel(IconManager.HINT);
+        lblWatchDatasourcesHint.setToolTipText(TmmResourceBundle.getString("Settings.watchdatasources.desc"));
+        panelMisc.add(lblWatchDatasourcesHint, "cell 1 6 2 1");
       }
     }
   }
@@ -318,5 +334,15 @@ public class MovieSettingsPanel extends JPanel {
     AutoBinding autoBinding_22 = Bindings.createAutoBinding(UpdateStrategy.READ_WRITE, settings, movieSettingsBeanProperty_22, chckbxARDAfterScrape,
         jCheckBoxBeanProperty);
     autoBinding_22.bind();
+    //
+    Property movieSettingsBeanProperty_23 = BeanProperty.create("incrementalUpdate");
+    AutoBinding autoBinding_23 = Bindings.createAutoBinding(UpdateStrategy.READ_WRITE, settings, movieSettingsBeanProperty_23, chckbxIncrementalUpdate,
+        jCheckBoxBeanProperty);
+    autoBinding_23.bind();
+    //
+    Property movieSettingsBeanProperty_24 = BeanProperty.create("watchDatasources");
+    AutoBinding autoBinding_24 = Bindings.createAutoBinding(UpdateStrategy.READ_WRITE, settings, movieSettingsBeanProperty_24, chckbxWatchDatasources,
+        jCheckBoxBeanProperty);
+    autoBinding_24.bind();
   }
 }
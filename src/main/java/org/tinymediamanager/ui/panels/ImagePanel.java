@@ -44,6 +44,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.imgscalr.Scalr;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tinymediamanager.core.DecodedImageCache;
+import org.tinymediamanager.core.DecodedImageCache.DecodedImage;
 import org.tinymediamanager.core.ImageCache;
 import org.tinymediamanager.core.ImageUtils;
 import org.tinymediamanager.core.MediaFileType;
@@ -171,6 +173,16 @@ public class ImagePanel extends JPanel implements HierarchyListener {
               file = mediaFile.getFileAsPath();
             }
 
+            // already decoded and scaled for this panel?
+            String source = DecodedImageCache.getSource(file);
+            DecodedImage decodedImage = DecodedImageCache.getInstance().get(source, maxWidth, maxHeight);
+            if (decodedImage != null) {
+              imageLabel = new JLabel(new ImageIcon(decodedImage.getImage()));
+              imageLabel.addMouseListener(new ImageLabelClickListener(mediaFile.getFileAsPath().toString()));
+              publish(new ImageChunk(mediaFile.getFileAsPath().toString(), mediaFile.getType(), imageLabel));
+              continue;
+            }
+
             byte[] bytes = Files.readAllBytes(file);
 
             // check if this file is an animated gif
@@ -189,8 +201,12 @@ public class ImagePanel extends JPanel implements HierarchyListener {
             else {
               BufferedImage bufferedImage = ImageUtils.createImage(bytes);
               Point size = ImageUtils.calculateSize(maxWidth, maxHeight, bufferedImage.getWidth(), bufferedImage.getHeight(), true);
-              imageLabel = new JLabel(
-                  new ImageIcon(Scalr.resize(bufferedImage, Scalr.Method.QUALITY, Scalr.Mode.AUTOMATIC, size.x, size.y, Scalr.OP_ANTIALIAS)));
+              BufferedImage scaledImage = Scalr.resize(bufferedImage, Scalr.Method.QUALITY, Scalr.Mode.AUTOMATIC, size.x, size.y, Scalr.OP_ANTIALIAS);
+              DecodedImageCache.getInstance()
+                  .put(source, maxWidth, maxHeight, scaledImage, new Dimension(bufferedImage.getWidth(), bufferedImage.getHeight()));
+              bufferedImage.flush();
+
+              imageLabel = new JLabel(new ImageIcon(scaledImage));
               imageLabel.addMouseListener(new ImageLabelClickListener(mediaFile.getFileAsPath().toString()));
             }
 
@@ -17,11 +17,15 @@ package org.tinymediamanager.ui.settings;
 
 import static org.tinymediamanager.ui.TmmFontHelper.H3;
 
+import java.awt.Dimension;
+
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JSpinner;
 import javax.swing.JTextArea;
+import javax.swing.SpinnerNumberModel;
 
 import org.jdesktop.beansbinding.AutoBinding;
 import org.jdesktop.beansbinding.AutoBinding.UpdateStrategy;
@@ -53,6 +57,7 @@ class MiscSettingsPanel extends JPanel {
   private JCheckBox         chckbxMediaInfoXml;
   private JComboBox         cbImageCacheSize;
   private JCheckBox         chckbxEnableTrash;
+  private JSpinner          spImageCacheLimit;
 
   /**
    * Instantiates a new general settings panel.
@@ -67,7 +72,7 @@ class MiscSettingsPanel extends JPanel {
     setLayout(new MigLayout("", "[600lp,grow]", "[][15lp!][]"));
     {
       JPanel panelMisc = new JPanel();
-      panelMisc.setLayout(new MigLayout("hidemode 1, insets 0", "[20lp!][16lp!][grow]", "[][][][][][20lp][][][]")); // 16lp ~ width of the
+      panelMisc.setLayout(new MigLayout("hidemode 1, insets 0", "[20lp!][16lp!][grow]", "[][][][][][][20lp][][][]")); // 16lp ~ width of the
 
       JLabel lblMiscT = new TmmLabel(TmmResourceBundle.getString("Settings.misc"), H3);
       CollapsiblePanel collapsiblePanelMisc = new CollapsiblePanel(panelMisc, lblMiscT, true);
@@ -121,15 +126,22 @@ class MiscSettingsPanel extends JPanel {
           panel.add(lblImageCacheTypeUltraQualityT, "cell 1 0,growx, wmin 0");
         }
 
+        JLabel lblImageCacheLimit = new JLabel(TmmResourceBundle.getString("Settings.imagecachelimit"));
+        panelMisc.add(lblImageCacheLimit, "flowx,cell 2 5");
+
+        spImageCacheLimit = new JSpinner(new SpinnerNumberModel(settings.getImageCacheLimit(), 0, 1048576, 100));
+        spImageCacheLimit.setMinimumSize(new Dimension(80, 20));
+        panelMisc.add(spImageCacheLimit, "cell 2 5");
+
         chckbxEnableTrash = new JCheckBox(TmmResourceBundle.getString("Settings.enabletrash"));
         chckbxEnableTrash.setToolTipText(TmmResourceBundle.getString("Settings.enabletrash.desc"));
-        panelMisc.add(chckbxEnableTrash, "cell 1 6 2 1");
+        panelMisc.add(chckbxEnableTrash, "cell 1 7 2 1");
 
         chckbxDeleteTrash = new JCheckBox(TmmResourceBundle.getString("Settings.deletetrash"));
-        panelMisc.add(chckbxDeleteTrash, "cell 1 7 2 1");
+        panelMisc.add(chckbxDeleteTrash, "cell 1 8 2 1");
 
         chckbxMediaInfoXml = new JCheckBox(TmmResourceBundle.getString("Settings.writemediainfoxml"));
-        panelMisc.add(chckbxMediaInfoXml, "cell 1 8 2 1");
+        panelMisc.add(chckbxMediaInfoXml, "cell 1 9 2 1");
       }
     }
   }
@@ -166,5 +178,11 @@ class MiscSettingsPanel extends JPanel {
     AutoBinding autoBinding_2 = Bindings.createAutoBinding(UpdateStrategy.READ_WRITE, settings, settingsBeanProperty_2, chckbxEnableTrash,
         jCheckBoxBeanProperty);
     autoBinding_2.bind();
+    //
+    Property settingsBeanProperty_3 = BeanProperty.create("imageCacheLimit");
+    Property jSpinnerBeanProperty = BeanProperty.create("value");
+    AutoBinding autoBinding_3 = Bindings.createAutoBinding(UpdateStrategy.READ_WRITE, settings, settingsBeanProperty_3, spImageCacheLimit,
+        jSpinnerBeanProperty);
+    autoBinding_3.bind();
   }
 }
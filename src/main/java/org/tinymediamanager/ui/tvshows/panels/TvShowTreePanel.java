@@ -17,6 +17,7 @@ package org.tinymediamanager.ui.tvshows.panels;
 
 import static java.awt.event.InputEvent.CTRL_DOWN_MASK;
 
+import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyAdapter;
@@ -51,8 +52,10 @@ import javax.swing.tree.DefaultMutableTreeNode;
 import org.apache.commons.lang3.StringUtils;
 import org.tinymediamanager.core.AbstractSettings;
 import org.tinymediamanager.core.Constants;
+import org.tinymediamanager.core.ImageCachePriority;
 import org.tinymediamanager.core.TmmResourceBundle;
 import org.tinymediamanager.core.entities.MediaEntity;
+import org.tinymediamanager.core.entities.MediaFile;
 import org.tinymediamanager.core.tvshow.TvShowList;
 import org.tinymediamanager.core.tvshow.TvShowModuleManager;
 import org.tinymediamanager.core.tvshow.entities.TvShow;
@@ -235,6 +238,16 @@ public class TvShowTreePanel extends TmmListPanel implements ITmmTabItem {
     JScrollPane scrollPane = new JScrollPane();
     tree.configureScrollPane(scrollPane);
     add(scrollPane, "cell 0 1 2 1,grow");
+
+    // the images of the visible TV shows/seasons/episodes are cached first
+    scrollPane.getViewport().addChangeListener(e -> prioritizeVisibleImages());
+    // the viewport changes on every row insert/update too - only scrolling by the user pauses the background caching
+    scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+      if (e.getValueIsAdjusting()) {
+        ImageCachePriority.markBusy();
+      }
+    });
+    scrollPane.addMouseWheelListener(e -> ImageCachePriority.markBusy());
     tree.adjustColumnPreferredWidths(3);
 
     tree.setRootVisible(false);
@@ -294,6 +307,11 @@ public class TvShowTreePanel extends TmmListPanel implements ITmmTabItem {
         TvShowUIModule.getInstance().setSelectedTvShow(null);
       }
 
+      // the images of the selected item are cached first
+      if (node != null) {
+        ImageCachePriority.setSelected(getMediaFiles(node.getUserObject()));
+      }
+
       updateSelectionSums();
     });
 
@@ -492,6 +510,41 @@ public class TvShowTreePanel extends TmmListPanel implements ITmmTabItem {
     totalCalculationTimer.schedule(task, 100L);
   }
 
+  private void prioritizeVisibleImages() {
+    Rectangle visibleRect = tree.getVisibleRect();
+    int firstRow = tree.rowAtPoint(visibleRect.getLocation());
+    if (firstRow < 0) {
+      return;
+    }
+
+    int lastRow = tree.rowAtPoint(new Point(visibleRect.x, visibleRect.y + visibleRect.height - 1));
+    if (lastRow < 0) {
+      lastRow = tree.getRowCount() - 1;
+    }
+
+    List<MediaFile> mediaFiles = new ArrayList<>();
+    for (int row = firstRow; row <= lastRow; row++) {
+      DefaultMutableTreeNode node = tree.getTreeNode(row);
+      if (node != null) {
+        mediaFiles.addAll(getMediaFiles(node.getUserObject()));
+      }
+    }
+    ImageCachePriority.setVisible(mediaFiles);
+  }
+
+  private static List<MediaFile> getMediaFiles(Object userObject) {
+    if (userObject instanceof TvShow) {
+      return ((TvShow) userObject).getMediaFiles();
+    }
+    if (userObject instanceof TvShowSeason) {
+      return ((TvShowSeason) userObject).getMediaFiles();
+    }
+    if (userObject instanceof TvShowEpisode) {
+      return ((TvShowEpisode) userObject).getMediaFiles();
+    }
+    return Collections.emptyList();
+  }
+
   private void updateSelectionSums() {
     List<TvShowEpisode> episodes = selectionModel.getSelectedEpisodes(true);
 
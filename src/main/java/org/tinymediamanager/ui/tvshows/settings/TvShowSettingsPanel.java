@@ -60,6 +60,8 @@ class TvShowSettingsPanel extends JPanel {
   private final TvShowSettings settings         = TvShowModuleManager.getInstance().getSettings();
 
   private JCheckBox            chckbxImageCache;
+  private JCheckBox            chckbxIncrementalUpdate;
+  private JCheckBox            chckbxWatchDatasources;
   private JCheckBox            chckbxExtractArtworkFromVsmeta;
   private JCheckBox            chckbxTraktTv;
   private JButton              btnClearTraktTvShows;
@@ -196,7 +198,7 @@ class TvShowSettingsPanel extends JPanel {
     }
     {
       JPanel panelMisc = new JPanel();
-      panelMisc.setLayout(new MigLayout("hidemode 1, insets 0", "[20lp!][16lp!][grow]", "[][][]")); // 16lp ~ width of the
+      panelMisc.setLayout(new MigLayout("hidemode 1, insets 0", "[20lp!][16lp!][grow]", "[][][][][]")); // 16lp ~ width of the
 
       JLabel lblMiscT = new TmmLabel(TmmResourceBundle.getString("Settings.misc"), H3);
       CollapsiblePanel collapsiblePanel = new CollapsiblePanel(panelMisc, lblMiscT, true);
@@ -215,6 +217,20 @@ class TvShowSettingsPanel extends JPanel {
         JLabel lblBuildImageCacheHint = new JLabel(IconManager.HINT);
         lblBuildImageCacheHint.setToolTipText(TmmResourceBundle.getString("Settings.imagecacheimporthint"));
         panelMisc.add(lblBuildImageCacheHint, "cell 1 2 2 1");
+
+        chckbxIncrementalUpdate = new JCheckBox(TmmResourceBundle.getString("Settings.incrementalupdate"));
+        panelMisc.add(chckbxIncrementalUpdate, "cell 1 3 2 1");
+
+        JLabel lblIncrementalUpdateHint = new JLabel(IconManager.HINT);
+        lblIncrementalUpdateHint.setToolTipText(TmmResourceBundle.getString("Settings.incrementalupdate.desc"));
+        panelMisc.add(lblIncrementalUpdateHint, "cell 1 3 2 1");
+
+        chckbxWatchDatasources = new JCheckBox(TmmResourceBundle.getString("Settings.watchdatasources"));
+        panelMisc.add(chckbxWatchDatasources, "cell 1 4 2 1");
+
+        JLabel lblWatchDatasourcesHint = new JLabel(IconManager.HINT);
+        lblWatchDatasourcesHint.setToolTipText(TmmResourceBundle.getString("Settings.watchdatasources.desc"));
+        panelMisc.add(lblWatchDatasourcesHint, "cell 1 4 2 1");
       }
     }
     {
@@ -308,5 +324,15 @@ class TvShowSettingsPanel extends JPanel {
     AutoBinding autoBinding_20 = Bindings.createAutoBinding(UpdateStrategy.READ_WRITE, settings, tvShowSettingsBeanProperty_20, chckbxARDAfterScrape,
         jCheckBoxBeanProperty);
     autoBinding_20.bind();
+    //
+    Property tvShowSettingsBeanProperty_21 = BeanProperty.create("incrementalUpdate");
+    AutoBinding autoBinding_21 = Bindings.createAutoBinding(UpdateStrategy.READ_WRITE, settings, tvShowSettingsBeanProperty_21, chckbxIncrementalUpdate,
+        jCheckBoxBeanProperty);
+    autoBinding_21.bind();
+    //
+    Property tvShowSettingsBeanProperty_22 = BeanProperty.create("watchDatasources");
+    AutoBinding autoBinding_22 = Bindings.createAutoBinding(UpdateStrategy.READ_WRITE, settings, tvShowSettingsBeanProperty_22, chckbxWatchDatasources,
+        jCheckBoxBeanProperty);
+    autoBinding_22.bind();
   }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+import org.tinymediamanager.core.movie.entities.Movie;
+
+public class AbstractModelObjectTest extends BasicTest {
+
+  @Test
+  public void testEditSession() throws Exception {
+    Movie movie = new Movie();
+    List<PropertyChangeEvent> events = new ArrayList<>();
+    movie.addPropertyChangeListener(events::add);
+
+    // run on the EDT to get the events synchronously
+    SwingUtilities.invokeAndWait(() -> {
+      movie.beginEdit();
+      movie.setTitle("Aladdin");
+      movie.setTitle("Aladdin 2");
+      movie.setYear(1992);
+
+      // nested session
+      movie.beginEdit();
+      movie.setTitle("Aladdin 3");
+      movie.commitEdit();
+
+      assertThat(events).isEmpty();
+
+      movie.commitEdit();
+    });
+
+    assertThat(events).extracting(PropertyChangeEvent::getPropertyName).containsOnlyOnce(Constants.TITLE, Constants.YEAR);
+    PropertyChangeEvent title = events.stream().filter(evt -> Constants.TITLE.equals(evt.getPropertyName())).findFirst().orElse(null);
+    assertThat(title).isNotNull();
+    assertThat(title.getOldValue()).isEqualTo("");
+    assertThat(title.getNewValue()).isEqualTo("Aladdin 3");
+
+    // no session - every change is fired
+    events.clear();
+    SwingUtilities.invokeAndWait(() -> {
+      movie.setTitle("Aladdin");
+      movie.setTitle("Aladdin 2");
+    });
+    assertThat(events).extracting(PropertyChangeEvent::getPropertyName).containsOnly(Constants.TITLE).hasSize(2);
+  }
+}
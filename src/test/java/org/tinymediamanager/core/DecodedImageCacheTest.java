@@ -0,0 +1,71 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Test;
+
+public class DecodedImageCacheTest extends BasicTest {
+
+  @Test
+  public void testEviction() {
+    // room for 4 images of 40x40 (6400 bytes each)
+    DecodedImageCache cache = new DecodedImageCache(26000);
+
+    cache.put("a", 40, 40, new BufferedImage(40, 40, BufferedImage.TYPE_INT_RGB), new Dimension(1000, 1000));
+    cache.put("b", 40, 40, new BufferedImage(40, 40, BufferedImage.TYPE_INT_RGB), null);
+    cache.put("c", 40, 40, new BufferedImage(40, 40, BufferedImage.TYPE_INT_RGB), null);
+    cache.put("d", 40, 40, new BufferedImage(40, 40, BufferedImage.TYPE_INT_RGB), null);
+
+    // access "a" - "b" is the least recently used now
+    assertThat(cache.get("a", 40, 40).getOriginalSize()).isEqualTo(new Dimension(1000, 1000));
+    cache.put("e", 40, 40, new BufferedImage(40, 40, BufferedImage.TYPE_INT_RGB), null);
+
+    assertThat(cache.get("a", 40, 40)).isNotNull();
+    assertThat(cache.get("b", 40, 40)).isNull();
+    assertThat(cache.get("c", 40, 40)).isNotNull();
+    assertThat(cache.get("e", 40, 40).getOriginalSize()).isEqualTo(new Dimension(40, 40));
+    assertThat(cache.getUsed()).isEqualTo(4 * 6400);
+
+    // another target size is another entry
+    assertThat(cache.get("a", 80, 80)).isNull();
+
+    // 4 hits, 2 misses
+    assertThat(cache.getHitRate()).isEqualTo(4 / 6d);
+
+    // too big for the cache
+    cache.put("f", 80, 80, new BufferedImage(80, 80, BufferedImage.TYPE_INT_RGB), null);
+    assertThat(cache.get("f", 80, 80)).isNull();
+  }
+
+  @Test
+  public void testSource() throws Exception {
+    Path file = Files.write(getWorkFolder().resolve("poster.jpg"), new byte[] { 1, 2, 3 });
+    Files.setLastModifiedTime(file, FileTime.fromMillis(1000000));
+    String source = DecodedImageCache.getSource(file);
+
+    // a changed file is another source
+    Files.setLastModifiedTime(file, FileTime.fromMillis(2000000));
+    assertThat(DecodedImageCache.getSource(file)).isNotEqualTo(source);
+  }
+}
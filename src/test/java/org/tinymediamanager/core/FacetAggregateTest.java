@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+
+import org.junit.Test;
+import org.tinymediamanager.core.movie.entities.Movie;
+
+public class FacetAggregateTest extends BasicTest {
+
+  @Test
+  public void testReferenceCounting() {
+    FacetAggregate<String> aggregate = new FacetAggregate<>();
+
+    Movie movie1 = new Movie();
+    Movie movie2 = new Movie();
+
+    assertThat(aggregate.update(movie1, Arrays.asList("h264", "aac"))).isTrue();
+    assertThat(aggregate.update(movie2, Arrays.asList("h264", "ac3", "ac3"))).isTrue();
+    assertThat(aggregate.getValues()).containsExactlyInAnyOrder("h264", "aac", "ac3");
+    assertThat(aggregate.getCount("h264")).isEqualTo(2);
+    assertThat(aggregate.getCount("ac3")).isEqualTo(1);
+
+    // same values - no change
+    assertThat(aggregate.update(movie1, Arrays.asList("aac", "h264"))).isFalse();
+
+    // h264 is still used by movie2
+    assertThat(aggregate.update(movie1, Collections.singletonList("aac"))).isFalse();
+    assertThat(aggregate.getCount("h264")).isEqualTo(1);
+
+    // ac3 is gone
+    assertThat(aggregate.remove(movie2)).isTrue();
+    assertThat(aggregate.getValues()).containsExactly("aac");
+    assertThat(aggregate.getCount("h264")).isZero();
+
+    // unknown entity
+    assertThat(aggregate.remove(movie2)).isFalse();
+
+    assertThat(aggregate.update(movie1, Collections.emptyList())).isTrue();
+    assertThat(aggregate.getValues()).isEmpty();
+  }
+
+  @Test
+  public void testKeyFunction() {
+    FacetAggregate<String> aggregate = new FacetAggregate<>(tag -> tag.toUpperCase(Locale.ROOT));
+
+    Movie movie1 = new Movie();
+    Movie movie2 = new Movie();
+
+    aggregate.update(movie1, Arrays.asList("Disney", "disney"));
+    aggregate.update(movie2, Collections.singletonList("DISNEY"));
+
+    assertThat(aggregate.getValues()).containsExactly("Disney");
+    assertThat(aggregate.getCount("disney")).isEqualTo(2);
+
+    aggregate.remove(movie1);
+    assertThat(aggregate.getValues()).containsExactly("Disney");
+
+    aggregate.remove(movie2);
+    assertThat(aggregate.getValues()).isEmpty();
+  }
+}
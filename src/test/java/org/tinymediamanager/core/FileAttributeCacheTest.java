@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+
+import org.junit.Test;
+
+public class FileAttributeCacheTest extends BasicTest {
+
+  @Test
+  public void testScanSession() throws Exception {
+    Path root = getWorkFolder().resolve("attributecache");
+    Path movie = root.resolve("Aladdin (1992)");
+    Files.createDirectories(movie.resolve("extras"));
+    Files.write(movie.resolve("Aladdin (1992).mkv"), new byte[] { 1, 2, 3 });
+
+    FileAttributeCache cache = new FileAttributeCache();
+    ParallelFileWalker.walkFileTree(root, Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+    }, cache);
+    long saved = cache.getSavedStatCalls();
+
+    // everything is answered from the walk
+    assertThat(cache.isRegularFile(movie.resolve("Aladdin (1992).mkv"))).isTrue();
+    assertThat(cache.readAttributes(movie.resolve("Aladdin (1992).mkv")).size()).isEqualTo(3);
+    assertThat(cache.isDirectory(movie.resolve("extras"))).isTrue();
+    assertThat(cache.exists(movie.resolve(".tmmignore"))).isFalse();
+    assertThat(cache.getSavedStatCalls()).isEqualTo(saved + 4);
+
+    // changes during the scan are not seen by the cache - but by everyone else
+    Files.createFile(movie.resolve(".tmmignore"));
+    Files.write(movie.resolve("Aladdin (1992).mkv"), new byte[] { 1, 2, 3, 4 });
+    assertThat(cache.exists(movie.resolve(".tmmignore"))).isFalse();
+    assertThat(Files.exists(movie.resolve(".tmmignore"))).isTrue();
+    assertThat(cache.readAttributes(movie.resolve("Aladdin (1992).mkv")).size()).isEqualTo(3);
+    assertThat(Files.size(movie.resolve("Aladdin (1992).mkv"))).isEqualTo(4);
+
+    // unknown paths are passed to the file system
+    assertThat(cache.exists(getWorkFolder())).isTrue();
+    assertThat(cache.getSavedStatCalls()).isEqualTo(saved + 6);
+
+    cache.clear();
+    assertThat(cache.exists(movie.resolve(".tmmignore"))).isTrue();
+  }
+}
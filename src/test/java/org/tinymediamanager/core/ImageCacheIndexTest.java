@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ImageCacheIndexTest extends BasicTest {
+
+  @After
+  public void tearDown() throws Exception {
+    ImageCacheIndex.awaitPendingTasks();
+    Settings.getInstance().setImageCacheLimit(0);
+    ImageCacheIndex.clear();
+    ImageCacheIndex.shutdown();
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    ImageCacheIndex.awaitPendingTasks();
+    ImageCacheIndex.clear();
+    Settings.getInstance().setImageCacheLimit(1); // 1 MiB
+
+    Path[] files = new Path[4];
+    for (int i = 0; i < files.length; i++) {
+      files[i] = Files.write(ImageCache.getCacheDir().resolve("0/eviction" + i + ".jpg"), new byte[300 * 1024]);
+      ImageCacheIndex.put(files[i], 1000);
+      // make sure the last access differs
+      Thread.sleep(10);
+    }
+    ImageCacheIndex.awaitPendingTasks();
+
+    // the least recently used file has been evicted
+    assertThat(files[0]).doesNotExist();
+    assertThat(files[1]).exists();
+    assertThat(files[2]).exists();
+    assertThat(files[3]).exists();
+  }
+
+  @Test
+  public void testStale() throws Exception {
+    ImageCacheIndex.awaitPendingTasks();
+    Path file = Files.write(ImageCache.getCacheDir().resolve("0/stale.jpg"), new byte[1024]);
+    ImageCacheIndex.put(file, 1000);
+
+    assertThat(ImageCacheIndex.isStale(file, 1000)).isFalse();
+    assertThat(ImageCacheIndex.isStale(file, 2000)).isTrue();
+    // unknown modification time
+    assertThat(ImageCacheIndex.isStale(file, 0)).isFalse();
+
+    ImageCacheIndex.invalidate(file);
+    assertThat(file).doesNotExist();
+    assertThat(ImageCacheIndex.isStale(file, 2000)).isFalse();
+  }
+
+  @Test
+  public void testHit() throws Exception {
+    ImageCacheIndex.awaitPendingTasks();
+    ImageCacheIndex.clear();
+    Settings.getInstance().setImageCacheLimit(1); // 1 MiB
+
+    // a hit of a file which is not indexed yet adds it to the index
+    Path hit = Files.write(ImageCache.getCacheDir().resolve("0/hit.jpg"), new byte[600 * 1024]);
+    ImageCacheIndex.hit(hit);
+    ImageCacheIndex.awaitPendingTasks();
+    Thread.sleep(10);
+    Path file = Files.write(ImageCache.getCacheDir().resolve("0/nohit.jpg"), new byte[600 * 1024]);
+    ImageCacheIndex.put(file, 1000);
+    ImageCacheIndex.awaitPendingTasks();
+
+    // the limit is exceeded by the second file: the least recently used file is evicted
+    assertThat(hit).doesNotExist();
+    assertThat(file).exists();
+  }
+}
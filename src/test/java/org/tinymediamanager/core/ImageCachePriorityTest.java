@@ -0,0 +1,52 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Test;
+import org.tinymediamanager.core.entities.MediaFile;
+
+public class ImageCachePriorityTest extends BasicTest {
+
+  @After
+  public void tearDown() {
+    ImageCachePriority.setSelected(Collections.emptyList());
+    ImageCachePriority.setVisible(Collections.emptyList());
+  }
+
+  @Test
+  public void testPrioritized() {
+    Path selectedPoster = Paths.get("/movies/Aladdin/poster.jpg");
+    Path visiblePoster = Paths.get("/movies/Alien/poster.jpg");
+
+    ImageCachePriority.setVisible(Arrays.asList(new MediaFile(Paths.get("/movies/Alien/Alien.mkv")), new MediaFile(visiblePoster),
+        new MediaFile(selectedPoster)));
+    ImageCachePriority.setSelected(Arrays.asList(new MediaFile(Paths.get("/movies/Aladdin/Aladdin.mkv")), new MediaFile(selectedPoster)));
+
+    // the selected images first, only graphics and no duplicates
+    assertThat(ImageCachePriority.getPrioritized()).containsExactly(selectedPoster, visiblePoster);
+
+    // the UI has just been used
+    assertThat(ImageCachePriority.isBusy()).isTrue();
+  }
+}
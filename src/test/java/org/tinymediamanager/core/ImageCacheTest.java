@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ImageCacheTest extends BasicTest {
+
+  @After
+  public void tearDown() {
+    ImageCacheIndex.clear();
+    ImageCacheIndex.shutdown();
+  }
+
+  @Test
+  public void testThumbnails() throws Exception {
+    Path cachedFile = ImageCache.getCacheDir().resolve("0/thumbnail.jpg");
+    ImageIO.write(new BufferedImage(1000, 600, BufferedImage.TYPE_INT_RGB), "jpg", cachedFile.toFile());
+
+    // the smallest thumbnail which covers the needed size
+    Path thumbnail = ImageCache.getCachedThumbnail(cachedFile, 120);
+    assertThat(thumbnail).isEqualTo(ImageCache.getCacheDir().resolve("0/thumbnail_150.jpg"));
+    assertThat(ImageUtils.readImageSize(thumbnail).width).isEqualTo(150);
+
+    thumbnail = ImageCache.getCachedThumbnail(cachedFile, 300);
+    assertThat(thumbnail).isEqualTo(ImageCache.getCacheDir().resolve("0/thumbnail_400.jpg"));
+    assertThat(ImageUtils.readImageSize(thumbnail).width).isEqualTo(400);
+
+    // bigger than all thumbnails or unknown size: the cached file itself
+    assertThat(ImageCache.getCachedThumbnail(cachedFile, 800)).isEqualTo(cachedFile);
+    assertThat(ImageCache.getCachedThumbnail(cachedFile, 0)).isEqualTo(cachedFile);
+
+    // no thumbnail for images which are not significantly bigger
+    Path smallFile = ImageCache.getCacheDir().resolve("0/small.jpg");
+    ImageIO.write(new BufferedImage(160, 100, BufferedImage.TYPE_INT_RGB), "jpg", smallFile.toFile());
+    assertThat(ImageCache.getCachedThumbnail(smallFile, 100)).isEqualTo(smallFile);
+  }
+}
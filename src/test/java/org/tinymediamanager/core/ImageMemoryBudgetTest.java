@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ImageMemoryBudgetTest extends BasicTest {
+
+  @Test
+  public void testAcquire() throws Exception {
+    ImageMemoryBudget budget = new ImageMemoryBudget(1000);
+
+    long first = budget.acquire(600);
+    assertThat(first).isEqualTo(600);
+    assertThat(budget.getUsed()).isEqualTo(600);
+
+    // the second reservation must wait until the first one has been released
+    CountDownLatch acquired = new CountDownLatch(1);
+    Thread thread = new Thread(() -> {
+      try {
+        long second = budget.acquire(600);
+        acquired.countDown();
+        budget.release(second);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    thread.start();
+
+    assertThat(acquired.await(200, TimeUnit.MILLISECONDS)).isFalse();
+    budget.release(first);
+    assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+    thread.join();
+    assertThat(budget.getUsed()).isZero();
+
+    // a reservation bigger than the budget is admitted alone
+    long huge = budget.acquire(5000);
+    assertThat(huge).isEqualTo(1000);
+    budget.release(huge);
+    assertThat(budget.getUsed()).isZero();
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+public class ParallelFileWalkerTest extends BasicTest {
+
+  @Test
+  public void testWalk() throws Exception {
+    Path root = getWorkFolder().resolve("walker");
+    for (String movie : Arrays.asList("Aladdin (1992)", "Bambi (1942)", "Cars (2006)")) {
+      Path folder = root.resolve(movie);
+      Files.createDirectories(folder.resolve("extras"));
+      Files.createFile(folder.resolve(movie + ".mkv"));
+      Files.createFile(folder.resolve("extras").resolve("trailer.mkv"));
+    }
+    Files.createDirectories(root.resolve("Cars (2006)").resolve("ignored").resolve("sub"));
+    Files.createFile(root.resolve("Cars (2006)").resolve("ignored").resolve(".tmmignore"));
+    Files.createFile(root.resolve("Cars (2006)").resolve("ignored").resolve("sub").resolve("sample.mkv"));
+
+    RecordingVisitor expected = new RecordingVisitor();
+    Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, expected);
+
+    RecordingVisitor actual = new RecordingVisitor();
+    ParallelFileWalker.walkFileTree(root, Integer.MAX_VALUE, actual);
+
+    assertThat(actual.files).isEqualTo(expected.files).hasSize(6);
+    assertThat(actual.folders).isEqualTo(expected.folders).doesNotContain(root.resolve("Cars (2006)").resolve("ignored").resolve("sub"));
+
+    // the post visit of a folder happens after its whole subtree
+    for (Path folder : actual.postVisited) {
+      for (Path other : actual.postVisited) {
+        if (!other.equals(folder) && other.startsWith(folder)) {
+          assertThat(actual.postVisited.indexOf(other)).isLessThan(actual.postVisited.indexOf(folder));
+        }
+      }
+    }
+
+    // limited depth: the folders of the first level are visited as files
+    RecordingVisitor shallow = new RecordingVisitor();
+    ParallelFileWalker.walkFileTree(root, 1, shallow);
+    assertThat(shallow.files).hasSize(3);
+    assertThat(shallow.folders).containsExactly(root);
+  }
+
+  @Test
+  public void testSkipFolder() throws Exception {
+    Path root = getWorkFolder().resolve("walker-skip");
+    Files.createDirectories(root.resolve("keep"));
+    Files.createDirectories(root.resolve("skip"));
+    Files.createFile(root.resolve("keep").resolve("movie.mkv"));
+    Files.createFile(root.resolve("skip").resolve("sample.mkv"));
+
+    RecordingVisitor visitor = new RecordingVisitor() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+        super.preVisitDirectory(dir, attrs);
+        return "skip".equals(dir.getFileName().toString()) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+      }
+    };
+    FileAttributeCache attributeCache = new FileAttributeCache();
+    ParallelFileWalker.walkFileTree(root, Integer.MAX_VALUE, visitor, attributeCache, dir -> "skip".equals(dir.getFileName().toString()));
+
+    assertThat(visitor.files).containsExactly(root.resolve("keep").resolve("movie.mkv"));
+    assertThat(visitor.folders).contains(root.resolve("skip"));
+
+    // the kept folder has been listed (answered by the cache), the skipped folder not
+    long savedStatCalls = attributeCache.getSavedStatCalls();
+    assertThat(attributeCache.exists(root.resolve("keep").resolve(".tmmignore"))).isFalse();
+    assertThat(attributeCache.getSavedStatCalls()).isEqualTo(savedStatCalls + 1);
+    assertThat(attributeCache.exists(root.resolve("skip").resolve(".tmmignore"))).isFalse();
+    assertThat(attributeCache.getSavedStatCalls()).isEqualTo(savedStatCalls + 1);
+  }
+
+  @Test
+  public void testInvokeAll() {
+    Set<Integer> processed = ConcurrentHashMap.newKeySet();
+    ParallelFileWalker.invokeAll(Arrays.asList(1, 2, 3, 4, 5), processed::add);
+    assertThat(processed).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+  }
+
+  private static class RecordingVisitor extends AbstractFileVisitor {
+    private final Set<Path>  files       = ConcurrentHashMap.newKeySet();
+    private final Set<Path>  folders     = ConcurrentHashMap.newKeySet();
+    private final List<Path> postVisited = new CopyOnWriteArrayList<>();
+
+    @Override
+    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+      folders.add(dir);
+      if (Files.exists(dir.resolve(".tmmignore"))) {
+        return FileVisitResult.SKIP_SUBTREE;
+      }
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+      files.add(file);
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+      postVisited.add(dir);
+      return FileVisitResult.CONTINUE;
+    }
+  }
+}
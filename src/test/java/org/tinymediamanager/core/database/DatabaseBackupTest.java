@@ -0,0 +1,133 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.junit.Test;
+import org.tinymediamanager.core.BasicTest;
+
+public class DatabaseBackupTest extends BasicTest {
+
+  @Test
+  public void testBackupAndRestore() throws Exception {
+    Path databaseFile = getWorkFolder().resolve("movies.db");
+    Path restoredFile = getWorkFolder().resolve("restored.db");
+    ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    DatabaseBackup backup = new DatabaseBackup(getWorkFolder().resolve("backup").resolve("movies.db"));
+    assertThat(backup.exists()).isFalse();
+    assertThat(backup.restore(restoredFile)).isFalse();
+
+    MVStore mvStore = new MVStore.Builder().fileName(databaseFile.toString()).open();
+    try {
+      MVMap<Integer, String> map = mvStore.openMap("movies");
+      for (int i = 0; i < 1000; i++) {
+        map.put(i, "movie " + i);
+      }
+      mvStore.commit();
+
+      // full backup
+      backup.backup(mvStore, lock);
+      assertThat(backup.exists()).isTrue();
+
+      // incremental backup
+      for (int i = 0; i < 10; i++) {
+        map.put(i, "changed movie " + i);
+      }
+      map.remove(999);
+      mvStore.commit();
+
+      backup.backup(mvStore, lock);
+
+      // incremental backup into the first mirror again
+      map.put(0, "changed movie 0 again");
+      mvStore.commit();
+
+      backup.backup(mvStore, lock);
+    }
+    finally {
+      mvStore.close();
+    }
+
+    assertThat(backup.restore(restoredFile)).isTrue();
+
+    MVStore restored = new MVStore.Builder().fileName(restoredFile.toString()).readOnly().open();
+    try {
+      MVMap<Integer, String> map = restored.openMap("movies");
+      assertThat(map.size()).isEqualTo(999);
+      assertThat(map.get(0)).isEqualTo("changed movie 0 again");
+      assertThat(map.get(1)).isEqualTo("changed movie 1");
+      assertThat(map.get(10)).isEqualTo("movie 10");
+      assertThat(map.containsKey(999)).isFalse();
+    }
+    finally {
+      restored.close();
+    }
+  }
+
+  @Test
+  public void testInterruptedBackup() throws Exception {
+    Path databaseFile = getWorkFolder().resolve("tvshows.db");
+    Path restoredFile = getWorkFolder().resolve("restored-tvshows.db");
+    Path backupFile = getWorkFolder().resolve("backup").resolve("tvshows.db");
+    ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    DatabaseBackup backup = new DatabaseBackup(backupFile);
+
+    MVStore mvStore = new MVStore.Builder().fileName(databaseFile.toString()).open();
+    try {
+      MVMap<Integer, String> map = mvStore.openMap("tvshows");
+      for (int i = 0; i < 100; i++) {
+        map.put(i, "tv show " + i);
+      }
+      mvStore.commit();
+
+      // two mirrors
+      backup.backup(mvStore, lock);
+      map.put(0, "changed tv show 0");
+      mvStore.commit();
+      backup.backup(mvStore, lock);
+    }
+    finally {
+      mvStore.close();
+    }
+
+    // simulate a backup which has been killed while updating the older mirror
+    Path olderMirror = backupFile;
+    Files.delete(olderMirror.resolveSibling(olderMirror.getFileName() + ".manifest"));
+    Files.write(olderMirror, new byte[] { 1, 2, 3 });
+
+    assertThat(backup.exists()).isTrue();
+    assertThat(backup.restore(restoredFile)).isTrue();
+
+    MVStore restored = new MVStore.Builder().fileName(restoredFile.toString()).readOnly().open();
+    try {
+      MVMap<Integer, String> map = restored.openMap("tvshows");
+      assertThat(map.size()).isEqualTo(100);
+      assertThat(map.get(0)).isEqualTo("changed tv show 0");
+    }
+    finally {
+      restored.close();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.junit.Test;
+import org.tinymediamanager.core.BasicTest;
+
+public class DatabaseCompactionServiceTest extends BasicTest {
+
+  @Test
+  public void testCompaction() throws Exception {
+    Path databaseFile = getWorkFolder().resolve("movies.db");
+    DatabaseCompactionService service = DatabaseCompactionService.getInstance();
+
+    MVStore mvStore = new MVStore.Builder().fileName(databaseFile.toString()).open();
+    try {
+      mvStore.setRetentionTime(0);
+
+      MVMap<Integer, String> map = mvStore.openMap("movies");
+      for (int round = 0; round < 5; round++) {
+        for (int i = 0; i < 10000; i++) {
+          map.put(i, "movie " + i + " - round " + round);
+        }
+        mvStore.commit();
+      }
+      for (int i = 0; i < 10000; i += 2) {
+        map.remove(i);
+      }
+      mvStore.commit();
+
+      service.register("movies.db", mvStore, new ReentrantLock());
+      assertThat(service.getStatistics()).hasSize(1);
+      assertThat(service.getStatistics().get(0)).startsWith("movies.db:");
+
+      long fileSize = Files.size(databaseFile);
+      service.compact(true);
+      service.compact(true);
+      assertThat(Files.size(databaseFile)).isLessThanOrEqualTo(fileSize);
+      assertThat(map.size()).isEqualTo(5000);
+      assertThat(map.get(1)).isEqualTo("movie 1 - round 4");
+    }
+    finally {
+      service.unregister("movies.db");
+      mvStore.close();
+    }
+
+    assertThat(service.getStatistics()).isEmpty();
+  }
+}
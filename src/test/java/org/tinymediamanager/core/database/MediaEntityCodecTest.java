@@ -0,0 +1,172 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.junit.Test;
+import org.tinymediamanager.core.BasicTest;
+import org.tinymediamanager.core.entities.MediaGenres;
+import org.tinymediamanager.core.entities.Person;
+import org.tinymediamanager.core.movie.entities.Movie;
+import org.tinymediamanager.core.tvshow.entities.TvShow;
+
+public class MediaEntityCodecTest extends BasicTest {
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Movie movie = createMovie();
+
+    MediaEntityCodec<Movie> jsonCodec = new MediaEntityCodec<>(Movie.class, DatabaseFormat.JSON);
+    MediaEntityCodec<Movie> smileCodec = new MediaEntityCodec<>(Movie.class, DatabaseFormat.SMILE);
+
+    Object json = jsonCodec.encode(movie);
+    Object smile = smileCodec.encode(movie);
+
+    assertThat(json).isInstanceOf(String.class);
+    assertThat(smile).isInstanceOf(byte[].class);
+    assertThat(jsonCodec.isCurrentFormat(json)).isTrue();
+    assertThat(smileCodec.isCurrentFormat(json)).isFalse();
+
+    // every codec must be able to read every format
+    for (MediaEntityCodec<Movie> codec : new MediaEntityCodec[] { jsonCodec, smileCodec }) {
+      for (Object value : new Object[] { json, smile }) {
+        Movie decoded = codec.decode(value);
+        assertThat(decoded.getTitle()).isEqualTo(movie.getTitle());
+        assertThat(decoded.getYear()).isEqualTo(movie.getYear());
+        assertThat(decoded.getPlot()).isEqualTo(movie.getPlot());
+        assertThat(decoded.getImdbId()).isEqualTo(movie.getImdbId());
+      }
+    }
+
+    // both formats must produce the same JSON tree
+    assertThat(smileCodec.toJsonNode(smile)).isEqualTo(jsonCodec.toJsonNode(json));
+  }
+
+  @Test
+  public void testMigration() throws Exception {
+    Movie movie = createMovie();
+    UUID uuid = UUID.randomUUID();
+
+    MediaEntityCodec<Movie> jsonCodec = new MediaEntityCodec<>(Movie.class, DatabaseFormat.JSON);
+    MediaEntityCodec<Movie> smileCodec = new MediaEntityCodec<>(Movie.class, DatabaseFormat.SMILE);
+
+    MVStore mvStore = MVStore.open(null);
+    try {
+      MVMap<UUID, Object> map = mvStore.openMap("movies");
+      map.put(uuid, jsonCodec.encode(movie));
+
+      smileCodec.migrate(map, Collections.singletonMap(uuid, smileCodec.decode(map.get(uuid))));
+
+      assertThat(map.get(uuid)).isInstanceOf(byte[].class);
+      assertThat(smileCodec.decode(map.get(uuid)).getTitle()).isEqualTo(movie.getTitle());
+    }
+    finally {
+      mvStore.close();
+    }
+  }
+
+  @Test
+  public void testLazyHydration() throws Exception {
+    Movie movie = createMovie();
+    movie.addToActors(Collections.singletonList(new Person(Person.Type.ACTOR, "Robin Williams", "Genie")));
+    movie.addToDirectors(Collections.singletonList(new Person(Person.Type.DIRECTOR, "Ron Clements")));
+
+    MediaEntityCodec<Movie> codec = new MediaEntityCodec<>(Movie.class, DatabaseFormat.SMILE, Movie.LAZY_PROPERTIES);
+    Object value = codec.encode(movie);
+
+    // the summary must not contain the lazy properties
+    Movie summary = codec.decodeSummary(value);
+    assertThat(summary.getActors()).isEmpty();
+    assertThat(summary.getDirectors()).isEmpty();
+    summary.dehydrate(entity -> codec.decode(value));
+    assertThat(summary.getTitle()).isEqualTo(movie.getTitle());
+    assertThat(summary.isHydrated()).isFalse();
+
+    // but they must be loaded on first access
+    assertThat(summary.getActors()).hasSize(1);
+    assertThat(summary.getActors().get(0).getName()).isEqualTo("Robin Williams");
+    assertThat(summary.getDirectors()).hasSize(1);
+    assertThat(summary.isHydrated()).isTrue();
+  }
+
+  @Test
+  public void testDehydration() throws Exception {
+    Movie movie = createMovie();
+    movie.addToActors(Collections.singletonList(new Person(Person.Type.ACTOR, "Robin Williams", "Genie")));
+
+    MediaEntityCodec<Movie> codec = new MediaEntityCodec<>(Movie.class, DatabaseFormat.SMILE, Movie.LAZY_PROPERTIES);
+    Object value = codec.encode(movie);
+
+    // lists which have been handed out (e.g. to the UI) keep their content
+    List<Person> actors = movie.getActors();
+    movie.dehydrate(entity -> codec.decode(value));
+    assertThat(actors).hasSize(1);
+    assertThat(movie.isHydrated()).isFalse();
+
+    assertThat(movie.getActors()).hasSize(1);
+    assertThat(movie.isHydrated()).isTrue();
+  }
+
+  @Test
+  public void testTvShowSummary() throws Exception {
+    TvShow tvShow = new TvShow();
+    tvShow.setTitle("Futurama");
+    tvShow.setYear(1999);
+    tvShow.setPlot("Philip J. Fry is cryogenically preserved for 1000 years.");
+    tvShow.addToGenres(Collections.singletonList(MediaGenres.ANIMATION));
+    tvShow.addToActors(Collections.singletonList(new Person(Person.Type.ACTOR, "Billy West", "Philip J. Fry")));
+
+    MediaEntityCodec<TvShow> codec = new MediaEntityCodec<>(TvShow.class, DatabaseFormat.SMILE, TvShow.LAZY_PROPERTIES, TvShow.SUMMARY_PROPERTIES);
+    Object value = codec.encode(tvShow);
+
+    // the check for actors must not load the lazy properties
+    TvShow summary = codec.decodeSummary(value);
+    summary.dehydrate(entity -> codec.decode(value));
+    assertThat(summary.isScraped()).isTrue();
+    assertThat(summary.isHydrated()).isFalse();
+  }
+
+  @Test
+  public void testSummaryProperties() throws Exception {
+    TvShow tvShow = new TvShow();
+    tvShow.setTitle("Futurama");
+    tvShow.addToActors(Collections.singletonList(new Person(Person.Type.ACTOR, "Billy West", "Philip J. Fry")));
+
+    // the amount of actors is only written if summaries are used
+    MediaEntityCodec<TvShow> codec = new MediaEntityCodec<>(TvShow.class, DatabaseFormat.JSON, Collections.emptyList(),
+        TvShow.SUMMARY_PROPERTIES);
+    assertThat((String) codec.encode(tvShow)).doesNotContain("actorCount").contains("Billy West");
+
+    codec = new MediaEntityCodec<>(TvShow.class, DatabaseFormat.JSON, TvShow.LAZY_PROPERTIES, TvShow.SUMMARY_PROPERTIES);
+    assertThat((String) codec.encode(tvShow)).contains("actorCount");
+  }
+
+  private Movie createMovie() {
+    Movie movie = new Movie();
+    movie.setTitle("Aladdin");
+    movie.setYear(1992);
+    movie.setPlot("Princess Jasmine grows tired of being forced to remain in the palace.");
+    movie.setImdbId("tt0103639");
+    return movie;
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.h2.mvstore.MVStore;
+import org.junit.Test;
+import org.tinymediamanager.core.BasicTest;
+import org.tinymediamanager.core.Constants;
+
+public class MediaEntityIndexTest extends BasicTest {
+
+  @Test
+  public void testIndex() {
+    MVStore mvStore = MVStore.open(null);
+    try {
+      MediaEntityIndex index = new MediaEntityIndex(mvStore, "index");
+
+      UUID uuid1 = UUID.randomUUID();
+      UUID uuid2 = UUID.randomUUID();
+
+      String path1 = MediaEntityLookup.pathKey(Paths.get("/movies/Aladdin (1992)"));
+      String path2 = MediaEntityLookup.pathKey(Paths.get("/movies/Aladdin (1992) 2"));
+      String dataSource = MediaEntityLookup.dataSourceKey("/movies");
+      String imdbId = MediaEntityLookup.idKey(Constants.IMDB, "tt0103639");
+
+      assertThat(index.put(uuid1, Arrays.asList(path1, dataSource, imdbId))).isTrue();
+      assertThat(index.put(uuid2, Arrays.asList(path2, dataSource))).isTrue();
+
+      // no changes
+      assertThat(index.put(uuid1, Arrays.asList(imdbId, path1, dataSource))).isFalse();
+
+      assertThat(index.get(path1)).containsExactly(uuid1);
+      assertThat(index.get(path2)).containsExactly(uuid2);
+      assertThat(index.get(dataSource)).containsExactlyInAnyOrder(uuid1, uuid2);
+      assertThat(index.get(imdbId)).containsExactly(uuid1);
+      assertThat(index.get(MediaEntityLookup.pathKey(Paths.get("/movies")))).isEmpty();
+      assertThat(index.getKeys(uuid1)).containsExactlyInAnyOrder(path1, dataSource, imdbId);
+
+      // change the path
+      String path3 = MediaEntityLookup.pathKey(Paths.get("/movies/Aladdin"));
+      index.put(uuid1, Arrays.asList(path3, dataSource, imdbId));
+      assertThat(index.get(path1)).isEmpty();
+      assertThat(index.get(path3)).containsExactly(uuid1);
+
+      // remove orphans
+      assertThat(index.retainAll(Collections.singletonList(uuid2))).isEqualTo(1);
+      assertThat(index.get(dataSource)).containsExactly(uuid2);
+      assertThat(index.get(imdbId)).isEmpty();
+      assertThat(index.getKeys(uuid1)).isEmpty();
+      assertThat(index.size()).isEqualTo(1);
+
+      index.remove(uuid2);
+      assertThat(index.get(dataSource)).isEmpty();
+      assertThat(index.size()).isZero();
+    }
+    finally {
+      mvStore.close();
+    }
+  }
+
+  @Test
+  public void testClean() {
+    MVStore mvStore = MVStore.open(null);
+    try {
+      MediaEntityIndex index = new MediaEntityIndex(mvStore, "index");
+
+      // a new index has never been closed cleanly
+      assertThat(index.isClean()).isFalse();
+
+      index.setClean(true);
+      assertThat(new MediaEntityIndex(mvStore, "index").isClean()).isTrue();
+
+      index.setClean(false);
+      assertThat(index.isClean()).isFalse();
+    }
+    finally {
+      mvStore.close();
+    }
+  }
+}
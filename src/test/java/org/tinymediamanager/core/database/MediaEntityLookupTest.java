@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.tinymediamanager.core.BasicTest;
+import org.tinymediamanager.core.Constants;
+import org.tinymediamanager.core.movie.entities.Movie;
+
+public class MediaEntityLookupTest extends BasicTest {
+
+  @Test
+  public void testLookup() {
+    MediaEntityLookup<Movie> lookup = new MediaEntityLookup<>();
+
+    Movie movie1 = new Movie();
+    Movie movie2 = new Movie();
+
+    String path1 = MediaEntityLookup.pathKey(Paths.get("/movies/Aladdin (1992)"));
+    String path2 = MediaEntityLookup.pathKey(Paths.get("/movies/Aladdin (1992) 2"));
+    String dataSource = MediaEntityLookup.dataSourceKey("/movies");
+    String imdbId = MediaEntityLookup.idKey(Constants.IMDB, "tt0103639");
+
+    lookup.put(movie1, Arrays.asList(path1, dataSource, imdbId));
+    lookup.put(movie2, Arrays.asList(path2, dataSource));
+
+    assertThat(lookup.size()).isEqualTo(2);
+    assertThat(lookup.get(path1)).containsExactly(movie1);
+    assertThat(lookup.get(path2)).containsExactly(movie2);
+    assertThat(lookup.get(dataSource)).containsExactlyInAnyOrder(movie1, movie2);
+    assertThat(lookup.get(imdbId)).containsExactly(movie1);
+    assertThat(lookup.get(MediaEntityLookup.pathKey(Paths.get("/movies")))).isEmpty();
+
+    // change the path
+    String path3 = MediaEntityLookup.pathKey(Paths.get("/movies/Aladdin"));
+    lookup.put(movie1, Arrays.asList(path3, dataSource, imdbId));
+    assertThat(lookup.get(path1)).isEmpty();
+    assertThat(lookup.get(path3)).containsExactly(movie1);
+
+    // no keys left
+    lookup.put(movie2, Collections.emptyList());
+    assertThat(lookup.get(dataSource)).containsExactly(movie1);
+    assertThat(lookup.size()).isEqualTo(1);
+
+    lookup.remove(movie1);
+    assertThat(lookup.get(dataSource)).isEmpty();
+    assertThat(lookup.get(imdbId)).isEmpty();
+    assertThat(lookup.size()).isZero();
+  }
+
+  @Test
+  public void testIndexKeys() {
+    Movie movie = new Movie();
+    movie.setPath("/movies/Aladdin (1992)");
+    movie.setDataSource("/movies");
+    movie.setImdbId("tt0103639");
+
+    List<String> keys = MediaEntityLookup.getIndexKeys(movie, Constants.IMDB, Constants.TMDB);
+    assertThat(keys).containsExactlyInAnyOrder(MediaEntityLookup.pathKey(Paths.get("/movies/Aladdin (1992)")),
+        MediaEntityLookup.dataSourceKey("/movies"), MediaEntityLookup.idKey(Constants.IMDB, "tt0103639"));
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.database;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.junit.Test;
+import org.tinymediamanager.core.BasicTest;
+import org.tinymediamanager.core.movie.entities.Movie;
+
+public class WriteBehindQueueTest extends BasicTest {
+
+  @Test
+  public void testWriteBehind() throws Exception {
+    MVStore mvStore = MVStore.open(null);
+    try {
+      MVMap<UUID, Object> map = mvStore.openMap("movies");
+      MediaEntityCodec<Movie> codec = new MediaEntityCodec<>(Movie.class, DatabaseFormat.SMILE);
+
+      WriteBehindQueue queue = new WriteBehindQueue("movies", mvStore, new ReentrantReadWriteLock(), 0);
+      queue.register(Movie.class, map, codec);
+
+      Movie movie1 = new Movie();
+      movie1.setTitle("Aladdin");
+      Movie movie2 = new Movie();
+      movie2.setTitle("The Lion King");
+
+      // multiple changes of the same entity are coalesced
+      queue.enqueue(movie1);
+      queue.enqueue(movie1);
+      queue.enqueue(movie2);
+      assertThat(queue.getQueueDepth()).isEqualTo(2);
+      assertThat(queue.isPending(movie1)).isTrue();
+      assertThat(map.size()).isZero();
+
+      queue.flush(true);
+      assertThat(queue.getQueueDepth()).isZero();
+      assertThat(queue.isPending(movie1)).isFalse();
+      assertThat(map.size()).isEqualTo(2);
+      assertThat(codec.decode(map.get(movie1.getDbId())).getTitle()).isEqualTo("Aladdin");
+
+      // unchanged entities must not be written again
+      Object value = map.get(movie2.getDbId());
+      queue.enqueue(movie2);
+      queue.flush(true);
+      assertThat(map.get(movie2.getDbId())).isSameAs(value);
+
+      // changed entities must be written
+      movie2.setTitle("The Lion King 2");
+      queue.enqueue(movie2);
+      queue.flush(true);
+      assertThat(codec.decode(map.get(movie2.getDbId())).getTitle()).isEqualTo("The Lion King 2");
+
+      // removing drops pending changes too
+      queue.enqueue(movie1);
+      queue.remove(movie1);
+      queue.flush(true);
+      assertThat(map.containsKey(movie1.getDbId())).isFalse();
+      assertThat(map.size()).isEqualTo(1);
+    }
+    finally {
+      mvStore.close();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.mediainfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.tinymediamanager.core.BasicTest;
+import org.tinymediamanager.thirdparty.MediaInfo.StreamKind;
+
+public class BoundedMediaInfoReaderTest extends BasicTest {
+
+  @Test
+  public void testBudget() throws Exception {
+    Path file = Files.write(getWorkFolder().resolve("budget.mkv"), new byte[10 * 1024]);
+
+    // no seek requested: the reserve for the seeks is not used
+    BoundedMediaInfoReader reader = new BoundedMediaInfoReader(4096, 1024);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      reader.feed(channel, 10 * 1024, new TestConsumer(-1, -1));
+    }
+    assertThat(reader.getBytesRead()).isEqualTo(3072);
+    assertThat(reader.getSeeks()).isZero();
+    assertThat(reader.isTruncated()).isTrue();
+
+    // seek to the end of the file after the first block: the whole budget may be used
+    reader = new BoundedMediaInfoReader(4096, 1024);
+    TestConsumer consumer = new TestConsumer(9 * 1024, -1);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      reader.feed(channel, 10 * 1024, consumer);
+    }
+    assertThat(reader.getBytesRead()).isEqualTo(2048);
+    assertThat(reader.getSeeks()).isEqualTo(1);
+    assertThat(consumer.positions).containsExactly(9L * 1024);
+    assertThat(reader.isTruncated()).isFalse();
+
+    // finalized after the second block
+    reader = new BoundedMediaInfoReader(4096, 1024);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      reader.feed(channel, 10 * 1024, new TestConsumer(-1, 2));
+    }
+    assertThat(reader.getBytesRead()).isEqualTo(2048);
+    assertThat(reader.isTruncated()).isFalse();
+  }
+
+  @Test
+  public void testComplete() {
+    Map<StreamKind, List<Map<String, String>>> snapshot = new EnumMap<>(StreamKind.class);
+    snapshot.put(StreamKind.General, Collections.singletonList(Collections.singletonMap("Format", "Matroska")));
+    assertThat(BoundedMediaInfoReader.isComplete(snapshot)).isFalse();
+
+    // duration, but no streams
+    snapshot.put(StreamKind.General, Collections.singletonList(Collections.singletonMap("Duration", "5400000")));
+    assertThat(BoundedMediaInfoReader.isComplete(snapshot)).isFalse();
+
+    snapshot.put(StreamKind.Audio, Collections.singletonList(Collections.singletonMap("Format", "AAC")));
+    assertThat(BoundedMediaInfoReader.isComplete(snapshot)).isTrue();
+  }
+
+  private static class TestConsumer implements BoundedMediaInfoReader.BufferConsumer {
+    private final long       seekPosition;
+    private final int        finalizeAfter;
+    private final List<Long> positions = new ArrayList<>();
+    private int              blocks    = 0;
+
+    private TestConsumer(long seekPosition, int finalizeAfter) {
+      this.seekPosition = seekPosition;
+      this.finalizeAfter = finalizeAfter;
+    }
+
+    @Override
+    public int consume(byte[] buffer, int length) {
+      blocks++;
+      return blocks == finalizeAfter ? 8 : 1;
+    }
+
+    @Override
+    public long seekRequest() {
+      return blocks == 1 ? seekPosition : -1;
+    }
+
+    @Override
+    public void seek(long position) {
+      positions.add(position);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.mediainfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+import org.tinymediamanager.core.BasicTest;
+import org.tinymediamanager.core.entities.MediaFile;
+import org.tinymediamanager.thirdparty.MediaInfo.StreamKind;
+
+public class MediaInfoCacheTest extends BasicTest {
+
+  @After
+  public void tearDown() {
+    MediaInfoCache.shutdown();
+  }
+
+  @Test
+  public void testKey() throws Exception {
+    byte[] content = new byte[200 * 1024];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+
+    Path file = Files.write(getWorkFolder().resolve("key.mkv"), content);
+    Path copy = Files.write(getWorkFolder().resolve("copy.mkv"), content);
+    Files.setLastModifiedTime(copy, Files.getLastModifiedTime(file));
+
+    assertThat(MediaInfoCache.getKey(file)).isNotNull().isEqualTo(MediaInfoCache.getKey(copy));
+
+    // another content at the end of the file
+    content[content.length - 1]++;
+    Files.write(copy, content);
+    Files.setLastModifiedTime(copy, Files.getLastModifiedTime(file));
+    assertThat(MediaInfoCache.getKey(copy)).isNotEqualTo(MediaInfoCache.getKey(file));
+
+    // empty files are not cached
+    assertThat(MediaInfoCache.getKey(Files.createFile(getWorkFolder().resolve("empty.mkv")))).isNull();
+  }
+
+  @Test
+  public void testMovedFile() throws Exception {
+    Path folder = Files.createDirectories(getWorkFolder().resolve("Aladdin (1992)"));
+    Path file = Files.write(folder.resolve("Aladdin (1992).mkv"), new byte[] { 1, 2, 3, 4 });
+
+    Map<StreamKind, List<Map<String, String>>> snapshot = Collections.singletonMap(StreamKind.General,
+        Collections.singletonList(Collections.singletonMap("Duration", "5000")));
+    MediaInfoFile mediaInfoFile = new MediaInfoFile(file, 4);
+    mediaInfoFile.setSnapshot(snapshot);
+    MediaInfoCache.put(new MediaFile(file), Collections.singletonList(mediaInfoFile));
+
+    // move the file to another folder
+    Path movedFolder = Files.createDirectories(getWorkFolder().resolve("Aladdin"));
+    Path movedFile = Files.move(file, movedFolder.resolve("Aladdin.mkv"));
+
+    List<MediaInfoFile> cached = MediaInfoCache.get(new MediaFile(movedFile));
+    assertThat(cached).hasSize(1);
+    assertThat(cached.get(0).getPath()).isEqualTo(movedFolder.toAbsolutePath().toString());
+    assertThat(cached.get(0).getFilename()).isEqualTo("Aladdin.mkv");
+    assertThat(cached.get(0).getDuration()).isEqualTo(5);
+    assertThat(cached.get(0).getSnapshot()).isEqualTo(snapshot);
+  }
+
+  @Test
+  public void testPrecomputedKey() throws Exception {
+    Path file = Files.write(getWorkFolder().resolve("Alien.mkv"), new byte[] { 5, 6, 7, 8 });
+    String key = MediaInfoCache.getKey(file);
+
+    // lookup and store with the key computed once
+    MediaFile mediaFile = new MediaFile(file);
+    assertThat(MediaInfoCache.get(mediaFile, key)).isEmpty();
+    MediaInfoCache.put(mediaFile, key, Collections.singletonList(new MediaInfoFile(file, 4)));
+    assertThat(MediaInfoCache.get(mediaFile, key)).hasSize(1);
+    assertThat(MediaInfoCache.get(mediaFile)).hasSize(1);
+
+    // no key - nothing is cached
+    assertThat(MediaInfoCache.get(mediaFile, null)).isEmpty();
+  }
+
+  @Test
+  public void testEvictOldest() throws Exception {
+    Path file = Files.write(getWorkFolder().resolve("Brazil.mkv"), new byte[] { 9, 10, 11, 12 });
+    MediaFile mediaFile = new MediaFile(file);
+
+    for (String key : new String[] { "c", "a", "b" }) {
+      MediaInfoCache.put(mediaFile, key, Collections.singletonList(new MediaInfoFile(file, 4)));
+      Thread.sleep(5);
+    }
+
+    // the first stored entry is dropped - not the first key
+    MediaInfoCache.evict(1);
+    assertThat(MediaInfoCache.get(mediaFile, "c")).isEmpty();
+    assertThat(MediaInfoCache.get(mediaFile, "a")).hasSize(1);
+    assertThat(MediaInfoCache.get(mediaFile, "b")).hasSize(1);
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.mediainfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.tinymediamanager.core.BasicTest;
+import org.tinymediamanager.thirdparty.MediaInfo.StreamKind;
+
+public class MediaInfoXMLParserTest extends BasicTest {
+
+  @Test
+  public void testStreamingParser() throws Exception {
+    List<Path> xmlFiles;
+    try (Stream<Path> stream = Files.walk(Paths.get("src/test/resources"))) {
+      xmlFiles = stream.filter(path -> path.getFileName().toString().endsWith("-mediainfo.xml")).collect(Collectors.toList());
+    }
+    assertThat(xmlFiles).isNotEmpty();
+
+    for (Path xmlFile : xmlFiles) {
+      MediaInfoXMLParser parser = new MediaInfoXMLParser(xmlFile);
+      List<MediaInfoFile> expected = parser.parseXMLDocument();
+      List<MediaInfoFile> actual = parser.parseXMLStreaming();
+
+      assertThat(actual).as(xmlFile.toString()).hasSameSizeAs(expected);
+      for (int i = 0; i < expected.size(); i++) {
+        assertThat(actual.get(i).getFilename()).as(xmlFile.toString()).isEqualTo(expected.get(i).getFilename());
+        assertThat(actual.get(i).getFilesize()).as(xmlFile.toString()).isEqualTo(expected.get(i).getFilesize());
+        assertThat(actual.get(i).getDuration()).as(xmlFile.toString()).isEqualTo(expected.get(i).getDuration());
+        assertThat(withoutChapters(actual.get(i).getSnapshot())).as(xmlFile.toString()).isEqualTo(withoutChapters(expected.get(i).getSnapshot()));
+      }
+    }
+  }
+
+  @Test
+  public void testChapterTags() throws Exception {
+    // Jsoup takes tags starting with _ (chapters in the <extra> tag) as text
+    List<MediaInfoFile> files = new MediaInfoXMLParser(Paths.get("src/test/resources/testmovies/MediainfoXML/tags-mediainfo.xml"))
+        .parseXMLStreaming();
+
+    assertThat(files).hasSize(1);
+    Map<String, String> menu = files.get(0).getSnapshot().get(StreamKind.Menu).get(0);
+    assertThat(menu).containsEntry("extra/_00_00_00_000", "Feature Start");
+    assertThat(menu).containsEntry("extra/_02_14_25_131", "End Credits");
+  }
+
+  /**
+   * the chapter tags and the content of the <extra> tags differ between the parsers (see testChapterTags)
+   */
+  private Map<StreamKind, List<Map<String, String>>> withoutChapters(Map<StreamKind, List<Map<String, String>>> snapshot) {
+    Map<StreamKind, List<Map<String, String>>> result = new EnumMap<>(StreamKind.class);
+    for (Map.Entry<StreamKind, List<Map<String, String>>> entry : snapshot.entrySet()) {
+      List<Map<String, String>> streams = new ArrayList<>();
+      for (Map<String, String> stream : entry.getValue()) {
+        Map<String, String> filtered = new LinkedHashMap<>(stream);
+        filtered.keySet().removeIf(key -> key.startsWith("_") || key.equals("extra") || key.startsWith("extra/"));
+        streams.add(filtered);
+      }
+      result.put(entry.getKey(), streams);
+    }
+    return result;
+  }
+}
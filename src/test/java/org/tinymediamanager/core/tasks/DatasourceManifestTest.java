@@ -0,0 +1,167 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.tasks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.tinymediamanager.core.BasicTest;
+
+public class DatasourceManifestTest extends BasicTest {
+
+  @Test
+  public void testManifest() throws Exception {
+    Path datasource = getWorkFolder().resolve("movies");
+    Path movie1 = datasource.resolve("Aladdin (1992)");
+    Path movie2 = datasource.resolve("Bambi (1942)");
+
+    Files.createDirectories(movie1.resolve("extras"));
+    Files.createDirectories(movie2);
+    Files.createFile(movie1.resolve("Aladdin (1992).mkv"));
+    Files.createFile(movie1.resolve("extras").resolve("trailer.mkv"));
+    Files.createFile(movie2.resolve("Bambi (1942).mkv"));
+
+    // make the modification times reliable (outside of the racy window)
+    FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 3600000);
+    for (Path folder : Arrays.asList(movie1, movie1.resolve("extras"), movie2)) {
+      Files.setLastModifiedTime(folder, past);
+    }
+
+    List<Path> roots = Arrays.asList(movie1, movie2);
+
+    DatasourceManifest manifest = DatasourceManifest.load("test", datasource.toString(), "fingerprint");
+    assertThat(manifest.isUnchanged(movie1)).isFalse();
+
+    for (Path root : roots) {
+      record(manifest, root);
+      manifest.setEntityCount(root, 1);
+    }
+    manifest.save(roots);
+
+    // reload
+    manifest = DatasourceManifest.load("test", datasource.toString(), "fingerprint");
+    assertThat(manifest.isUnchanged(movie1)).isTrue();
+    assertThat(manifest.isUnchanged(movie2)).isTrue();
+    assertThat(manifest.getEntityCount(movie1)).isEqualTo(1);
+
+    // a new file in a sub folder
+    Files.createFile(movie1.resolve("extras").resolve("behind the scenes.mkv"));
+    assertThat(manifest.isUnchanged(movie1)).isFalse();
+    assertThat(manifest.isUnchanged(movie2)).isTrue();
+
+    manifest.invalidate(movie2);
+    assertThat(manifest.isUnchanged(movie2)).isFalse();
+    assertThat(manifest.getEntityCount(movie2)).isEqualTo(-1);
+
+    // other settings
+    manifest = DatasourceManifest.load("test", datasource.toString(), "other fingerprint");
+    assertThat(manifest.isUnchanged(movie2)).isFalse();
+  }
+
+  @Test
+  public void testCheckpoint() throws Exception {
+    Path datasource = getWorkFolder().resolve("checkpoint");
+    Path movie1 = datasource.resolve("Aladdin (1992)");
+    Path movie2 = datasource.resolve("Bambi (1942)");
+    Path video = movie1.resolve("Aladdin (1992).mkv");
+
+    Files.createDirectories(movie1);
+    Files.createDirectories(movie2);
+    Files.createFile(video);
+
+    FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 3600000);
+    for (Path folder : Arrays.asList(movie1, movie2)) {
+      Files.setLastModifiedTime(folder, past);
+    }
+
+    List<Path> roots = Arrays.asList(movie1, movie2);
+    AtomicBoolean cancel = new AtomicBoolean(false);
+
+    DatasourceManifest manifest = DatasourceManifest.load("test", datasource.toString(), "fingerprint");
+    ScanCheckpoint checkpoint = new ScanCheckpoint(manifest, roots, cancel::get);
+
+    // movie1 is completed after the walk and the parsing
+    checkpoint.startFolder(movie1);
+    Callable<Object> parseTask = checkpoint.track(movie1, () -> "parsed");
+    record(manifest, movie1);
+    checkpoint.finishFolder(movie1, true);
+    assertThat(checkpoint.isCompleted(movie1)).isFalse();
+    assertThat(parseTask.call()).isEqualTo("parsed");
+    assertThat(checkpoint.isCompleted(movie1)).isTrue();
+
+    // movie2 is interrupted
+    checkpoint.startFolder(movie2);
+    record(manifest, movie2);
+    checkpoint.trackMediaInfo(video, () -> {
+    });
+    cancel.set(true);
+    checkpoint.finishFolder(movie2, false);
+    checkpoint.save();
+
+    // resume
+    manifest = DatasourceManifest.load("test", datasource.toString(), "fingerprint");
+    checkpoint = new ScanCheckpoint(manifest, roots, () -> false);
+    assertThat(checkpoint.isCompleted(movie1)).isTrue();
+    assertThat(checkpoint.hasVideos(movie1)).isTrue();
+    assertThat(checkpoint.isCompleted(movie2)).isFalse();
+    assertThat(checkpoint.isMediaInfoPending(video)).isTrue();
+
+    // a changed folder has to be scanned again
+    Files.createFile(movie1.resolve("Aladdin (1992).nfo"));
+    assertThat(checkpoint.isCompleted(movie1)).isFalse();
+
+    // the MediaInfo has been fetched and the scan is done
+    checkpoint.trackMediaInfo(video, () -> {
+    }).run();
+    checkpoint.finishScan();
+    checkpoint.save();
+
+    manifest = DatasourceManifest.load("test", datasource.toString(), "fingerprint");
+    checkpoint = new ScanCheckpoint(manifest, roots, () -> false);
+    assertThat(checkpoint.hasVideos(movie1)).isFalse();
+    assertThat(checkpoint.isMediaInfoPending(video)).isFalse();
+  }
+
+  private void record(DatasourceManifest manifest, Path root) throws IOException {
+    DatasourceManifest.Recorder recorder = manifest.newRecorder();
+    Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+        recorder.folder(dir, attrs, false);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        recorder.file(file);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    recorder.commit();
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2012 - 2022 Manuel Laggner
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.tinymediamanager.core.tasks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.tinymediamanager.core.BasicTest;
+
+public class MediaInfoSchedulerTest extends BasicTest {
+
+  @Test
+  public void testSchedule() throws Exception {
+    Path folder = getWorkFolder();
+    MediaInfoScheduler scheduler = new MediaInfoScheduler(2);
+
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    Map<Integer, AtomicInteger> runningGroups = new ConcurrentHashMap<>();
+    Set<Integer> groupCollisions = ConcurrentHashMap.newKeySet();
+    Set<Integer> done = ConcurrentHashMap.newKeySet();
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 20; i++) {
+      int id = i;
+      Integer group = i / 4;
+      executor.execute(scheduler.schedule(folder.resolve("movie" + i + ".mkv"), group, () -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        if (runningGroups.computeIfAbsent(group, key -> new AtomicInteger()).incrementAndGet() > 1) {
+          groupCollisions.add(group);
+        }
+        try {
+          Thread.sleep(10);
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        runningGroups.get(group).decrementAndGet();
+        running.decrementAndGet();
+        done.add(id);
+      }));
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+    // all files are on the same device
+    assertThat(scheduler.getThreadCount()).isEqualTo(2);
+    assertThat(done).hasSize(20);
+    assertThat(maxRunning.get()).isEqualTo(2);
+    assertThat(groupCollisions).isEmpty();
+  }
+}